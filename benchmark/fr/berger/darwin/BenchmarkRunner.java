@@ -0,0 +1,24 @@
+package fr.berger.darwin;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run all the benchmarks with the GC profiler, to report the allocation rate ({@code gc.alloc.rate.norm}, in bytes per
+ * operation) along with the throughput. The first argument, if any, is a regular expression filtering the benchmarks
+ * (for instance {@code PopulationBenchmark}).
+ */
+public class BenchmarkRunner {
+	
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "fr\\.berger\\.darwin\\..*Benchmark")
+				.addProfiler(GCProfiler.class)
+				.build();
+		
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,120 @@
+package fr.berger.darwin;
+
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.connection.NeuralNetwork;
+import fr.berger.darwin.connection.Networks;
+import fr.berger.darwin.connection.dense.DenseNetwork;
+import fr.berger.darwin.connection.dense.DenseNetworkCodec;
+import fr.berger.darwin.remixed.GeneCodec;
+import fr.berger.darwin.remixed.Individual;
+import fr.berger.darwin.remixed.Population;
+import fr.berger.darwin.remixed.PopulationCodec;
+import fr.berger.darwin.remixed.SentenceMutable;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Java serialization round-trips (write then read back) of an individual and of a network, and round-trips of the
+ * individuals of a population with the Java serialization and with {@link PopulationCodec}. The network is also written
+ * then read back in its compiled form with {@link DenseNetworkCodec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmark {
+	
+	@Param({ "2-3-1", "16-32-4" })
+	private String topology;
+	
+	private Individual<String> individual;
+	private NeuralNetwork network;
+	private DenseNetwork dense;
+	private Population<String> population;
+	
+	@Setup
+	public void setup() {
+		Irregular.getGenerator().setSeed(42L);
+		individual = new SentenceMutable().generateRandom();
+		network = Networks.create(topology);
+		dense = network.compile();
+		population = new Population<>(new ArrayList<>(), 1000, new SentenceMutable());
+		population.evaluate();
+	}
+	
+	@Benchmark
+	public Object individualRoundTrip() throws IOException, ClassNotFoundException {
+		return roundTrip(individual);
+	}
+	
+	@Benchmark
+	public Object neuralNetworkRoundTrip() throws IOException, ClassNotFoundException {
+		return roundTrip(network);
+	}
+	
+	@Benchmark
+	public Object denseNetworkCodecRoundTrip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DenseNetworkCodec.write(dense, Channels.newChannel(bytes));
+		return DenseNetworkCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+	
+	@Benchmark
+	public Object individualsRoundTrip() throws IOException, ClassNotFoundException {
+		ArrayList<Individual<String>> individuals = new ArrayList<>(population.getIndividuals().size());
+		for (Individual<String> individual : population)
+			individuals.add(individual);
+		
+		return roundTrip(individuals);
+	}
+	
+	@Benchmark
+	public Object individualsCodecRoundTrip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (PopulationCodec.Writer<String> writer = new PopulationCodec.Writer<>(Channels.newChannel(bytes), PopulationCodec.Header.of(population, population), GeneCodec.STRING)) {
+			for (Individual<String> individual : population)
+				writer.write(individual);
+		}
+		
+		ArrayList<Individual<String>> individuals = new ArrayList<>(population.getIndividuals().size());
+		try (PopulationCodec.Reader<String> reader = new PopulationCodec.Reader<>(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), GeneCodec.STRING)) {
+			while (reader.hasNext())
+				individuals.add(reader.next());
+		}
+		
+		return individuals;
+	}
+	
+	@NotNull
+	private static Object roundTrip(@NotNull Object object) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(object);
+		}
+		
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return input.readObject();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package fr.berger.darwin.connection;
+
+import fr.berger.arrow.Ref;
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import fr.berger.darwin.connection.neurallayers.HiddenLayer;
+import fr.berger.darwin.connection.neurallayers.InputLayer;
+import fr.berger.darwin.connection.neurallayers.InputLayerBuilder;
+import fr.berger.darwin.connection.neurallayers.OutputLayer;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+
+/**
+ * Fully connected networks used by the benchmarks.
+ */
+public class Networks {
+	
+	private Networks() { }
+	
+	/**
+	 * Create a fully connected network with random weights.
+	 * @param topology The number of neurons per layer, separated by dashes, from the inputs to the outputs (for
+	 *                 instance {@code "16-32-4"} has 16 inputs, a hidden layer of 32 neurons and 4 outputs).
+	 * @return The network.
+	 */
+	@NotNull
+	public static NeuralNetwork create(@NotNull String topology) {
+		String[] parts = topology.split("-");
+		if (parts.length < 2)
+			throw new IllegalArgumentException("A topology needs at least the inputs and the outputs: \"" + topology + "\".");
+		
+		int[] sizes = new int[parts.length];
+		for (int i = 0; i < parts.length; i++)
+			sizes[i] = Integer.parseInt(parts[i].trim());
+		
+		Sigmoid sigmoid = new Sigmoid(1);
+		
+		// Layers of neurons, after the inputs
+		ArrayList<Lexicon<Neuron>> layers = new ArrayList<>(sizes.length - 1);
+		for (int l = 1; l < sizes.length; l++) {
+			Lexicon<Neuron> neurons = new Lexicon<>(Neuron.class, sizes[l]);
+			
+			for (int n = 0; n < sizes[l]; n++)
+				neurons.add(new NeuronBuilder()
+						.setWeights(randomWeights(sizes[l - 1] + 1))
+						.setActivationHandler(sigmoid)
+						.createNeuron());
+			
+			layers.add(neurons);
+		}
+		
+		// Every neuron is connected to all the neurons of the next layer
+		for (int l = 0; l < layers.size() - 1; l++)
+			for (Neuron neuron : layers.get(l))
+				for (Neuron next : layers.get(l + 1))
+					neuron.getSynapses().add(new Ref<>(next));
+		
+		InputLayerBuilder inputLayerBuilder = new InputLayerBuilder();
+		for (int i = 0; i < sizes[0]; i++) {
+			double input = Irregular.rangeDouble(0.0, true, 1.0, true);
+			for (Neuron neuron : layers.get(0))
+				inputLayerBuilder.addDendrite(input, new Ref<>(neuron));
+		}
+		InputLayer inputLayer = inputLayerBuilder.createInputLayer();
+		
+		ArrayList<HiddenLayer> hiddenLayers = new ArrayList<>(layers.size() - 1);
+		for (int l = 0; l < layers.size() - 1; l++)
+			hiddenLayers.add(new HiddenLayer(layers.get(l)));
+		
+		return new NeuralNetwork(inputLayer, new OutputLayer(layers.get(layers.size() - 1)), hiddenLayers);
+	}
+	
+	@NotNull
+	public static double[] randomWeights(int length) {
+		double[] weights = new double[length];
+		for (int i = 0; i < length; i++)
+			weights[i] = Irregular.rangeDouble(-1.0, true, 1.0, true);
+		
+		return weights;
+	}
+}
@@ -0,0 +1,102 @@
+package fr.berger.darwin.connection;
+
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.connection.dense.ActivationContext;
+import fr.berger.darwin.connection.dense.DenseNetwork;
+import fr.berger.darwin.connection.dense.MappedDenseNetwork;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forward pass of fully connected networks (see {@link Networks#create(String)}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NeuralNetworkBenchmark {
+	
+	private static final int BATCH = 1024;
+	
+	@Param({ "2-3-1", "16-32-4", "64-128-64-8" })
+	private String topology;
+	
+	private NeuralNetwork network;
+	private DenseNetwork dense;
+	private double[] inputs;
+	private double[] outputs;
+	private ActivationContext context;
+	private double[] batchInputs;
+	private double[] batchOutputs;
+	private Path file;
+	private MappedDenseNetwork mapped;
+	
+	@Setup
+	public void setup() throws IOException {
+		Irregular.getGenerator().setSeed(42L);
+		network = Networks.create(topology);
+		dense = network.compile();
+		inputs = dense.getDefaultInputs();
+		outputs = new double[dense.getOutputSize()];
+		context = dense.newContext();
+		batchInputs = new double[BATCH * dense.getInputSize()];
+		for (int i = 0; i < batchInputs.length; i++)
+			batchInputs[i] = Irregular.rangeDouble(0.0, true, 1.0, true);
+		batchOutputs = new double[BATCH * dense.getOutputSize()];
+		
+		file = Files.createTempFile("darwin", ".weights");
+		MappedDenseNetwork.write(dense, file);
+		mapped = MappedDenseNetwork.map(file, dense);
+	}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+	
+	/**
+	 * The inputs of the neurons are cleared at each pass, it is part of the measure.
+	 */
+	@Benchmark
+	public Lexicon<Double> activate() {
+		return network.activate();
+	}
+	
+	@Benchmark
+	public double[] activateCompiled() {
+		dense.activate(context, inputs, outputs);
+		return outputs;
+	}
+	
+	@Benchmark
+	public double[] activateMapped() {
+		mapped.activate(context, inputs, outputs);
+		return outputs;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public double[] activateBatch() {
+		dense.activate(context, batchInputs, batchOutputs, BATCH);
+		return batchOutputs;
+	}
+}
@@ -0,0 +1,79 @@
+package fr.berger.darwin.connection;
+
+import fr.berger.arrow.Ref;
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import fr.berger.darwin.connection.neurallayers.HiddenLayer;
+import fr.berger.enhancedlist.Couple;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single neuron, and a layer of {@code inputs} neurons sharing the same inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NeuronBenchmark {
+	
+	@Param({ "4", "64", "512" })
+	private int inputs;
+	
+	private Neuron neuron;
+	private HiddenLayer layer;
+	
+	@Setup
+	public void setup() {
+		Irregular.getGenerator().setSeed(42L);
+		
+		double[] values = Networks.randomWeights(inputs);
+		Sigmoid sigmoid = new Sigmoid(1);
+		
+		neuron = new NeuronBuilder()
+				.setInputs(values)
+				.setWeights(Networks.randomWeights(inputs + 1))
+				.setActivationHandler(sigmoid)
+				.createNeuron();
+		
+		Neuron[] neurons = new Neuron[inputs];
+		for (int i = 0; i < inputs; i++)
+			neurons[i] = new NeuronBuilder()
+					.setInputs(values)
+					.setWeights(Networks.randomWeights(inputs + 1))
+					.setActivationHandler(sigmoid)
+					.setSynapses(new Ref<>(neuron))
+					.createNeuron();
+		
+		layer = new HiddenLayer(neurons);
+	}
+	
+	@Benchmark
+	public double sum() {
+		return neuron.sum();
+	}
+	
+	@Benchmark
+	public double activate() {
+		return neuron.activate();
+	}
+	
+	@Benchmark
+	public Lexicon<Couple<Double, Ref<Neuron>>> activateLayer() {
+		return layer.activate();
+	}
+}
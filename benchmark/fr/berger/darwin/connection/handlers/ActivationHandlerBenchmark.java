@@ -0,0 +1,81 @@
+package fr.berger.darwin.connection.handlers;
+
+import fr.berger.beyondcode.util.Irregular;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activation of a layer of {@code length} values, one call per value or one call for the whole array.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ActivationHandlerBenchmark {
+	
+	@Param({ "sigmoid", "tanh", "linear", "threshold", "gaussian" })
+	private String handlerName;
+	
+	@Param({ "1024" })
+	private int length;
+	
+	private ActivationHandler handler;
+	private double[] in;
+	private double[] out;
+	
+	@Setup
+	public void setup() {
+		Irregular.getGenerator().setSeed(42L);
+		
+		switch (handlerName) {
+			case "sigmoid":
+				handler = new Sigmoid(1.0);
+				break;
+			case "tanh":
+				handler = new HyperbolicTangent(1.0);
+				break;
+			case "linear":
+				handler = new Linear(0.5);
+				break;
+			case "threshold":
+				handler = new HardLimitingThreshold(0.0);
+				break;
+			case "gaussian":
+				handler = new GaussianCurve(0.0, 1.0);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown handler: " + handlerName);
+		}
+		
+		in = new double[length];
+		for (int i = 0; i < length; i++)
+			in[i] = Irregular.rangeDouble(-4.0, true, 4.0, true);
+		out = new double[length];
+	}
+	
+	@Benchmark
+	public double[] activateEach() {
+		for (int i = 0; i < length; i++)
+			out[i] = handler.activate(in[i]);
+		return out;
+	}
+	
+	@Benchmark
+	public double[] activateArray() {
+		handler.activate(in, out, length);
+		return out;
+	}
+}
@@ -0,0 +1,93 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.util.SplitMixRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the genetic algorithm, on the problem of {@code PopulationTest}.
+ * <p>
+ * The population is created again before each iteration with the same seed, so every iteration measures the same
+ * generations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PopulationBenchmark {
+	
+	@Param({ "128", "512", "2048" })
+	private int size;
+	
+	private Population<String> population;
+	
+	private SteadyStateEvolution<String> steadyState;
+	
+	@Setup(Level.Iteration)
+	public void setup() {
+		// SentenceMutable draws from the shared generator, the population from its own one
+		Irregular.getGenerator().setSeed(42L);
+		population = new Population<>(new ArrayList<>(), size, 0.2f, 0.03f, 0.8f, new SentenceMutable(), new SplitMixRandom(42L));
+		population.evaluate();
+		steadyState = new SteadyStateEvolution<>(population);
+	}
+	
+	@Benchmark
+	public Population<String> evolve() {
+		population.evolve();
+		return population;
+	}
+	
+	@Benchmark
+	public Population<String> evolveQuiet() {
+		population.setQuiet(true);
+		population.evolve();
+		return population;
+	}
+	
+	/**
+	 * {@link SentenceMutable} is not a {@link RecyclingMutable}: only the lists of the generation are reused.
+	 */
+	@Benchmark
+	public Population<String> evolveRecycling() {
+		population.setRecycling(true);
+		population.evolve();
+		return population;
+	}
+	
+	/**
+	 * One step breeds two children: {@code size / 2} steps evaluate as many children as a generation.
+	 */
+	@Benchmark
+	public SteadyStateEvolution<String> steadyStateStep() {
+		steadyState.step();
+		return steadyState;
+	}
+	
+	@Benchmark
+	public ArrayList<Individual<String>> selectParents() {
+		return population.selectParents();
+	}
+	
+	@Benchmark
+	public Population<String> evaluate() {
+		population.evaluate();
+		return population;
+	}
+}
@@ -0,0 +1,77 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.beyondcode.util.Irregular;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+
+/**
+ * Fitness function and operators of {@code PopulationTest}: the individuals must find a target sentence. The genome
+ * is a single chromosome containing a single gene (the sentence).
+ */
+public class SentenceMutable implements Mutable<String> {
+	
+	@NotNull
+	private final String target;
+	
+	public SentenceMutable(@NotNull String target) {
+		this.target = target;
+	}
+	public SentenceMutable() {
+		this("I'm learning to write this sentence.");
+	}
+	
+	@Override
+	public double calculateFitness(@NotNull Individual<String> individual) {
+		String data = individual.getChromosomes().get(0).getGenes().get(0).getData();
+		
+		double fitness = 0;
+		for (int i = 0; i < Integer.min(data.length(), target.length()); i++)
+			fitness += -Math.abs(((int) data.charAt(i)) - ((int) target.charAt(i)));
+		
+		return fitness;
+	}
+	
+	@NotNull
+	@Override
+	public Individual<String> mutate(@NotNull Individual<String> individual) {
+		String gene = individual.getChromosomes().get(0).getGenes().get(0).getData();
+		
+		int i = Irregular.rangeInt(0, true, gene.length(), false);
+		char delta = Irregular.rangeChar((char) 32, true, (char) 126, true);
+		
+		StringBuilder geneBuilder = new StringBuilder(gene);
+		geneBuilder.setCharAt(i, delta);
+		
+		individual.getChromosomes().get(0).getGenes().get(0).setData(geneBuilder.toString());
+		
+		return individual;
+	}
+	
+	@NotNull
+	@Override
+	public ArrayList<Individual<String>> mate(@NotNull Individual<String> parent1, @NotNull Individual<String> parent2) {
+		String g1 = parent1.getChromosomes().get(0).getGenes().get(0).getData();
+		String g2 = parent2.getChromosomes().get(0).getGenes().get(0).getData();
+		
+		int pivot = Irregular.rangeInt(0, true, Integer.min(g1.length(), g2.length()), false);
+		
+		ArrayList<Individual<String>> children = new ArrayList<>(2);
+		children.add(create(g1.substring(0, pivot) + g2.substring(pivot)));
+		children.add(create(g2.substring(0, pivot) + g1.substring(pivot)));
+		
+		return children;
+	}
+	
+	@NotNull
+	@Override
+	public Individual<String> generateRandom() {
+		return create(Irregular.rangeString(target.length(), target.length(), true, false));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@NotNull
+	private static Individual<String> create(@NotNull String sentence) {
+		return new Individual<>(new Chromosome<>(new Gene<>(sentence)));
+	}
+}
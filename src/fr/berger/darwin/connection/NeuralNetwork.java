@@ -1,11 +1,14 @@
 package fr.berger.darwin.connection;
 
 import fr.berger.arrow.Ref;
-import fr.berger.beyondcode.util.EnhancedObservable;
+import fr.berger.darwin.connection.dense.ActivationContext;
+import fr.berger.darwin.connection.dense.DenseNetwork;
 import fr.berger.darwin.connection.neurallayers.HiddenLayer;
 import fr.berger.darwin.connection.neurallayers.InputLayer;
 import fr.berger.darwin.connection.neurallayers.NeuralLayer;
 import fr.berger.darwin.connection.neurallayers.OutputLayer;
+import fr.berger.darwin.util.Notifications;
+import fr.berger.darwin.util.QuietObservable;
 import fr.berger.enhancedlist.Couple;
 import fr.berger.enhancedlist.ListUtil;
 import fr.berger.enhancedlist.lexicon.Lexicon;
@@ -19,7 +22,7 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Objects;
 
-public class NeuralNetwork extends EnhancedObservable implements Serializable, Cloneable {
+public class NeuralNetwork extends QuietObservable implements Serializable, Cloneable {
 	
 	/* PROPERTIES */
 	
@@ -30,6 +33,11 @@ public class NeuralNetwork extends EnhancedObservable implements Serializable, C
 	@NotNull
 	private OutputLayer outputLayer;
 	
+	/**
+	 * If true, the notifications of the neurons and layers are coalesced during {@link #activate()}.
+	 */
+	private transient boolean quiet;
+	
 	/* CONSTRUCTORS & INITIALIZING METHODS */
 	
 	public NeuralNetwork(@NotNull InputLayer inputLayer, @NotNull OutputLayer outputLayer, @Nullable Lexicon<HiddenLayer> hiddenLayers) {
@@ -82,9 +90,32 @@ public class NeuralNetwork extends EnhancedObservable implements Serializable, C
 		return neurons;
 	}
 	
+	/**
+	 * Run the network on the values of the dendrites of its input layer. The inputs received by the neurons during the
+	 * previous call are cleared first, so the network can be activated several times. The neurons are modified during
+	 * the call: to activate a network from several threads, use {@link #compile()} and
+	 * {@link DenseNetwork#activate(ActivationContext, double[], double[])} instead.
+	 * <p>
+	 * If the network is quiet (see {@link #setQuiet(boolean)}), the notifications of the neurons and layers changed
+	 * during the forward pass are coalesced and sent at the end of the call.
+	 * @return The outputs of the network.
+	 */
+	@SuppressWarnings("try")
 	public Lexicon<Double> activate() {
+		if (!isQuiet())
+			return forward();
+		
+		try (Notifications.Scope ignored = Notifications.quiet()) {
+			return forward();
+		}
+	}
+	
+	@NotNull
+	private Lexicon<Double> forward() {
 		Lexicon<Couple<Double, Ref<Neuron>>> synapses;
 		
+		clearInputs();
+		
 		NeuralLayer currentLayer = getInputLayer();
 		
 		NeuralLayer nextLayer = null;
@@ -122,6 +153,38 @@ public class NeuralNetwork extends EnhancedObservable implements Serializable, C
 		return output;
 	}
 	
+	/**
+	 * Clear the inputs that the hidden and output neurons received from the previous layer.
+	 */
+	private void clearInputs() {
+		for (HiddenLayer hiddenLayer : getHiddenLayers())
+			for (Neuron neuron : hiddenLayer.getNeurons())
+				neuron.getInputs().clear();
+		
+		for (Neuron neuron : getOutputLayer().getNeurons())
+			neuron.getInputs().clear();
+	}
+	
+	/**
+	 * Compile the network in a dense form, faster to activate (see {@link DenseNetwork#compile(NeuralNetwork)}).
+	 * @return The compiled network. It is not updated when this network changes.
+	 */
+	@NotNull
+	public DenseNetwork compile() {
+		return DenseNetwork.compile(this);
+	}
+	
+	/**
+	 * Run the network on a batch of inputs (see {@link DenseNetwork#activate(double[][])}). The network is compiled at
+	 * each call: use {@link #compile()} once to activate it several times.
+	 * @param inputs The rows of inputs.
+	 * @return The rows of outputs.
+	 */
+	@NotNull
+	public double[][] activate(@NotNull double[][] inputs) {
+		return compile().activate(inputs);
+	}
+	
 	/* GETTERS & SETTERS */
 	
 	@SuppressWarnings("ConstantConditions")
@@ -195,6 +258,18 @@ public class NeuralNetwork extends EnhancedObservable implements Serializable, C
 		setOutputLayer(new OutputLayer());
 	}
 	
+	public boolean isQuiet() {
+		return quiet;
+	}
+	
+	/**
+	 * Set the quiet mode of {@link #activate()} (see {@link Notifications}). It is not serialized.
+	 * @param quiet True to coalesce the notifications of each forward pass.
+	 */
+	public void setQuiet(boolean quiet) {
+		this.quiet = quiet;
+	}
+	
 	/* SERIALIZATION METHODS */
 	
 	private void writeObject(@NotNull ObjectOutputStream stream) throws IOException {
@@ -2,9 +2,10 @@ package fr.berger.darwin.connection;
 
 import fr.berger.arrow.Ref;
 import fr.berger.beyondcode.annotations.Positive;
-import fr.berger.beyondcode.util.EnhancedObservable;
 import fr.berger.beyondcode.util.Irregular;
 import fr.berger.darwin.connection.handlers.ActivationHandler;
+import fr.berger.darwin.connection.neurallayers.NeuralLayer;
+import fr.berger.darwin.util.QuietObservable;
 import fr.berger.enhancedlist.lexicon.Lexicon;
 import fr.berger.enhancedlist.lexicon.LexiconBuilder;
 import org.jetbrains.annotations.NotNull;
@@ -16,9 +17,10 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.Random;
 import java.util.UUID;
 
-public class Neuron extends EnhancedObservable implements Serializable, Cloneable {
+public class Neuron extends QuietObservable implements Serializable, Cloneable {
 	
 	/* PROPERTIES */
 	
@@ -46,7 +48,7 @@ public class Neuron extends EnhancedObservable implements Serializable, Cloneabl
 	 */
 	@Positive
 	protected double bias;
-
+	
 	/**
 	 * The activation handler, called when the neuron is activated
 	 */
@@ -143,11 +145,15 @@ public class Neuron extends EnhancedObservable implements Serializable, Cloneabl
 			setSynapses(synapses);
 	}
 	
-	public void generateRandomWeights(@Positive int numberOfInputs) {
+	/**
+	 * Draw the weights (and the bias) of the neuron in {@code [0, 1[}.
+	 * @param random The generator of the weights. Give a seeded generator to create the same network again.
+	 */
+	public void generateRandomWeights(@Positive int numberOfInputs, @NotNull Random random) {
 		int numberOfWeights = numberOfInputs + 1;
 		
 		for (int i = 0; i < numberOfWeights; i++) {
-			double newWeight = Irregular.rangeDouble(0.0, true, 1.0, true);
+			double newWeight = random.nextDouble();
 			
 			try {
 				getWeights().set(i, newWeight);
@@ -156,6 +162,12 @@ public class Neuron extends EnhancedObservable implements Serializable, Cloneabl
 			}
 		}
 	}
+	public void generateRandomWeights(@Positive int numberOfInputs) {
+		generateRandomWeights(numberOfInputs, Irregular.getGenerator());
+	}
+	public void generateRandomWeights(@NotNull Random random) {
+		generateRandomWeights(getInputs().size(), random);
+	}
 	public void generateRandomWeights() {
 		generateRandomWeights(getInputs().size());
 	}
@@ -309,7 +321,7 @@ public class Neuron extends EnhancedObservable implements Serializable, Cloneabl
 		
 		return bias;
 	}
-
+	
 	public void setBias(@Positive double bias) {
 		if (bias < 0.0)
 			throw new IllegalArgumentException("bias must be greater than 0.");
@@ -384,7 +396,7 @@ public class Neuron extends EnhancedObservable implements Serializable, Cloneabl
 		stream.writeObject(getWeights());
 		stream.writeDouble(getBias());
 		stream.writeObject(getActivationHandler());
-		stream.writeObject(getSynapses());
+		stream.writeObject(NeuralLayer.copyForSerialization(getSynapses()));
 	}
 	
 	@SuppressWarnings("unchecked")
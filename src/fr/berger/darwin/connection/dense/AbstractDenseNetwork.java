@@ -0,0 +1,420 @@
+package fr.berger.darwin.connection.dense;
+
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Structure and forward pass of the dense networks, whatever the storage of their weights and biases: the sizes of the
+ * layers, the activation handlers and the default inputs. Each storage computes the weighted sums of a layer in its own
+ * loop (see {@link #multiply(int, double[], int, double[], int)}), and the activations are shared, so
+ * {@link DenseNetwork} and {@link MappedDenseNetwork} give the same outputs.
+ * <p>
+ * The parameters of each layer are its weights in row-major order ({@code size(l)} rows of {@code size(l - 1)}
+ * columns), then its biases ({@code size(l)} values).
+ */
+public abstract class AbstractDenseNetwork implements Serializable {
+
+	/**
+	 * Number of inputs, then number of neurons of each layer.
+	 */
+	@NotNull
+	/* package */ final int[] sizes;
+	
+	/**
+	 * Activation handler of each neuron, per layer.
+	 */
+	@NotNull
+	/* package */ final ActivationHandler[][] handlers;
+	
+	/**
+	 * For each layer, the activation handler shared by all its neurons, or null if they use different handlers. The
+	 * layers sharing a handler are activated with a single call to
+	 * {@link ActivationHandler#activate(double[], int, double[], int, int)}.
+	 */
+	@NotNull
+	/* package */ final ActivationHandler[] layerHandlers;
+	
+	/**
+	 * Inputs used by {@link #activate()}.
+	 */
+	@NotNull
+	/* package */ final double[] defaultInputs;
+	
+	/* package */ AbstractDenseNetwork(@NotNull int[] sizes, @NotNull ActivationHandler[][] handlers, @NotNull double[] defaultInputs) {
+		checkStructure(sizes, handlers, defaultInputs);
+		
+		// The arrays are copied, so the network cannot be modified once built
+		this.sizes = sizes.clone();
+		this.defaultInputs = defaultInputs.clone();
+		this.handlers = new ActivationHandler[handlers.length][];
+		for (int l = 0; l < handlers.length; l++)
+			this.handlers[l] = handlers[l].clone();
+		this.layerHandlers = findLayerHandlers(this.handlers);
+	}
+	/**
+	 * Share the structure of {@code structure}, which is immutable.
+	 */
+	/* package */ AbstractDenseNetwork(@NotNull AbstractDenseNetwork structure) {
+		this.sizes = structure.sizes;
+		this.handlers = structure.handlers;
+		this.layerHandlers = structure.layerHandlers;
+		this.defaultInputs = structure.defaultInputs;
+	}
+	
+	/**
+	 * Check the sizes, the activation handlers and the default inputs of a network (see
+	 * {@link DenseNetwork#DenseNetwork(int[], double[], ActivationHandler[][], double[])}).
+	 */
+	@SuppressWarnings("ConstantConditions")
+	/* package */ static void checkStructure(@NotNull int[] sizes, @NotNull ActivationHandler[][] handlers, @NotNull double[] defaultInputs) {
+		if (sizes == null || handlers == null || defaultInputs == null)
+			throw new NullPointerException();
+		
+		if (sizes.length < 2)
+			throw new IllegalArgumentException("A network needs at least an input layer and an output layer.");
+		
+		for (int size : sizes)
+			if (size < 0)
+				throw new IllegalArgumentException("The size of a layer cannot be negative: " + Arrays.toString(sizes));
+		
+		if (handlers.length != sizes.length - 1)
+			throw new IllegalArgumentException("Wrong number of layers of activation handlers (expected: " + (sizes.length - 1) + " ; actual: " + handlers.length + ").");
+		
+		for (int l = 0; l < handlers.length; l++) {
+			if (handlers[l] == null || handlers[l].length != sizes[l + 1])
+				throw new IllegalArgumentException("The layer " + l + " needs " + sizes[l + 1] + " activation handlers.");
+			
+			for (ActivationHandler handler : handlers[l])
+				if (handler == null)
+					throw new NullPointerException();
+		}
+		
+		if (defaultInputs.length != sizes[0])
+			throw new IllegalArgumentException("Wrong number of inputs (expected: " + sizes[0] + " ; actual: " + defaultInputs.length + ").");
+	}
+	
+	@NotNull
+	private static ActivationHandler[] findLayerHandlers(@NotNull ActivationHandler[][] handlers) {
+		ActivationHandler[] layerHandlers = new ActivationHandler[handlers.length];
+		
+		for (int l = 0; l < handlers.length; l++) {
+			if (handlers[l].length == 0)
+				continue;
+			
+			// Equal handlers compute the same function (a lambda is only equal to itself)
+			ActivationHandler shared = handlers[l][0];
+			for (int j = 1; j < handlers[l].length && shared != null; j++)
+				if (!shared.equals(handlers[l][j]))
+					shared = null;
+			
+			layerHandlers[l] = shared;
+		}
+		
+		return layerHandlers;
+	}
+	
+	/**
+	 * @param sizes The number of inputs, then the number of neurons of each layer.
+	 * @return The number of weights and biases of a network of the given sizes.
+	 * @throws IllegalArgumentException If there are more than {@link Integer#MAX_VALUE} parameters: they cannot be held
+	 * in an array (see {@link #countParametersExact(int[])} and {@link MappedDenseNetwork}).
+	 */
+	public static int countParameters(@NotNull int[] sizes) {
+		long count = countParametersExact(sizes);
+		if (count > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("A network of sizes " + Arrays.toString(sizes) + " has too many parameters to be held in an array (" + count + ").");
+		
+		return (int) count;
+	}
+	
+	/**
+	 * @param sizes The number of inputs, then the number of neurons of each layer.
+	 * @return The number of weights and biases of a network of the given sizes, counted without overflow.
+	 */
+	public static long countParametersExact(@NotNull int[] sizes) {
+		long count = 0L;
+		for (int l = 0; l < sizes.length - 1; l++)
+			count += (long) sizes[l + 1] * (sizes[l] + 1L);
+		
+		return count;
+	}
+	
+	/**
+	 * Compute the weighted sums of a layer, plus the biases, before the activation. The weighted inputs of a neuron are
+	 * summed in order, then the bias is added, as in {@link fr.berger.darwin.connection.Neuron#sum()}.
+	 * @param layer The index of the layer of neurons (0 is the first layer after the inputs).
+	 * @param in The outputs of the previous layer, from {@code inOffset}.
+	 * @param out The array where the sums are written, from {@code outOffset}.
+	 */
+	/* package */ abstract void multiply(int layer, @NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset);
+	
+	/* FORWARD PASS */
+	
+	/**
+	 * @return A new context to activate this network (or any network of the same sizes).
+	 */
+	@NotNull
+	public ActivationContext newContext() {
+		return new ActivationContext(sizes);
+	}
+	
+	/**
+	 * Run the network on its default inputs (for a compiled network, the values of the dendrites).
+	 * @return The outputs, in a new array.
+	 */
+	@NotNull
+	public double[] activate() {
+		return activate(defaultInputs);
+	}
+	
+	/**
+	 * @param inputs The inputs, of length {@link #getInputSize()}.
+	 * @return The outputs, in a new array.
+	 */
+	@NotNull
+	public double[] activate(@NotNull double[] inputs) {
+		double[] outputs = new double[getOutputSize()];
+		activate(newContext(), inputs, outputs);
+		return outputs;
+	}
+	
+	/**
+	 * Run the network without allocating.
+	 * @param context The buffers of the pass. It must fit the sizes of the network.
+	 * @param inputs The inputs, of length {@link #getInputSize()}.
+	 * @param outputs The array where the outputs are written, of length {@link #getOutputSize()}.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void activate(@NotNull ActivationContext context, @NotNull double[] inputs, @NotNull double[] outputs) {
+		if (context == null || inputs == null || outputs == null)
+			throw new NullPointerException();
+		
+		checkContext(context);
+		checkRow(inputs, outputs);
+		forward(inputs, 0, outputs, 0, context.getBuffers());
+	}
+	public void activate(@NotNull double[] inputs, @NotNull double[] outputs) {
+		activate(newContext(), inputs, outputs);
+	}
+	
+	/**
+	 * Run the network on a batch of inputs.
+	 * @param inputs The rows of inputs, each of length {@link #getInputSize()}.
+	 * @param executor The executor used to split the batch, or null to run it on the caller thread.
+	 * @return The rows of outputs, in the same order as the inputs.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	@NotNull
+	public double[][] activate(@NotNull double[][] inputs, @Nullable ExecutorService executor) {
+		if (inputs == null)
+			throw new NullPointerException();
+		
+		double[][] outputs = new double[inputs.length][getOutputSize()];
+		for (int r = 0; r < inputs.length; r++) {
+			if (inputs[r] == null)
+				throw new NullPointerException();
+			
+			checkRow(inputs[r], outputs[r]);
+		}
+		
+		runRows(inputs.length, null, executor, (from, to, buffers) -> {
+			for (int r = from; r < to; r++)
+				forward(inputs[r], 0, outputs[r], 0, buffers);
+		});
+		
+		return outputs;
+	}
+	@NotNull
+	public double[][] activate(@NotNull double[][] inputs) {
+		return activate(inputs, null);
+	}
+	
+	/**
+	 * Run the network on a batch of inputs stored in row-major order.
+	 * @param inputs The inputs: the row {@code r} starts at {@code r * getInputSize()}.
+	 * @param outputs The array where the outputs are written: the row {@code r} starts at {@code r * getOutputSize()}.
+	 * @param rows The number of rows.
+	 * @param executor The executor used to split the batch, or null to run it on the caller thread.
+	 */
+	public void activate(@NotNull double[] inputs, @NotNull double[] outputs, int rows, @Nullable ExecutorService executor) {
+		activateRows(null, inputs, outputs, rows, executor);
+	}
+	public void activate(@NotNull double[] inputs, @NotNull double[] outputs, int rows) {
+		activateRows(null, inputs, outputs, rows, null);
+	}
+	
+	/**
+	 * Run the network on a batch of inputs stored in row-major order, on the caller thread and without allocating.
+	 * @param context The buffers of the pass. It must fit the sizes of the network.
+	 * @param inputs The inputs: the row {@code r} starts at {@code r * getInputSize()}.
+	 * @param outputs The array where the outputs are written: the row {@code r} starts at {@code r * getOutputSize()}.
+	 * @param rows The number of rows.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void activate(@NotNull ActivationContext context, @NotNull double[] inputs, @NotNull double[] outputs, int rows) {
+		if (context == null)
+			throw new NullPointerException();
+		
+		checkContext(context);
+		activateRows(context, inputs, outputs, rows, null);
+	}
+	
+	@SuppressWarnings("ConstantConditions")
+	private void activateRows(@Nullable ActivationContext context, @NotNull double[] inputs, @NotNull double[] outputs, int rows, @Nullable ExecutorService executor) {
+		if (inputs == null || outputs == null)
+			throw new NullPointerException();
+		
+		int inputSize = getInputSize();
+		int outputSize = getOutputSize();
+		
+		if (rows < 0 || (long) rows * inputSize > inputs.length || (long) rows * outputSize > outputs.length)
+			throw new IllegalArgumentException("The buffers are too small for " + rows + " rows (inputs: " + inputs.length + " ; outputs: " + outputs.length + ").");
+		
+		runRows(rows, context, executor, (from, to, buffers) -> {
+			for (int r = from; r < to; r++)
+				forward(inputs, r * inputSize, outputs, r * outputSize, buffers);
+		});
+	}
+	
+	private void checkContext(@NotNull ActivationContext context) {
+		if (!context.fits(sizes))
+			throw new IllegalArgumentException("The context does not fit the sizes of the network (" + context + " ; " + this + ").");
+	}
+	
+	private void checkRow(@NotNull double[] inputs, @NotNull double[] outputs) {
+		if (inputs.length != getInputSize() || outputs.length != getOutputSize())
+			throw new IllegalArgumentException("Wrong number of inputs or outputs (expected: " + getInputSize() + " -> " + getOutputSize() + " ; actual: " + inputs.length + " -> " + outputs.length + ").");
+	}
+	
+	/**
+	 * Forward pass of one row. Only {@code outputs} and {@code buffers} are written.
+	 * @param buffers The outputs of the hidden layers (see {@link ActivationContext}).
+	 */
+	private void forward(@NotNull double[] inputs, int inputOffset, @NotNull double[] outputs, int outputOffset, @NotNull double[][] buffers) {
+		double[] in = inputs;
+		int inOffset = inputOffset;
+		int layers = sizes.length - 1;
+		
+		for (int l = 0; l < layers; l++) {
+			boolean last = l == layers - 1;
+			double[] out = last ? outputs : buffers[l];
+			int outOffset = last ? outputOffset : 0;
+			int rows = sizes[l + 1];
+			ActivationHandler shared = layerHandlers[l];
+			
+			multiply(l, in, inOffset, out, outOffset);
+			
+			if (shared != null)
+				shared.activate(out, outOffset, out, outOffset, rows);
+			else {
+				ActivationHandler[] neuronHandlers = handlers[l];
+				for (int j = 0; j < rows; j++)
+					out[outOffset + j] = neuronHandlers[j].activate(out[outOffset + j]);
+			}
+			
+			in = out;
+			inOffset = 0;
+		}
+	}
+	
+	/**
+	 * Run {@code task} over the rows {@code [0, rows[}, in a few chunks per core if an executor is given. Each chunk
+	 * has its own context.
+	 * @param context The context to use on the caller thread, or null to create one.
+	 */
+	private void runRows(int rows, @Nullable ActivationContext context, @Nullable ExecutorService executor, @NotNull RowTask task) {
+		if (executor == null || rows < 2) {
+			task.run(0, rows, (context != null ? context : newContext()).getBuffers());
+			return;
+		}
+		
+		int numberOfChunks = Math.min(rows, Runtime.getRuntime().availableProcessors() * 4);
+		int chunkSize = (rows + numberOfChunks - 1) / numberOfChunks;
+		
+		ArrayList<Future<?>> futures = new ArrayList<>(numberOfChunks);
+		for (int from = 0; from < rows; from += chunkSize) {
+			final int start = from;
+			final int end = Math.min(from + chunkSize, rows);
+			futures.add(executor.submit(() -> task.run(start, end, newContext().getBuffers())));
+		}
+		
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException ex) {
+			for (Future<?> future : futures)
+				future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The activation of the batch has been interrupted.", ex);
+		} catch (ExecutionException ex) {
+			for (Future<?> future : futures)
+				future.cancel(true);
+			throw new IllegalStateException("A row of the batch could not be activated.", ex.getCause());
+		}
+	}
+	
+	private interface RowTask {
+		void run(int from, int to, @NotNull double[][] buffers);
+	}
+	
+	/* GETTERS */
+	
+	public int getInputSize() {
+		return sizes[0];
+	}
+	
+	public int getOutputSize() {
+		return sizes[sizes.length - 1];
+	}
+	
+	/**
+	 * @return The number of layers of neurons (the hidden layers and the output layer).
+	 */
+	public int getLayerCount() {
+		return sizes.length - 1;
+	}
+	
+	/**
+	 * @param layer The index of the layer: 0 for the inputs, {@link #getLayerCount()} for the output layer.
+	 * @return The number of neurons of the layer (or the number of inputs).
+	 */
+	public int getLayerSize(int layer) {
+		return sizes[layer];
+	}
+	
+	/**
+	 * @return The number of weights and biases.
+	 */
+	public long getParameterCount() {
+		return countParametersExact(sizes);
+	}
+	
+	/**
+	 * @return A copy of the number of inputs followed by the number of neurons of each layer.
+	 */
+	@NotNull
+	public int[] getSizes() {
+		return sizes.clone();
+	}
+	
+	@NotNull
+	public ActivationHandler getActivationHandler(int layer, int neuron) {
+		return handlers[layer][neuron];
+	}
+	
+	/**
+	 * @return A copy of the inputs used by {@link #activate()}.
+	 */
+	@NotNull
+	public double[] getDefaultInputs() {
+		return defaultInputs.clone();
+	}
+}
@@ -0,0 +1,74 @@
+package fr.berger.darwin.connection.dense;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Buffers of a forward pass through a {@link DenseNetwork} or a {@link MappedDenseNetwork}: the outputs of its hidden
+ * layers. A context belongs to the caller: it can be reused for any number of passes, through any network with the
+ * same sizes, but it must not be used by two threads at the same time.
+ */
+public class ActivationContext {
+
+	/**
+	 * Number of inputs, then number of neurons of each layer.
+	 */
+	@NotNull
+	private final int[] sizes;
+	
+	/**
+	 * Outputs of each hidden layer.
+	 */
+	@NotNull
+	private final double[][] buffers;
+	
+	@SuppressWarnings("ConstantConditions")
+	public ActivationContext(@NotNull int[] sizes) {
+		if (sizes == null)
+			throw new NullPointerException();
+		
+		if (sizes.length < 2)
+			throw new IllegalArgumentException("A network needs at least an input layer and an output layer.");
+		
+		this.sizes = sizes.clone();
+		this.buffers = new double[sizes.length - 2][];
+		for (int l = 0; l < buffers.length; l++)
+			buffers[l] = new double[sizes[l + 1]];
+	}
+	public ActivationContext(@NotNull DenseNetwork network) {
+		this(network.getSizes());
+	}
+	
+	/* ACTIVATION CONTEXT METHODS */
+	
+	/**
+	 * @return True if the context can be used to activate a network of the given sizes.
+	 */
+	public boolean fits(@NotNull int[] sizes) {
+		return Arrays.equals(this.sizes, sizes);
+	}
+	
+	/* GETTERS */
+	
+	/**
+	 * @return The outputs of the hidden layer {@code layer} computed by the last pass (0 is the first hidden layer).
+	 */
+	@NotNull
+	public double[] getHiddenOutputs(int layer) {
+		return buffers[layer];
+	}
+	
+	/* package */ @NotNull double[][] getBuffers() {
+		return buffers;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "ActivationContext{" +
+				"sizes=" + Arrays.toString(sizes) +
+				'}';
+	}
+}
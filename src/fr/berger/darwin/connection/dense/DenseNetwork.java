@@ -0,0 +1,278 @@
+package fr.berger.darwin.connection.dense;
+
+import fr.berger.arrow.Ref;
+import fr.berger.darwin.connection.NeuralNetwork;
+import fr.berger.darwin.connection.Neuron;
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import fr.berger.darwin.connection.neurallayers.NeuralLayer;
+import fr.berger.enhancedlist.Couple;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+
+/**
+ * Compiled form of a {@link NeuralNetwork}: each layer is a weight matrix and a bias vector stored in a single
+ * {@code double[]}, and the forward pass (see {@link AbstractDenseNetwork}) is a loop over primitive arrays.
+ * <p>
+ * The layout of the parameters is, for each layer {@code l} (from the first layer after the inputs to the output
+ * layer), the weights of the layer in row-major order ({@code size(l)} rows of {@code size(l - 1)} columns), then its
+ * biases ({@code size(l)} values).
+ * <p>
+ * The inputs of the network are the inputs of the neurons of the first layer: the input {@code k} is the
+ * {@code k}-th dendrite received by each neuron of the first layer (in the order of the dendrites of the input layer).
+ * <p>
+ * A dense network is immutable: the activations of a forward pass live in an {@link ActivationContext} owned by
+ * the caller, so one network can be activated by several threads at the same time. The methods without a context
+ * allocate a new one at each call. The activation handlers must be stateless.
+ */
+public class DenseNetwork extends AbstractDenseNetwork {
+
+	@NotNull
+	private final double[] parameters;
+	
+	/**
+	 * Offset of the parameters of each layer in {@link #parameters}.
+	 */
+	@NotNull
+	private final int[] offsets;
+	
+	@SuppressWarnings("ConstantConditions")
+	public DenseNetwork(@NotNull int[] sizes, @NotNull double[] parameters, @NotNull ActivationHandler[][] handlers, @NotNull double[] defaultInputs) {
+		super(sizes, handlers, defaultInputs);
+		
+		if (parameters == null)
+			throw new NullPointerException();
+		
+		if (parameters.length != countParameters(sizes))
+			throw new IllegalArgumentException("Wrong number of parameters (expected: " + countParameters(sizes) + " ; actual: " + parameters.length + ").");
+		
+		this.parameters = parameters.clone();
+		this.offsets = new int[sizes.length - 1];
+		for (int l = 0, offset = 0; l < sizes.length - 1; l++) {
+			offsets[l] = offset;
+			offset += sizes[l + 1] * (sizes[l] + 1);
+		}
+	}
+	/**
+	 * Share the structure of {@code structure}, which is immutable, with other parameters.
+	 */
+	private DenseNetwork(@NotNull DenseNetwork structure, @NotNull double[] parameters) {
+		super(structure);
+		this.parameters = parameters;
+		this.offsets = structure.offsets;
+	}
+	
+	/* COMPILATION */
+	
+	/**
+	 * Flatten a network. Only the weights, the biases and the activation handlers are read: the current inputs of the
+	 * neurons are ignored, and the network is not modified.
+	 * @param network The network to compile. Each neuron must have one weight per input it receives, plus one for the
+	 *                bias.
+	 * @return The compiled network. It is not updated when the original network changes.
+	 * @throws IllegalArgumentException If a neuron does not have as many weights as inputs, or if the neurons of the
+	 * first layer do not receive the same values at the same positions.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	@NotNull
+	public static DenseNetwork compile(@NotNull NeuralNetwork network) {
+		if (network == null)
+			throw new NullPointerException();
+		
+		ArrayList<NeuralLayer> layers = new ArrayList<>(network.getHiddenLayers().size() + 1);
+		layers.addAll(network.getHiddenLayers());
+		layers.add(network.getOutputLayer());
+		
+		ArrayList<Lexicon<Neuron>> neurons = new ArrayList<>(layers.size());
+		for (NeuralLayer layer : layers)
+			neurons.add(layer.getNeurons());
+		
+		// Inputs of the first layer: the k-th dendrite of each neuron is the k-th input of the network
+		IdentityHashMap<Neuron, Integer> first = indices(neurons.get(0));
+		int[] received = new int[neurons.get(0).size()];
+		ArrayList<Double> inputs = new ArrayList<>();
+		
+		for (Couple<Double, Ref<Neuron>> dendrite : network.getInputLayer().getDendrites()) {
+			Integer target = target(dendrite.getY(), first);
+			if (target == null)
+				continue;
+			
+			int k = received[target]++;
+			if (k == inputs.size())
+				inputs.add(dendrite.getX());
+			else if (Double.compare(inputs.get(k), dendrite.getX()) != 0)
+				throw new IllegalArgumentException("The neurons of the first layer do not receive the same value as input " + k + " (" + inputs.get(k) + " != " + dendrite.getX() + ").");
+		}
+		
+		int[] sizes = new int[layers.size() + 1];
+		sizes[0] = inputs.size();
+		for (int l = 0; l < layers.size(); l++)
+			sizes[l + 1] = neurons.get(l).size();
+		
+		double[] parameters = new double[countParameters(sizes)];
+		ActivationHandler[][] handlers = new ActivationHandler[layers.size()][];
+		
+		// Weights of the first layer
+		int offset = 0;
+		for (int j = 0; j < sizes[1]; j++) {
+			Neuron neuron = neurons.get(0).get(j);
+			checkWeights(neuron, received[j]);
+			
+			for (int k = 0; k < received[j]; k++)
+				parameters[offset + j * sizes[0] + k] = neuron.getWeights().get(k);
+		}
+		
+		for (int l = 0; l < layers.size(); l++) {
+			int rows = sizes[l + 1];
+			int columns = sizes[l];
+			
+			// Weights of the next layers: the inputs of a neuron are the outputs of the previous layer, in the order of
+			// the neurons then of their synapses. Several synapses between the same neurons are summed.
+			if (l > 0) {
+				IdentityHashMap<Neuron, Integer> next = indices(neurons.get(l));
+				int[] position = new int[rows];
+				
+				for (int i = 0; i < columns; i++) {
+					for (Ref<Neuron> synapse : neurons.get(l - 1).get(i).getSynapses()) {
+						Integer j = target(synapse, next);
+						if (j == null)
+							continue;
+						
+						Neuron neuron = neurons.get(l).get(j);
+						if (position[j] >= neuron.getWeights().size() - 1)
+							throw new IllegalArgumentException("The neuron " + neuron.getId() + " receives more inputs than it has weights.");
+						
+						parameters[offset + j * columns + i] += neuron.getWeights().get(position[j]++);
+					}
+				}
+				
+				for (int j = 0; j < rows; j++)
+					checkWeights(neurons.get(l).get(j), position[j]);
+			}
+			
+			// Biases and activation handlers
+			offset += rows * columns;
+			handlers[l] = new ActivationHandler[rows];
+			
+			for (int j = 0; j < rows; j++) {
+				Neuron neuron = neurons.get(l).get(j);
+				parameters[offset + j] = neuron.getBias() * neuron.getWeights().get(neuron.getWeights().size() - 1);
+				handlers[l][j] = neuron.getActivationHandler();
+			}
+			
+			offset += rows;
+		}
+		
+		double[] defaultInputs = new double[inputs.size()];
+		for (int k = 0; k < defaultInputs.length; k++)
+			defaultInputs[k] = inputs.get(k);
+		
+		return new DenseNetwork(sizes, parameters, handlers, defaultInputs);
+	}
+	
+	@NotNull
+	private static IdentityHashMap<Neuron, Integer> indices(@NotNull Lexicon<Neuron> neurons) {
+		IdentityHashMap<Neuron, Integer> indices = new IdentityHashMap<>(neurons.size());
+		for (int i = 0; i < neurons.size(); i++)
+			indices.put(neurons.get(i), i);
+		
+		return indices;
+	}
+	
+	@Nullable
+	private static Integer target(@Nullable Ref<Neuron> synapse, @NotNull IdentityHashMap<Neuron, Integer> layer) {
+		if (synapse == null || synapse.getElement() == null)
+			return null;
+		
+		return layer.get(synapse.getElement());
+	}
+	
+	private static void checkWeights(@NotNull Neuron neuron, int inputs) {
+		if (neuron.getWeights().size() != inputs + 1)
+			throw new IllegalArgumentException("The neuron " + neuron.getId() + " receives " + inputs + " inputs but has " + neuron.getWeights().size() + " weights (the number of inputs plus one is expected).");
+	}
+	
+	/**
+	 * Create a network with the same sizes, activation handlers and default inputs, but other weights and biases.
+	 * Only the parameters are copied: the structure is shared, so this is much cheaper than compiling a network.
+	 * @param parameters The weights and biases, with the same layout as {@link #getParameters()}.
+	 * @return The new network.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	@NotNull
+	public DenseNetwork withParameters(@NotNull double[] parameters) {
+		if (parameters == null)
+			throw new NullPointerException();
+		
+		if (parameters.length != this.parameters.length)
+			throw new IllegalArgumentException("Wrong number of parameters (expected: " + this.parameters.length + " ; actual: " + parameters.length + ").");
+		
+		return new DenseNetwork(this, parameters.clone());
+	}
+	
+	@Override
+	/* package */ void multiply(int layer, @NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset) {
+		double[] parameters = this.parameters;
+		int rows = sizes[layer + 1];
+		int columns = sizes[layer];
+		int w = offsets[layer];
+		int b = w + rows * columns;
+		
+		for (int j = 0; j < rows; j++, w += columns) {
+			double sum = 0.0;
+			for (int i = 0; i < columns; i++)
+				sum += in[inOffset + i] * parameters[w + i];
+			
+			out[outOffset + j] = sum + parameters[b + j];
+		}
+	}
+	
+	/* GETTERS */
+	
+	/**
+	 * @return The number of weights and biases, at most {@link Integer#MAX_VALUE}.
+	 */
+	@Override
+	public long getParameterCount() {
+		return parameters.length;
+	}
+	
+	/**
+	 * @return A copy of the weights and biases (see the class documentation for the layout).
+	 */
+	@NotNull
+	public double[] getParameters() {
+		return parameters.clone();
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof DenseNetwork)) return false;
+		DenseNetwork that = (DenseNetwork) o;
+		return Arrays.equals(sizes, that.sizes) &&
+				Arrays.equals(parameters, that.parameters) &&
+				Arrays.deepEquals(handlers, that.handlers) &&
+				Arrays.equals(defaultInputs, that.defaultInputs);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(Arrays.hashCode(sizes), Arrays.hashCode(parameters), Arrays.deepHashCode(handlers), Arrays.hashCode(defaultInputs));
+	}
+	
+	@Override
+	public String toString() {
+		return "DenseNetwork{" +
+				"sizes=" + Arrays.toString(sizes) +
+				", parameters=" + parameters.length +
+				'}';
+	}
+}
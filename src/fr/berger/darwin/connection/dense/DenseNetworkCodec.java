@@ -0,0 +1,385 @@
+package fr.berger.darwin.connection.dense;
+
+import fr.berger.darwin.connection.NeuralNetwork;
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import fr.berger.darwin.connection.handlers.GaussianCurve;
+import fr.berger.darwin.connection.handlers.HardLimitingThreshold;
+import fr.berger.darwin.connection.handlers.HyperbolicTangent;
+import fr.berger.darwin.connection.handlers.Linear;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import fr.berger.darwin.util.BinaryInput;
+import fr.berger.darwin.util.BinaryOutput;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Binary format of a {@link DenseNetwork}: the model file read by the inference workers, much faster to load than a
+ * serialized {@link NeuralNetwork} as it is read straight into the compiled form.
+ * <p>
+ * A file starts with a header: the sizes of the layers, the default inputs, the descriptors of the activation handlers
+ * (the kind of each handler and its parameters, written once per distinct handler) and, for each layer, the handler
+ * of each neuron (or a single handler shared by the whole layer). The parameters follow, aligned on
+ * {@link #ALIGNMENT} bytes, in the layout of {@link DenseNetwork#getParameters()}: one contiguous block of weights and
+ * biases per layer. The values are little-endian, so the blocks can be mapped as they are (see
+ * {@link #map(Path)}).
+ * <p>
+ * Only the handlers of this library ({@link Sigmoid}, {@link HyperbolicTangent}, {@link Linear},
+ * {@link HardLimitingThreshold} and {@link GaussianCurve}) can be written.
+ */
+public final class DenseNetworkCodec {
+
+	/**
+	 * "DRNN" in ASCII.
+	 */
+	public static final int MAGIC = 0x4E4E5244;
+	/**
+	 * Version of the format written.
+	 */
+	public static final int VERSION = 1;
+	
+	/**
+	 * Alignment of the parameters in the file, in bytes (a cache line).
+	 */
+	public static final int ALIGNMENT = 64;
+	
+	/* package */ static final byte SIGMOID = 1;
+	/* package */ static final byte HYPERBOLIC_TANGENT = 2;
+	/* package */ static final byte LINEAR = 3;
+	/* package */ static final byte HARD_LIMITING_THRESHOLD = 4;
+	/* package */ static final byte GAUSSIAN_CURVE = 5;
+	
+	private DenseNetworkCodec() { }
+	
+	/* DENSE NETWORK CODEC METHODS */
+	
+	/**
+	 * Write the network to a file, replacing it if it exists.
+	 * @throws IllegalArgumentException If an activation handler of the network cannot be written.
+	 */
+	public static void write(@NotNull DenseNetwork network, @NotNull Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			write(network, channel);
+		}
+	}
+	
+	/**
+	 * Write the network at the current position of the channel. The channel is not closed.
+	 * @throws IllegalArgumentException If an activation handler of the network cannot be written.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public static void write(@NotNull DenseNetwork network, @NotNull WritableByteChannel channel) throws IOException {
+		if (network == null || channel == null)
+			throw new NullPointerException();
+		
+		Header header = Header.of(network);
+		BinaryOutput output = new BinaryOutput(channel);
+		header.write(output);
+		
+		double[] parameters = network.getParameters();
+		output.putDoubles(parameters, 0, parameters.length);
+		output.flush();
+	}
+	
+	/**
+	 * Read a network written by {@link #write(DenseNetwork, Path)}. The parameters are copied on the heap: see
+	 * {@link #map(Path)} to keep them in the file.
+	 */
+	@NotNull
+	public static DenseNetwork read(@NotNull Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+	
+	/**
+	 * Read a network from the current position of the channel. The channel is not closed, but it can be read beyond the
+	 * end of the network.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	@NotNull
+	public static DenseNetwork read(@NotNull ReadableByteChannel channel) throws IOException {
+		if (channel == null)
+			throw new NullPointerException();
+		
+		BinaryInput input = new BinaryInput(channel);
+		Header header = Header.read(input);
+		
+		double[] parameters = new double[DenseNetwork.countParameters(header.sizes)];
+		input.getDoubles(parameters, 0, parameters.length);
+		
+		return new DenseNetwork(header.sizes, parameters, header.handlers, header.defaultInputs);
+	}
+	
+	/**
+	 * Read the header of a network written by {@link #write(DenseNetwork, Path)}, and map its parameters (see
+	 * {@link MappedDenseNetwork}): the parameters are not copied, the network is ready as soon as its header is read.
+	 */
+	@NotNull
+	public static MappedDenseNetwork map(@NotNull Path path) throws IOException {
+		Header header;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			header = Header.read(new BinaryInput(channel));
+		}
+		
+		return MappedDenseNetwork.map(path, header.getParametersPosition(), header.sizes, header.handlers, header.defaultInputs);
+	}
+	
+	/* HEADER */
+	
+	/**
+	 * Structure of a network, written before its parameters.
+	 */
+	private static final class Header {
+		
+		@NotNull
+		private final int[] sizes;
+		@NotNull
+		private final double[] defaultInputs;
+		@NotNull
+		private final ActivationHandler[][] handlers;
+		
+		/**
+		 * Distinct activation handlers, in the order of their first use.
+		 */
+		@NotNull
+		private final ArrayList<ActivationHandler> distinct = new ArrayList<>();
+		
+		/**
+		 * For each layer, the index in {@link #distinct} of the handler of each neuron, or of the handler shared by the
+		 * layer.
+		 */
+		@NotNull
+		private final int[][] indices;
+		
+		/**
+		 * Length of the header, without the padding.
+		 */
+		private final long length;
+		
+		private Header(@NotNull int[] sizes, @NotNull double[] defaultInputs, @NotNull ActivationHandler[][] handlers) {
+			this.sizes = sizes;
+			this.defaultInputs = defaultInputs;
+			this.handlers = handlers;
+			this.indices = new int[handlers.length][];
+			
+			HashMap<ActivationHandler, Integer> positions = new HashMap<>();
+			long length = 4 + 4 + 4 + 4L * sizes.length + 8L * defaultInputs.length + 4;
+			
+			for (int l = 0; l < handlers.length; l++) {
+				boolean shared = handlers[l].length > 0;
+				for (int j = 1; j < handlers[l].length && shared; j++)
+					shared = handlers[l][0].equals(handlers[l][j]);
+				
+				indices[l] = new int[shared ? 1 : handlers[l].length];
+				for (int j = 0; j < indices[l].length; j++) {
+					Integer position = positions.get(handlers[l][j]);
+					if (position == null) {
+						position = distinct.size();
+						positions.put(handlers[l][j], position);
+						distinct.add(handlers[l][j]);
+						length += 1 + 4 + 8L * descriptorOf(handlers[l][j]).length;
+					}
+					
+					indices[l][j] = position;
+				}
+				
+				length += 4 + 4L * indices[l].length;
+			}
+			
+			this.length = length;
+		}
+		
+		/**
+		 * @throws IllegalArgumentException If an activation handler of the network cannot be written.
+		 */
+		@NotNull
+		private static Header of(@NotNull DenseNetwork network) {
+			ActivationHandler[][] handlers = new ActivationHandler[network.getLayerCount()][];
+			for (int l = 0; l < handlers.length; l++) {
+				handlers[l] = new ActivationHandler[network.getLayerSize(l + 1)];
+				for (int j = 0; j < handlers[l].length; j++)
+					handlers[l][j] = network.getActivationHandler(l, j);
+			}
+			
+			return new Header(network.getSizes(), network.getDefaultInputs(), handlers);
+		}
+		
+		/**
+		 * Write the header, then the padding up to the parameters.
+		 */
+		private void write(@NotNull BinaryOutput output) throws IOException {
+			output.putInt(MAGIC);
+			output.putInt(VERSION);
+			output.putInt(sizes.length);
+			output.putInts(sizes, 0, sizes.length);
+			output.putDoubles(defaultInputs, 0, defaultInputs.length);
+			
+			output.putInt(distinct.size());
+			for (ActivationHandler handler : distinct) {
+				double[] descriptor = descriptorOf(handler);
+				output.putByte(kindOf(handler));
+				output.putInt(descriptor.length);
+				output.putDoubles(descriptor, 0, descriptor.length);
+			}
+			
+			for (int[] layer : indices) {
+				output.putInt(layer.length);
+				output.putInts(layer, 0, layer.length);
+			}
+			
+			for (long padding = getParametersPosition() - length; padding > 0; padding--)
+				output.putByte((byte) 0);
+		}
+		
+		/**
+		 * Read the header, then the padding up to the parameters.
+		 * @throws IOException If the header is invalid.
+		 */
+		@NotNull
+		private static Header read(@NotNull BinaryInput input) throws IOException {
+			if (input.getInt() != MAGIC)
+				throw new IOException("The data is not a dense network.");
+			
+			int version = input.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported version: " + version + " (supported: " + VERSION + ").");
+			
+			int layerCount = input.getInt();
+			if (layerCount < 2 || layerCount > 1 << 16)
+				throw new IOException("Invalid number of layers: " + layerCount);
+			
+			int[] sizes = new int[layerCount];
+			input.getInts(sizes, 0, layerCount);
+			
+			long parameterCount = 0;
+			for (int l = 0; l < layerCount; l++) {
+				if (sizes[l] < 0)
+					throw new IOException("Invalid size of layer: " + sizes[l]);
+				if (l > 0)
+					parameterCount += (long) sizes[l] * (sizes[l - 1] + 1);
+			}
+			if (parameterCount > Integer.MAX_VALUE)
+				throw new IOException("Too many parameters: " + parameterCount);
+			
+			double[] defaultInputs = new double[sizes[0]];
+			input.getDoubles(defaultInputs, 0, defaultInputs.length);
+			
+			int handlerCount = input.getInt();
+			if (handlerCount < 0)
+				throw new IOException("Invalid number of activation handlers: " + handlerCount);
+			
+			ArrayList<ActivationHandler> distinct = new ArrayList<>(Math.min(handlerCount, 1024));
+			for (int h = 0; h < handlerCount; h++) {
+				byte kind = input.getByte();
+				int length = input.getInt();
+				if (length < 0 || length > 2)
+					throw new IOException("Invalid number of parameters of activation handler: " + length);
+				
+				double[] descriptor = new double[length];
+				input.getDoubles(descriptor, 0, length);
+				distinct.add(handlerOf(kind, descriptor));
+			}
+			
+			ActivationHandler[][] handlers = new ActivationHandler[layerCount - 1][];
+			for (int l = 0; l < handlers.length; l++) {
+				int length = input.getInt();
+				if (length != 1 && length != sizes[l + 1])
+					throw new IOException("Invalid number of activation handlers in the layer " + l + ": " + length);
+				
+				int[] layer = new int[length];
+				input.getInts(layer, 0, length);
+				
+				handlers[l] = new ActivationHandler[sizes[l + 1]];
+				for (int j = 0; j < handlers[l].length; j++) {
+					int index = layer[length == 1 ? 0 : j];
+					if (index < 0 || index >= distinct.size())
+						throw new IOException("Invalid index of activation handler: " + index);
+					
+					handlers[l][j] = distinct.get(index);
+				}
+			}
+			
+			Header header = new Header(sizes, defaultInputs, handlers);
+			for (long padding = header.getParametersPosition() - header.length; padding > 0; padding--)
+				input.getByte();
+			
+			return header;
+		}
+		
+		/**
+		 * @return The length of the header, padding included: the position of the parameters.
+		 */
+		private long getParametersPosition() {
+			return (length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+		}
+	}
+	
+	/* ACTIVATION HANDLERS */
+	
+	private static byte kindOf(@NotNull ActivationHandler handler) {
+		Class<?> type = handler.getClass();
+		if (type == Sigmoid.class)
+			return SIGMOID;
+		if (type == HyperbolicTangent.class)
+			return HYPERBOLIC_TANGENT;
+		if (type == Linear.class)
+			return LINEAR;
+		if (type == HardLimitingThreshold.class)
+			return HARD_LIMITING_THRESHOLD;
+		if (type == GaussianCurve.class)
+			return GAUSSIAN_CURVE;
+		
+		throw new IllegalArgumentException("The activation handler " + handler + " cannot be written (only the handlers of the library are supported).");
+	}
+	
+	/**
+	 * @return The parameters of the handler.
+	 * @throws IllegalArgumentException If the handler cannot be written.
+	 */
+	@NotNull
+	private static double[] descriptorOf(@NotNull ActivationHandler handler) {
+		switch (kindOf(handler)) {
+			case SIGMOID:
+				return new double[] { ((Sigmoid) handler).getA() };
+			case HYPERBOLIC_TANGENT:
+				return new double[] { ((HyperbolicTangent) handler).getA() };
+			case LINEAR:
+				return new double[] { ((Linear) handler).getA() };
+			case HARD_LIMITING_THRESHOLD:
+				return new double[] { ((HardLimitingThreshold) handler).getThreshold() };
+			default:
+				GaussianCurve curve = (GaussianCurve) handler;
+				return new double[] { curve.getMean(), curve.getVariance() };
+		}
+	}
+	
+	@NotNull
+	private static ActivationHandler handlerOf(byte kind, @NotNull double[] descriptor) throws IOException {
+		int expected = kind == GAUSSIAN_CURVE ? 2 : 1;
+		if (kind < SIGMOID || kind > GAUSSIAN_CURVE)
+			throw new IOException("Unknown kind of activation handler: " + kind);
+		if (descriptor.length != expected)
+			throw new IOException("The activation handler of kind " + kind + " needs " + expected + " parameters, not " + descriptor.length + ".");
+		
+		switch (kind) {
+			case SIGMOID:
+				return new Sigmoid(descriptor[0]);
+			case HYPERBOLIC_TANGENT:
+				return new HyperbolicTangent(descriptor[0]);
+			case LINEAR:
+				return new Linear(descriptor[0]);
+			case HARD_LIMITING_THRESHOLD:
+				return new HardLimitingThreshold(descriptor[0]);
+			default:
+				return new GaussianCurve(descriptor[0], descriptor[1]);
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package fr.berger.darwin.connection.dense;
+
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import fr.berger.darwin.util.BinaryOutput;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Dense network whose weights and biases stay in a file, mapped in memory with
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)} instead of being copied on the heap.
+ * <p>
+ * The parameters are stored as little-endian doubles, with the layout of {@link DenseNetwork#getParameters()}. Each
+ * layer (its weights, then its biases) is mapped in its own read-only region: mapping a network costs a few system
+ * calls whatever its size, the pages are only read from the disk when the forward pass reaches them, and they are
+ * shared by all the processes mapping the same file. A layer must fit in 2 GiB.
+ * <p>
+ * A mapped network runs the forward pass of {@link AbstractDenseNetwork}, so it gives the same outputs as the dense
+ * network it was written from. As a dense network, it is immutable and can be activated by several threads at the same
+ * time, each with its own {@link ActivationContext}. It holds more than {@link Integer#MAX_VALUE} parameters if needed,
+ * but it cannot be serialized. The file must not be modified or truncated while it is mapped. The parameters
+ * can also be mapped from a model file (see {@link DenseNetworkCodec#map(Path)}).
+ */
+public class MappedDenseNetwork extends AbstractDenseNetwork {
+
+	/**
+	 * Weights then biases of each layer, read with absolute gets only (the positions of the buffers are never moved).
+	 */
+	@NotNull
+	private final transient DoubleBuffer[] layers;
+	
+	private MappedDenseNetwork(@NotNull int[] sizes, @NotNull DoubleBuffer[] layers, @NotNull ActivationHandler[][] handlers, @NotNull double[] defaultInputs) {
+		super(sizes, handlers, defaultInputs);
+		this.layers = layers;
+	}
+	
+	/* MAPPING */
+	
+	/**
+	 * Map the parameters of a network stored in a file.
+	 * @param file The file containing the parameters.
+	 * @param position The position of the first parameter in the file, in bytes.
+	 * @param sizes The number of inputs, then the number of neurons of each layer.
+	 * @param handlers The activation handler of each neuron, per layer.
+	 * @param defaultInputs The inputs used by {@link #activate()}.
+	 * @return The mapped network.
+	 * @throws IOException If the file cannot be read.
+	 * @throws IllegalArgumentException If the file is too short, or if a layer does not fit in a single mapping.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	@NotNull
+	public static MappedDenseNetwork map(@NotNull Path file, long position, @NotNull int[] sizes, @NotNull ActivationHandler[][] handlers, @NotNull double[] defaultInputs) throws IOException {
+		if (file == null)
+			throw new NullPointerException();
+		
+		if (position < 0)
+			throw new IllegalArgumentException("The position cannot be negative: " + position);
+		
+		checkStructure(sizes, handlers, defaultInputs);
+		
+		// Each layer fits in a mapping, so the total length cannot overflow
+		for (int l = 0; l < sizes.length - 1; l++) {
+			long size = (long) sizes[l + 1] * (sizes[l] + 1L) * Double.BYTES;
+			if (size > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("The layer " + l + " is too large to be mapped (" + size + " bytes).");
+		}
+		
+		// The mappings stay valid once the channel is closed
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long length = countParametersExact(sizes) * Double.BYTES;
+			if (position + length > channel.size())
+				throw new IllegalArgumentException("The file " + file + " is too short (expected: " + (position + length) + " bytes ; actual: " + channel.size() + ").");
+			
+			DoubleBuffer[] layers = new DoubleBuffer[sizes.length - 1];
+			for (int l = 0; l < layers.length; l++) {
+				long size = (long) sizes[l + 1] * (sizes[l] + 1L) * Double.BYTES;
+				layers[l] = channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+				position += size;
+			}
+			
+			return new MappedDenseNetwork(sizes, layers, handlers, defaultInputs);
+		}
+	}
+	
+	/**
+	 * Map the parameters of a network written by {@link #write(DenseNetwork, Path)}.
+	 * @param structure The network giving the sizes, the activation handlers and the default inputs. Its parameters are
+	 *                  ignored.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	@NotNull
+	public static MappedDenseNetwork map(@NotNull Path file, @NotNull DenseNetwork structure) throws IOException {
+		if (structure == null)
+			throw new NullPointerException();
+		
+		ActivationHandler[][] handlers = new ActivationHandler[structure.getLayerCount()][];
+		for (int l = 0; l < handlers.length; l++) {
+			handlers[l] = new ActivationHandler[structure.getLayerSize(l + 1)];
+			for (int j = 0; j < handlers[l].length; j++)
+				handlers[l][j] = structure.getActivationHandler(l, j);
+		}
+		
+		return map(file, 0, structure.getSizes(), handlers, structure.getDefaultInputs());
+	}
+	
+	/**
+	 * Write the parameters of a network in a file, in the format read by {@link #map(Path, DenseNetwork)}. The file is
+	 * created, or truncated if it exists.
+	 * @throws IOException If the file cannot be written.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public static void write(@NotNull DenseNetwork network, @NotNull Path file) throws IOException {
+		if (network == null || file == null)
+			throw new NullPointerException();
+		
+		double[] parameters = network.getParameters();
+		try (BinaryOutput output = new BinaryOutput(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+			output.putDoubles(parameters, 0, parameters.length);
+		}
+	}
+	
+	/**
+	 * Copy the parameters on the heap.
+	 * @return A dense network equal to the mapped network. It does not depend on the file.
+	 * @throws IllegalArgumentException If the network has more than {@link Integer#MAX_VALUE} parameters.
+	 */
+	@NotNull
+	public DenseNetwork toDenseNetwork() {
+		double[] parameters = new double[countParameters(sizes)];
+		for (int l = 0, offset = 0; l < layers.length; l++) {
+			// Duplicate the buffer, so its position is not moved
+			DoubleBuffer layer = layers[l].duplicate();
+			int length = layer.remaining();
+			layer.get(parameters, offset, length);
+			offset += length;
+		}
+		
+		return new DenseNetwork(sizes, parameters, handlers, defaultInputs);
+	}
+	
+	@Override
+	/* package */ void multiply(int layer, @NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset) {
+		DoubleBuffer parameters = layers[layer];
+		int rows = sizes[layer + 1];
+		int columns = sizes[layer];
+		int b = rows * columns;
+		
+		for (int j = 0, w = 0; j < rows; j++, w += columns) {
+			double sum = 0.0;
+			for (int i = 0; i < columns; i++)
+				sum += in[inOffset + i] * parameters.get(w + i);
+			
+			out[outOffset + j] = sum + parameters.get(b + j);
+		}
+	}
+	
+	/* GETTERS */
+	
+	/**
+	 * @param layer The index of the layer of neurons (0 is the first layer after the inputs).
+	 * @return A read-only view of the weights then the biases of the layer, in the file.
+	 */
+	@NotNull
+	public DoubleBuffer getLayerParameters(int layer) {
+		return layers[layer].asReadOnlyBuffer();
+	}
+	
+	/* SERIALIZATION METHODS */
+	
+	private void writeObject(@NotNull ObjectOutputStream stream) throws IOException {
+		throw new NotSerializableException("A mapped network cannot be serialized: serialize toDenseNetwork(), or write it with DenseNetworkCodec.");
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "MappedDenseNetwork{" +
+				"sizes=" + Arrays.toString(sizes) +
+				", parameters=" + getParameterCount() +
+				'}';
+	}
+}
@@ -1,6 +1,32 @@
 package fr.berger.darwin.connection.handlers;
 
+import org.jetbrains.annotations.NotNull;
+
 public interface ActivationHandler {
 
 	double activate(double outputBeforeActivation);
+	
+	/**
+	 * Activate {@code length} values at once: {@code out[outOffset + i] = activate(in[inOffset + i])}. {@code in} and
+	 * {@code out} can be the same array. The handlers of this package override it with a loop over the arrays that
+	 * gives the same results as {@link #activate(double)}, without a call per value.
+	 */
+	default void activate(@NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset, int length) {
+		for (int i = 0; i < length; i++)
+			out[outOffset + i] = activate(in[inOffset + i]);
+	}
+	default void activate(@NotNull double[] in, @NotNull double[] out, int length) {
+		activate(in, 0, out, 0, length);
+	}
+	
+	/**
+	 * Derivative of the function at {@code x}, used by the gradient descent (see
+	 * {@link fr.berger.darwin.connection.training.Trainer}). The default is a central finite difference: the handlers
+	 * of this package override it with the exact derivative.
+	 * @param x The value before activation.
+	 */
+	default double derivative(double x) {
+		double h = 1e-6 * Math.max(1.0, Math.abs(x));
+		return (activate(x + h) - activate(x - h)) / (2.0 * h);
+	}
 }
@@ -15,6 +15,16 @@ public class GaussianCurve implements ActivationHandler, Serializable, Cloneable
 	private double mean;
 	private double variance;
 	
+	/**
+	 * {@code 1 / sqrt(2 * PI * variance)}, updated with the variance.
+	 */
+	private transient double coefficient;
+	
+	/**
+	 * {@code 2 * variance}, updated with the variance.
+	 */
+	private transient double twoVariance;
+	
 	/* CONSTRUCTORS */
 	
 	public GaussianCurve(double mean, double variance) {
@@ -29,7 +39,24 @@ public class GaussianCurve implements ActivationHandler, Serializable, Cloneable
 	
 	@Override
 	public double activate(double x) {
-		return (1.0/(Math.sqrt(2.0 * Math.PI * variance))) * Math.exp(- (Math.pow(x - getMean(), 2.0)/(2.0 * getVariance())));
+		double d = x - getMean();
+		return coefficient * Math.exp(- (d * d / twoVariance));
+	}
+	
+	@Override
+	public void activate(@NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset, int length) {
+		final double mean = getMean();
+		final double coefficient = this.coefficient;
+		final double twoVariance = this.twoVariance;
+		for (int i = 0; i < length; i++) {
+			double d = in[inOffset + i] - mean;
+			out[outOffset + i] = coefficient * Math.exp(- (d * d / twoVariance));
+		}
+	}
+	
+	@Override
+	public double derivative(double x) {
+		return - (x - getMean()) / getVariance() * activate(x);
 	}
 	
 	/* GETTERS & SETTERS */
@@ -48,6 +75,8 @@ public class GaussianCurve implements ActivationHandler, Serializable, Cloneable
 	
 	public void setVariance(double variance) {
 		this.variance = variance;
+		this.coefficient = 1.0/(Math.sqrt(2.0 * Math.PI * variance));
+		this.twoVariance = 2.0 * variance;
 	}
 	
 	public double getStandardDeviation() {
@@ -30,6 +30,22 @@ public class HardLimitingThreshold implements ActivationHandler, Serializable, C
 		return x < getThreshold() ? 0 : 1;
 	}
 	
+	@Override
+	public void activate(@NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset, int length) {
+		final double threshold = getThreshold();
+		for (int i = 0; i < length; i++)
+			out[outOffset + i] = in[inOffset + i] < threshold ? 0.0 : 1.0;
+	}
+	
+	/**
+	 * The step is flat everywhere but at the threshold, where it is not differentiable: the derivative is 0, so no
+	 * gradient goes through this function.
+	 */
+	@Override
+	public double derivative(double x) {
+		return 0.0;
+	}
+	
 	/* GETTERS & SETTERS */
 	
 	public double getThreshold() {
@@ -27,7 +27,26 @@ public class HyperbolicTangent implements ActivationHandler, Serializable, Clone
 	
 	@Override
 	public double activate(double x) {
-		return (1.0 - Math.exp(- getA() * x))/(1.0 + Math.exp(- getA() * x));
+		double e = Math.exp(- getA() * x);
+		return (1.0 - e)/(1.0 + e);
+	}
+	
+	@Override
+	public void activate(@NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset, int length) {
+		final double minusA = - getA();
+		for (int i = 0; i < length; i++) {
+			double e = Math.exp(minusA * in[inOffset + i]);
+			out[outOffset + i] = (1.0 - e)/(1.0 + e);
+		}
+	}
+	
+	/**
+	 * The function is {@code tanh(a * x / 2)}: its derivative is {@code a / 2 * (1 - f(x)^2)}.
+	 */
+	@Override
+	public double derivative(double x) {
+		double y = activate(x);
+		return 0.5 * getA() * (1.0 - y * y);
 	}
 	
 	/* GETTERS & SETTERS */
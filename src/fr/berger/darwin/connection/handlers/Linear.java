@@ -30,6 +30,18 @@ public class Linear implements ActivationHandler, Serializable, Cloneable {
 		return getA() * x;
 	}
 	
+	@Override
+	public void activate(@NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset, int length) {
+		final double a = getA();
+		for (int i = 0; i < length; i++)
+			out[outOffset + i] = a * in[inOffset + i];
+	}
+	
+	@Override
+	public double derivative(double x) {
+		return getA();
+	}
+	
 	/* GETTERS & SETTERS */
 	
 	public double getA() {
@@ -31,6 +31,19 @@ public class Sigmoid implements ActivationHandler, Serializable, Cloneable {
 		return 1.0/(1.0 + Math.exp(- getA() * x));
 	}
 	
+	@Override
+	public void activate(@NotNull double[] in, int inOffset, @NotNull double[] out, int outOffset, int length) {
+		final double minusA = - getA();
+		for (int i = 0; i < length; i++)
+			out[outOffset + i] = 1.0/(1.0 + Math.exp(minusA * in[inOffset + i]));
+	}
+	
+	@Override
+	public double derivative(double x) {
+		double s = activate(x);
+		return getA() * s * (1.0 - s);
+	}
+	
 	/* GETTERS & SETTERS */
 	
 	public double getA() {
@@ -28,7 +28,7 @@ public class HiddenLayer extends NeuralLayer implements Serializable, Cloneable,
 	/* SERIALIZATION METHODS */
 	
 	private void writeObject(@NotNull ObjectOutputStream stream) throws IOException {
-		stream.writeObject(getNeurons());
+		stream.writeObject(copyForSerialization(getNeurons()));
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -97,8 +97,9 @@ public class InputLayer extends NeuralLayer implements Serializable, Cloneable,
 	/* SERIALIZATION METHODS */
 	
 	private void writeObject(@NotNull ObjectOutputStream stream) throws IOException {
-		stream.writeObject(getDendrites());
-		stream.writeObject(getNeurons());
+		// Only the elements are written, the handlers are configured again when reading
+		stream.writeObject(copyForSerialization(getDendrites()));
+		stream.writeObject(copyForSerialization(getNeurons()));
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -1,8 +1,8 @@
 package fr.berger.darwin.connection.neurallayers;
 
 import fr.berger.arrow.Ref;
-import fr.berger.beyondcode.util.EnhancedObservable;
 import fr.berger.darwin.connection.Neuron;
+import fr.berger.darwin.util.QuietObservable;
 import fr.berger.enhancedlist.Couple;
 import fr.berger.enhancedlist.lexicon.Lexicon;
 import org.jetbrains.annotations.NotNull;
@@ -17,7 +17,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.Objects;
 
-public class NeuralLayer extends EnhancedObservable implements Serializable, Cloneable, Iterable<Neuron> {
+public class NeuralLayer extends QuietObservable implements Serializable, Cloneable, Iterable<Neuron> {
 	
 	/* PROPERTY */
 	
@@ -106,7 +106,8 @@ public class NeuralLayer extends EnhancedObservable implements Serializable, Clo
 	/* SERIALIZATION METHODS */
 	
 	private void writeObject(@NotNull ObjectOutputStream stream) throws IOException {
-		stream.writeObject(getNeurons());
+		// Only the neurons are written, the handlers are configured again when reading
+		stream.writeObject(copyForSerialization(getNeurons()));
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -114,6 +115,22 @@ public class NeuralLayer extends EnhancedObservable implements Serializable, Clo
 		setNeurons((Lexicon<Neuron>) stream.readObject());
 	}
 	
+	/**
+	 * Copy a list to serialize it: the handlers of the list are lambdas, which cannot be serialized, and an empty list
+	 * cannot be read back without the class of its elements.
+	 * @return A new list with the same elements, without the handlers and the observers of {@code list}.
+	 */
+	@SuppressWarnings("unchecked")
+	@NotNull
+	public static <E> Lexicon<E> copyForSerialization(@NotNull Lexicon<E> list) {
+		// The class of the elements is needed to read the list back, even if it is empty
+		Lexicon<E> copy = new Lexicon<>(list.getClazz() != null ? list.getClazz() : (Class<E>) Object.class, list.size());
+		for (E element : list)
+			copy.add(element);
+		
+		return copy;
+	}
+	
 	/* OVERRIDES */
 	
 	@NotNull
@@ -49,7 +49,7 @@ public class OutputLayer extends NeuralLayer implements Serializable, Cloneable,
 	/* SERIALIZATION METHODS */
 	
 	private void writeObject(@NotNull ObjectOutputStream stream) throws IOException {
-		stream.writeObject(getNeurons());
+		stream.writeObject(copyForSerialization(getNeurons()));
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,152 @@
+package fr.berger.darwin.connection.training;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Adam optimizer (Kingma and Ba, 2015): the step of each parameter is scaled by running estimates of the first and
+ * second moments of its gradient, corrected for their initialization at 0.
+ */
+public class Adam implements Optimizer {
+	
+	private double learningRate;
+	private double beta1;
+	private double beta2;
+	private double epsilon;
+	
+	/**
+	 * Running estimates of the first and second moments of the gradient, created at the first step.
+	 */
+	@Nullable
+	private double[] moments;
+	@Nullable
+	private double[] squaredMoments;
+	
+	/**
+	 * Number of steps done, for the correction of the moments.
+	 */
+	private long step;
+	
+	public Adam(double learningRate, double beta1, double beta2, double epsilon) {
+		setLearningRate(learningRate);
+		setBeta1(beta1);
+		setBeta2(beta2);
+		setEpsilon(epsilon);
+	}
+	public Adam(double learningRate) {
+		this(learningRate, 0.9, 0.999, 1e-8);
+	}
+	public Adam() {
+		this(0.001);
+	}
+	
+	/* OPTIMIZER METHODS */
+	
+	@Override
+	public void update(@NotNull double[] parameters, @NotNull double[] gradient) {
+		if (moments == null || moments.length != parameters.length) {
+			moments = new double[parameters.length];
+			squaredMoments = new double[parameters.length];
+			step = 0;
+		}
+		
+		step++;
+		final double b1 = getBeta1();
+		final double b2 = getBeta2();
+		final double eps = getEpsilon();
+		// The corrections of the two moments are folded in the learning rate
+		final double rate = getLearningRate() * Math.sqrt(1.0 - Math.pow(b2, step)) / (1.0 - Math.pow(b1, step));
+		final double[] m = moments;
+		final double[] v = squaredMoments;
+		
+		for (int i = 0; i < parameters.length; i++) {
+			double g = gradient[i];
+			m[i] = b1 * m[i] + (1.0 - b1) * g;
+			v[i] = b2 * v[i] + (1.0 - b2) * g * g;
+			parameters[i] -= rate * m[i] / (Math.sqrt(v[i]) + eps);
+		}
+	}
+	
+	@Override
+	public void reset() {
+		moments = null;
+		squaredMoments = null;
+		step = 0;
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	public double getLearningRate() {
+		return learningRate;
+	}
+	
+	public void setLearningRate(double learningRate) {
+		if (!(learningRate > 0.0))
+			throw new IllegalArgumentException("The learning rate must be greater than 0.");
+		
+		this.learningRate = learningRate;
+	}
+	
+	public double getBeta1() {
+		return beta1;
+	}
+	
+	public void setBeta1(double beta1) {
+		if (!(0.0 <= beta1 && beta1 < 1.0))
+			throw new IllegalArgumentException("beta1 must be in [0 ; 1[.");
+		
+		this.beta1 = beta1;
+	}
+	
+	public double getBeta2() {
+		return beta2;
+	}
+	
+	public void setBeta2(double beta2) {
+		if (!(0.0 <= beta2 && beta2 < 1.0))
+			throw new IllegalArgumentException("beta2 must be in [0 ; 1[.");
+		
+		this.beta2 = beta2;
+	}
+	
+	public double getEpsilon() {
+		return epsilon;
+	}
+	
+	public void setEpsilon(double epsilon) {
+		if (!(epsilon > 0.0))
+			throw new IllegalArgumentException("epsilon must be greater than 0.");
+		
+		this.epsilon = epsilon;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Adam)) return false;
+		Adam adam = (Adam) o;
+		return Double.compare(adam.getLearningRate(), getLearningRate()) == 0 &&
+				Double.compare(adam.getBeta1(), getBeta1()) == 0 &&
+				Double.compare(adam.getBeta2(), getBeta2()) == 0 &&
+				Double.compare(adam.getEpsilon(), getEpsilon()) == 0;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(getLearningRate(), getBeta1(), getBeta2(), getEpsilon());
+	}
+	
+	@Override
+	public String toString() {
+		return "Adam{" +
+				"learningRate=" + learningRate +
+				", beta1=" + beta1 +
+				", beta2=" + beta2 +
+				", epsilon=" + epsilon +
+				'}';
+	}
+}
@@ -0,0 +1,51 @@
+package fr.berger.darwin.connection.training;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Loss function minimized by a {@link Trainer}, computed on one row of outputs.
+ */
+public interface Loss {
+	
+	/**
+	 * Mean of the squared errors of the outputs.
+	 */
+	Loss MEAN_SQUARED_ERROR = (outputs, targets, gradient) -> {
+		double loss = 0.0;
+		for (int i = 0; i < outputs.length; i++) {
+			double error = outputs[i] - targets[i];
+			loss += error * error;
+			if (gradient != null)
+				gradient[i] = 2.0 * error / outputs.length;
+		}
+		
+		return loss / outputs.length;
+	};
+	
+	/**
+	 * Binary cross-entropy, for outputs in ]0 ; 1[ (such as the outputs of a {@link
+	 * fr.berger.darwin.connection.handlers.Sigmoid}) and targets in [0 ; 1], averaged over the outputs.
+	 */
+	Loss BINARY_CROSS_ENTROPY = (outputs, targets, gradient) -> {
+		final double epsilon = 1e-12;
+		double loss = 0.0;
+		for (int i = 0; i < outputs.length; i++) {
+			double y = Math.min(Math.max(outputs[i], epsilon), 1.0 - epsilon);
+			loss -= targets[i] * Math.log(y) + (1.0 - targets[i]) * Math.log(1.0 - y);
+			if (gradient != null)
+				gradient[i] = (y - targets[i]) / (y * (1.0 - y)) / outputs.length;
+		}
+		
+		return loss / outputs.length;
+	};
+	
+	/**
+	 * @param outputs The outputs of the network for one row.
+	 * @param targets The expected outputs, of the same length.
+	 * @param gradient The array where the derivative of the loss with respect to each output is written, or null if
+	 *                 only the loss is needed.
+	 * @return The loss of the row.
+	 */
+	double evaluate(@NotNull double[] outputs, @NotNull double[] targets, @Nullable double[] gradient);
+}
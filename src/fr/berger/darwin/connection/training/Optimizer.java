@@ -0,0 +1,23 @@
+package fr.berger.darwin.connection.training;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Update rule of the parameters of a network, given the gradient of the loss (see {@link Trainer}). An optimizer can
+ * keep a state between the steps (such as a momentum): it must then be used by a single trainer.
+ */
+public interface Optimizer {
+	
+	/**
+	 * Do a step of descent.
+	 * @param parameters The parameters to update, in place.
+	 * @param gradient The gradient of the loss with respect to each parameter, averaged over the batch. It must not be
+	 *                 modified.
+	 */
+	void update(@NotNull double[] parameters, @NotNull double[] gradient);
+	
+	/**
+	 * Forget the state kept between the steps. The default does nothing.
+	 */
+	default void reset() { }
+}
@@ -0,0 +1,106 @@
+package fr.berger.darwin.connection.training;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Gradient descent with a constant learning rate, and an optional momentum: {@code v = momentum * v - rate * g}, then
+ * {@code p = p + v}.
+ */
+public class StochasticGradientDescent implements Optimizer {
+	
+	private double learningRate;
+	private double momentum;
+	
+	/**
+	 * Velocity of each parameter, created at the first step if there is a momentum.
+	 */
+	@Nullable
+	private double[] velocities;
+	
+	public StochasticGradientDescent(double learningRate, double momentum) {
+		setLearningRate(learningRate);
+		setMomentum(momentum);
+	}
+	public StochasticGradientDescent(double learningRate) {
+		this(learningRate, 0.0);
+	}
+	
+	/* OPTIMIZER METHODS */
+	
+	@Override
+	public void update(@NotNull double[] parameters, @NotNull double[] gradient) {
+		final double rate = getLearningRate();
+		
+		if (getMomentum() == 0.0) {
+			for (int i = 0; i < parameters.length; i++)
+				parameters[i] -= rate * gradient[i];
+			return;
+		}
+		
+		if (velocities == null || velocities.length != parameters.length)
+			velocities = new double[parameters.length];
+		
+		final double momentum = getMomentum();
+		final double[] v = velocities;
+		for (int i = 0; i < parameters.length; i++) {
+			v[i] = momentum * v[i] - rate * gradient[i];
+			parameters[i] += v[i];
+		}
+	}
+	
+	@Override
+	public void reset() {
+		velocities = null;
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	public double getLearningRate() {
+		return learningRate;
+	}
+	
+	public void setLearningRate(double learningRate) {
+		if (!(learningRate > 0.0))
+			throw new IllegalArgumentException("The learning rate must be greater than 0.");
+		
+		this.learningRate = learningRate;
+	}
+	
+	public double getMomentum() {
+		return momentum;
+	}
+	
+	public void setMomentum(double momentum) {
+		if (!(0.0 <= momentum && momentum < 1.0))
+			throw new IllegalArgumentException("The momentum must be in [0 ; 1[.");
+		
+		this.momentum = momentum;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof StochasticGradientDescent)) return false;
+		StochasticGradientDescent that = (StochasticGradientDescent) o;
+		return Double.compare(that.getLearningRate(), getLearningRate()) == 0 &&
+				Double.compare(that.getMomentum(), getMomentum()) == 0;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(getLearningRate(), getMomentum());
+	}
+	
+	@Override
+	public String toString() {
+		return "StochasticGradientDescent{" +
+				"learningRate=" + learningRate +
+				", momentum=" + momentum +
+				'}';
+	}
+}
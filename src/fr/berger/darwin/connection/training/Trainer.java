@@ -0,0 +1,528 @@
+package fr.berger.darwin.connection.training;
+
+import fr.berger.darwin.connection.dense.DenseNetwork;
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Gradient-based training of a {@link DenseNetwork}: backpropagation of the {@link Loss} over mini-batches, with the
+ * derivatives of the activation handlers (see {@link ActivationHandler#derivative(double)}).
+ * <p>
+ * The trainer owns a copy of the parameters of the network, with the layout of {@link DenseNetwork#getParameters()}.
+ * Each step computes the gradient of the loss averaged over a batch, and gives it to the {@link Optimizer}. The
+ * network being trained is read with {@link #getNetwork()}, for instance to activate it or to seed a
+ * {@link fr.berger.darwin.neuroevolution.NeuroevolutionMutable}.
+ * <p>
+ * If an executor is given, the rows of each batch are split in one chunk per core. Each chunk accumulates its gradient
+ * in its own workspace, then the gradients of the chunks are summed in order by the calling thread. The workspaces
+ * are kept from one step to the next: without executor, a step does not allocate. A trainer must be used by one
+ * thread at a time.
+ */
+public class Trainer {
+
+	@NotNull
+	private final DenseNetwork structure;
+	
+	/**
+	 * Number of inputs, then number of neurons of each layer.
+	 */
+	@NotNull
+	private final int[] sizes;
+	
+	@NotNull
+	private final int[] weightOffsets;
+	@NotNull
+	private final int[] biasOffsets;
+	
+	@NotNull
+	private final ActivationHandler[][] handlers;
+	
+	@NotNull
+	private final double[] parameters;
+	
+	/**
+	 * Gradient of the last step, reduced from the gradients of the workspaces.
+	 */
+	@NotNull
+	private final double[] gradient;
+	
+	@NotNull
+	private Optimizer optimizer;
+	
+	@NotNull
+	private Loss loss;
+	
+	private int batchSize;
+	
+	/**
+	 * Executor used to split the batches. If null, the batches are run on the caller thread. The trainer does not own
+	 * the executor: it is never shut down here.
+	 */
+	@Nullable
+	private ExecutorService executor;
+	
+	/**
+	 * Buffers of each chunk of a batch, created when first needed.
+	 */
+	@NotNull
+	private Workspace[] workspaces = new Workspace[0];
+	
+	private long steps;
+	
+	@SuppressWarnings("ConstantConditions")
+	public Trainer(@NotNull DenseNetwork network, @NotNull Optimizer optimizer, int batchSize) {
+		if (network == null)
+			throw new NullPointerException();
+		
+		this.structure = network;
+		this.sizes = network.getSizes();
+		this.parameters = network.getParameters();
+		this.gradient = new double[parameters.length];
+		
+		int layers = sizes.length - 1;
+		this.weightOffsets = new int[layers];
+		this.biasOffsets = new int[layers];
+		this.handlers = new ActivationHandler[layers][];
+		for (int l = 0, offset = 0; l < layers; l++) {
+			weightOffsets[l] = offset;
+			offset += sizes[l + 1] * sizes[l];
+			biasOffsets[l] = offset;
+			offset += sizes[l + 1];
+			
+			handlers[l] = new ActivationHandler[sizes[l + 1]];
+			for (int j = 0; j < sizes[l + 1]; j++)
+				handlers[l][j] = network.getActivationHandler(l, j);
+		}
+		
+		setOptimizer(optimizer);
+		setLoss(Loss.MEAN_SQUARED_ERROR);
+		setBatchSize(batchSize);
+	}
+	public Trainer(@NotNull DenseNetwork network, @NotNull Optimizer optimizer) {
+		this(network, optimizer, 32);
+	}
+	public Trainer(@NotNull DenseNetwork network) {
+		this(network, new Adam());
+	}
+	
+	/* TRAINING METHODS */
+	
+	/**
+	 * Train the network for a few epochs. At each epoch, the rows are shuffled, then split in batches of
+	 * {@code batchSize} rows (the last one can be smaller), and a step is done for each batch.
+	 * @param inputs The rows of inputs, each of length {@link DenseNetwork#getInputSize()}.
+	 * @param targets The expected outputs of each row, each of length {@link DenseNetwork#getOutputSize()}.
+	 * @param epochs The number of passes over the rows.
+	 * @param random The generator shuffling the rows.
+	 * @return The mean loss of the rows during the last epoch, each row being measured before the step of its batch.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public double train(@NotNull double[][] inputs, @NotNull double[][] targets, int epochs, @NotNull Random random) {
+		if (random == null)
+			throw new NullPointerException();
+		
+		if (epochs < 0)
+			throw new IllegalArgumentException("The number of epochs cannot be negative.");
+		
+		checkRows(inputs, targets);
+		
+		int[] order = new int[inputs.length];
+		for (int r = 0; r < order.length; r++)
+			order[r] = r;
+		
+		double epochLoss = 0.0;
+		for (int epoch = 0; epoch < epochs; epoch++) {
+			// Fisher-Yates shuffle
+			for (int r = order.length - 1; r > 0; r--) {
+				int other = random.nextInt(r + 1);
+				int row = order[r];
+				order[r] = order[other];
+				order[other] = row;
+			}
+			
+			double sum = 0.0;
+			for (int from = 0; from < order.length; from += batchSize) {
+				int to = Math.min(from + batchSize, order.length);
+				sum += step(inputs, targets, order, from, to) * (to - from);
+			}
+			
+			epochLoss = order.length > 0 ? sum / order.length : 0.0;
+		}
+		
+		return epochLoss;
+	}
+	
+	/**
+	 * Do a single step on the given batch, whatever the batch size.
+	 * @return The mean loss of the rows, before the step.
+	 */
+	public double step(@NotNull double[][] inputs, @NotNull double[][] targets) {
+		checkRows(inputs, targets);
+		if (inputs.length == 0)
+			return 0.0;
+		
+		int[] order = new int[inputs.length];
+		for (int r = 0; r < order.length; r++)
+			order[r] = r;
+		
+		return step(inputs, targets, order, 0, order.length);
+	}
+	
+	/**
+	 * Compute the mean loss of the rows, without training.
+	 */
+	public double evaluate(@NotNull double[][] inputs, @NotNull double[][] targets) {
+		checkRows(inputs, targets);
+		if (inputs.length == 0)
+			return 0.0;
+		
+		Workspace workspace = getWorkspace(0);
+		double sum = 0.0;
+		for (int r = 0; r < inputs.length; r++) {
+			workspace.forward(inputs[r]);
+			sum += loss.evaluate(workspace.activations[sizes.length - 2], targets[r], null);
+		}
+		
+		return sum / inputs.length;
+	}
+	
+	/**
+	 * Compute the gradient of the mean loss of the rows, without training.
+	 * @return The gradient, with the layout of the parameters, in a new array.
+	 */
+	@NotNull
+	public double[] computeGradient(@NotNull double[][] inputs, @NotNull double[][] targets) {
+		checkRows(inputs, targets);
+		
+		int[] order = new int[inputs.length];
+		for (int r = 0; r < order.length; r++)
+			order[r] = r;
+		
+		if (inputs.length > 0)
+			accumulate(inputs, targets, order, 0, order.length);
+		else
+			Arrays.fill(gradient, 0.0);
+		
+		return gradient.clone();
+	}
+	
+	private double step(@NotNull double[][] inputs, @NotNull double[][] targets, @NotNull int[] rows, int from, int to) {
+		double meanLoss = accumulate(inputs, targets, rows, from, to);
+		getOptimizer().update(parameters, gradient);
+		steps++;
+		return meanLoss;
+	}
+	
+	/**
+	 * Compute the gradient of the batch {@code rows[from, to[} in {@link #gradient}.
+	 * @return The mean loss of the rows.
+	 */
+	private double accumulate(@NotNull double[][] inputs, @NotNull double[][] targets, @NotNull int[] rows, int from, int to) {
+		int count = to - from;
+		int numberOfChunks = getExecutor() == null ? 1 : Math.max(1, Math.min(count, Runtime.getRuntime().availableProcessors()));
+		int chunkSize = (count + numberOfChunks - 1) / numberOfChunks;
+		numberOfChunks = (count + chunkSize - 1) / chunkSize;
+		
+		double sum = 0.0;
+		if (numberOfChunks == 1)
+			sum = getWorkspace(0).accumulate(inputs, targets, rows, from, to);
+		else {
+			ArrayList<Future<Double>> futures = new ArrayList<>(numberOfChunks);
+			for (int c = 0; c < numberOfChunks; c++) {
+				final Workspace workspace = getWorkspace(c);
+				final int start = from + c * chunkSize;
+				final int end = Math.min(start + chunkSize, to);
+				futures.add(getExecutor().submit(() -> workspace.accumulate(inputs, targets, rows, start, end)));
+			}
+			
+			try {
+				for (Future<Double> future : futures)
+					sum += future.get();
+			} catch (InterruptedException ex) {
+				for (Future<Double> future : futures)
+					future.cancel(true);
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("The training of the batch has been interrupted.", ex);
+			} catch (ExecutionException ex) {
+				for (Future<Double> future : futures)
+					future.cancel(true);
+				throw new IllegalStateException("A row of the batch could not be trained.", ex.getCause());
+			}
+		}
+		
+		// Reduce the gradients of the chunks, always in the same order
+		final double scale = 1.0 / count;
+		System.arraycopy(workspaces[0].gradient, 0, gradient, 0, gradient.length);
+		for (int c = 1; c < numberOfChunks; c++) {
+			double[] chunkGradient = workspaces[c].gradient;
+			for (int p = 0; p < gradient.length; p++)
+				gradient[p] += chunkGradient[p];
+		}
+		for (int p = 0; p < gradient.length; p++)
+			gradient[p] *= scale;
+		
+		return sum / count;
+	}
+	
+	@NotNull
+	private Workspace getWorkspace(int index) {
+		if (index >= workspaces.length)
+			workspaces = Arrays.copyOf(workspaces, index + 1);
+		
+		if (workspaces[index] == null)
+			workspaces[index] = new Workspace();
+		
+		return workspaces[index];
+	}
+	
+	@SuppressWarnings("ConstantConditions")
+	private void checkRows(@NotNull double[][] inputs, @NotNull double[][] targets) {
+		if (inputs == null || targets == null)
+			throw new NullPointerException();
+		
+		if (inputs.length != targets.length)
+			throw new IllegalArgumentException("There must be as many targets as inputs (inputs: " + inputs.length + " ; targets: " + targets.length + ").");
+		
+		for (int r = 0; r < inputs.length; r++) {
+			if (inputs[r] == null || targets[r] == null)
+				throw new NullPointerException();
+			
+			if (inputs[r].length != sizes[0] || targets[r].length != sizes[sizes.length - 1])
+				throw new IllegalArgumentException("Wrong number of inputs or targets in the row " + r + " (expected: " + sizes[0] + " -> " + sizes[sizes.length - 1] + " ; actual: " + inputs[r].length + " -> " + targets[r].length + ").");
+		}
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	/**
+	 * @return The network with the current parameters. It is not updated by the next steps.
+	 */
+	@NotNull
+	public DenseNetwork getNetwork() {
+		return structure.withParameters(parameters);
+	}
+	
+	/**
+	 * @return A copy of the current parameters.
+	 */
+	@NotNull
+	public double[] getParameters() {
+		return parameters.clone();
+	}
+	
+	/**
+	 * @return The number of steps done.
+	 */
+	public long getSteps() {
+		return steps;
+	}
+	
+	@NotNull
+	public Optimizer getOptimizer() {
+		return optimizer;
+	}
+	
+	public void setOptimizer(@NotNull Optimizer optimizer) {
+		if (optimizer == null)
+			throw new NullPointerException();
+		
+		this.optimizer = optimizer;
+	}
+	
+	@NotNull
+	public Loss getLoss() {
+		return loss;
+	}
+	
+	/**
+	 * @param loss The loss to minimize. The default is {@link Loss#MEAN_SQUARED_ERROR}.
+	 */
+	public void setLoss(@NotNull Loss loss) {
+		if (loss == null)
+			throw new NullPointerException();
+		
+		this.loss = loss;
+	}
+	
+	public int getBatchSize() {
+		return batchSize;
+	}
+	
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("The size of a batch must be greater than 0.");
+		
+		this.batchSize = batchSize;
+	}
+	
+	@Nullable
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * @param executor The executor used to split the batches, or null to run them on the caller thread. The loss and
+	 *                 the activation handlers must then be thread-safe.
+	 */
+	public void setExecutor(@Nullable ExecutorService executor) {
+		this.executor = executor;
+	}
+	
+	/* WORKSPACE CLASS */
+	
+	/**
+	 * Buffers of the rows of one chunk: the values of the forward pass, the errors of the backward pass, and the
+	 * gradient accumulated over the rows.
+	 */
+	private class Workspace {
+		
+		@NotNull
+		private final double[] gradient = new double[parameters.length];
+		
+		/**
+		 * Values of each layer before activation.
+		 */
+		@NotNull
+		private final double[][] sums;
+		
+		/**
+		 * Outputs of each layer.
+		 */
+		@NotNull
+		private final double[][] activations;
+		
+		/**
+		 * Derivative of the loss with respect to the values of each layer before activation.
+		 */
+		@NotNull
+		private final double[][] deltas;
+		
+		@NotNull
+		private final double[] outputGradient;
+		
+		private Workspace() {
+			int layers = sizes.length - 1;
+			sums = new double[layers][];
+			activations = new double[layers][];
+			deltas = new double[layers][];
+			for (int l = 0; l < layers; l++) {
+				sums[l] = new double[sizes[l + 1]];
+				activations[l] = new double[sizes[l + 1]];
+				deltas[l] = new double[sizes[l + 1]];
+			}
+			outputGradient = new double[sizes[layers]];
+		}
+		
+		/**
+		 * Reset the gradient, then accumulate the gradient of the loss of the rows {@code rows[from, to[}.
+		 * @return The sum of the losses of the rows.
+		 */
+		private double accumulate(@NotNull double[][] inputs, @NotNull double[][] targets, @NotNull int[] rows, int from, int to) {
+			Arrays.fill(gradient, 0.0);
+			int last = sizes.length - 2;
+			
+			double sum = 0.0;
+			for (int r = from; r < to; r++) {
+				double[] input = inputs[rows[r]];
+				forward(input);
+				sum += loss.evaluate(activations[last], targets[rows[r]], outputGradient);
+				backward(input);
+			}
+			
+			return sum;
+		}
+		
+		/**
+		 * Same computation as the forward pass of {@link DenseNetwork}, keeping the values of every layer.
+		 */
+		private void forward(@NotNull double[] input) {
+			double[] p = parameters;
+			double[] in = input;
+			
+			for (int l = 0; l < sums.length; l++) {
+				int rows = sizes[l + 1];
+				int columns = sizes[l];
+				int w = weightOffsets[l];
+				int b = biasOffsets[l];
+				double[] sum = sums[l];
+				double[] out = activations[l];
+				ActivationHandler[] layerHandlers = handlers[l];
+				
+				for (int j = 0; j < rows; j++, w += columns) {
+					double s = 0.0;
+					for (int i = 0; i < columns; i++)
+						s += in[i] * p[w + i];
+					
+					sum[j] = s + p[b + j];
+					out[j] = layerHandlers[j].activate(sum[j]);
+				}
+				
+				in = out;
+			}
+		}
+		
+		/**
+		 * Propagate the gradient of the loss of the row (in {@link #outputGradient}) back to the inputs, and add the
+		 * derivatives with respect to each parameter to {@link #gradient}.
+		 */
+		private void backward(@NotNull double[] input) {
+			double[] p = parameters;
+			double[] g = gradient;
+			int last = sums.length - 1;
+			
+			for (int j = 0; j < sizes[last + 1]; j++)
+				deltas[last][j] = outputGradient[j] * handlers[last][j].derivative(sums[last][j]);
+			
+			for (int l = last; l >= 0; l--) {
+				int rows = sizes[l + 1];
+				int columns = sizes[l];
+				int w = weightOffsets[l];
+				int b = biasOffsets[l];
+				double[] in = l > 0 ? activations[l - 1] : input;
+				double[] delta = deltas[l];
+				double[] previous = l > 0 ? deltas[l - 1] : null;
+				
+				if (previous != null)
+					Arrays.fill(previous, 0.0);
+				
+				for (int j = 0; j < rows; j++, w += columns) {
+					double d = delta[j];
+					if (d == 0.0)
+						continue;
+					
+					g[b + j] += d;
+					for (int i = 0; i < columns; i++)
+						g[w + i] += d * in[i];
+					
+					if (previous != null)
+						for (int i = 0; i < columns; i++)
+							previous[i] += p[w + i] * d;
+				}
+				
+				if (previous != null)
+					for (int i = 0; i < columns; i++)
+						previous[i] *= handlers[l - 1][i].derivative(sums[l - 1][i]);
+			}
+		}
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "Trainer{" +
+				"sizes=" + Arrays.toString(sizes) +
+				", optimizer=" + optimizer +
+				", batchSize=" + batchSize +
+				", steps=" + steps +
+				'}';
+	}
+}
@@ -0,0 +1,17 @@
+package fr.berger.darwin.neuroevolution;
+
+import fr.berger.darwin.connection.dense.DenseNetwork;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fitness function of the networks evolved by a {@link NeuroevolutionMutable}.
+ */
+@FunctionalInterface
+public interface NetworkFitness {
+
+	/**
+	 * @param network The network to evaluate. It can be activated as many times as needed, and from several threads.
+	 * @return The fitness of the network: the fitter the network, the higher the fitness.
+	 */
+	double evaluate(@NotNull DenseNetwork network);
+}
@@ -0,0 +1,220 @@
+package fr.berger.darwin.neuroevolution;
+
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.connection.NeuralNetwork;
+import fr.berger.darwin.connection.dense.DenseNetwork;
+import fr.berger.darwin.remixed.DoubleChromosome;
+import fr.berger.darwin.remixed.Individual;
+import fr.berger.darwin.remixed.Mutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Evolve the weights and biases of a network with a {@link fr.berger.darwin.remixed.Population}.
+ * <p>
+ * The genome of an individual is a single {@link DoubleChromosome} holding all the parameters of the network, with
+ * the layout of {@link DenseNetwork#getParameters()}. The topology and the activation handlers never change: they are
+ * taken from a template network, compiled once. To evaluate an individual, the template is combined with its
+ * parameters (see {@link DenseNetwork#withParameters(double[])}), so no object graph is built.
+ * <p>
+ * The mutation adds a gaussian noise to the parameters, and the crossover is a one-point crossover on the genome.
+ * Both draw from the generator of the population (see {@link fr.berger.darwin.remixed.Population#getRandom()}), or
+ * from {@link Irregular#getGenerator()} when they are called without generator.
+ */
+public class NeuroevolutionMutable implements Mutable<Double> {
+
+	@NotNull
+	private final DenseNetwork template;
+	
+	@NotNull
+	private final NetworkFitness fitness;
+	
+	/**
+	 * Probability for each parameter to be mutated.
+	 */
+	private double mutationRate;
+	
+	/**
+	 * Standard deviation of the noise added to a mutated parameter.
+	 */
+	private double mutationStrength;
+	
+	/**
+	 * The parameters of the random individuals are drawn in {@code [-initialRange, initialRange]}.
+	 */
+	private double initialRange;
+	
+	@SuppressWarnings("ConstantConditions")
+	public NeuroevolutionMutable(@NotNull DenseNetwork template, @NotNull NetworkFitness fitness, double mutationRate, double mutationStrength, double initialRange) {
+		if (template == null || fitness == null)
+			throw new NullPointerException();
+		
+		this.template = template;
+		this.fitness = fitness;
+		setMutationRate(mutationRate);
+		setMutationStrength(mutationStrength);
+		setInitialRange(initialRange);
+	}
+	public NeuroevolutionMutable(@NotNull DenseNetwork template, @NotNull NetworkFitness fitness) {
+		this(template, fitness, 0.1, 0.5, 1.0);
+	}
+	public NeuroevolutionMutable(@NotNull NeuralNetwork template, @NotNull NetworkFitness fitness) {
+		this(template.compile(), fitness);
+	}
+	
+	/* NEUROEVOLUTION METHODS */
+	
+	/**
+	 * @param individual An individual created by this class.
+	 * @return The network encoded by the genome of the individual. It is not updated when the genome changes.
+	 */
+	@NotNull
+	public DenseNetwork toNetwork(@NotNull Individual<Double> individual) {
+		return template.withParameters(getGenome(individual).peekValues());
+	}
+	
+	/**
+	 * @param parameters The weights and biases, with the layout of {@link DenseNetwork#getParameters()}.
+	 * @return A new individual encoding those parameters (they are copied).
+	 */
+	@SuppressWarnings("unchecked")
+	@NotNull
+	public Individual<Double> createIndividual(@NotNull double[] parameters) {
+		if (parameters.length != template.getParameterCount())
+			throw new IllegalArgumentException("Wrong number of parameters (expected: " + template.getParameterCount() + " ; actual: " + parameters.length + ").");
+		
+		return new Individual<>(new DoubleChromosome(parameters.clone()));
+	}
+	
+	/**
+	 * @return The chromosome holding the parameters of the individual.
+	 * @throws IllegalArgumentException If the individual has not been created by a {@link NeuroevolutionMutable}.
+	 */
+	@NotNull
+	public static DoubleChromosome getGenome(@NotNull Individual<Double> individual) {
+		if (individual.getChromosomes().size() != 1 || !(individual.getChromosomes().get(0) instanceof DoubleChromosome))
+			throw new IllegalArgumentException("The genome of a network is a single DoubleChromosome (individual: " + individual + ").");
+		
+		return (DoubleChromosome) individual.getChromosomes().get(0);
+	}
+	
+	/* MUTABLE */
+	
+	@Override
+	public double calculateFitness(@NotNull Individual<Double> individual) {
+		return fitness.evaluate(toNetwork(individual));
+	}
+	
+	@NotNull
+	@Override
+	public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+		return mutate(individual, Irregular.getGenerator());
+	}
+	
+	@NotNull
+	@Override
+	public Individual<Double> mutate(@NotNull Individual<Double> individual, @NotNull Random random) {
+		getGenome(individual).mutate(random, getMutationRate(), getMutationStrength());
+		return individual;
+	}
+	
+	@NotNull
+	@Override
+	public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+		return mate(parent1, parent2, Irregular.getGenerator());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@NotNull
+	@Override
+	public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2, @NotNull Random random) {
+		DoubleChromosome genome1 = getGenome(parent1).copy();
+		DoubleChromosome genome2 = getGenome(parent2).copy();
+		
+		genome1.swapTail(genome2, random.nextInt(genome1.length() + 1));
+		
+		ArrayList<Individual<Double>> children = new ArrayList<>(2);
+		children.add(new Individual<>(genome1));
+		children.add(new Individual<>(genome2));
+		
+		return children;
+	}
+	
+	@NotNull
+	@Override
+	public Individual<Double> generateRandom() {
+		return generateRandom(Irregular.getGenerator());
+	}
+	
+	@NotNull
+	@Override
+	public Individual<Double> generateRandom(@NotNull Random random) {
+		double[] parameters = new double[(int) template.getParameterCount()];
+		for (int i = 0; i < parameters.length; i++)
+			parameters[i] = (random.nextDouble() * 2.0 - 1.0) * getInitialRange();
+		
+		return createIndividual(parameters);
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	/**
+	 * @return The network giving the topology and the activation handlers of the individuals.
+	 */
+	@NotNull
+	public DenseNetwork getTemplate() {
+		return template;
+	}
+	
+	@NotNull
+	public NetworkFitness getFitness() {
+		return fitness;
+	}
+	
+	public double getMutationRate() {
+		return mutationRate;
+	}
+	
+	public void setMutationRate(double mutationRate) {
+		if (mutationRate < 0.0 || mutationRate > 1.0)
+			throw new IllegalArgumentException("The mutation rate must be between 0 and 1.");
+		
+		this.mutationRate = mutationRate;
+	}
+	
+	public double getMutationStrength() {
+		return mutationStrength;
+	}
+	
+	public void setMutationStrength(double mutationStrength) {
+		if (mutationStrength < 0.0)
+			throw new IllegalArgumentException("The mutation strength must be positive.");
+		
+		this.mutationStrength = mutationStrength;
+	}
+	
+	public double getInitialRange() {
+		return initialRange;
+	}
+	
+	public void setInitialRange(double initialRange) {
+		if (initialRange < 0.0)
+			throw new IllegalArgumentException("The initial range must be positive.");
+		
+		this.initialRange = initialRange;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "NeuroevolutionMutable{" +
+				"template=\"" + template + '\"' +
+				", mutationRate=\"" + mutationRate + '\"' +
+				", mutationStrength=\"" + mutationStrength + '\"' +
+				", initialRange=\"" + initialRange + '\"' +
+				'}';
+	}
+}
@@ -0,0 +1,468 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.SplitMixRandom;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Island model: several populations (the islands) evolve independently, and their fittest individuals migrate to the
+ * other islands every {@code migrationInterval} generations, according to the topology of the archipelago.
+ * <p>
+ * Each call to {@link #evolve()} is an epoch: every island receives the migrants sent to it during the previous epoch
+ * (they replace its least fit individuals), evolves {@code migrationInterval} generations, and sends a copy of its
+ * {@code migrationSize} fittest individuals to its neighbours. The islands of an epoch are evolved concurrently if an
+ * executor has been given. The inboxes are double-buffered: the migrants of an epoch are written in the inboxes of the
+ * next epoch, so an island never reads the inbox the other islands are writing in, and each island has its own slot in
+ * each inbox. The migrants are received in the order of the islands sending them, so an epoch gives the same result
+ * whatever the order in which the islands run.
+ * <p>
+ * The islands must not share any state: they must have their own {@link FitnessCache} (if any), their own generator
+ * (see {@link #setRandom(Random)}), and the {@link Mutable} of the islands must be thread-safe if it is shared.
+ * @param <T> The type of the genes.
+ */
+public class Archipelago<T> implements Iterable<Population<T>> {
+
+	/**
+	 * The destinations of the migrants of each island.
+	 */
+	public enum Topology {
+		/**
+		 * The island {@code i} sends its migrants to the island {@code i + 1}, and the last island to the first one.
+		 */
+		RING,
+		/**
+		 * Each island sends its migrants to all the other islands.
+		 */
+		FULLY_CONNECTED,
+		/**
+		 * Each island sends its migrants to another island, drawn at random at each epoch.
+		 */
+		RANDOM
+	}
+	
+	@NotNull
+	private ArrayList<Population<T>> islands;
+	
+	/**
+	 * The migrants sent to each island during the last epoch, in the same order as {@link #islands}. They are received
+	 * during the current epoch.
+	 */
+	@NotNull
+	private ArrayList<Inbox<T>> inboxes;
+	
+	/**
+	 * The migrants sent to each island during the current epoch, received during the next one.
+	 */
+	@NotNull
+	private ArrayList<Inbox<T>> nextInboxes;
+	
+	@NotNull
+	private Topology topology;
+	
+	private int migrationInterval;
+	private int migrationSize;
+	
+	/**
+	 * Generator of the random topology.
+	 */
+	@Nullable
+	private Random random;
+	
+	/**
+	 * Number of epochs done since the creation of the archipelago.
+	 */
+	private long epoch;
+	
+	/**
+	 * Executor used to evolve the islands concurrently. If null, the islands are evolved one after another on the
+	 * caller thread. The archipelago does not own the executor: it is never shut down here.
+	 */
+	@Nullable
+	private ExecutorService executor;
+	
+	public Archipelago(@NotNull List<Population<T>> islands, @NotNull Topology topology, int migrationInterval, int migrationSize, @Nullable ExecutorService executor) {
+		setIslands(islands);
+		setTopology(topology);
+		setMigrationInterval(migrationInterval);
+		setMigrationSize(migrationSize);
+		setExecutor(executor);
+	}
+	public Archipelago(@NotNull List<Population<T>> islands, @Nullable ExecutorService executor) {
+		this(islands, Topology.RING, 10, 2, executor);
+	}
+	public Archipelago(@NotNull List<Population<T>> islands) {
+		this(islands, null);
+	}
+	
+	/* ARCHIPELAGO METHODS */
+	
+	/**
+	 * Run an epoch: receive the migrants, evolve every island {@code migrationInterval} times, then send the migrants.
+	 */
+	public void evolve() {
+		int[][] destinations = computeDestinations(getRandom());
+		
+		// The migrants sent during the last epoch are received now, the islands send theirs to the next epoch
+		ArrayList<Inbox<T>> received = nextInboxes;
+		nextInboxes = inboxes;
+		inboxes = received;
+		for (Inbox<T> inbox : nextInboxes)
+			inbox.clear();
+		
+		if (getExecutor() == null || islands.size() < 2) {
+			for (int i = 0; i < islands.size(); i++)
+				evolveIsland(i, destinations[i]);
+		}
+		else {
+			ArrayList<Callable<Void>> tasks = new ArrayList<>(islands.size());
+			for (int i = 0; i < islands.size(); i++) {
+				final int index = i;
+				tasks.add(() -> {
+					evolveIsland(index, destinations[index]);
+					return null;
+				});
+			}
+			
+			runConcurrently(getExecutor(), tasks);
+		}
+		
+		epoch++;
+	}
+	
+	/**
+	 * Run {@code epochs} epochs (see {@link #evolve()}).
+	 */
+	public void evolve(long epochs) {
+		for (long i = 0; i < epochs; i++)
+			evolve();
+	}
+	
+	private void evolveIsland(int index, @NotNull int[] destinations) {
+		Population<T> island = islands.get(index);
+		
+		immigrate(island, inboxes.get(index));
+		
+		for (int generation = 0; generation < getMigrationInterval(); generation++)
+			island.evolve();
+		
+		emigrate(index, island, destinations);
+	}
+	
+	/**
+	 * Replace the least fit individuals of the island by the migrants waiting in its inbox.
+	 */
+	private void immigrate(@NotNull Population<T> island, @NotNull Inbox<T> inbox) {
+		int migrants = inbox.size();
+		if (migrants == 0)
+			return;
+		
+		ArrayList<Individual<T>> individuals = new ArrayList<>(island.getIndividuals().size() + migrants);
+		for (int i = 0; i < island.getIndividuals().size(); i++)
+			individuals.add(island.getIndividuals().get(i));
+		
+		// The fitness of the residents is the one calculated at the end of the last generation
+		int replaced = Math.min(migrants, individuals.size());
+		if (replaced > 0 && replaced < individuals.size())
+			FitnessSelection.select(individuals, replaced - 1);
+		
+		FitnessCache<T> fitnessCache = island.getFitnessCache();
+		int i = 0;
+		for (ArrayList<Individual<T>> sent : inbox.senders) {
+			for (Individual<T> migrant : sent) {
+				if (i < replaced) {
+					// As in Population.evolve(), the cache stops listening to the residents that are dropped
+					if (fitnessCache != null)
+						fitnessCache.release(individuals.get(i));
+					individuals.set(i++, migrant);
+				}
+				else
+					individuals.add(migrant);
+			}
+		}
+		inbox.clear();
+		
+		FitnessSelection.moveFittestToEnd(individuals);
+		island.setIndividuals(new Lexicon<>(individuals));
+	}
+	
+	/**
+	 * Send a copy of the fittest individuals of the island to the inboxes of its destinations.
+	 */
+	private void emigrate(int index, @NotNull Population<T> island, @NotNull int[] destinations) {
+		int size = island.getIndividuals().size();
+		int count = Math.min(getMigrationSize(), size);
+		if (count == 0 || destinations.length == 0)
+			return;
+		
+		ArrayList<Individual<T>> individuals = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			individuals.add(island.getIndividuals().get(i));
+		
+		// The 'count' fittest individuals are moved at the end of the list
+		if (count < size)
+			FitnessSelection.select(individuals, size - count);
+		
+		// Each destination receives its own copies, so the islands never share an individual. The island only writes in
+		// its own slot of the inboxes of the next epoch
+		for (int destination : destinations) {
+			ArrayList<Individual<T>> sent = nextInboxes.get(destination).senders.get(index);
+			for (int i = size - count; i < size; i++)
+				sent.add(individuals.get(i).copy());
+		}
+	}
+	
+	@NotNull
+	private int[][] computeDestinations(@NotNull Random random) {
+		int n = islands.size();
+		int[][] destinations = new int[n][];
+		
+		for (int i = 0; i < n; i++) {
+			if (n < 2)
+				destinations[i] = new int[0];
+			else {
+				switch (getTopology()) {
+					case RING:
+						destinations[i] = new int[] { (i + 1) % n };
+						break;
+					case FULLY_CONNECTED:
+						destinations[i] = new int[n - 1];
+						for (int j = 0, k = 0; j < n; j++)
+							if (j != i)
+								destinations[i][k++] = j;
+						break;
+					case RANDOM:
+						// Draw among the n - 1 other islands
+						int destination = random.nextInt(n - 1);
+						destinations[i] = new int[] { destination >= i ? destination + 1 : destination };
+						break;
+				}
+			}
+		}
+		
+		return destinations;
+	}
+	
+	private static void runConcurrently(@NotNull ExecutorService executor, @NotNull List<Callable<Void>> tasks) {
+		ArrayList<Future<Void>> futures = new ArrayList<>(tasks.size());
+		for (Callable<Void> task : tasks)
+			futures.add(executor.submit(task));
+		
+		// Waiting for all the islands is the barrier between two epochs: all the migrants have been sent after it
+		try {
+			for (Future<Void> future : futures)
+				future.get();
+		} catch (InterruptedException ex) {
+			for (Future<Void> future : futures)
+				future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The evolution of the archipelago has been interrupted.", ex);
+		} catch (ExecutionException ex) {
+			for (Future<Void> future : futures)
+				future.cancel(true);
+			throw new IllegalStateException("An island could not evolve.", ex.getCause());
+		}
+	}
+	
+	/**
+	 * @return The fittest individual among all the islands, or null if all the islands are empty. The fitness of the
+	 * individuals must be up to date.
+	 */
+	@Nullable
+	public Individual<T> getFittest() {
+		Individual<T> fittest = null;
+		
+		for (Population<T> island : islands)
+			for (Individual<T> individual : island)
+				if (fittest == null || Double.compare(individual.getFitness(), fittest.getFitness()) > 0)
+					fittest = individual;
+		
+		return fittest;
+	}
+	
+	/* GETTER & SETTER */
+	
+	/**
+	 * @return The islands (not a copy). They must not be modified during {@link #evolve()}.
+	 */
+	@NotNull
+	public List<Population<T>> getIslands() {
+		return islands;
+	}
+	
+	@SuppressWarnings("ConstantConditions")
+	public void setIslands(@NotNull List<Population<T>> islands) {
+		if (islands == null)
+			throw new NullPointerException();
+		
+		for (Population<T> island : islands)
+			if (island == null)
+				throw new NullPointerException();
+		
+		this.islands = new ArrayList<>(islands);
+		this.inboxes = new ArrayList<>(islands.size());
+		this.nextInboxes = new ArrayList<>(islands.size());
+		for (int i = 0; i < islands.size(); i++) {
+			this.inboxes.add(new Inbox<>(islands.size()));
+			this.nextInboxes.add(new Inbox<>(islands.size()));
+		}
+	}
+	
+	@NotNull
+	public Topology getTopology() {
+		return topology;
+	}
+	
+	@SuppressWarnings("ConstantConditions")
+	public void setTopology(@NotNull Topology topology) {
+		if (topology == null)
+			throw new NullPointerException();
+		
+		this.topology = topology;
+	}
+	
+	public int getMigrationInterval() {
+		return migrationInterval;
+	}
+	
+	/**
+	 * @param migrationInterval The number of generations between two migrations. It must be greater than 0.
+	 */
+	public void setMigrationInterval(int migrationInterval) {
+		if (migrationInterval <= 0)
+			throw new IllegalArgumentException("The migration interval must be greater than 0.");
+		
+		this.migrationInterval = migrationInterval;
+	}
+	
+	public int getMigrationSize() {
+		return migrationSize;
+	}
+	
+	/**
+	 * @param migrationSize The number of individuals sent by each island to each of its destinations.
+	 */
+	public void setMigrationSize(int migrationSize) {
+		if (migrationSize < 0)
+			throw new IllegalArgumentException("The migration size must be positive.");
+		
+		this.migrationSize = migrationSize;
+	}
+	
+	@NotNull
+	public Random getRandom() {
+		if (random == null)
+			random = new SplitMixRandom();
+		
+		return random;
+	}
+	
+	/**
+	 * Set the generator of the archipelago, and give each island its own generator split from it (see
+	 * {@link Population#setRandom(Random)}). An archipelago evolves the same way from the same seed, concurrently or
+	 * not, as long as the {@link Mutable} of the islands only draws from the generators it receives: the islands only
+	 * exchange their migrants between two epochs, in a fixed order.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void setRandom(@NotNull Random random) {
+		if (random == null)
+			throw new NullPointerException();
+		
+		this.random = random;
+		for (Population<T> island : islands)
+			island.setRandom(SplitMixRandom.split(random));
+	}
+	
+	public long getEpoch() {
+		return epoch;
+	}
+	
+	public @Nullable ExecutorService getExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * Set the executor used to evolve the islands. A fixed thread pool with one thread per core is a good fit; the
+	 * islands should then not use an evaluation executor themselves.
+	 * @param executor The executor, or null to evolve the islands on the caller thread.
+	 */
+	public void setExecutor(@Nullable ExecutorService executor) {
+		this.executor = executor;
+	}
+	
+	/* OVERRIDES */
+	
+	@NotNull
+	@Override
+	public Iterator<Population<T>> iterator() {
+		return islands.iterator();
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Archipelago)) return false;
+		Archipelago<?> that = (Archipelago<?>) o;
+		return getMigrationInterval() == that.getMigrationInterval() &&
+				getMigrationSize() == that.getMigrationSize() &&
+				Objects.equals(getIslands(), that.getIslands()) &&
+				getTopology() == that.getTopology();
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(getIslands(), getTopology(), getMigrationInterval(), getMigrationSize());
+	}
+	
+	@Override
+	public String toString() {
+		return "Archipelago{" +
+				"islands=\"" + islands.size() + '\"' +
+				", topology=\"" + topology + '\"' +
+				", migrationInterval=\"" + migrationInterval + '\"' +
+				", migrationSize=\"" + migrationSize + '\"' +
+				", epoch=\"" + epoch + '\"' +
+				'}';
+	}
+	
+	/* INBOX */
+	
+	/**
+	 * Migrants sent to an island during an epoch, with one list per sending island. Each list is only written by its
+	 * sender, and the island reads the lists once all the senders are done (the barrier between two epochs).
+	 */
+	private static final class Inbox<T> {
+		
+		@NotNull
+		private final ArrayList<ArrayList<Individual<T>>> senders;
+		
+		private Inbox(int numberOfIslands) {
+			senders = new ArrayList<>(numberOfIslands);
+			for (int i = 0; i < numberOfIslands; i++)
+				senders.add(new ArrayList<>());
+		}
+		
+		private int size() {
+			int size = 0;
+			for (ArrayList<Individual<T>> sent : senders)
+				size += sent.size();
+			
+			return size;
+		}
+		
+		private void clear() {
+			for (ArrayList<Individual<T>> sent : senders)
+				sent.clear();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link Mutable} whose fitness function is asynchronous, for the fitness functions waiting for a simulator, a
+ * subprocess or a remote service.
+ * <p>
+ * {@link Population#evaluate()} and {@link SteadyStateEvolution} start the evaluations without waiting for them, and
+ * keep at most {@code maxPendingEvaluations} of them in flight (see
+ * {@link Population#setMaxPendingEvaluations(int)}). The futures are completed on the threads chosen by the
+ * implementation: for an I/O-bound fitness function, one thread per evaluation (a virtual thread, where the JVM
+ * provides them) or a non-blocking client let thousands of evaluations wait at the same time.
+ * @param <T> The type of the genes.
+ */
+public interface AsyncMutable<T> extends Mutable<T> {
+
+	/**
+	 * Start the calculation of the fitness of the individual. The genome of the individual is not changed until the
+	 * future is completed.
+	 * @param random The generator of the individual, as in {@link Mutable#calculateFitness(Individual, Random)}. It
+	 *               must not be used once the future is completed.
+	 * @return The future fitness of the individual.
+	 */
+	@NotNull
+	CompletableFuture<Double> calculateFitnessAsync(@NotNull Individual<T> individual, @NotNull Random random);
+	
+	/* SYNCHRONOUS VARIANTS */
+	
+	/**
+	 * Wait for the asynchronous fitness, calculated with a generator seeded at random.
+	 * @throws CompletionException If the calculation of the fitness failed.
+	 */
+	@Override
+	default double calculateFitness(@NotNull Individual<T> individual) {
+		return calculateFitness(individual, new SplitMixRandom());
+	}
+	
+	/**
+	 * Wait for the asynchronous fitness.
+	 * @throws CompletionException If the calculation of the fitness failed.
+	 */
+	@Override
+	default double calculateFitness(@NotNull Individual<T> individual, @NotNull Random random) {
+		return calculateFitnessAsync(individual, random).join();
+	}
+}
@@ -0,0 +1,294 @@
+package fr.berger.darwin.remixed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Chromosome of bits, backed by a {@code long[]} bitset (64 bits per word).
+ */
+public class BitChromosome extends PrimitiveChromosome<Boolean> {
+
+	@NotNull
+	private transient long[] words;
+	
+	private transient int length;
+	
+	public BitChromosome(int length) {
+		super();
+		allocate(length);
+	}
+	public BitChromosome(@NotNull boolean... bits) {
+		super();
+		allocate(bits.length);
+		for (int i = 0; i < bits.length; i++)
+			set(i, bits[i]);
+	}
+	@SuppressWarnings("ConstantConditions")
+	public BitChromosome(@NotNull BitChromosome copy) {
+		super();
+		
+		if (copy == null)
+			throw new NullPointerException("chromosome copy cannot be null");
+		
+		setWords(copy.words, copy.length());
+		// The listeners are copied, not shared: a listener added to the copy does not listen to the original
+		setGenesListeners(new ArrayList<>(copy.getGenesListeners()));
+		
+		// The words are copied by the first chromosome written
+		setShared(true);
+		copy.setShared(true);
+	}
+	public BitChromosome() {
+		this(0);
+	}
+	
+	/* BIT CHROMOSOME METHODS */
+	
+	public boolean get(int index) {
+		checkIndex(index);
+		return (words[index >>> 6] & (1L << index)) != 0;
+	}
+	
+	public void set(int index, boolean value) {
+		checkIndex(index);
+		if (value)
+			writableWords()[index >>> 6] |= 1L << index;
+		else
+			writableWords()[index >>> 6] &= ~(1L << index);
+	}
+	
+	public void flip(int index) {
+		checkIndex(index);
+		writableWords()[index >>> 6] ^= 1L << index;
+	}
+	
+	/**
+	 * @return The number of bits set to one.
+	 */
+	public int cardinality() {
+		int cardinality = 0;
+		for (long word : words)
+			cardinality += Long.bitCount(word);
+		
+		return cardinality;
+	}
+	
+	/**
+	 * One-point crossover: exchange the bits from {@code pivot} (inclusive) to the end with {@code other}, in place.
+	 * @param other The other chromosome. It must have the same length.
+	 * @param pivot The index of the first bit to exchange.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void swapTail(@NotNull BitChromosome other, int pivot) {
+		if (other == null)
+			throw new NullPointerException();
+		
+		if (other.length() != length())
+			throw new IllegalArgumentException("Both chromosomes must have the same length (" + length() + " != " + other.length() + ").");
+		
+		if (pivot < 0 || pivot > length())
+			throw new IndexOutOfBoundsException("pivot: " + pivot + " ; length: " + length());
+		
+		if (pivot == length())
+			return;
+		
+		long[] a = writableWords();
+		long[] b = other.writableWords();
+		
+		// The word containing the pivot is only partially exchanged
+		int first = pivot >>> 6;
+		long diff = (a[first] ^ b[first]) & (-1L << pivot);
+		a[first] ^= diff;
+		b[first] ^= diff;
+		
+		// The unused bits of the last word are zero in both chromosomes, so the remaining words can be exchanged whole
+		for (int i = first + 1; i < a.length; i++) {
+			long tmp = a[i];
+			a[i] = b[i];
+			b[i] = tmp;
+		}
+	}
+	
+	/**
+	 * Bit-flip mutation: flip each bit with the probability {@code rate}.
+	 * @param random The random generator to draw from.
+	 * @param rate The probability for each bit to be flipped.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void mutate(@NotNull Random random, double rate) {
+		if (random == null)
+			throw new NullPointerException();
+		
+		// The words are only copied if a bit is flipped
+		for (int i = 0; i < length; i++)
+			if (random.nextDouble() < rate)
+				writableWords()[i >>> 6] ^= 1L << i;
+	}
+	
+	private void checkIndex(int index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("index: " + index + " ; length: " + length);
+	}
+	
+	/**
+	 * Overwrite the bits with the bits of {@code source}. The words backing the chromosome are reused when they have the
+	 * same length and are not shared: a recycled chromosome is written without allocating (see
+	 * {@link RecyclingMutable}). Otherwise, the words of {@code source} are shared until one of them is written.
+	 * @param source The chromosome to copy.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void copyFrom(@NotNull BitChromosome source) {
+		if (source == null)
+			throw new NullPointerException();
+		
+		if (source == this)
+			return;
+		
+		if (isShared() || words.length != source.words.length) {
+			words = source.words;
+			setShared(true);
+			source.setShared(true);
+		}
+		else
+			System.arraycopy(source.words, 0, words, 0, words.length);
+		
+		length = source.length;
+		notifyGenesListeners();
+	}
+	
+	@NotNull
+	@Override
+	public BitChromosome copy() {
+		// The copy constructor shares the listeners, they must not be copied here
+		BitChromosome copy = new BitChromosome();
+		copy.setWords(words, length);
+		setShared(true);
+		copy.setShared(true);
+		return copy;
+	}
+	
+	/**
+	 * @return The words backing the chromosome, copied first if they are shared.
+	 */
+	@NotNull
+	private long[] writableWords() {
+		if (isShared()) {
+			words = words.clone();
+			setShared(false);
+		}
+		
+		return words;
+	}
+	
+	@Override
+	public int length() {
+		return length;
+	}
+	
+	@NotNull
+	@Override
+	protected Class<Boolean> getValueClass() {
+		return Boolean.class;
+	}
+	
+	@NotNull
+	@Override
+	protected Boolean getValue(int index) {
+		return get(index);
+	}
+	
+	@Override
+	protected void setValue(int index, @NotNull Boolean value) {
+		set(index, value);
+	}
+	
+	@NotNull
+	@Override
+	protected Object copyValues() {
+		// The length is appended, so two chromosomes of different lengths never have the same copy
+		long[] copy = Arrays.copyOf(words, words.length + 1);
+		copy[words.length] = length;
+		return copy;
+	}
+	
+	@Override
+	protected void allocate(int length) {
+		if (length < 0)
+			throw new IllegalArgumentException("length must be positive.");
+		
+		this.words = new long[(length + 63) >>> 6];
+		this.length = length;
+		setShared(false);
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	/**
+	 * @return A copy of the words backing the chromosome. The bit {@code i} is the bit {@code i % 64} of the word
+	 * {@code i / 64}. The words may be shared with the copies of the chromosome, so they are never handed out to be
+	 * written: write the bits with {@link #set(int, boolean)} or {@link #setWords(long[], int)}, and read them without
+	 * copying with {@link #peekWords()}.
+	 */
+	@NotNull
+	public long[] getWords() {
+		return words.clone();
+	}
+	
+	/**
+	 * @return The words backing the chromosome, without copying them even if they are shared: they must not be
+	 * modified.
+	 */
+	@NotNull
+	public long[] peekWords() {
+		return words;
+	}
+	
+	/**
+	 * @param words The new words backing the chromosome (they are not copied): they must not be modified afterwards.
+	 *              The bits beyond {@code length} must be zero.
+	 * @param length The number of bits in the chromosome.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void setWords(@NotNull long[] words, int length) {
+		if (words == null)
+			throw new NullPointerException();
+		
+		if (length < 0 || words.length != (length + 63) >>> 6)
+			throw new IllegalArgumentException("The number of words does not match the length (words: " + words.length + " ; length: " + length + ").");
+		
+		this.words = words;
+		this.length = length;
+		setShared(false);
+		notifyGenesListeners();
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof BitChromosome)) return false;
+		BitChromosome that = (BitChromosome) o;
+		return length == that.length &&
+				Arrays.equals(words, that.words);
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(words) + length;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder bits = new StringBuilder(Math.min(length, 64));
+		for (int i = 0; i < Math.min(length, 64); i++)
+			bits.append(get(i) ? '1' : '0');
+		
+		return "BitChromosome{" +
+				"bits=\"" + (length > 64 ? bits + "... (" + length + ")" : bits.toString()) + '\"' +
+				'}';
+	}
+}
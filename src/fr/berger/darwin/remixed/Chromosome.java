@@ -1,9 +1,9 @@
 package fr.berger.darwin.remixed;
 
 import fr.berger.beyondcode.annotations.NotEmpty;
-import fr.berger.beyondcode.util.EnhancedObservable;
 import fr.berger.darwin.remixed.listeners.FitnessListener;
 import fr.berger.darwin.remixed.listeners.GenesListener;
+import fr.berger.darwin.util.QuietObservable;
 import fr.berger.enhancedlist.lexicon.Lexicon;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -14,7 +14,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.*;
 
-public class Chromosome<T> extends EnhancedObservable implements Serializable, Cloneable, Iterable<Gene<T>> {
+public class Chromosome<T> extends QuietObservable implements Serializable, Cloneable, Iterable<Gene<T>> {
 
 	@NotNull
 	private Lexicon<Gene<T>> genes;
@@ -51,6 +51,20 @@ public class Chromosome<T> extends EnhancedObservable implements Serializable, C
 		setGenesListeners(new ArrayList<>());
 	}
 	
+	/**
+	 * Copy the chromosome and its genes. The listeners are not copied. Subclasses should override this method to
+	 * return an instance of their own type.
+	 * @return A deep copy of the chromosome.
+	 */
+	@NotNull
+	public Chromosome<T> copy() {
+		Lexicon<Gene<T>> copies = new Lexicon<>();
+		for (Gene<T> gene : getGenes())
+			copies.add(new Gene<>(gene));
+		
+		return new Chromosome<>(copies);
+	}
+	
 	/* SERIALIZATION METHODS */
 	
 	private void writeObject(@NotNull ObjectOutputStream stream) throws IOException {
@@ -0,0 +1,236 @@
+package fr.berger.darwin.remixed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Chromosome of real values, backed by a {@code double[]}.
+ */
+public class DoubleChromosome extends PrimitiveChromosome<Double> {
+
+	@NotNull
+	private transient double[] values;
+	
+	public DoubleChromosome(int length) {
+		super();
+		setValues(new double[length]);
+	}
+	public DoubleChromosome(@NotNull double... values) {
+		super();
+		setValues(values);
+	}
+	@SuppressWarnings("ConstantConditions")
+	public DoubleChromosome(@NotNull DoubleChromosome copy) {
+		super();
+		
+		if (copy == null)
+			throw new NullPointerException("chromosome copy cannot be null");
+		
+		setValues(copy.values);
+		// The listeners are copied, not shared: a listener added to the copy does not listen to the original
+		setGenesListeners(new ArrayList<>(copy.getGenesListeners()));
+		
+		// The array is copied by the first chromosome written
+		setShared(true);
+		copy.setShared(true);
+	}
+	public DoubleChromosome() {
+		this(0);
+	}
+	
+	/* DOUBLE CHROMOSOME METHODS */
+	
+	public double get(int index) {
+		return values[index];
+	}
+	
+	public void set(int index, double value) {
+		writableValues()[index] = value;
+	}
+	
+	/**
+	 * One-point crossover: exchange the values from {@code pivot} (inclusive) to the end with {@code other}, in place.
+	 * @param other The other chromosome. It must have the same length.
+	 * @param pivot The index of the first value to exchange.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void swapTail(@NotNull DoubleChromosome other, int pivot) {
+		if (other == null)
+			throw new NullPointerException();
+		
+		if (other.length() != length())
+			throw new IllegalArgumentException("Both chromosomes must have the same length (" + length() + " != " + other.length() + ").");
+		
+		if (pivot < 0 || pivot > length())
+			throw new IndexOutOfBoundsException("pivot: " + pivot + " ; length: " + length());
+		
+		if (pivot == length())
+			return;
+		
+		double[] a = writableValues();
+		double[] b = other.writableValues();
+		for (int i = pivot; i < a.length; i++) {
+			double tmp = a[i];
+			a[i] = b[i];
+			b[i] = tmp;
+		}
+	}
+	
+	/**
+	 * Gaussian mutation: add a normally distributed noise to each value, with the probability {@code rate}.
+	 * @param random The random generator to draw from.
+	 * @param rate The probability for each value to be mutated.
+	 * @param standardDeviation The standard deviation of the noise.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void mutate(@NotNull Random random, double rate, double standardDeviation) {
+		if (random == null)
+			throw new NullPointerException();
+		
+		// The array is only copied if a value is mutated
+		for (int i = 0; i < values.length; i++)
+			if (random.nextDouble() < rate)
+				writableValues()[i] += random.nextGaussian() * standardDeviation;
+	}
+	
+	/**
+	 * Overwrite the values with the values of {@code source}. The array backing the chromosome is reused when it
+	 * has the same length and is not shared: a recycled chromosome is written without allocating (see
+	 * {@link RecyclingMutable}). Otherwise, the array of {@code source} is shared until one of them is written.
+	 * @param source The chromosome to copy.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void copyFrom(@NotNull DoubleChromosome source) {
+		if (source == null)
+			throw new NullPointerException();
+		
+		if (source == this)
+			return;
+		
+		if (isShared() || values.length != source.values.length) {
+			values = source.values;
+			setShared(true);
+			source.setShared(true);
+		}
+		else
+			System.arraycopy(source.values, 0, values, 0, values.length);
+		
+		notifyGenesListeners();
+	}
+	
+	@NotNull
+	@Override
+	public DoubleChromosome copy() {
+		DoubleChromosome copy = new DoubleChromosome(values);
+		setShared(true);
+		copy.setShared(true);
+		return copy;
+	}
+	
+	/**
+	 * @return The array backing the chromosome, copied first if it is shared.
+	 */
+	@NotNull
+	private double[] writableValues() {
+		if (isShared()) {
+			values = values.clone();
+			setShared(false);
+		}
+		
+		return values;
+	}
+	
+	@Override
+	public int length() {
+		return values.length;
+	}
+	
+	@NotNull
+	@Override
+	protected Class<Double> getValueClass() {
+		return Double.class;
+	}
+	
+	@NotNull
+	@Override
+	protected Double getValue(int index) {
+		return values[index];
+	}
+	
+	@Override
+	protected void setValue(int index, @NotNull Double value) {
+		writableValues()[index] = value;
+	}
+	
+	@NotNull
+	@Override
+	protected Object copyValues() {
+		// The array is shared instead of copied: it will be copied by the chromosome if it is written
+		setShared(true);
+		return values;
+	}
+	
+	@Override
+	protected void allocate(int length) {
+		values = new double[length];
+		setShared(false);
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	/**
+	 * @return A copy of the values. The array backing the chromosome may be shared with its copies and with the
+	 * {@link FitnessCache}, so it is never handed out to be written: write the values with {@link #set(int, double)} or
+	 * {@link #setValues(double[])}, and read them without copying with {@link #peekValues()}.
+	 */
+	@NotNull
+	public double[] getValues() {
+		return values.clone();
+	}
+	
+	/**
+	 * @return The array backing the chromosome, without copying it even if it is shared: it must not be modified.
+	 */
+	@NotNull
+	public double[] peekValues() {
+		return values;
+	}
+	
+	/**
+	 * @param values The new array backing the chromosome (it is not copied): it must not be modified afterwards.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void setValues(@NotNull double[] values) {
+		if (values == null)
+			throw new NullPointerException();
+		
+		this.values = values;
+		setShared(false);
+		notifyGenesListeners();
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof DoubleChromosome)) return false;
+		DoubleChromosome that = (DoubleChromosome) o;
+		return Arrays.equals(values, that.values);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(values);
+	}
+	
+	@Override
+	public String toString() {
+		return "DoubleChromosome{" +
+				"values=\"" + (length() > 5 ? "... (" + length() + ")" : Arrays.toString(values)) + '\"' +
+				'}';
+	}
+}
@@ -0,0 +1,368 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.remixed.listeners.ChromosomesListener;
+import fr.berger.darwin.remixed.listeners.DataListener;
+import fr.berger.darwin.remixed.listeners.GenesListener;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+
+/**
+ * Bounded cache of fitness values, keyed by the content of the genome. It is used by {@link Population#evaluate()} to
+ * skip {@link Mutable#calculateFitness(Individual)} for the genomes that have already been scored. The least recently
+ * used genomes are evicted first.
+ * <p>
+ * Each individual seen by the cache is tracked with a dirty flag, raised by the gene and chromosome listeners when its
+ * genome changes. An individual that did not change since its last evaluation does not even need to be hashed.
+ * The data of the genes must be immutable (changed only through {@link Gene#setData(Object)}), and the fitness
+ * function must be deterministic.
+ * @param <T> The type of the genes.
+ */
+public class FitnessCache<T> {
+
+	@NotNull
+	private final LinkedHashMap<GenomeKey, Double> fitnesses;
+	
+	private final int capacity;
+	
+	private long hits;
+	private long misses;
+	
+	public FitnessCache(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("The capacity must be greater than 0.");
+		
+		this.capacity = capacity;
+		this.fitnesses = new LinkedHashMap<GenomeKey, Double>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<GenomeKey, Double> eldest) {
+				return size() > FitnessCache.this.capacity;
+			}
+		};
+	}
+	
+	/* FITNESS CACHE METHODS */
+	
+	/**
+	 * Search the fitness of the given individual.
+	 * @param individual The individual.
+	 * @return The fitness if the genome of the individual has already been scored, null otherwise.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	@Nullable
+	public Double get(@NotNull Individual<T> individual) {
+		if (individual == null)
+			throw new NullPointerException();
+		
+		Tracker<T> tracker = track(individual);
+		
+		if (tracker.clean && tracker.scored)
+			return hit(tracker.fitness);
+		
+		if (tracker.key == null || !tracker.clean) {
+			tracker.key = new GenomeKey(individual, tracker);
+			tracker.clean = !tracker.uncheckedGenome;
+			tracker.scored = false;
+		}
+		
+		Double fitness;
+		synchronized (fitnesses) {
+			fitness = fitnesses.get(tracker.key);
+		}
+		
+		if (fitness == null) {
+			misses++;
+			return null;
+		}
+		
+		tracker.fitness = fitness;
+		tracker.scored = true;
+		return hit(fitness);
+	}
+	
+	/**
+	 * Store the fitness of the given individual, as calculated by the fitness function. The genome of the individual
+	 * must not have changed since the last call to {@link #get(Individual)}.
+	 * @param individual The individual.
+	 * @param fitness Its fitness.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void put(@NotNull Individual<T> individual, double fitness) {
+		if (individual == null)
+			throw new NullPointerException();
+		
+		Tracker<T> tracker = track(individual);
+		
+		if (tracker.key == null) {
+			tracker.key = new GenomeKey(individual, tracker);
+			tracker.clean = !tracker.uncheckedGenome;
+		}
+		
+		tracker.fitness = fitness;
+		tracker.scored = true;
+		
+		synchronized (fitnesses) {
+			fitnesses.put(tracker.key, fitness);
+		}
+	}
+	
+	private double hit(double fitness) {
+		hits++;
+		return fitness;
+	}
+	
+	/**
+	 * Stop tracking the given individual: the cache no longer listens to its individual, its chromosomes and its genes.
+	 * The fitness of its genome stays in the cache. {@link Population} releases the individuals it drops.
+	 * @param individual The individual. Nothing is done if it is not tracked by this cache.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void release(@NotNull Individual<T> individual) {
+		if (individual == null)
+			throw new NullPointerException();
+		
+		Tracker<T> tracker = individual.getFitnessTracker();
+		if (tracker == null || tracker.cache != this)
+			return;
+		
+		untrack(individual, tracker);
+	}
+	
+	public void clear() {
+		synchronized (fitnesses) {
+			fitnesses.clear();
+		}
+	}
+	
+	@NotNull
+	private Tracker<T> track(@NotNull Individual<T> individual) {
+		Tracker<T> tracker = individual.getFitnessTracker();
+		
+		if (tracker == null || tracker.cache != this) {
+			// The tracker of another cache would keep listening to the genome
+			if (tracker != null)
+				untrack(individual, tracker);
+			
+			tracker = new Tracker<>(this);
+			individual.setFitnessTracker(tracker);
+			individual.addObserver(tracker);
+			register(individual.getChromosomesListeners(), tracker);
+		}
+		
+		return tracker;
+	}
+	
+	private static <T> void untrack(@NotNull Individual<T> individual, @NotNull Tracker<T> tracker) {
+		tracker.released = true;
+		tracker.key = null;
+		individual.setFitnessTracker(null);
+		individual.deleteObserver(tracker);
+		individual.getChromosomesListeners().remove(tracker);
+		
+		for (Chromosome<T> chromosome : individual.getChromosomes()) {
+			chromosome.deleteObserver(tracker);
+			chromosome.getGenesListeners().remove(tracker);
+			
+			if (!(chromosome instanceof PrimitiveChromosome))
+				for (Gene<T> gene : chromosome.getGenes())
+					gene.getDataListeners().remove(tracker);
+		}
+	}
+	
+	/**
+	 * Add the tracker to the listeners if it is not there yet, and remove the stale trackers: the trackers released by
+	 * a cache, and the trackers deserialized with the genome, which belong to no cache.
+	 */
+	private static <L> void register(@NotNull List<L> listeners, @NotNull L tracker) {
+		boolean registered = false;
+		
+		for (Iterator<L> iterator = listeners.iterator(); iterator.hasNext(); ) {
+			L listener = iterator.next();
+			if (listener == tracker)
+				registered = true;
+			else if (listener instanceof Tracker && ((Tracker<?>) listener).isStale())
+				iterator.remove();
+		}
+		
+		if (!registered)
+			listeners.add(tracker);
+	}
+	
+	/* GETTERS */
+	
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	public int size() {
+		synchronized (fitnesses) {
+			return fitnesses.size();
+		}
+	}
+	
+	public long getHits() {
+		return hits;
+	}
+	
+	public long getMisses() {
+		return misses;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "FitnessCache{" +
+				"size=" + size() +
+				", capacity=" + capacity +
+				", hits=" + hits +
+				", misses=" + misses +
+				'}';
+	}
+	
+	/* GENOME KEY */
+	
+	/**
+	 * Snapshot of the content of a genome. The hash is computed once.
+	 */
+	private static final class GenomeKey {
+		
+		@NotNull
+		private final Object[] content;
+		private final int hash;
+		
+		private <T> GenomeKey(@NotNull Individual<T> individual, @NotNull Tracker<T> tracker) {
+			Lexicon<Chromosome<T>> chromosomes = individual.getChromosomes();
+			content = new Object[chromosomes.size() * 2];
+			tracker.uncheckedGenome = false;
+			
+			for (int i = 0; i < chromosomes.size(); i++) {
+				Chromosome<T> chromosome = chromosomes.get(i);
+				content[2 * i] = chromosome.getClass();
+				
+				if (chromosome instanceof PrimitiveChromosome) {
+					// The values of a primitive chromosome are not observable: the genome must be hashed every time
+					content[2 * i + 1] = ((PrimitiveChromosome<T>) chromosome).copyValues();
+					tracker.uncheckedGenome = true;
+				}
+				else {
+					Lexicon<Gene<T>> genes = chromosome.getGenes();
+					Object[] data = new Object[genes.size()];
+					
+					for (int j = 0; j < genes.size(); j++) {
+						Gene<T> gene = genes.get(j);
+						data[j] = gene.getData();
+						
+						register(gene.getDataListeners(), tracker);
+					}
+					
+					content[2 * i + 1] = data;
+					
+					chromosome.addObserver(tracker);
+					register(chromosome.getGenesListeners(), tracker);
+				}
+			}
+			
+			hash = Arrays.deepHashCode(content);
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof GenomeKey)) return false;
+			GenomeKey that = (GenomeKey) o;
+			return hash == that.hash &&
+					Arrays.deepEquals(content, that.content);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+	
+	/* TRACKER */
+	
+	/**
+	 * State of an individual regarding the cache. It listens to the genome of the individual to know when it becomes
+	 * dirty. Its state is not serialized: a deserialized individual is always considered dirty.
+	 */
+	/* package */ static final class Tracker<T> implements DataListener<T>, GenesListener<T>, ChromosomesListener<T>, Observer, Serializable {
+		
+		@Nullable
+		private final transient FitnessCache<T> cache;
+		
+		@Nullable
+		private transient GenomeKey key;
+		
+		private transient double fitness;
+		
+		/**
+		 * True if the fitness of the key is known.
+		 */
+		private transient boolean scored;
+		
+		/**
+		 * True if the genome did not change since the key has been computed.
+		 */
+		private transient boolean clean;
+		
+		/**
+		 * True if the genome contains values whose modifications are not notified (primitive chromosomes).
+		 */
+		private transient boolean uncheckedGenome;
+		
+		/**
+		 * True once the individual has been released by the cache.
+		 */
+		private transient boolean released;
+		
+		private Tracker(@NotNull FitnessCache<T> cache) {
+			this.cache = cache;
+		}
+		
+		/**
+		 * Consider the genome dirty, when the individual is recycled.
+		 */
+		/* package */ void invalidate() {
+			clean = false;
+			scored = false;
+		}
+		
+		/**
+		 * @return True if the tracker no longer follows an individual for a cache.
+		 */
+		private boolean isStale() {
+			return released || cache == null;
+		}
+		
+		@Override
+		public void onDataChanged(@Nullable T data) {
+			clean = false;
+		}
+		
+		@Override
+		public void onGenesChanged(@NotNull Lexicon<Gene<T>> genes) {
+			clean = false;
+		}
+		
+		@Override
+		public void onChromosomesChanged(@NotNull Lexicon<Chromosome<T>> chromosomes) {
+			clean = false;
+		}
+		
+		@Override
+		public void update(Observable observable, Object o) {
+			clean = false;
+		}
+	}
+}
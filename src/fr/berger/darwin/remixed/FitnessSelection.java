@@ -0,0 +1,97 @@
+package fr.berger.darwin.remixed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Partial ordering of individuals according to their fitness, in linear time on average.
+ */
+class FitnessSelection {
+
+	/**
+	 * Rearrange the list so the individual at the index {@code k} is the one that would be there if the list was
+	 * sorted in ascending order of fitness. All the individuals before it are less fit or as fit, all the individuals
+	 * after it are fitter or as fit (quickselect).
+	 * @param individuals The list to rearrange. It must support constant-time random access.
+	 * @param k The index to place.
+	 */
+	public static <T> void select(@NotNull List<Individual<T>> individuals, int k) {
+		if (individuals == null)
+			throw new NullPointerException();
+		
+		if (k < 0 || k >= individuals.size())
+			throw new IndexOutOfBoundsException("k: " + k + " ; size: " + individuals.size());
+		
+		int left = 0;
+		int right = individuals.size() - 1;
+		
+		while (right > left) {
+			double pivot = individuals.get(medianOfThree(individuals, left, (left + right) >>> 1, right)).getFitness();
+			
+			// Three-way partition, so a population where many individuals share the same fitness stays linear:
+			// [left, lower[ < pivot, [lower, upper] == pivot, ]upper, right] > pivot
+			int lower = left;
+			int upper = right;
+			int i = left;
+			while (i <= upper) {
+				int comparison = Double.compare(individuals.get(i).getFitness(), pivot);
+				
+				if (comparison < 0)
+					swap(individuals, lower++, i++);
+				else if (comparison > 0)
+					swap(individuals, i, upper--);
+				else
+					i++;
+			}
+			
+			if (k < lower)
+				right = lower - 1;
+			else if (k > upper)
+				left = upper + 1;
+			else
+				return;
+		}
+	}
+	
+	/**
+	 * Move the fittest individual of the list at its end.
+	 * @param individuals The list to rearrange.
+	 */
+	public static <T> void moveFittestToEnd(@NotNull List<Individual<T>> individuals) {
+		if (individuals == null)
+			throw new NullPointerException();
+		
+		if (individuals.size() < 2)
+			return;
+		
+		int fittest = 0;
+		for (int i = 1; i < individuals.size(); i++)
+			if (Double.compare(individuals.get(i).getFitness(), individuals.get(fittest).getFitness()) > 0)
+				fittest = i;
+		
+		swap(individuals, fittest, individuals.size() - 1);
+	}
+	
+	private static <T> int medianOfThree(@NotNull List<Individual<T>> individuals, int a, int b, int c) {
+		double fa = individuals.get(a).getFitness();
+		double fb = individuals.get(b).getFitness();
+		double fc = individuals.get(c).getFitness();
+		
+		if (Double.compare(fa, fb) < 0) {
+			if (Double.compare(fb, fc) < 0)
+				return b;
+			return Double.compare(fa, fc) < 0 ? c : a;
+		}
+		else {
+			if (Double.compare(fa, fc) < 0)
+				return a;
+			return Double.compare(fb, fc) < 0 ? c : b;
+		}
+	}
+	
+	private static <T> void swap(@NotNull List<Individual<T>> individuals, int i, int j) {
+		if (i != j)
+			individuals.set(i, individuals.set(j, individuals.get(i)));
+	}
+}
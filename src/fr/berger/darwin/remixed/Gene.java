@@ -1,7 +1,7 @@
 package fr.berger.darwin.remixed;
 
-import fr.berger.beyondcode.util.EnhancedObservable;
 import fr.berger.darwin.remixed.listeners.DataListener;
+import fr.berger.darwin.util.QuietObservable;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -13,7 +13,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Objects;
 
-public class Gene<T> extends EnhancedObservable implements Serializable, Cloneable {
+public class Gene<T> extends QuietObservable implements Serializable, Cloneable {
 	
 	@Nullable
 	private T data;
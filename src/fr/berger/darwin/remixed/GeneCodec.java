@@ -0,0 +1,158 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.BinaryInput;
+import fr.berger.darwin.util.BinaryOutput;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Binary encoding of the data of a {@link Gene}, used by {@link PopulationCodec} for the chromosomes that are not
+ * backed by a primitive array. The data is never null: the codec writes the null values itself.
+ * @param <T> The type of the data.
+ */
+public interface GeneCodec<T> {
+
+	GeneCodec<String> STRING = new GeneCodec<String>() {
+		@NotNull
+		@Override
+		public String getName() {
+			return "string";
+		}
+		
+		@NotNull
+		@Override
+		public Class<String> getDataClass() {
+			return String.class;
+		}
+		
+		@Override
+		public void write(@NotNull String data, @NotNull BinaryOutput output) throws IOException {
+			output.putString(data);
+		}
+		
+		@NotNull
+		@Override
+		public String read(@NotNull BinaryInput input) throws IOException {
+			return input.getString();
+		}
+	};
+	
+	GeneCodec<Double> DOUBLE = new GeneCodec<Double>() {
+		@NotNull
+		@Override
+		public String getName() {
+			return "double";
+		}
+		
+		@NotNull
+		@Override
+		public Class<Double> getDataClass() {
+			return Double.class;
+		}
+		
+		@Override
+		public void write(@NotNull Double data, @NotNull BinaryOutput output) throws IOException {
+			output.putDouble(data);
+		}
+		
+		@NotNull
+		@Override
+		public Double read(@NotNull BinaryInput input) throws IOException {
+			return input.getDouble();
+		}
+	};
+	
+	GeneCodec<Integer> INTEGER = new GeneCodec<Integer>() {
+		@NotNull
+		@Override
+		public String getName() {
+			return "integer";
+		}
+		
+		@NotNull
+		@Override
+		public Class<Integer> getDataClass() {
+			return Integer.class;
+		}
+		
+		@Override
+		public void write(@NotNull Integer data, @NotNull BinaryOutput output) throws IOException {
+			output.putInt(data);
+		}
+		
+		@NotNull
+		@Override
+		public Integer read(@NotNull BinaryInput input) throws IOException {
+			return input.getInt();
+		}
+	};
+	
+	GeneCodec<Long> LONG = new GeneCodec<Long>() {
+		@NotNull
+		@Override
+		public String getName() {
+			return "long";
+		}
+		
+		@NotNull
+		@Override
+		public Class<Long> getDataClass() {
+			return Long.class;
+		}
+		
+		@Override
+		public void write(@NotNull Long data, @NotNull BinaryOutput output) throws IOException {
+			output.putLong(data);
+		}
+		
+		@NotNull
+		@Override
+		public Long read(@NotNull BinaryInput input) throws IOException {
+			return input.getLong();
+		}
+	};
+	
+	GeneCodec<Boolean> BOOLEAN = new GeneCodec<Boolean>() {
+		@NotNull
+		@Override
+		public String getName() {
+			return "boolean";
+		}
+		
+		@NotNull
+		@Override
+		public Class<Boolean> getDataClass() {
+			return Boolean.class;
+		}
+		
+		@Override
+		public void write(@NotNull Boolean data, @NotNull BinaryOutput output) throws IOException {
+			output.putBoolean(data);
+		}
+		
+		@NotNull
+		@Override
+		public Boolean read(@NotNull BinaryInput input) throws IOException {
+			return input.getBoolean();
+		}
+	};
+	
+	/**
+	 * @return The name of the codec, written in the header of the files. A file can only be read with a codec of the
+	 * same name.
+	 */
+	@NotNull
+	String getName();
+	
+	/**
+	 * @return The class given to the genes created when reading.
+	 */
+	@NotNull
+	Class<T> getDataClass();
+	
+	void write(@NotNull T data, @NotNull BinaryOutput output) throws IOException;
+	
+	@NotNull
+	T read(@NotNull BinaryInput input) throws IOException;
+}
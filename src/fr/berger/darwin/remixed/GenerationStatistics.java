@@ -0,0 +1,177 @@
+package fr.berger.darwin.remixed;
+
+import java.io.Serializable;
+
+/**
+ * Measures of a generation of a {@link Population}, given to the
+ * {@link fr.berger.darwin.remixed.listeners.GenerationListener} at the end of {@link Population#evolve()}.
+ * <p>
+ * The times are in nanoseconds. The fitness values and the diversity are those of the individuals that survived the
+ * generation.
+ */
+public class GenerationStatistics implements Serializable {
+
+	/* package */ long generation;
+	/* package */ int size;
+	
+	/* package */ long evaluationTime;
+	/* package */ long sortTime;
+	/* package */ long selectionTime;
+	/* package */ long crossoverTime;
+	/* package */ long mutationTime;
+	/* package */ long replacementTime;
+	
+	/* package */ int fitnessEvaluations;
+	/* package */ int crossovers;
+	/* package */ int mutations;
+	
+	/* package */ double bestFitness;
+	/* package */ double meanFitness;
+	/* package */ double worstFitness;
+	/* package */ double fitnessStandardDeviation;
+	/* package */ double diversity;
+	
+	/* package */ GenerationStatistics() { }
+	
+	/**
+	 * @return Statistics of a population that has not evolved yet.
+	 */
+	public static GenerationStatistics empty() {
+		return new GenerationStatistics();
+	}
+	
+	/* GETTERS */
+	
+	/**
+	 * @return The number of generations done by the population, this one included.
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * @return The number of individuals at the end of the generation.
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * @return The time spent computing the fitness of the individuals, before and after the reproduction.
+	 */
+	public long getEvaluationTime() {
+		return evaluationTime;
+	}
+	
+	/**
+	 * @return The time spent separating the elite from the other individuals.
+	 */
+	public long getSortTime() {
+		return sortTime;
+	}
+	
+	/**
+	 * @return The time spent in the {@link fr.berger.darwin.remixed.selection.SelectionStrategy}.
+	 */
+	public long getSelectionTime() {
+		return selectionTime;
+	}
+	
+	/**
+	 * @return The time spent in {@link Mutable#mate(Individual, Individual)}.
+	 */
+	public long getCrossoverTime() {
+		return crossoverTime;
+	}
+	
+	/**
+	 * @return The time spent in {@link Mutable#mutate(Individual)}.
+	 */
+	public long getMutationTime() {
+		return mutationTime;
+	}
+	
+	/**
+	 * @return The time spent removing the least fit individuals and replacing the list of individuals.
+	 */
+	public long getReplacementTime() {
+		return replacementTime;
+	}
+	
+	/**
+	 * @return The sum of all the measured times.
+	 */
+	public long getTotalTime() {
+		return evaluationTime + sortTime + selectionTime + crossoverTime + mutationTime + replacementTime;
+	}
+	
+	/**
+	 * @return The number of calls to {@link Mutable#calculateFitness(Individual)} (the cached fitness values are not
+	 * counted).
+	 */
+	public int getFitnessEvaluations() {
+		return fitnessEvaluations;
+	}
+	
+	/**
+	 * @return The number of calls to {@link Mutable#mate(Individual, Individual)}.
+	 */
+	public int getCrossovers() {
+		return crossovers;
+	}
+	
+	/**
+	 * @return The number of calls to {@link Mutable#mutate(Individual)}.
+	 */
+	public int getMutations() {
+		return mutations;
+	}
+	
+	public double getBestFitness() {
+		return bestFitness;
+	}
+	
+	public double getMeanFitness() {
+		return meanFitness;
+	}
+	
+	public double getWorstFitness() {
+		return worstFitness;
+	}
+	
+	public double getFitnessStandardDeviation() {
+		return fitnessStandardDeviation;
+	}
+	
+	/**
+	 * @return The number of distinct genomes divided by the number of individuals, between 0 (empty population) and 1
+	 * (all the genomes are different).
+	 */
+	public double getDiversity() {
+		return diversity;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "GenerationStatistics{" +
+				"generation=\"" + generation + '\"' +
+				", size=\"" + size + '\"' +
+				", evaluationTime=\"" + evaluationTime + '\"' +
+				", sortTime=\"" + sortTime + '\"' +
+				", selectionTime=\"" + selectionTime + '\"' +
+				", crossoverTime=\"" + crossoverTime + '\"' +
+				", mutationTime=\"" + mutationTime + '\"' +
+				", replacementTime=\"" + replacementTime + '\"' +
+				", fitnessEvaluations=\"" + fitnessEvaluations + '\"' +
+				", crossovers=\"" + crossovers + '\"' +
+				", mutations=\"" + mutations + '\"' +
+				", bestFitness=\"" + bestFitness + '\"' +
+				", meanFitness=\"" + meanFitness + '\"' +
+				", worstFitness=\"" + worstFitness + '\"' +
+				", fitnessStandardDeviation=\"" + fitnessStandardDeviation + '\"' +
+				", diversity=\"" + diversity + '\"' +
+				'}';
+	}
+}
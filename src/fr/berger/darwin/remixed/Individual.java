@@ -1,10 +1,11 @@
 package fr.berger.darwin.remixed;
 
 import fr.berger.beyondcode.annotations.NotEmpty;
-import fr.berger.beyondcode.util.EnhancedObservable;
 import fr.berger.darwin.remixed.listeners.ChromosomesListener;
 import fr.berger.darwin.remixed.listeners.FitnessListener;
 import fr.berger.darwin.remixed.listeners.GenesListener;
+import fr.berger.darwin.util.Identifiers;
+import fr.berger.darwin.util.QuietObservable;
 import fr.berger.enhancedlist.lexicon.Lexicon;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -15,7 +16,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.*;
 
-public class Individual<T> extends EnhancedObservable implements Serializable, Cloneable, Comparable<Individual<T>>, Iterable<Chromosome<T>> {
+public class Individual<T> extends QuietObservable implements Serializable, Cloneable, Comparable<Individual<T>>, Iterable<Chromosome<T>> {
 	
 	/**
 	 * Unique identifier
@@ -49,6 +50,18 @@ public class Individual<T> extends EnhancedObservable implements Serializable, C
 	/*@NotNull
 	private ArrayList<FitnessListener> fitnessListeners;*/
 	
+	/**
+	 * State of the individual in the fitness cache, if any
+	 */
+	@Nullable
+	private transient FitnessCache.Tracker<T> fitnessTracker;
+	
+	/**
+	 * Mark of the last generation that kept or released the individual, in the recycling mode of the population (see
+	 * {@link Population#setRecycling(boolean)}).
+	 */
+	/* package */ transient long recyclingMark;
+	
 	public Individual(@Nullable Lexicon<Chromosome<T>> chromosomes) {
 		initialize(chromosomes);
 	}
@@ -59,19 +72,22 @@ public class Individual<T> extends EnhancedObservable implements Serializable, C
 	public Individual(@Nullable Chromosome<T>... chromosomes) {
 		initialize(new Lexicon<>(chromosomes));
 	}
+	/**
+	 * Copy the genome of an individual (see {@link #copy()}). The copy has a new id, its fitness and its listeners are
+	 * not copied.
+	 */
 	public Individual(@NotNull Individual<T> copy) {
 		if (copy == null)
 			throw new NullPointerException();
 		
-		initialize(copy.getChromosomes());
+		initialize(copy.copyChromosomes());
 	}
 	public Individual() {
 		initialize(null);
 	}
 	
 	private void initialize(@Nullable Lexicon<Chromosome<T>> chromosomes) {
-		// Generate random ID
-		setId(UUID.randomUUID());
+		setId(Identifiers.next());
 		
 		if (chromosomes == null)
 			chromosomes = new Lexicon<>();
@@ -83,12 +99,58 @@ public class Individual<T> extends EnhancedObservable implements Serializable, C
 		setFitnessListeners(new ArrayList<>());
 	}
 	
+	/**
+	 * Copy the individual and its genome (see {@link Chromosome#copy()}). The copy has a new id and the same fitness,
+	 * the listeners are not copied.
+	 * <p>
+	 * The copy is independent of the original, but it is cheap: the {@link PrimitiveChromosome} share their values with
+	 * the original until one of them is written, so only the chromosomes that are mutated afterwards are copied.
+	 * @return A deep copy of the individual.
+	 */
+	@NotNull
+	public Individual<T> copy() {
+		Individual<T> copy = new Individual<>(copyChromosomes());
+		copy.setFitness(getFitness());
+		return copy;
+	}
+	
+	@NotNull
+	@SuppressWarnings("unchecked")
+	private Lexicon<Chromosome<T>> copyChromosomes() {
+		// The class is given, so that chromosomes of different classes can be mixed
+		Lexicon<Chromosome<T>> copies = new Lexicon<>((Class<Chromosome<T>>) (Class<?>) Chromosome.class, getChromosomes().size());
+		for (Chromosome<T> chromosome : getChromosomes())
+			copies.add(chromosome.copy());
+		
+		return copies;
+	}
+	
+	/**
+	 * Reset the individual, so a recycling population can reuse it as a new individual (see
+	 * {@link Population#setRecycling(boolean)}). It gets a new id and a fitness of 0, its listeners and observers are
+	 * removed, and the fitness cache no longer trusts its genome. The genome is kept, to be overwritten.
+	 */
+	/* package */ void recycle() {
+		setId(Identifiers.next());
+		getChromosomesListeners().clear();
+		getFitnessListeners().clear();
+		deleteObservers();
+		setFitness(0.0);
+		
+		// The tracker stays attached to the individual, so the cache does not allocate a new one
+		if (fitnessTracker != null) {
+			fitnessTracker.invalidate();
+			addObserver(fitnessTracker);
+			addChromosomesListener(fitnessTracker);
+		}
+	}
+	
 	/* GETTER & SETTER */
 	
 	@NotNull
 	public UUID getId() {
 		if (id == null)
-			id = UUID.randomUUID();
+			id = Identifiers.next();
 		
 		return id;
 	}
@@ -138,6 +200,14 @@ public class Individual<T> extends EnhancedObservable implements Serializable, C
 			fitnessListener.onFitnessChanged(this.fitness);
 	}
 	
+	/* package */ @Nullable FitnessCache.Tracker<T> getFitnessTracker() {
+		return fitnessTracker;
+	}
+	
+	/* package */ void setFitnessTracker(@Nullable FitnessCache.Tracker<T> fitnessTracker) {
+		this.fitnessTracker = fitnessTracker;
+	}
+	
 	public @NotNull ArrayList<ChromosomesListener<T>> getChromosomesListeners() {
 		if (this.chromosomesListeners == null)
 			this.chromosomesListeners = new ArrayList<>();
@@ -211,7 +281,7 @@ public class Individual<T> extends EnhancedObservable implements Serializable, C
 		if (individual == null)
 			return 0;
 		
-		return (int) (getFitness() - individual.getFitness());
+		return Double.compare(getFitness(), individual.getFitness());
 	}
 	
 	@Override
@@ -0,0 +1,259 @@
+package fr.berger.darwin.remixed;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Chromosome of integer values, backed by an {@code int[]}.
+ */
+public class IntChromosome extends PrimitiveChromosome<Integer> {
+
+	@NotNull
+	private transient int[] values;
+	
+	public IntChromosome(int length) {
+		super();
+		setValues(new int[length]);
+	}
+	public IntChromosome(@NotNull int... values) {
+		super();
+		setValues(values);
+	}
+	@SuppressWarnings("ConstantConditions")
+	public IntChromosome(@NotNull IntChromosome copy) {
+		super();
+		
+		if (copy == null)
+			throw new NullPointerException("chromosome copy cannot be null");
+		
+		setValues(copy.values);
+		// The listeners are copied, not shared: a listener added to the copy does not listen to the original
+		setGenesListeners(new ArrayList<>(copy.getGenesListeners()));
+		
+		// The array is copied by the first chromosome written
+		setShared(true);
+		copy.setShared(true);
+	}
+	public IntChromosome() {
+		this(0);
+	}
+	
+	/* DOUBLE CHROMOSOME METHODS */
+	
+	public int get(int index) {
+		return values[index];
+	}
+	
+	public void set(int index, int value) {
+		writableValues()[index] = value;
+	}
+	
+	/**
+	 * One-point crossover: exchange the values from {@code pivot} (inclusive) to the end with {@code other}, in place.
+	 * @param other The other chromosome. It must have the same length.
+	 * @param pivot The index of the first value to exchange.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void swapTail(@NotNull IntChromosome other, int pivot) {
+		if (other == null)
+			throw new NullPointerException();
+		
+		if (other.length() != length())
+			throw new IllegalArgumentException("Both chromosomes must have the same length (" + length() + " != " + other.length() + ").");
+		
+		if (pivot < 0 || pivot > length())
+			throw new IndexOutOfBoundsException("pivot: " + pivot + " ; length: " + length());
+		
+		if (pivot == length())
+			return;
+		
+		int[] a = writableValues();
+		int[] b = other.writableValues();
+		for (int i = pivot; i < a.length; i++) {
+			int tmp = a[i];
+			a[i] = b[i];
+			b[i] = tmp;
+		}
+	}
+	
+	/**
+	 * Random resetting mutation: replace each value, with the probability {@code rate}, by a value drawn uniformly
+	 * in {@code [lowerBound, upperBound[}.
+	 * @param random The random generator to draw from.
+	 * @param rate The probability for each value to be mutated.
+	 * @param lowerBound The smallest value that can be drawn (inclusive).
+	 * @param upperBound The greatest value that can be drawn (exclusive).
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void mutate(@NotNull Random random, double rate, int lowerBound, int upperBound) {
+		if (random == null)
+			throw new NullPointerException();
+		
+		if (lowerBound >= upperBound)
+			throw new IllegalArgumentException("lowerBound must be less than upperBound.");
+		
+		// The range can exceed Integer.MAX_VALUE (e.g. from Integer.MIN_VALUE to Integer.MAX_VALUE)
+		long bound = (long) upperBound - lowerBound;
+		// The array is only copied if a value is mutated
+		for (int i = 0; i < values.length; i++)
+			if (random.nextDouble() < rate)
+				writableValues()[i] = (int) (lowerBound + draw(random, bound));
+	}
+	
+	/**
+	 * @return A value drawn uniformly in {@code [0, bound)}, with {@code 0 < bound <= 2^32}.
+	 */
+	private static long draw(@NotNull Random random, long bound) {
+		if (bound <= Integer.MAX_VALUE)
+			return random.nextInt((int) bound);
+		
+		// Rejection sampling on 32 random bits: at least half of the draws are accepted
+		long value;
+		do {
+			value = random.nextInt() & 0xFFFFFFFFL;
+		} while (value >= bound);
+		
+		return value;
+	}
+	
+	/**
+	 * Overwrite the values with the values of {@code source}. The array backing the chromosome is reused when it
+	 * has the same length and is not shared: a recycled chromosome is written without allocating (see
+	 * {@link RecyclingMutable}). Otherwise, the array of {@code source} is shared until one of them is written.
+	 * @param source The chromosome to copy.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void copyFrom(@NotNull IntChromosome source) {
+		if (source == null)
+			throw new NullPointerException();
+		
+		if (source == this)
+			return;
+		
+		if (isShared() || values.length != source.values.length) {
+			values = source.values;
+			setShared(true);
+			source.setShared(true);
+		}
+		else
+			System.arraycopy(source.values, 0, values, 0, values.length);
+		
+		notifyGenesListeners();
+	}
+	
+	@NotNull
+	@Override
+	public IntChromosome copy() {
+		IntChromosome copy = new IntChromosome(values);
+		setShared(true);
+		copy.setShared(true);
+		return copy;
+	}
+	
+	/**
+	 * @return The array backing the chromosome, copied first if it is shared.
+	 */
+	@NotNull
+	private int[] writableValues() {
+		if (isShared()) {
+			values = values.clone();
+			setShared(false);
+		}
+		
+		return values;
+	}
+	
+	@Override
+	public int length() {
+		return values.length;
+	}
+	
+	@NotNull
+	@Override
+	protected Class<Integer> getValueClass() {
+		return Integer.class;
+	}
+	
+	@NotNull
+	@Override
+	protected Integer getValue(int index) {
+		return values[index];
+	}
+	
+	@Override
+	protected void setValue(int index, @NotNull Integer value) {
+		writableValues()[index] = value;
+	}
+	
+	@NotNull
+	@Override
+	protected Object copyValues() {
+		// The array is shared instead of copied: it will be copied by the chromosome if it is written
+		setShared(true);
+		return values;
+	}
+	
+	@Override
+	protected void allocate(int length) {
+		values = new int[length];
+		setShared(false);
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	/**
+	 * @return A copy of the values. The array backing the chromosome may be shared with its copies and with the
+	 * {@link FitnessCache}, so it is never handed out to be written: write the values with {@link #set(int, int)} or
+	 * {@link #setValues(int[])}, and read them without copying with {@link #peekValues()}.
+	 */
+	@NotNull
+	public int[] getValues() {
+		return values.clone();
+	}
+	
+	/**
+	 * @return The array backing the chromosome, without copying it even if it is shared: it must not be modified.
+	 */
+	@NotNull
+	public int[] peekValues() {
+		return values;
+	}
+	
+	/**
+	 * @param values The new array backing the chromosome (it is not copied): it must not be modified afterwards.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void setValues(@NotNull int[] values) {
+		if (values == null)
+			throw new NullPointerException();
+		
+		this.values = values;
+		setShared(false);
+		notifyGenesListeners();
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof IntChromosome)) return false;
+		IntChromosome that = (IntChromosome) o;
+		return Arrays.equals(values, that.values);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(values);
+	}
+	
+	@Override
+	public String toString() {
+		return "IntChromosome{" +
+				"values=\"" + (length() > 5 ? "... (" + length() + ")" : Arrays.toString(values)) + '\"' +
+				'}';
+	}
+}
@@ -3,9 +3,17 @@ package fr.berger.darwin.remixed;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Random;
 
+/**
+ * Fitness function and genetic operators of a {@link Population}.
+ * <p>
+ * The population calls the variants taking a {@link Random}, with its own generator (see
+ * {@link Population#getRandom()}). Override them to draw from that generator: the runs can then be reproduced from the
+ * seed of the population. By default, they ignore the generator.
+ */
 public interface Mutable<T> {
-	
+
 	double calculateFitness(@NotNull Individual<T> individual);
 	
 	@NotNull
@@ -16,4 +24,29 @@ public interface Mutable<T> {
 	
 	@NotNull
 	Individual<T> generateRandom();
+	
+	/* RANDOM VARIANTS */
+	
+	/**
+	 * @param random The generator of the individual, independent of the generators of the other individuals of the
+	 *               generation. It must not be used after the call.
+	 */
+	default double calculateFitness(@NotNull Individual<T> individual, @NotNull Random random) {
+		return calculateFitness(individual);
+	}
+	
+	@NotNull
+	default Individual<T> mutate(@NotNull Individual<T> individual, @NotNull Random random) {
+		return mutate(individual);
+	}
+	
+	@NotNull
+	default ArrayList<Individual<T>> mate(@NotNull Individual<T> parent1, @NotNull Individual<T> parent2, @NotNull Random random) {
+		return mate(parent1, parent2);
+	}
+	
+	@NotNull
+	default Individual<T> generateRandom(@NotNull Random random) {
+		return generateRandom();
+	}
 }
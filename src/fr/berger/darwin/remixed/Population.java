@@ -2,21 +2,44 @@ package fr.berger.darwin.remixed;
 
 import com.sun.istack.internal.NotNull;
 import com.sun.istack.internal.Nullable;
-import fr.berger.beyondcode.util.EnhancedObservable;
-import fr.berger.beyondcode.util.Irregular;
 import fr.berger.darwin.remixed.annotations.Range;
+import fr.berger.darwin.remixed.listeners.GenerationListener;
 import fr.berger.darwin.remixed.listeners.IndividualsListener;
+import fr.berger.darwin.remixed.selection.SelectionStrategy;
+import fr.berger.darwin.remixed.selection.TournamentSelection;
+import fr.berger.darwin.remixed.termination.TerminationCondition;
+import fr.berger.darwin.util.Notifications;
+import fr.berger.darwin.util.QuietObservable;
+import fr.berger.darwin.util.SplitMixRandom;
 import fr.berger.enhancedlist.lexicon.Lexicon;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Observer;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
 @SuppressWarnings("DefaultAnnotationParam")
-public class Population<T> extends EnhancedObservable implements Serializable, Cloneable, Iterable<Individual<T>> {
-
+public class Population<T> extends QuietObservable implements Serializable, Cloneable, Iterable<Individual<T>> {
+	
+	public static final int DEFAULT_MAX_PENDING_EVALUATIONS = 256;
+	
 	private Lexicon<Individual<T>> individuals;
 	private long size;
 	@Range(a = 0, b = 1)
@@ -27,136 +50,583 @@ public class Population<T> extends EnhancedObservable implements Serializable, C
 	private float crossoverRate;
 	@NotNull
 	private Mutable<T> mutationAction;
+	@NotNull
+	private SelectionStrategy<T> selectionStrategy;
+	
+	/**
+	 * Generator of all the random draws of the population, also given to the selection strategy and to the mutation
+	 * action.
+	 */
+	@NotNull
+	private Random random;
+	
+	/**
+	 * Executor used to compute the fitness of the individuals concurrently. If null, the individuals are evaluated
+	 * one after another on the caller thread. The population does not own the executor: it is never shut down here.
+	 */
+	@Nullable
+	private transient ExecutorService evaluationExecutor;
+	
+	/**
+	 * Cache of the fitness values already calculated. If null, every individual is evaluated each time.
+	 */
+	@Nullable
+	private transient FitnessCache<T> fitnessCache;
+	
+	/**
+	 * Maximum number of evaluations in flight when the mutation action is an {@link AsyncMutable}.
+	 */
+	private int maxPendingEvaluations;
 	
 	@NotNull
 	private ArrayList<IndividualsListener<T>> individualsListeners;
 	
+	/**
+	 * Listeners notified at the end of each generation. They are not serialized.
+	 */
+	@NotNull
+	private transient ArrayList<GenerationListener> generationListeners;
+	
+	/**
+	 * Number of calls to {@link #evolve()} since the creation of the population.
+	 */
+	private long generation;
+	
+	/**
+	 * Number of calls to the fitness function since the creation of the population (the cached fitness values are not
+	 * counted).
+	 */
+	private long evaluations;
+	
+	/**
+	 * If true, the notifications are coalesced during {@link #evolve()}.
+	 */
+	private boolean quiet;
+	
+	/**
+	 * If true, {@link #evolve()} reuses its lists and the individuals discarded by the previous generations.
+	 */
+	private boolean recycling;
+	
+	/**
+	 * Storage reused by {@link #evolve()} in recycling mode.
+	 */
+	@Nullable
+	private transient Recycler<T> recycler;
+	
+	/**
+	 * Observer of the list of individuals, forwarding its notifications to the observers of the population.
+	 */
+	@Nullable
+	private transient Observer individualsObserver;
+	
 	public Population(@NotNull Mutable<T> mutationAction) {
-		initialize(null, 0, .2f, 0.1f, 0.1f, mutationAction);
+		initialize(null, 0, .2f, 0.1f, 0.1f, mutationAction, new SplitMixRandom());
 	}
 	public Population(@Nullable ArrayList<Individual<T>> individuals, @NotNull Mutable<T> mutationAction) {
-		initialize(individuals, 0, .2f, 0.1f, 0.1f, mutationAction);
+		initialize(individuals, 0, .2f, 0.1f, 0.1f, mutationAction, new SplitMixRandom());
 	}
 	public Population(@Nullable ArrayList<Individual<T>> individuals, long size, @NotNull Mutable<T> mutationAction) {
-		initialize(individuals, size, .2f, 0.1f, 0.1f, mutationAction);
+		initialize(individuals, size, .2f, 0.1f, 0.1f, mutationAction, new SplitMixRandom());
 	}
 	public Population(@Nullable ArrayList<Individual<T>> individuals, long size, @Range float elitismRate, @NotNull Mutable<T> mutationAction) {
-		initialize(individuals, size, elitismRate, 0.1f, 0.1f, mutationAction);
+		initialize(individuals, size, elitismRate, 0.1f, 0.1f, mutationAction, new SplitMixRandom());
 	}
 	public Population(@Nullable ArrayList<Individual<T>> individuals, long size, @Range float elitismRate, @Range float mutationRate, @NotNull Mutable<T> mutationAction) {
-		initialize(individuals, size, elitismRate, mutationRate, 0.1f, mutationAction);
+		initialize(individuals, size, elitismRate, mutationRate, 0.1f, mutationAction, new SplitMixRandom());
 	}
 	public Population(@Nullable ArrayList<Individual<T>> individuals, long size, @Range float elitismRate, @Range float mutationRate, @Range float crossoverRate, @NotNull Mutable<T> mutationAction) {
-		initialize(individuals, size, elitismRate, mutationRate, crossoverRate, mutationAction);
+		initialize(individuals, size, elitismRate, mutationRate, crossoverRate, mutationAction, new SplitMixRandom());
+	}
+	/**
+	 * @param random The generator of the population (see {@link #setRandom(Random)}). The missing individuals are
+	 *               generated with it, so two populations created with generators of the same seed are the same.
+	 */
+	public Population(@Nullable ArrayList<Individual<T>> individuals, long size, @Range float elitismRate, @Range float mutationRate, @Range float crossoverRate, @NotNull Mutable<T> mutationAction, @NotNull Random random) {
+		initialize(individuals, size, elitismRate, mutationRate, crossoverRate, mutationAction, random);
 	}
 	
-	private void initialize(@Nullable ArrayList<Individual<T>> individuals, long size, float elitismRate, float mutationRate, float crossoverRate, @NotNull Mutable<T> mutationAction) {
+	private void initialize(@Nullable ArrayList<Individual<T>> individuals, long size, float elitismRate, float mutationRate, float crossoverRate, @NotNull Mutable<T> mutationAction, @NotNull Random random) {
 		Lexicon<Individual<T>> lexicon = new Lexicon<>(individuals);
 		
+		setRandom(random);
 		setIndividuals(lexicon);
 		setSize(size);
 		setElitismRate(elitismRate);
 		setMutationRate(mutationRate);
 		setCrossoverRate(crossoverRate);
 		setMutationAction(mutationAction);
+		setMaxPendingEvaluations(DEFAULT_MAX_PENDING_EVALUATIONS);
 		
 		for (int i = getIndividuals().size(); i < getSize(); i++)
-			addIndividuals(getMutationAction().generateRandom());
+			addIndividuals(getMutationAction().generateRandom(getRandom()));
 	}
 	
+	/**
+	 * Create the next generation. The fittest individuals (according to the elitism rate) are kept as they are, the
+	 * others are replaced by their children or mutated. Only the {@code size} fittest individuals survive.
+	 * <p>
+	 * The individuals are not fully sorted (see {@link #sort()}): after the call, the fittest individual is the last
+	 * one of the list.
+	 * <p>
+	 * If the population is quiet (see {@link #setQuiet(boolean)}), the notifications of the individuals, chromosomes,
+	 * genes and of the population are coalesced and sent at the end of the generation.
+	 */
+	@SuppressWarnings("try")
 	public void evolve() {
+		if (!isQuiet()) {
+			evolveGeneration();
+			return;
+		}
+		
+		try (Notifications.Scope ignored = Notifications.quiet()) {
+			evolveGeneration();
+			// Coalesced with the other notifications of the population: its observers receive one per generation
+			snap(getIndividuals());
+		}
+	}
+	
+	private void evolveGeneration() {
+		// The measures are only taken if someone reads them: otherwise, the clock is never read
+		final boolean instrumented = isMeasured();
+		long evaluationTime = 0L, sortTime = 0L, selectionTime = 0L, crossoverTime = 0L, mutationTime = 0L;
+		int fitnessEvaluations = 0, crossovers = 0, mutations = 0;
+		long time = clock(instrumented);
+		Random random = getRandom();
+		Recycler<T> recycler = isRecycling() ? getRecycler() : null;
+		RecyclingMutable<T> recyclingAction = recycler != null && getMutationAction() instanceof RecyclingMutable ? (RecyclingMutable<T>) getMutationAction() : null;
+		
+		ArrayList<Individual<T>> current = snapshotIndividuals(recycler != null ? recycler.current : new ArrayList<>(getIndividuals().size()));
+		fitnessEvaluations += evaluate(current);
+		evaluationTime += elapsed(instrumented, time);
+		
+		time = clock(instrumented);
+		int pivot = Math.round(current.size() * getElitismRate());
+		int numberOfOthers = current.size() - pivot;
+		
+		// Partial sort: the 'pivot' fittest individuals are moved at the end of the list, in linear time
+		if (pivot > 0 && numberOfOthers > 0)
+			FitnessSelection.select(current, numberOfOthers);
+		sortTime += elapsed(instrumented, time);
+		
 		// Create a buffer
-		ArrayList<Individual<T>> buffer = new ArrayList<>(getIndividuals().size());
+		ArrayList<Individual<T>> buffer = recycler != null ? recycler.buffer : new ArrayList<>(current.size() + 1);
+		buffer.clear();
 		
-		evaluate();
-		sort();
-		int pivot = Math.round(getIndividuals().size() * getElitismRate());
+		for (int i = numberOfOthers; i < current.size(); i++)
+			buffer.add(current.get(i));
 		
-		for (int i = 0; i < pivot; i++)
-			buffer.add(getIndividuals().get(i));
+		// The parents of the whole generation are selected at once, for about the expected number of crossovers
+		int numberOfParents = 2 * (int) Math.ceil(numberOfOthers * getCrossoverRate()) + 2;
+		int[] parents = recycler != null ? recycler.parents(numberOfParents) : new int[numberOfParents];
+		int nextParent = parents.length;
 		
-		for (int i = pivot; i < getIndividuals().size(); i++) {
-			if (Irregular.rangeFloat(0, true, 1, true) <= getCrossoverRate()) {
+		for (int i = 0; i < numberOfOthers; i++) {
+			if (random.nextFloat() <= getCrossoverRate()) {
 				
-				ArrayList<Individual<T>> parents = selectParents();
-				
-				if (parents == null || parents.size() < 2)
+				if (current.size() < 2)
 					continue;
 				
-				ArrayList<Individual<T>> children = getMutationAction().mate(parents.get(0), parents.get(1));
+				if (nextParent + 2 > parents.length) {
+					time = clock(instrumented);
+					getSelectionStrategy().select(current, parents, random);
+					selectionTime += elapsed(instrumented, time);
+					nextParent = 0;
+				}
+				
+				Individual<T> father = current.get(parents[nextParent++]);
+				Individual<T> mother = current.get(parents[nextParent++]);
+				
+				time = clock(instrumented);
+				ArrayList<Individual<T>> children;
+				if (recyclingAction != null) {
+					// The children are written into the individuals discarded by the previous generation
+					children = recycler.children;
+					children.clear();
+					children.add(recycler.obtain(father));
+					children.add(recycler.obtain(mother));
+					recyclingAction.mateInto(father, mother, children.get(0), children.get(1), random);
+				}
+				else
+					children = getMutationAction().mate(father, mother, random);
+				crossoverTime += elapsed(instrumented, time);
+				crossovers++;
 				
 				int numberOfChildrenAdded = 0;
 				for (Individual<T> aChildren : children) {
-					if (i < getIndividuals().size()) {
-						if (Irregular.rangeFloat(0, true, 1, true) <= getMutationRate()) {
-							buffer.add(getMutationAction().mutate(aChildren));
-							numberOfChildrenAdded++;
-						} else {
-							buffer.add(aChildren);
-							numberOfChildrenAdded++;
-						}
+					if (random.nextFloat() <= getMutationRate()) {
+						time = clock(instrumented);
+						buffer.add(getMutationAction().mutate(aChildren, random));
+						mutationTime += elapsed(instrumented, time);
+						mutations++;
 					}
+					else
+						buffer.add(aChildren);
+					numberOfChildrenAdded++;
 				}
 				
 				if (numberOfChildrenAdded - 1 > 0)
 					i += numberOfChildrenAdded - 1;
 			}
 			else {
-				if (Irregular.rangeFloat(0, true, 1, true) <= getMutationRate())
-					buffer.add(getMutationAction().mutate(getIndividuals().get(i)));
+				if (random.nextFloat() <= getMutationRate()) {
+					time = clock(instrumented);
+					buffer.add(getMutationAction().mutate(current.get(i), random));
+					mutationTime += elapsed(instrumented, time);
+					mutations++;
+				}
 				else
-					buffer.add(getIndividuals().get(i));
+					buffer.add(current.get(i));
 			}
 		}
 		
-		// individuals := buffer
-		setIndividuals(new Lexicon<>());
-		for (Individual<T> individual : buffer)
-			getIndividuals().add(individual);
+		// The fitness cache learns the changes of the genomes through their notifications: they must be sent first
+		if (isQuiet() && getFitnessCache() != null)
+			Notifications.flush();
 		
-		evaluate();
-		sort();
+		time = clock(instrumented);
+		fitnessEvaluations += evaluate(buffer);
+		evaluationTime += elapsed(instrumented, time);
 		
+		time = clock(instrumented);
 		// Because the selection of the parent can be in the 'immovable' part (the first element in the buffer', more
-		// than 'size' person can be in the population. That is why the first overflowed elements must be removed
-		while (getIndividuals().size() > getSize())
-			getIndividuals().remove((int) 0);
+		// than 'size' person can be in the population. That is why the overflowed elements (the least fit) must be
+		// removed, all at once
+		int overflow = buffer.size() - (int) Math.min(getSize(), Integer.MAX_VALUE);
+		List<Individual<T>> survivors = buffer;
+		if (overflow > 0) {
+			if (overflow < buffer.size())
+				FitnessSelection.select(buffer, overflow);
+			survivors = buffer.subList(Math.min(overflow, buffer.size()), buffer.size());
+		}
+		
+		FitnessSelection.moveFittestToEnd(survivors);
+		
+		// The cache stops listening to the individuals that did not survive, unless they are recycled
+		if (getFitnessCache() != null && recyclingAction == null)
+			releaseDropped(getFitnessCache(), survivors, current, buffer);
+		
+		// individuals := survivors
+		if (recycler != null) {
+			recycler.swap(this, survivors);
+			if (recyclingAction != null)
+				recycler.release(survivors, getFitnessCache());
+		}
+		else
+			setIndividuals(new Lexicon<>(survivors));
+		generation++;
+		
+		if (!getGenerationListeners().isEmpty()) {
+			GenerationStatistics statistics = new GenerationStatistics();
+			statistics.generation = generation;
+			statistics.size = survivors.size();
+			statistics.fitnessEvaluations = fitnessEvaluations;
+			statistics.crossovers = crossovers;
+			statistics.mutations = mutations;
+			
+			if (instrumented) {
+				statistics.evaluationTime = evaluationTime;
+				statistics.sortTime = sortTime;
+				statistics.selectionTime = selectionTime;
+				statistics.crossoverTime = crossoverTime;
+				statistics.mutationTime = mutationTime;
+				statistics.replacementTime = elapsed(true, time);
+				measure(survivors, statistics);
+			}
+			
+			for (GenerationListener generationListener : getGenerationListeners())
+				generationListener.onGeneration(statistics);
+		}
+	}
+	
+	/**
+	 * @return True if one of the generation listeners reads the measures of the generations (see
+	 * {@link GenerationListener#isMeasured()}).
+	 */
+	private boolean isMeasured() {
+		for (GenerationListener generationListener : getGenerationListeners())
+			if (generationListener.isMeasured())
+				return true;
+		
+		return false;
+	}
+	
+	/**
+	 * Evolve the population until the condition is met. The condition is checked before each generation, with the
+	 * statistics of the run: if it is met from the start, the population is left as it is.
+	 * <p>
+	 * The statistics of the generations (see {@link GenerationStatistics}) are only measured if the condition needs
+	 * them (see {@link TerminationCondition#isMeasured()}) or if a generation listener reads them.
+	 * @param condition The condition stopping the run, such as
+	 *                  {@code TerminationCondition.targetFitness(0.0).or(TerminationCondition.stagnation(50))}. A
+	 *                  condition that is never met makes the run endless.
+	 * @return The statistics of the run.
+	 */
+	@NotNull
+	public RunStatistics run(@NotNull TerminationCondition condition) {
+		if (condition == null)
+			throw new NullPointerException();
+		
+		RunStatistics statistics = new RunStatistics();
+		GenerationListener listener = condition.isMeasured() ? generationStatistics -> statistics.lastGeneration = generationStatistics : null;
+		if (listener != null)
+			addGenerationListener(listener);
+		
+		try {
+			while (!condition.isMet(statistics)) {
+				long evaluationsBefore = evaluations;
+				evolve();
+				
+				// After evolve(), the fittest individual is the last one: the best fitness is read in constant time
+				int last = getIndividuals().size() - 1;
+				statistics.update(last >= 0 ? getIndividuals().get(last).getFitness() : Double.NEGATIVE_INFINITY, evaluations - evaluationsBefore);
+			}
+		} finally {
+			if (listener != null)
+				removeGenerationListener(listener);
+		}
+		
+		return statistics;
+	}
+	
+	private static long clock(boolean instrumented) {
+		return instrumented ? System.nanoTime() : 0L;
+	}
+	
+	private static long elapsed(boolean instrumented, long start) {
+		return instrumented ? System.nanoTime() - start : 0L;
+	}
+	
+	/**
+	 * Compute the fitness measures and the diversity of the survivors of a generation.
+	 */
+	private static <T> void measure(@NotNull List<Individual<T>> survivors, @NotNull GenerationStatistics statistics) {
+		int n = survivors.size();
+		statistics.size = n;
+		if (n == 0)
+			return;
+		
+		double best = Double.NEGATIVE_INFINITY;
+		double worst = Double.POSITIVE_INFINITY;
+		double sum = 0.0;
+		HashSet<Lexicon<Chromosome<T>>> genomes = new HashSet<>(n * 2);
+		
+		for (Individual<T> individual : survivors) {
+			double fitness = individual.getFitness();
+			best = Math.max(best, fitness);
+			worst = Math.min(worst, fitness);
+			sum += fitness;
+			genomes.add(individual.getChromosomes());
+		}
+		
+		double mean = sum / n;
+		double squares = 0.0;
+		for (Individual<T> individual : survivors)
+			squares += (individual.getFitness() - mean) * (individual.getFitness() - mean);
+		
+		statistics.bestFitness = best;
+		statistics.worstFitness = worst;
+		statistics.meanFitness = mean;
+		statistics.fitnessStandardDeviation = Math.sqrt(squares / n);
+		statistics.diversity = (double) genomes.size() / n;
 	}
 	
+	/**
+	 * Select two parents among the individuals, with the selection strategy of the population. The fitness of the
+	 * individuals must be up to date.
+	 * @return The two parents, or null if there are less than two individuals.
+	 */
 	@Nullable
 	public ArrayList<Individual<T>> selectParents() {
-		ArrayList<Individual<T>> parents = new ArrayList<>(2);
-		
 		if (getIndividuals().size() < 2)
 			return null;
 		
-		for (int i = 0; i < 2; i++) {
-			
-			int randomIndex = Irregular.rangeInt(0, true, getIndividuals().size(), false);
-			Individual<T> individual = getIndividuals().get(randomIndex);
-			
-			parents.add(individual);
+		ArrayList<Individual<T>> current = snapshotIndividuals();
+		int[] selection = new int[2];
+		getSelectionStrategy().select(current, selection, getRandom());
+		
+		ArrayList<Individual<T>> parents = new ArrayList<>(2);
+		parents.add(current.get(selection[0]));
+		parents.add(current.get(selection[1]));
+		return parents;
+	}
+	
+	/**
+	 * Compute the fitness of all the individuals, concurrently if an evaluation executor has been given, or
+	 * asynchronously if the mutation action is an {@link AsyncMutable}. The fitness values are written back only once
+	 * all of them have been computed, so the listeners never see a generation that is partially evaluated.
+	 */
+	public void evaluate() {
+		evaluate(snapshotIndividuals());
+	}
+	
+	/**
+	 * @return The number of calls to {@link Mutable#calculateFitness(Individual)}.
+	 */
+	private int evaluate(@NotNull List<Individual<T>> snapshot) {
+		double[] fitnesses = new double[snapshot.size()];
+		
+		// Only the individuals whose genome is not in the cache are given to the fitness function
+		List<Individual<T>> pending = snapshot;
+		int[] pendingIndices = null;
+		
+		if (getFitnessCache() != null) {
+			pending = new ArrayList<>();
+			pendingIndices = new int[snapshot.size()];
 			
-			for (int j = 0; j < 3; j++) {
+			for (int i = 0; i < snapshot.size(); i++) {
+				Double cachedFitness = getFitnessCache().get(snapshot.get(i));
 				
-				int idx = 0;
-				do {
-					idx = Irregular.rangeInt(0, true, getIndividuals().size(), false);
-				} while(i == idx);
-				
-				if (getIndividuals().get(idx).compareTo(parents.get(i)) > 0)
-					parents.set(i, getIndividuals().get(idx));
+				if (cachedFitness != null)
+					fitnesses[i] = cachedFitness;
+				else {
+					pendingIndices[pending.size()] = i;
+					pending.add(snapshot.get(i));
+				}
 			}
 		}
 		
-		return parents;
+		double[] pendingFitnesses = pendingIndices == null ? fitnesses : new double[pending.size()];
+		// The generator of each individual only depends on its index: the fitness values are the same, however the
+		// evaluation is split among the threads
+		long seed = getRandom().nextLong();
+		
+		if (getMutationAction() instanceof AsyncMutable)
+			calculateFitnessesAsynchronously((AsyncMutable<T>) getMutationAction(), pending, pendingFitnesses, seed);
+		else if (getEvaluationExecutor() == null || pending.size() < 2)
+			calculateFitnesses(pending, pendingFitnesses, 0, pending.size(), seed);
+		else
+			calculateFitnessesConcurrently(getEvaluationExecutor(), pending, pendingFitnesses, seed);
+		
+		if (pendingIndices != null) {
+			for (int i = 0; i < pending.size(); i++) {
+				fitnesses[pendingIndices[i]] = pendingFitnesses[i];
+				getFitnessCache().put(pending.get(i), pendingFitnesses[i]);
+			}
+		}
+		
+		for (int i = 0; i < snapshot.size(); i++)
+			snapshot.get(i).setFitness(fitnesses[i]);
+		
+		evaluations += pending.size();
+		return pending.size();
 	}
 	
-	public void evaluate() {
-		for (int i = 0; i < getIndividuals().size(); i++) {
-			double fitness = getMutationAction().calculateFitness(getIndividuals().get(i));
-			getIndividuals().get(i).setFitness(fitness);
+	/**
+	 * Release from the cache the individuals of {@code generations} that are not survivors.
+	 */
+	@SafeVarargs
+	private static <T> void releaseDropped(@NotNull FitnessCache<T> cache, @NotNull List<Individual<T>> survivors, @NotNull List<Individual<T>>... generations) {
+		Set<Individual<T>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		seen.addAll(survivors);
+		
+		for (List<Individual<T>> generation : generations)
+			for (Individual<T> individual : generation)
+				if (seen.add(individual))
+					cache.release(individual);
+	}
+	
+	private void calculateFitnesses(@NotNull List<Individual<T>> individuals, @NotNull double[] fitnesses, int from, int to, long seed) {
+		SplitMixRandom generator = new SplitMixRandom(seed);
+		for (int i = from; i < to; i++) {
+			generator.setSeed(seed + i);
+			fitnesses[i] = getMutationAction().calculateFitness(individuals.get(i), generator);
+		}
+	}
+	
+	private void calculateFitnessesConcurrently(@NotNull ExecutorService executor, @NotNull List<Individual<T>> individuals, @NotNull double[] fitnesses, long seed) {
+		// Split the individuals in a few chunks per core, so a slow chunk does not keep the other cores waiting
+		int numberOfChunks = Math.min(individuals.size(), Runtime.getRuntime().availableProcessors() * 4);
+		int chunkSize = (individuals.size() + numberOfChunks - 1) / numberOfChunks;
+		
+		ArrayList<Future<?>> futures = new ArrayList<>(numberOfChunks);
+		for (int from = 0; from < individuals.size(); from += chunkSize) {
+			final int start = from;
+			final int end = Math.min(from + chunkSize, individuals.size());
+			// Each chunk writes in its own range of the array, the join below publishes the values to this thread
+			futures.add(executor.submit(() -> calculateFitnesses(individuals, fitnesses, start, end, seed)));
 		}
+		
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException ex) {
+			for (Future<?> future : futures)
+				future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The evaluation of the population has been interrupted.", ex);
+		} catch (ExecutionException ex) {
+			for (Future<?> future : futures)
+				future.cancel(true);
+			throw new IllegalStateException("The fitness of an individual could not be calculated.", ex.getCause());
+		}
+	}
+	
+	private void calculateFitnessesAsynchronously(@NotNull AsyncMutable<T> mutable, @NotNull List<Individual<T>> individuals, @NotNull double[] fitnesses, long seed) {
+		// Each evaluation holds a permit until its future is completed: once they are all taken, this thread waits
+		Semaphore permits = new Semaphore(getMaxPendingEvaluations());
+		CountDownLatch completed = new CountDownLatch(individuals.size());
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		ArrayList<CompletableFuture<Double>> futures = new ArrayList<>(individuals.size());
+		
+		try {
+			int started = 0;
+			for (; started < individuals.size() && failure.get() == null; started++) {
+				permits.acquire();
+				
+				final int index = started;
+				CompletableFuture<Double> future;
+				try {
+					// Same generator as calculateFitnesses(), so an asynchronous fitness gets the same values
+					future = mutable.calculateFitnessAsync(individuals.get(index), new SplitMixRandom(seed + index));
+				} catch (RuntimeException ex) {
+					future = new CompletableFuture<>();
+					future.completeExceptionally(ex);
+				}
+				
+				futures.add(future);
+				// The latch publishes the values written by the threads completing the futures to this thread
+				future.whenComplete((fitness, ex) -> {
+					if (ex != null || fitness == null)
+						failure.compareAndSet(null, ex != null ? ex : new NullPointerException("The fitness of an individual is null."));
+					else
+						fitnesses[index] = fitness;
+					
+					permits.release();
+					completed.countDown();
+				});
+			}
+			
+			// The evaluations that were not started after a failure will never complete
+			for (; started < individuals.size(); started++)
+				completed.countDown();
+			
+			completed.await();
+		} catch (InterruptedException ex) {
+			for (CompletableFuture<Double> future : futures)
+				future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The evaluation of the population has been interrupted.", ex);
+		}
+		
+		if (failure.get() != null) {
+			Throwable cause = failure.get();
+			throw new IllegalStateException("The fitness of an individual could not be calculated.", cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause);
+		}
+	}
+	
+	@NotNull
+	private ArrayList<Individual<T>> snapshotIndividuals() {
+		return snapshotIndividuals(new ArrayList<>(getIndividuals().size()));
+	}
+	
+	@NotNull
+	private ArrayList<Individual<T>> snapshotIndividuals(@NotNull ArrayList<Individual<T>> snapshot) {
+		snapshot.clear();
+		for (int i = 0; i < getIndividuals().size(); i++)
+			snapshot.add(getIndividuals().get(i));
+		
+		return snapshot;
 	}
 	
 	/**
@@ -172,8 +642,6 @@ public class Population<T> extends EnhancedObservable implements Serializable, C
 	public Lexicon<Individual<T>> getIndividuals() {
 		if (individuals == null) {
 			setIndividuals(new Lexicon<>());
-			this.individuals.setAcceptNullValues(false);
-			this.individuals.addObserver(((observable, o) -> snap(o)));
 		}
 		
 		return individuals;
@@ -183,9 +651,21 @@ public class Population<T> extends EnhancedObservable implements Serializable, C
 		if (individuals == null)
 			throw new NullPointerException();
 		
+		// The previous list no longer belongs to the population: it must not notify it anymore
+		if (this.individuals != null && this.individuals != individuals)
+			this.individuals.deleteObserver(getIndividualsObserver());
+		
 		this.individuals = individuals;
 		this.individuals.setAcceptNullValues(false);
-		this.individuals.addObserver(((observable, o) -> snap(o)));
+		this.individuals.addObserver(getIndividualsObserver());
+	}
+	
+	@NotNull
+	private Observer getIndividualsObserver() {
+		if (individualsObserver == null)
+			individualsObserver = (observable, o) -> snap(o);
+		
+		return individualsObserver;
 	}
 	
 	@SafeVarargs
@@ -266,6 +746,95 @@ public class Population<T> extends EnhancedObservable implements Serializable, C
 		this.mutationAction = mutationAction;
 	}
 	
+	@NotNull
+	public SelectionStrategy<T> getSelectionStrategy() {
+		if (selectionStrategy == null)
+			selectionStrategy = new TournamentSelection<>(4);
+		
+		return selectionStrategy;
+	}
+	
+	/**
+	 * Set the strategy used to select the parents of the children. The default is a tournament of 4 individuals.
+	 * @param selectionStrategy The selection strategy. It must be serializable for the population to be serialized.
+	 */
+	public void setSelectionStrategy(@NotNull SelectionStrategy<T> selectionStrategy) {
+		if (selectionStrategy == null)
+			throw new NullPointerException();
+		
+		this.selectionStrategy = selectionStrategy;
+	}
+	
+	@NotNull
+	public Random getRandom() {
+		if (random == null)
+			random = new SplitMixRandom();
+		
+		return random;
+	}
+	
+	/**
+	 * Set the generator of the population. All the random draws of the population are made with it, on the thread
+	 * calling {@link #evolve()}, and each individual evaluated gets its own generator derived from it: a population
+	 * evolves the same way from the same seed, concurrently or not, as long as its {@link Mutable} only draws from the
+	 * generators it receives.
+	 * @param random The generator. A {@link SplitMixRandom} can be saved and restored exactly.
+	 */
+	public void setRandom(@NotNull Random random) {
+		if (random == null)
+			throw new NullPointerException();
+		
+		this.random = random;
+	}
+	
+	public @Nullable ExecutorService getEvaluationExecutor() {
+		return evaluationExecutor;
+	}
+	
+	/**
+	 * Set the executor used by {@link #evaluate()}. A fork-join pool or a fixed thread pool sized to the number of
+	 * cores is a good fit. {@link Mutable#calculateFitness(Individual)} must then be thread-safe.
+	 * @param evaluationExecutor The executor, or null to evaluate on the caller thread.
+	 */
+	public void setEvaluationExecutor(@Nullable ExecutorService evaluationExecutor) {
+		this.evaluationExecutor = evaluationExecutor;
+	}
+	
+	public @Nullable FitnessCache<T> getFitnessCache() {
+		return fitnessCache;
+	}
+	
+	/**
+	 * Set the cache used by {@link #evaluate()} to skip the genomes that have already been scored. The previous cache
+	 * releases the individuals of the population.
+	 * @param fitnessCache The cache, or null to evaluate every individual each time.
+	 */
+	public void setFitnessCache(@Nullable FitnessCache<T> fitnessCache) {
+		if (this.fitnessCache != null && this.fitnessCache != fitnessCache)
+			for (Individual<T> individual : getIndividuals())
+				this.fitnessCache.release(individual);
+		
+		this.fitnessCache = fitnessCache;
+	}
+	
+	public int getMaxPendingEvaluations() {
+		return maxPendingEvaluations > 0 ? maxPendingEvaluations : DEFAULT_MAX_PENDING_EVALUATIONS;
+	}
+	
+	/**
+	 * Set the maximum number of evaluations in flight when the mutation action is an {@link AsyncMutable}. Once it is
+	 * reached, {@link #evaluate()} waits for an evaluation to complete before starting the next one. The evaluation
+	 * executor is not used by the asynchronous evaluations.
+	 * @param maxPendingEvaluations The maximum number of evaluations in flight. The default is
+	 *                              {@value #DEFAULT_MAX_PENDING_EVALUATIONS}.
+	 */
+	public void setMaxPendingEvaluations(int maxPendingEvaluations) {
+		if (maxPendingEvaluations < 1)
+			throw new IllegalArgumentException("The maximum number of pending evaluations must be greater than 0.");
+		
+		this.maxPendingEvaluations = maxPendingEvaluations;
+	}
+	
 	public @NotNull ArrayList<IndividualsListener<T>> getIndividualsListeners() {
 		if (this.individualsListeners == null)
 			this.individualsListeners = new ArrayList<>();
@@ -291,6 +860,109 @@ public class Population<T> extends EnhancedObservable implements Serializable, C
 		getIndividualsListeners().add(individualsListener);
 	}
 	
+	public boolean isQuiet() {
+		return quiet;
+	}
+	
+	/**
+	 * Set the quiet mode of {@link #evolve()}. In quiet mode, the objects changed during a generation do not notify
+	 * their observers at each change: each of them notifies its observers once, at the end of the generation (see
+	 * {@link Notifications}). The listeners are not affected.
+	 * @param quiet True to coalesce the notifications of each generation.
+	 */
+	public void setQuiet(boolean quiet) {
+		this.quiet = quiet;
+	}
+	
+	public boolean isRecycling() {
+		return recycling;
+	}
+	
+	/**
+	 * Set the recycling mode of {@link #evolve()}, to avoid the garbage of each generation. The lists of the generation
+	 * are reused, and the list of individuals is double-buffered: {@link #getIndividuals()} alternates between two
+	 * lists, refilled in place, so a list obtained before a generation must not be kept.
+	 * <p>
+	 * If the mutation action is a {@link RecyclingMutable}, the individuals discarded by a generation are also kept in a
+	 * pool, and reused as the children of the next generation (with a new id, without their fitness, listeners and
+	 * observers). An individual that left the population must then not be kept either: copy it (see
+	 * {@link Individual#copy()}) to keep it.
+	 * @param recycling True to reuse the lists and the individuals from one generation to the next.
+	 */
+	public void setRecycling(boolean recycling) {
+		this.recycling = recycling;
+		
+		if (!recycling)
+			recycler = null;
+	}
+	
+	@NotNull
+	private Recycler<T> getRecycler() {
+		if (recycler == null)
+			recycler = new Recycler<>();
+		
+		return recycler;
+	}
+	
+	/**
+	 * @return The number of generations done by {@link #evolve()}.
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * @param generation The number of generations already done, when resuming an evolution (see
+	 *                   {@link PopulationCodec}).
+	 */
+	public void setGeneration(long generation) {
+		if (generation < 0)
+			throw new IllegalArgumentException("The generation must be positive.");
+		
+		this.generation = generation;
+	}
+	
+	/**
+	 * @return The number of calls to the fitness function made by {@link #evaluate()} and {@link #evolve()} since the
+	 * creation of the population (the cached fitness values are not counted).
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+	
+	public @NotNull ArrayList<GenerationListener> getGenerationListeners() {
+		if (this.generationListeners == null)
+			this.generationListeners = new ArrayList<>();
+		
+		return this.generationListeners;
+	}
+	
+	public void setGenerationListeners(@NotNull ArrayList<GenerationListener> generationListeners) {
+		if (generationListeners == null)
+			throw new NullPointerException();
+		
+		for (GenerationListener generationListener : generationListeners)
+			if (generationListener == null)
+				throw new NullPointerException();
+		
+		this.generationListeners = generationListeners;
+	}
+	
+	/**
+	 * Add a listener receiving the {@link GenerationStatistics} of each generation. As long as no listener is added,
+	 * {@link #evolve()} does not measure anything.
+	 */
+	public void addGenerationListener(@NotNull GenerationListener generationListener) {
+		if (generationListener == null)
+			throw new NullPointerException();
+		
+		getGenerationListeners().add(generationListener);
+	}
+	
+	public boolean removeGenerationListener(@NotNull GenerationListener generationListener) {
+		return getGenerationListeners().remove(generationListener);
+	}
+	
 	/* OVERRIDES */
 	
 	@Override
@@ -340,4 +1012,113 @@ public class Population<T> extends EnhancedObservable implements Serializable, C
 				", mutationAction=\"" + getMutationRate() + '\"' +
 				'}';
 	}
+	
+	/* RECYCLER */
+	
+	/**
+	 * Storage reused by the generations in recycling mode (see {@link #setRecycling(boolean)}): the lists of the
+	 * generation, the spare list of individuals and the pool of the discarded individuals.
+	 */
+	private static final class Recycler<T> {
+		
+		@NotNull
+		private final ArrayList<Individual<T>> current = new ArrayList<>();
+		
+		@NotNull
+		private final ArrayList<Individual<T>> buffer = new ArrayList<>();
+		
+		@NotNull
+		private final ArrayList<Individual<T>> children = new ArrayList<>(2);
+		
+		@NotNull
+		private final ArrayDeque<Individual<T>> pool = new ArrayDeque<>();
+		
+		@NotNull
+		private int[] parents = new int[0];
+		
+		/**
+		 * List of individuals installed by the last generation, and the list it replaced, refilled by the next one.
+		 */
+		@Nullable
+		private Lexicon<Individual<T>> front, back;
+		
+		/**
+		 * Mark of the survivors of the last generation (see {@link Individual#recyclingMark}).
+		 */
+		private long mark;
+		
+		@NotNull
+		private int[] parents(int length) {
+			if (parents.length != length)
+				parents = new int[length];
+			
+			return parents;
+		}
+		
+		/**
+		 * @return An individual of the pool, or a copy of the parent if the pool is empty.
+		 */
+		@NotNull
+		private Individual<T> obtain(@NotNull Individual<T> parent) {
+			Individual<T> individual = pool.pollLast();
+			if (individual == null)
+				return parent.copy();
+			
+			individual.recycle();
+			return individual;
+		}
+		
+		/**
+		 * Give the survivors to the population, in the spare list.
+		 */
+		private void swap(@NotNull Population<T> population, @NotNull List<Individual<T>> survivors) {
+			Lexicon<Individual<T>> previous = population.getIndividuals();
+			Lexicon<Individual<T>> next = back;
+			
+			if (next == null)
+				next = new Lexicon<>(survivors);
+			else {
+				int common = Math.min(next.size(), survivors.size());
+				for (int i = 0; i < common; i++)
+					next.set(i, survivors.get(i));
+				for (int i = common; i < survivors.size(); i++)
+					next.add(survivors.get(i));
+				while (next.size() > survivors.size())
+					next.remove(next.size() - 1);
+			}
+			
+			population.setIndividuals(next);
+			// A list given by the user is never refilled
+			back = previous == front ? previous : null;
+			front = next;
+		}
+		
+		/**
+		 * Put the individuals of the generation that did not survive in the pool. The cache, if any, releases the ones
+		 * that do not fit in the pool.
+		 */
+		private void release(@NotNull List<Individual<T>> survivors, @Nullable FitnessCache<T> cache) {
+			mark++;
+			for (Individual<T> survivor : survivors)
+				survivor.recyclingMark = mark;
+			
+			// The pool never holds more individuals than a generation needs
+			int capacity = current.size() + children.size();
+			release(current, capacity, cache);
+			release(buffer, capacity, cache);
+		}
+		
+		private void release(@NotNull List<Individual<T>> individuals, int capacity, @Nullable FitnessCache<T> cache) {
+			for (Individual<T> individual : individuals) {
+				// Marked once released, so an individual both in 'current' and 'buffer' is only released once
+				if (individual.recyclingMark != mark) {
+					individual.recyclingMark = mark;
+					if (pool.size() < capacity)
+						pool.addLast(individual);
+					else if (cache != null)
+						cache.release(individual);
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,671 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.BinaryInput;
+import fr.berger.darwin.util.BinaryOutput;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Compact binary format of a {@link Population}, faster and much smaller than the Java serialization.
+ * <p>
+ * A file starts with a header, written once: the settings of the population, and the layout of the genomes (the kind
+ * and the length of each chromosome). Then comes one record per individual: its id, its fitness and the values of its
+ * chromosomes, packed without any separator. The {@link DoubleChromosome}, {@link IntChromosome} and
+ * {@link BitChromosome} are written as arrays of primitives; the genes of the other chromosomes are written by a
+ * {@link GeneCodec} (they are read back as plain {@link Chromosome}). All the individuals must have the same layout.
+ * <p>
+ * The listeners, the observers and the mutation action are not written: the mutation action is given back when
+ * reading. The header can carry an attachment: opaque bytes of the application, such as the state needed to resume an
+ * evolution (see {@link Header#withAttachment(byte[])}). The values are little-endian.
+ */
+public final class PopulationCodec {
+
+	/**
+	 * "DRWN" in ASCII.
+	 */
+	public static final int MAGIC = 0x4E575244;
+	/**
+	 * Version of the format written. The version 2 adds the attachment to the header; the files of the version 1 can
+	 * still be read.
+	 */
+	public static final int VERSION = 2;
+	
+	/* package */ static final byte DOUBLE = 1;
+	/* package */ static final byte INT = 2;
+	/* package */ static final byte BIT = 3;
+	/* package */ static final byte GENES = 4;
+	
+	/**
+	 * Length of a chromosome which does not have the same length in all the individuals: the length is then written
+	 * in each record.
+	 */
+	public static final int VARIABLE_LENGTH = -1;
+	
+	/**
+	 * Number of individuals of a file written to a channel which cannot be rewound: the individuals are read until the
+	 * end of the data.
+	 */
+	public static final long UNKNOWN_COUNT = -1L;
+	
+	private PopulationCodec() { }
+	
+	/* POPULATION CODEC METHODS */
+	
+	/**
+	 * Write the population to a file, replacing it if it exists.
+	 * @param geneCodec Codec of the genes of the chromosomes that are not backed by a primitive array. It can be null
+	 *                  if there is none.
+	 */
+	public static <T> void write(@NotNull Population<T> population, @NotNull Path path, @Nullable GeneCodec<T> geneCodec) throws IOException {
+		ArrayList<Individual<T>> individuals = new ArrayList<>(population.getIndividuals().size());
+		for (Individual<T> individual : population)
+			individuals.add(individual);
+		
+		Header header = Header.of(population, individuals);
+		
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		     Writer<T> writer = new Writer<>(channel, header, geneCodec)) {
+			for (Individual<T> individual : individuals)
+				writer.write(individual);
+		}
+	}
+	public static <T> void write(@NotNull Population<T> population, @NotNull Path path) throws IOException {
+		write(population, path, null);
+	}
+	
+	/**
+	 * Read a population written by {@link #write(Population, Path, GeneCodec)}.
+	 * @param mutationAction The mutation action of the population (it is not stored in the file).
+	 * @param geneCodec The codec used to write the file, if any.
+	 */
+	@NotNull
+	public static <T> Population<T> read(@NotNull Path path, @NotNull Mutable<T> mutationAction, @Nullable GeneCodec<T> geneCodec) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		     Reader<T> reader = new Reader<>(channel, geneCodec)) {
+			return read(reader, mutationAction);
+		}
+	}
+	@NotNull
+	public static <T> Population<T> read(@NotNull Path path, @NotNull Mutable<T> mutationAction) throws IOException {
+		return read(path, mutationAction, null);
+	}
+	
+	/**
+	 * Read the remaining individuals of the reader, and create a population with the settings of its header.
+	 * @param mutationAction The mutation action of the population (it is not stored in the file).
+	 */
+	@NotNull
+	public static <T> Population<T> read(@NotNull Reader<T> reader, @NotNull Mutable<T> mutationAction) throws IOException {
+		Header header = reader.getHeader();
+		ArrayList<Individual<T>> individuals = new ArrayList<>(header.getCount() >= 0 ? (int) header.getCount() : 16);
+		while (reader.hasNext())
+			individuals.add(reader.next());
+		
+		Population<T> population = new Population<>(individuals, header.getSize(), header.getElitismRate(), header.getMutationRate(), header.getCrossoverRate(), mutationAction);
+		population.setGeneration(header.getGeneration());
+		return population;
+	}
+	
+	private static byte kindOf(@NotNull Chromosome<?> chromosome) {
+		if (chromosome instanceof DoubleChromosome)
+			return DOUBLE;
+		if (chromosome instanceof IntChromosome)
+			return INT;
+		if (chromosome instanceof BitChromosome)
+			return BIT;
+		return GENES;
+	}
+	
+	private static int lengthOf(@NotNull Chromosome<?> chromosome) {
+		if (chromosome instanceof PrimitiveChromosome)
+			return ((PrimitiveChromosome<?>) chromosome).length();
+		return chromosome.getGenes().size();
+	}
+	
+	private static void checkGeneCodec(@NotNull Header header, @Nullable GeneCodec<?> geneCodec, boolean reading) {
+		if (!header.hasGenes())
+			return;
+		
+		if (geneCodec == null)
+			throw new IllegalArgumentException("The chromosomes of the individuals need a GeneCodec.");
+		if (reading && !geneCodec.getName().equals(header.getGeneCodecName()))
+			throw new IllegalArgumentException("The genes have been written by the codec \"" + header.getGeneCodecName() + "\", not by \"" + geneCodec.getName() + "\".");
+	}
+	
+	/* HEADER */
+	
+	/**
+	 * Settings of the population and layout of the genomes, written at the beginning of a file.
+	 */
+	public static final class Header {
+		
+		private final long size;
+		private final float elitismRate;
+		private final float mutationRate;
+		private final float crossoverRate;
+		private final long generation;
+		
+		@NotNull
+		private final String geneCodecName;
+		
+		/**
+		 * Kind of each chromosome.
+		 */
+		@NotNull
+		private final byte[] kinds;
+		
+		/**
+		 * Length of each chromosome, or {@link #VARIABLE_LENGTH}.
+		 */
+		@NotNull
+		private final int[] lengths;
+		
+		private final long count;
+		
+		@NotNull
+		private final byte[] attachment;
+		
+		private Header(long size, float elitismRate, float mutationRate, float crossoverRate, long generation, @NotNull String geneCodecName, @NotNull byte[] kinds, @NotNull int[] lengths, long count, @NotNull byte[] attachment) {
+			this.size = size;
+			this.elitismRate = elitismRate;
+			this.mutationRate = mutationRate;
+			this.crossoverRate = crossoverRate;
+			this.generation = generation;
+			this.geneCodecName = geneCodecName;
+			this.kinds = kinds;
+			this.lengths = lengths;
+			this.count = count;
+			this.attachment = attachment;
+		}
+		
+		/**
+		 * @param population The population giving the settings.
+		 * @param individuals The individuals that will be written, giving the layout.
+		 * @throws IllegalArgumentException If the individuals do not have the same layout.
+		 */
+		@NotNull
+		public static <T> Header of(@NotNull Population<T> population, @NotNull Iterable<Individual<T>> individuals) {
+			byte[] kinds = null;
+			int[] lengths = null;
+			long count = 0;
+			
+			for (Individual<T> individual : individuals) {
+				Lexicon<Chromosome<T>> chromosomes = individual.getChromosomes();
+				
+				if (kinds == null) {
+					kinds = new byte[chromosomes.size()];
+					lengths = new int[chromosomes.size()];
+					for (int i = 0; i < kinds.length; i++) {
+						kinds[i] = kindOf(chromosomes.get(i));
+						lengths[i] = lengthOf(chromosomes.get(i));
+					}
+				}
+				else {
+					if (chromosomes.size() != kinds.length)
+						throw new IllegalArgumentException("All the individuals must have the same number of chromosomes.");
+					
+					for (int i = 0; i < kinds.length; i++) {
+						if (kindOf(chromosomes.get(i)) != kinds[i])
+							throw new IllegalArgumentException("All the individuals must have the same kinds of chromosomes.");
+						if (lengths[i] != VARIABLE_LENGTH && lengthOf(chromosomes.get(i)) != lengths[i])
+							lengths[i] = VARIABLE_LENGTH;
+					}
+				}
+				
+				count++;
+			}
+			
+			if (kinds == null) {
+				kinds = new byte[0];
+				lengths = new int[0];
+			}
+			
+			return new Header(population.getSize(), population.getElitismRate(), population.getMutationRate(), population.getCrossoverRate(), population.getGeneration(), "", kinds, lengths, count, new byte[0]);
+		}
+		
+		/**
+		 * @param attachment The bytes to write in the header (they are copied).
+		 * @return A copy of the header with the given attachment.
+		 */
+		@NotNull
+		public Header withAttachment(@NotNull byte[] attachment) {
+			return new Header(size, elitismRate, mutationRate, crossoverRate, generation, geneCodecName, kinds, lengths, count, attachment.clone());
+		}
+		
+		private void write(@NotNull BinaryOutput output, @Nullable GeneCodec<?> geneCodec) throws IOException {
+			output.putInt(MAGIC);
+			output.putInt(VERSION);
+			output.putLong(size);
+			output.putFloat(elitismRate);
+			output.putFloat(mutationRate);
+			output.putFloat(crossoverRate);
+			output.putLong(generation);
+			output.putString(geneCodec != null ? geneCodec.getName() : geneCodecName);
+			output.putInt(kinds.length);
+			for (int i = 0; i < kinds.length; i++) {
+				output.putByte(kinds[i]);
+				output.putInt(lengths[i]);
+			}
+			output.putInt(attachment.length);
+			output.putBytes(attachment, 0, attachment.length);
+		}
+		
+		@NotNull
+		private static Header read(@NotNull BinaryInput input) throws IOException {
+			if (input.getInt() != MAGIC)
+				throw new IOException("The data is not a population.");
+			
+			int version = input.getInt();
+			if (version < 1 || version > VERSION)
+				throw new IOException("Unsupported version: " + version + " (supported: 1 to " + VERSION + ").");
+			
+			long size = input.getLong();
+			float elitismRate = input.getFloat();
+			float mutationRate = input.getFloat();
+			float crossoverRate = input.getFloat();
+			long generation = input.getLong();
+			String geneCodecName = input.getString();
+			
+			int chromosomes = input.getInt();
+			if (chromosomes < 0)
+				throw new IOException("Invalid number of chromosomes: " + chromosomes);
+			
+			byte[] kinds = new byte[chromosomes];
+			int[] lengths = new int[chromosomes];
+			for (int i = 0; i < chromosomes; i++) {
+				kinds[i] = input.getByte();
+				lengths[i] = input.getInt();
+				
+				if (kinds[i] < DOUBLE || kinds[i] > GENES)
+					throw new IOException("Unknown kind of chromosome: " + kinds[i]);
+				if (lengths[i] < VARIABLE_LENGTH)
+					throw new IOException("Invalid length of chromosome: " + lengths[i]);
+			}
+			
+			byte[] attachment = new byte[0];
+			if (version >= 2) {
+				int length = input.getInt();
+				if (length < 0)
+					throw new IOException("Invalid length of attachment: " + length);
+				
+				attachment = new byte[length];
+				input.getBytes(attachment, 0, length);
+			}
+			
+			return new Header(size, elitismRate, mutationRate, crossoverRate, generation, geneCodecName, kinds, lengths, input.getLong(), attachment);
+		}
+		
+		/**
+		 * @return True if some chromosomes are written by a {@link GeneCodec}.
+		 */
+		public boolean hasGenes() {
+			for (byte kind : kinds)
+				if (kind == GENES)
+					return true;
+			
+			return false;
+		}
+		
+		/* GETTERS */
+		
+		public long getSize() {
+			return size;
+		}
+		
+		public float getElitismRate() {
+			return elitismRate;
+		}
+		
+		public float getMutationRate() {
+			return mutationRate;
+		}
+		
+		public float getCrossoverRate() {
+			return crossoverRate;
+		}
+		
+		public long getGeneration() {
+			return generation;
+		}
+		
+		/**
+		 * @return The name of the {@link GeneCodec} of the genes, empty if there is none.
+		 */
+		@NotNull
+		public String getGeneCodecName() {
+			return geneCodecName;
+		}
+		
+		public int getChromosomeCount() {
+			return kinds.length;
+		}
+		
+		/**
+		 * @return The length of the chromosome {@code index} in all the individuals, or {@link #VARIABLE_LENGTH}.
+		 */
+		public int getChromosomeLength(int index) {
+			return lengths[index];
+		}
+		
+		/**
+		 * @return The number of individuals, or {@link #UNKNOWN_COUNT}.
+		 */
+		public long getCount() {
+			return count;
+		}
+		
+		/**
+		 * @return A copy of the attachment, empty if there is none.
+		 */
+		@NotNull
+		public byte[] getAttachment() {
+			return attachment.clone();
+		}
+		
+		/* OVERRIDES */
+		
+		@Override
+		public String toString() {
+			return "Header{" +
+					"size=\"" + size + '\"' +
+					", elitismRate=\"" + elitismRate + '\"' +
+					", mutationRate=\"" + mutationRate + '\"' +
+					", crossoverRate=\"" + crossoverRate + '\"' +
+					", generation=\"" + generation + '\"' +
+					", geneCodecName=\"" + geneCodecName + '\"' +
+					", kinds=" + Arrays.toString(kinds) +
+					", lengths=" + Arrays.toString(lengths) +
+					", count=\"" + count + '\"' +
+					", attachment=\"" + attachment.length + " bytes\"" +
+					'}';
+		}
+	}
+	
+	/* WRITER */
+	
+	/**
+	 * Write the individuals one by one, without keeping them. If the channel is a {@link SeekableByteChannel} (such as
+	 * a {@link FileChannel}), the number of individuals of the header is updated when the writer is closed; otherwise
+	 * it is {@link #UNKNOWN_COUNT}.
+	 */
+	public static class Writer<T> implements Closeable {
+		
+		@NotNull
+		private final WritableByteChannel channel;
+		
+		@NotNull
+		private final BinaryOutput output;
+		
+		@NotNull
+		private final Header header;
+		
+		@Nullable
+		private final GeneCodec<T> geneCodec;
+		
+		/**
+		 * Position of the number of individuals in the channel, or -1 if the channel cannot be rewound.
+		 */
+		private final long countPosition;
+		
+		private long count;
+		
+		@SuppressWarnings("ConstantConditions")
+		public Writer(@NotNull WritableByteChannel channel, @NotNull Header header, @Nullable GeneCodec<T> geneCodec) throws IOException {
+			if (channel == null || header == null)
+				throw new NullPointerException();
+			
+			checkGeneCodec(header, geneCodec, false);
+			
+			this.channel = channel;
+			this.output = new BinaryOutput(channel);
+			this.header = header;
+			this.geneCodec = geneCodec;
+			
+			long start = channel instanceof SeekableByteChannel ? ((SeekableByteChannel) channel).position() : -1L;
+			
+			header.write(output, geneCodec);
+			countPosition = start >= 0 ? start + output.getPosition() : -1L;
+			output.putLong(UNKNOWN_COUNT);
+		}
+		
+		/* WRITER METHODS */
+		
+		/**
+		 * @throws IllegalArgumentException If the layout of the individual does not match the header.
+		 */
+		@SuppressWarnings("ConstantConditions")
+		public void write(@NotNull Individual<T> individual) throws IOException {
+			Lexicon<Chromosome<T>> chromosomes = individual.getChromosomes();
+			if (chromosomes.size() != header.kinds.length)
+				throw new IllegalArgumentException("Wrong number of chromosomes (expected: " + header.kinds.length + " ; actual: " + chromosomes.size() + ").");
+			
+			UUID id = individual.getId();
+			output.putLong(id.getMostSignificantBits());
+			output.putLong(id.getLeastSignificantBits());
+			output.putDouble(individual.getFitness());
+			
+			for (int i = 0; i < header.kinds.length; i++) {
+				Chromosome<T> chromosome = chromosomes.get(i);
+				if (kindOf(chromosome) != header.kinds[i])
+					throw new IllegalArgumentException("The chromosome " + i + " does not match the header (" + chromosome.getClass().getSimpleName() + ").");
+				
+				switch (header.kinds[i]) {
+					case DOUBLE: {
+						double[] values = ((DoubleChromosome) chromosome).peekValues();
+						writeLength(i, values.length);
+						output.putDoubles(values, 0, values.length);
+						break;
+					}
+					case INT: {
+						int[] values = ((IntChromosome) chromosome).peekValues();
+						writeLength(i, values.length);
+						output.putInts(values, 0, values.length);
+						break;
+					}
+					case BIT: {
+						BitChromosome bits = (BitChromosome) chromosome;
+						writeLength(i, bits.length());
+						output.putLongs(bits.peekWords(), 0, bits.peekWords().length);
+						break;
+					}
+					default: {
+						Lexicon<Gene<T>> genes = chromosome.getGenes();
+						writeLength(i, genes.size());
+						for (Gene<T> gene : genes) {
+							T data = gene.getData();
+							output.putBoolean(data != null);
+							if (data != null)
+								geneCodec.write(data, output);
+						}
+						break;
+					}
+				}
+			}
+			
+			count++;
+		}
+		
+		private void writeLength(int chromosome, int length) throws IOException {
+			if (header.lengths[chromosome] == VARIABLE_LENGTH)
+				output.putInt(length);
+			else if (header.lengths[chromosome] != length)
+				throw new IllegalArgumentException("The chromosome " + chromosome + " does not have the length of the header (expected: " + header.lengths[chromosome] + " ; actual: " + length + ").");
+		}
+		
+		/* GETTERS */
+		
+		@NotNull
+		public Header getHeader() {
+			return header;
+		}
+		
+		/**
+		 * @return The number of individuals written so far.
+		 */
+		public long getCount() {
+			return count;
+		}
+		
+		/**
+		 * Write the buffered records and the number of individuals to the channel, without closing it (so that it can
+		 * be forced to the disk, for instance). Individuals can still be written after.
+		 */
+		public void finish() throws IOException {
+			output.flush();
+			
+			if (countPosition >= 0) {
+				SeekableByteChannel seekable = (SeekableByteChannel) channel;
+				long end = seekable.position();
+				ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+				buffer.putLong(count).flip();
+				seekable.position(countPosition);
+				while (buffer.hasRemaining())
+					seekable.write(buffer);
+				seekable.position(end);
+			}
+		}
+		
+		/* OVERRIDES */
+		
+		@Override
+		public void close() throws IOException {
+			try {
+				finish();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+	
+	/* READER */
+	
+	/**
+	 * Read the individuals one by one.
+	 */
+	public static class Reader<T> implements Closeable {
+		
+		@NotNull
+		private final BinaryInput input;
+		
+		@NotNull
+		private final Header header;
+		
+		@Nullable
+		private final GeneCodec<T> geneCodec;
+		
+		private long count;
+		
+		/**
+		 * @throws IOException If the channel does not start with a header of the current version.
+		 * @throws IllegalArgumentException If the chromosomes need another {@link GeneCodec}.
+		 */
+		@SuppressWarnings("ConstantConditions")
+		public Reader(@NotNull ReadableByteChannel channel, @Nullable GeneCodec<T> geneCodec) throws IOException {
+			if (channel == null)
+				throw new NullPointerException();
+			
+			this.input = new BinaryInput(channel);
+			this.header = Header.read(input);
+			this.geneCodec = geneCodec;
+			
+			checkGeneCodec(header, geneCodec, true);
+		}
+		
+		/* READER METHODS */
+		
+		public boolean hasNext() throws IOException {
+			if (header.count != UNKNOWN_COUNT)
+				return count < header.count;
+			
+			return input.hasRemaining();
+		}
+		
+		/**
+		 * @return The next individual, with its id and its fitness.
+		 */
+		@SuppressWarnings({"unchecked", "ConstantConditions"})
+		@NotNull
+		public Individual<T> next() throws IOException {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			
+			UUID id = new UUID(input.getLong(), input.getLong());
+			double fitness = input.getDouble();
+			
+			// The class is given, so that chromosomes of different classes can be mixed
+			Lexicon<Chromosome<T>> chromosomes = new Lexicon<>((Class<Chromosome<T>>) (Class<?>) Chromosome.class, header.kinds.length);
+			for (int i = 0; i < header.kinds.length; i++) {
+				int length = header.lengths[i] == VARIABLE_LENGTH ? input.getInt() : header.lengths[i];
+				if (length < 0)
+					throw new IOException("Invalid length of chromosome: " + length);
+				
+				switch (header.kinds[i]) {
+					case DOUBLE: {
+						double[] values = new double[length];
+						input.getDoubles(values, 0, length);
+						chromosomes.add((Chromosome<T>) (Chromosome<?>) new DoubleChromosome(values));
+						break;
+					}
+					case INT: {
+						int[] values = new int[length];
+						input.getInts(values, 0, length);
+						chromosomes.add((Chromosome<T>) (Chromosome<?>) new IntChromosome(values));
+						break;
+					}
+					case BIT: {
+						long[] words = new long[(length + 63) >>> 6];
+						input.getLongs(words, 0, words.length);
+						BitChromosome bits = new BitChromosome();
+						bits.setWords(words, length);
+						chromosomes.add((Chromosome<T>) (Chromosome<?>) bits);
+						break;
+					}
+					default: {
+						ArrayList<Gene<T>> genes = new ArrayList<>(length);
+						for (int j = 0; j < length; j++)
+							genes.add(new Gene<>(input.getBoolean() ? geneCodec.read(input) : null, geneCodec.getDataClass()));
+						chromosomes.add(new Chromosome<>(genes));
+						break;
+					}
+				}
+			}
+			
+			Individual<T> individual = new Individual<>(chromosomes);
+			individual.setId(id);
+			individual.setFitness(fitness);
+			
+			count++;
+			return individual;
+		}
+		
+		/* GETTERS */
+		
+		@NotNull
+		public Header getHeader() {
+			return header;
+		}
+		
+		/* OVERRIDES */
+		
+		@Override
+		public void close() throws IOException {
+			input.close();
+		}
+	}
+}
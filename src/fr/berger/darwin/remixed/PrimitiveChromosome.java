@@ -0,0 +1,167 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.remixed.listeners.DataListener;
+import fr.berger.darwin.remixed.listeners.GenesListener;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.Iterator;
+
+/**
+ * Chromosome storing its values in a primitive array instead of a list of {@link Gene}. The genes returned by
+ * {@link #getGenes()} are a view built on demand: setting the data of one of them writes the value back in the
+ * array, but adding or removing genes in the returned list has no effect (use {@link #setGenes(Lexicon)} instead).
+ * <p>
+ * The copies of a primitive chromosome (see {@link #copy()}) share its array until one of them is written: the array
+ * is then copied by the chromosome being written, so copying an individual only costs the chromosomes that are
+ * actually mutated. A shared array is never written.
+ * @param <T> The boxed type of the values.
+ */
+public abstract class PrimitiveChromosome<T> extends Chromosome<T> {
+
+	/**
+	 * True if the array may be shared with other chromosomes (or with the {@link FitnessCache}): it must then be copied
+	 * before being written.
+	 */
+	private transient boolean shared;
+	
+	public PrimitiveChromosome() {
+		super();
+	}
+	
+	/* PRIMITIVE CHROMOSOME METHODS */
+	
+	/**
+	 * @return The number of values in the chromosome.
+	 */
+	public abstract int length();
+	
+	@NotNull
+	protected abstract Class<T> getValueClass();
+	
+	@NotNull
+	protected abstract T getValue(int index);
+	
+	protected abstract void setValue(int index, @NotNull T value);
+	
+	/**
+	 * @return The values of the chromosome, in an array that will never be modified: a copy of the array backing the
+	 * chromosome, or the array itself once it is marked as shared.
+	 */
+	@NotNull
+	protected abstract Object copyValues();
+	
+	/**
+	 * Replace the storage by an empty storage of the given length.
+	 */
+	protected abstract void allocate(int length);
+	
+	/**
+	 * @return True if the array backing the chromosome may be shared, and must be copied before being written.
+	 */
+	protected boolean isShared() {
+		return shared;
+	}
+	
+	/**
+	 * @param shared True once the array backing the chromosome is handed to another chromosome, false once the
+	 *               chromosome owns a new array.
+	 */
+	protected void setShared(boolean shared) {
+		this.shared = shared;
+	}
+	
+	protected void notifyGenesListeners() {
+		if (getGenesListeners().isEmpty())
+			return;
+		
+		Lexicon<Gene<T>> genes = getGenes();
+		for (GenesListener<T> genesListener : getGenesListeners())
+			genesListener.onGenesChanged(genes);
+	}
+	
+	@NotNull
+	private Gene<T> createGene(int index) {
+		Gene<T> gene = new Gene<>(getValue(index), getValueClass());
+		gene.addDataListener(new WriteBack<>(this, index));
+		return gene;
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	/**
+	 * @return A new list of genes mirroring the values of the chromosome.
+	 */
+	@SuppressWarnings("unchecked")
+	@NotNull
+	@Override
+	public Lexicon<Gene<T>> getGenes() {
+		// The class is given, so an empty chromosome can be serialized
+		int length = length();
+		Lexicon<Gene<T>> genes = new Lexicon<>((Class<Gene<T>>) (Class<?>) Gene.class, length);
+		for (int i = 0; i < length; i++)
+			genes.add(createGene(i));
+		
+		return genes;
+	}
+	
+	@Override
+	public void setGenes(@NotNull Lexicon<Gene<T>> genes) {
+		if (genes == null)
+			throw new NullPointerException();
+		
+		for (Gene<T> gene : genes)
+			if (gene == null || gene.getData() == null)
+				throw new NullPointerException();
+		
+		allocate(genes.size());
+		for (int i = 0; i < genes.size(); i++)
+			setValue(i, genes.get(i).getData());
+		
+		notifyGenesListeners();
+	}
+	
+	/* OVERRIDES */
+	
+	@NotNull
+	@Override
+	public Iterator<Gene<T>> iterator() {
+		return new Iterator<Gene<T>>() {
+			
+			private int currentIndex = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return currentIndex < length();
+			}
+			
+			@Override
+			public Gene<T> next() {
+				return createGene(currentIndex++);
+			}
+		};
+	}
+	
+	/* WRITE BACK LISTENER */
+	
+	private static class WriteBack<T> implements DataListener<T>, Serializable {
+		
+		@NotNull
+		private final PrimitiveChromosome<T> chromosome;
+		private final int index;
+		
+		private WriteBack(@NotNull PrimitiveChromosome<T> chromosome, int index) {
+			this.chromosome = chromosome;
+			this.index = index;
+		}
+		
+		@Override
+		public void onDataChanged(@NotNull T data) {
+			if (data == null)
+				throw new NullPointerException();
+			
+			chromosome.setValue(index, data);
+		}
+	}
+}
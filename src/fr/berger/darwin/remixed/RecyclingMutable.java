@@ -0,0 +1,59 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * {@link Mutable} whose crossover writes the children into existing individuals, instead of creating them.
+ * <p>
+ * In recycling mode (see {@link Population#setRecycling(boolean)}), the population gives it the individuals discarded
+ * by the previous generation: their genomes, their listener lists and their chromosomes are reused, so a generation
+ * does not allocate new individuals once the pool is filled. The primitive chromosomes can be overwritten without
+ * allocating with {@link DoubleChromosome#copyFrom(DoubleChromosome)}, {@link IntChromosome#copyFrom(IntChromosome)}
+ * and {@link BitChromosome#copyFrom(BitChromosome)}, then changed in place with their crossover methods.
+ * @param <T> The type of the genes.
+ */
+public interface RecyclingMutable<T> extends Mutable<T> {
+
+	/**
+	 * Write the genomes of the two children of {@code parent1} and {@code parent2} into {@code child1} and
+	 * {@code child2}.
+	 * @param child1 An individual that is no longer in the population, or a copy of {@code parent1}. Its genome is the
+	 *               genome of a former individual: all of it must be overwritten.
+	 * @param child2 An individual that is no longer in the population, or a copy of {@code parent2}.
+	 * @param random The generator of the population, as in {@link Mutable#mate(Individual, Individual, Random)}.
+	 */
+	void mateInto(@NotNull Individual<T> parent1, @NotNull Individual<T> parent2, @NotNull Individual<T> child1, @NotNull Individual<T> child2, @NotNull Random random);
+	
+	/* ALLOCATING VARIANTS */
+	
+	/**
+	 * Create the children as copies of the parents, then write them with
+	 * {@link #mateInto(Individual, Individual, Individual, Individual, Random)}, with a generator seeded at random.
+	 */
+	@NotNull
+	@Override
+	default ArrayList<Individual<T>> mate(@NotNull Individual<T> parent1, @NotNull Individual<T> parent2) {
+		return mate(parent1, parent2, new SplitMixRandom());
+	}
+	
+	/**
+	 * Create the children as copies of the parents, then write them with
+	 * {@link #mateInto(Individual, Individual, Individual, Individual, Random)}.
+	 */
+	@NotNull
+	@Override
+	default ArrayList<Individual<T>> mate(@NotNull Individual<T> parent1, @NotNull Individual<T> parent2, @NotNull Random random) {
+		Individual<T> child1 = parent1.copy();
+		Individual<T> child2 = parent2.copy();
+		mateInto(parent1, parent2, child1, child2, random);
+		
+		ArrayList<Individual<T>> children = new ArrayList<>(2);
+		children.add(child1);
+		children.add(child2);
+		return children;
+	}
+}
@@ -0,0 +1,110 @@
+package fr.berger.darwin.remixed;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures of a run of a {@link Population} (see {@link Population#run(fr.berger.darwin.remixed.termination.TerminationCondition)}),
+ * updated after each generation and given to the termination condition.
+ * <p>
+ * They are maintained incrementally, so checking them costs O(1). The fitness measures and the diversity of the last
+ * generation (see {@link #getLastGeneration()}) are only taken if the condition needs them.
+ */
+public class RunStatistics implements Serializable {
+
+	/* package */ long startTime;
+	/* package */ long generations;
+	/* package */ long evaluations;
+	
+	/* package */ double bestFitness = Double.NEGATIVE_INFINITY;
+	/* package */ long lastImprovement;
+	
+	@Nullable
+	/* package */ GenerationStatistics lastGeneration;
+	
+	/* package */ RunStatistics() {
+		startTime = System.nanoTime();
+	}
+	
+	/**
+	 * Update the statistics after a generation.
+	 * @param bestFitness The fitness of the fittest individual of the generation.
+	 * @param evaluations The number of fitness evaluations of the generation.
+	 */
+	/* package */ void update(double bestFitness, long evaluations) {
+		generations++;
+		this.evaluations += evaluations;
+		
+		if (bestFitness > this.bestFitness) {
+			this.bestFitness = bestFitness;
+			lastImprovement = generations;
+		}
+	}
+	
+	/* GETTERS */
+	
+	/**
+	 * @return The number of generations done since the beginning of the run.
+	 */
+	public long getGenerations() {
+		return generations;
+	}
+	
+	/**
+	 * @return The time elapsed since the beginning of the run, in nanoseconds.
+	 */
+	public long getElapsedTime() {
+		return System.nanoTime() - startTime;
+	}
+	
+	public long getElapsedTime(TimeUnit unit) {
+		return unit.convert(getElapsedTime(), TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * @return The number of calls to {@link Mutable#calculateFitness(Individual)} since the beginning of the run (the
+	 * cached fitness values are not counted).
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+	
+	/**
+	 * @return The greatest fitness reached during the run, or {@link Double#NEGATIVE_INFINITY} before the first
+	 * generation.
+	 */
+	public double getBestFitness() {
+		return bestFitness;
+	}
+	
+	/**
+	 * @return The number of generations since the best fitness was last improved, or since the beginning of the run.
+	 */
+	public long getStagnation() {
+		return generations - lastImprovement;
+	}
+	
+	/**
+	 * @return The statistics of the last generation, or null if they are not measured or if no generation has been
+	 * done yet.
+	 */
+	@Nullable
+	public GenerationStatistics getLastGeneration() {
+		return lastGeneration;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "RunStatistics{" +
+				"generations=\"" + generations + '\"' +
+				", elapsedTime=\"" + getElapsedTime() + '\"' +
+				", evaluations=\"" + evaluations + '\"' +
+				", bestFitness=\"" + bestFitness + '\"' +
+				", stagnation=\"" + getStagnation() + '\"' +
+				'}';
+	}
+}
@@ -0,0 +1,474 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.SplitMixRandom;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Steady-state evolution of a {@link Population}: instead of building a whole new generation, each {@link #step()}
+ * breeds a few children, and each child replaces the least fit individual of the population, in place, if it is at
+ * least as fit.
+ * <p>
+ * The individuals are indexed by a binary min-heap on their fitness: replacing the least fit individual costs
+ * O(log n), and the list of individuals of the population is never rebuilt nor sorted. The parents are selected with
+ * the {@link fr.berger.darwin.remixed.selection.SelectionStrategy} of the population, directly on its list: the default
+ * tournament costs O(1) per parent, a strategy weighting the whole population (such as the roulette) costs O(n).
+ * A child that is not mated is a mutated copy of its parent. The elitism rate of the population is not used: the
+ * fittest individual can only be replaced by a child at least as fit.
+ * <p>
+ * If the mutation action of the population is an {@link AsyncMutable}, or if the population has an evaluation executor
+ * (see {@link Population#setEvaluationExecutor(ExecutorService)}), the children are evaluated asynchronously and a
+ * step never waits for them: the children evaluated since the previous step are inserted at the beginning of the next
+ * one. Once {@code maxPendingEvaluations} children are being evaluated, the steps only insert the children that are
+ * ready. Otherwise, each child is evaluated and inserted as soon as it is bred, and the evolution can be reproduced
+ * from the seed of the population.
+ * <p>
+ * The fitness of the individuals must be up to date before the first step (see {@link Population#evaluate()}). The
+ * steps must be done by a single thread, which is the only one changing the population meanwhile.
+ * @param <T> The type of the genes.
+ */
+public class SteadyStateEvolution<T> {
+
+	@NotNull
+	private final Population<T> population;
+	
+	/**
+	 * Number of children bred at each step.
+	 */
+	private int offspring;
+	
+	/**
+	 * Maximum number of children evaluated at the same time, asynchronously.
+	 */
+	private int maxPendingEvaluations;
+	
+	/**
+	 * Min-heap of the indices of the individuals, in the list of the population, ordered by fitness.
+	 */
+	@NotNull
+	private int[] heap = new int[0];
+	
+	/**
+	 * Position in {@link #heap} of each index of the list of individuals.
+	 */
+	@NotNull
+	private int[] positions = new int[0];
+	
+	private int heapSize;
+	
+	/**
+	 * The list of individuals indexed by the heap. If the population gets another list, the heap is built again.
+	 */
+	@Nullable
+	private Lexicon<Individual<T>> indexed;
+	
+	/**
+	 * View of {@link #indexed} given to the selection strategy, so the list is never copied.
+	 */
+	@NotNull
+	private final List<Individual<T>> candidates;
+	
+	@NotNull
+	private final int[] parents = new int[2];
+	
+	/**
+	 * The children evaluated by the executor, waiting to be inserted by the next step.
+	 */
+	@NotNull
+	private final LinkedBlockingQueue<Evaluation<T>> evaluated = new LinkedBlockingQueue<>();
+	
+	private int pendingEvaluations;
+	
+	private long steps;
+	private long evaluations;
+	private long replacements;
+	
+	public SteadyStateEvolution(@NotNull Population<T> population, int offspring, int maxPendingEvaluations) {
+		if (population == null)
+			throw new NullPointerException();
+		
+		this.population = population;
+		this.candidates = new AbstractList<Individual<T>>() {
+			@Override
+			public Individual<T> get(int index) {
+				return indexed.get(index);
+			}
+			
+			@Override
+			public int size() {
+				return heapSize;
+			}
+		};
+		setOffspring(offspring);
+		setMaxPendingEvaluations(maxPendingEvaluations);
+	}
+	public SteadyStateEvolution(@NotNull Population<T> population) {
+		this(population, 2, 2 * Runtime.getRuntime().availableProcessors());
+	}
+	
+	/* STEADY-STATE METHODS */
+	
+	/**
+	 * Insert the children evaluated since the previous step, then breed {@code offspring} children, unless
+	 * {@code maxPendingEvaluations} children are already being evaluated.
+	 * @throws IllegalStateException If the population is empty, or if the fitness of a child could not be calculated.
+	 */
+	public void step() {
+		index();
+		insertEvaluated();
+		
+		if (heapSize == 0)
+			throw new IllegalStateException("Cannot breed an empty population.");
+		
+		Random random = population.getRandom();
+		Mutable<T> mutable = population.getMutationAction();
+		
+		int bred = 0;
+		while (bred < offspring && pendingEvaluations < maxPendingEvaluations) {
+			List<Individual<T>> children = breed(mutable, random);
+			if (children.isEmpty())
+				break;
+			
+			for (Individual<T> child : children)
+				evaluate(child, mutable, random);
+			
+			bred += children.size();
+		}
+		
+		steps++;
+	}
+	
+	/**
+	 * Do {@code steps} steps (see {@link #step()}).
+	 */
+	public void step(long steps) {
+		for (long i = 0; i < steps; i++)
+			step();
+	}
+	
+	/**
+	 * Wait for all the children being evaluated, and insert them.
+	 * @throws InterruptedException If the thread is interrupted while waiting. The children that are not inserted yet
+	 *                              will be by the next step.
+	 */
+	public void await() throws InterruptedException {
+		index();
+		while (pendingEvaluations > 0)
+			insert(evaluated.take());
+	}
+	
+	@NotNull
+	private List<Individual<T>> breed(@NotNull Mutable<T> mutable, @NotNull Random random) {
+		population.getSelectionStrategy().select(candidates, parents, random);
+		
+		if (heapSize >= 2 && random.nextFloat() <= population.getCrossoverRate()) {
+			ArrayList<Individual<T>> children = mutable.mate(candidates.get(parents[0]), candidates.get(parents[1]), random);
+			for (int i = 0; i < children.size(); i++)
+				if (random.nextFloat() <= population.getMutationRate())
+					children.set(i, mutable.mutate(children.get(i), random));
+			
+			return children;
+		}
+		
+		// The parent stays in the population: its copy is mutated, since an unchanged copy would bring nothing
+		ArrayList<Individual<T>> children = new ArrayList<>(1);
+		children.add(mutable.mutate(candidates.get(parents[0]).copy(), random));
+		return children;
+	}
+	
+	private void evaluate(@NotNull Individual<T> child, @NotNull Mutable<T> mutable, @NotNull Random random) {
+		FitnessCache<T> fitnessCache = population.getFitnessCache();
+		Double cachedFitness = fitnessCache != null ? fitnessCache.get(child) : null;
+		if (cachedFitness != null) {
+			insert(child, cachedFitness);
+			return;
+		}
+		
+		// As in Population#evaluate(), each child gets its own generator, drawn on this thread
+		final long seed = random.nextLong();
+		ExecutorService executor = population.getEvaluationExecutor();
+		
+		if (mutable instanceof AsyncMutable) {
+			CompletableFuture<Double> future;
+			try {
+				future = ((AsyncMutable<T>) mutable).calculateFitnessAsync(child, new SplitMixRandom(seed));
+			} catch (RuntimeException ex) {
+				future = new CompletableFuture<>();
+				future.completeExceptionally(ex);
+			}
+			
+			pendingEvaluations++;
+			future.whenComplete((fitness, ex) -> {
+				if (ex != null || fitness == null)
+					evaluated.add(new Evaluation<>(child, 0.0, ex != null ? ex : new NullPointerException("The fitness of an individual is null.")));
+				else
+					evaluated.add(new Evaluation<>(child, fitness, null));
+			});
+			return;
+		}
+		
+		if (executor == null) {
+			evaluations++;
+			double fitness = mutable.calculateFitness(child, new SplitMixRandom(seed));
+			if (fitnessCache != null)
+				fitnessCache.put(child, fitness);
+			
+			insert(child, fitness);
+			return;
+		}
+		
+		pendingEvaluations++;
+		try {
+			executor.execute(() -> {
+				try {
+					evaluated.add(new Evaluation<>(child, mutable.calculateFitness(child, new SplitMixRandom(seed)), null));
+				} catch (Throwable ex) {
+					evaluated.add(new Evaluation<>(child, 0.0, ex));
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			pendingEvaluations--;
+			throw ex;
+		}
+	}
+	
+	private void insertEvaluated() {
+		Evaluation<T> evaluation;
+		while ((evaluation = evaluated.poll()) != null)
+			insert(evaluation);
+	}
+	
+	private void insert(@NotNull Evaluation<T> evaluation) {
+		pendingEvaluations--;
+		evaluations++;
+		
+		if (evaluation.failure != null) {
+			Throwable cause = evaluation.failure instanceof CompletionException && evaluation.failure.getCause() != null ? evaluation.failure.getCause() : evaluation.failure;
+			throw new IllegalStateException("The fitness of an individual could not be calculated.", cause);
+		}
+		
+		if (population.getFitnessCache() != null)
+			population.getFitnessCache().put(evaluation.individual, evaluation.fitness);
+		
+		insert(evaluation.individual, evaluation.fitness);
+	}
+	
+	/**
+	 * Add the child to the population if it is not full, otherwise replace the least fit individual with it if it is at
+	 * least as fit.
+	 */
+	private void insert(@NotNull Individual<T> child, double fitness) {
+		child.setFitness(fitness);
+		
+		if (heapSize < population.getSize()) {
+			indexed.add(child);
+			if (heapSize == heap.length) {
+				heap = Arrays.copyOf(heap, Math.max(16, heapSize * 2));
+				positions = Arrays.copyOf(positions, heap.length);
+			}
+			
+			heap[heapSize] = heapSize;
+			positions[heapSize] = heapSize;
+			heapSize++;
+			siftUp(heapSize - 1);
+			return;
+		}
+		
+		int leastFit = heap[0];
+		if (fitness < indexed.get(leastFit).getFitness())
+			return;
+		
+		indexed.set(leastFit, child);
+		siftDown(0);
+		replacements++;
+	}
+	
+	/**
+	 * Build the heap again if the list of individuals of the population has been replaced or resized since the last
+	 * step.
+	 */
+	private void index() {
+		Lexicon<Individual<T>> individuals = population.getIndividuals();
+		if (individuals == indexed && individuals.size() == heapSize)
+			return;
+		
+		indexed = individuals;
+		heapSize = individuals.size();
+		heap = new int[Math.max(16, heapSize)];
+		positions = new int[heap.length];
+		for (int i = 0; i < heapSize; i++) {
+			heap[i] = i;
+			positions[i] = i;
+		}
+		
+		for (int i = heapSize / 2 - 1; i >= 0; i--)
+			siftDown(i);
+	}
+	
+	/**
+	 * Rebuild the heap from the fitness of the individuals. It must be called after the fitness of the individuals has
+	 * been changed elsewhere, for instance by {@link Population#evaluate()}.
+	 */
+	public void reindex() {
+		indexed = null;
+		index();
+	}
+	
+	private void siftUp(int position) {
+		int index = heap[position];
+		double fitness = indexed.get(index).getFitness();
+		
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (indexed.get(heap[parent]).getFitness() <= fitness)
+				break;
+			
+			move(heap[parent], position);
+			position = parent;
+		}
+		
+		move(index, position);
+	}
+	
+	private void siftDown(int position) {
+		int index = heap[position];
+		double fitness = indexed.get(index).getFitness();
+		
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= heapSize)
+				break;
+			
+			double childFitness = indexed.get(heap[child]).getFitness();
+			if (child + 1 < heapSize) {
+				double rightFitness = indexed.get(heap[child + 1]).getFitness();
+				if (rightFitness < childFitness) {
+					child++;
+					childFitness = rightFitness;
+				}
+			}
+			
+			if (fitness <= childFitness)
+				break;
+			
+			move(heap[child], position);
+			position = child;
+		}
+		
+		move(index, position);
+	}
+	
+	private void move(int index, int position) {
+		heap[position] = index;
+		positions[index] = position;
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	@NotNull
+	public Population<T> getPopulation() {
+		return population;
+	}
+	
+	public int getOffspring() {
+		return offspring;
+	}
+	
+	public void setOffspring(int offspring) {
+		if (offspring < 1)
+			throw new IllegalArgumentException("The number of children of a step must be greater than 0.");
+		
+		this.offspring = offspring;
+	}
+	
+	public int getMaxPendingEvaluations() {
+		return maxPendingEvaluations;
+	}
+	
+	/**
+	 * @param maxPendingEvaluations The maximum number of children evaluated at the same time, asynchronously. It bounds
+	 *                              the memory used by the children waiting for their fitness.
+	 */
+	public void setMaxPendingEvaluations(int maxPendingEvaluations) {
+		if (maxPendingEvaluations < 1)
+			throw new IllegalArgumentException("The maximum number of pending evaluations must be greater than 0.");
+		
+		this.maxPendingEvaluations = maxPendingEvaluations;
+	}
+	
+	/**
+	 * @return The least fit individual of the population, or null if it is empty.
+	 */
+	@Nullable
+	public Individual<T> getLeastFit() {
+		index();
+		return heapSize > 0 ? indexed.get(heap[0]) : null;
+	}
+	
+	/**
+	 * @return The number of children being evaluated asynchronously, or waiting to be inserted.
+	 */
+	public int getPendingEvaluations() {
+		return pendingEvaluations;
+	}
+	
+	public long getSteps() {
+		return steps;
+	}
+	
+	/**
+	 * @return The number of calls to the fitness function, the children found in the fitness cache excluded.
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+	
+	/**
+	 * @return The number of individuals replaced by a child.
+	 */
+	public long getReplacements() {
+		return replacements;
+	}
+	
+	/* EVALUATION CLASS */
+	
+	private static class Evaluation<T> {
+		
+		@NotNull
+		private final Individual<T> individual;
+		private final double fitness;
+		@Nullable
+		private final Throwable failure;
+		
+		private Evaluation(@NotNull Individual<T> individual, double fitness, @Nullable Throwable failure) {
+			this.individual = individual;
+			this.fitness = fitness;
+			this.failure = failure;
+		}
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "SteadyStateEvolution{" +
+				"offspring=\"" + offspring + '\"' +
+				", maxPendingEvaluations=\"" + maxPendingEvaluations + '\"' +
+				", steps=\"" + steps + '\"' +
+				", evaluations=\"" + evaluations + '\"' +
+				", replacements=\"" + replacements + '\"' +
+				'}';
+	}
+}
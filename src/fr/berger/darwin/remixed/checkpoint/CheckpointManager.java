@@ -0,0 +1,481 @@
+package fr.berger.darwin.remixed.checkpoint;
+
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.remixed.GeneCodec;
+import fr.berger.darwin.remixed.GenerationStatistics;
+import fr.berger.darwin.remixed.Individual;
+import fr.berger.darwin.remixed.Mutable;
+import fr.berger.darwin.remixed.Population;
+import fr.berger.darwin.remixed.PopulationCodec;
+import fr.berger.darwin.remixed.listeners.GenerationListener;
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Save a {@link Population} in a directory every N generations and/or every T seconds, so that an evolution can be
+ * resumed after a crash (see {@link #resume(Path, Mutable, GeneCodec)}).
+ * <p>
+ * The manager listens to the generations of the population. When a checkpoint is due, it copies the genomes of the
+ * individuals on the thread calling {@link Population#evolve()} (the individuals are mutated in place by the next
+ * generations), then encodes and writes the copy on its own thread (see {@link PopulationCodec}) while the evolution
+ * goes on. If the previous checkpoint is still being written, the new one is skipped. Each checkpoint is written to a
+ * temporary file, forced to the disk and renamed, so a crash never leaves a partial checkpoint; only the
+ * {@code retention} latest checkpoints are kept.
+ * <p>
+ * To resume exactly, the generator of the population must draw the same numbers after the resumption as after the
+ * checkpoint. Its state is stored without drawing from it: the two {@code long} of a {@link SplitMixRandom} (the
+ * default generator), or the serialized form of another generator. Only the generator of the population is stored:
+ * a {@link Mutable} drawing from the shared {@link Irregular#getGenerator()} instead of the generator it is given
+ * cannot be resumed exactly, and the manager never reseeds that generator, which belongs to the whole JVM.
+ * @param <T> The type of the genes.
+ */
+public class CheckpointManager<T> implements GenerationListener, Closeable {
+
+	public static final String EXTENSION = ".drwn";
+	
+	private static final Pattern FILE_NAME = Pattern.compile("checkpoint-(\\d+)\\" + EXTENSION);
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+	
+	/**
+	 * Kinds of generator of the population stored in the checkpoints.
+	 */
+	private static final byte UNKNOWN_GENERATOR = 0;
+	private static final byte SPLIT_MIX_GENERATOR = 1;
+	private static final byte SERIALIZED_GENERATOR = 2;
+	
+	@NotNull
+	private final Population<T> population;
+	
+	@NotNull
+	private final Path directory;
+	
+	@Nullable
+	private final GeneCodec<T> geneCodec;
+	
+	/**
+	 * Number of generations between two checkpoints, 0 to disable.
+	 */
+	private long generationInterval;
+	
+	/**
+	 * Time between two checkpoints, in nanoseconds, 0 to disable.
+	 */
+	private long timeInterval;
+	
+	/**
+	 * Number of checkpoints kept in the directory.
+	 */
+	private int retention;
+	
+	/**
+	 * Thread writing the checkpoints. Unlike the executors given to the population, it belongs to the manager.
+	 */
+	@NotNull
+	private final ExecutorService writer;
+	
+	@Nullable
+	private Future<?> pending;
+	
+	private long lastGeneration;
+	private long lastTime;
+	
+	private volatile long written;
+	private volatile long skipped;
+	
+	@Nullable
+	private volatile Path latest;
+	
+	@Nullable
+	private volatile Exception lastFailure;
+	
+	/**
+	 * Create a manager and add it to the listeners of the population. By default, a checkpoint is written every 100
+	 * generations, and the 3 latest are kept.
+	 * @param geneCodec Codec of the genes of the chromosomes that are not backed by a primitive array. It can be null
+	 *                  if there is none.
+	 * @throws IOException If the directory cannot be created.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public CheckpointManager(@NotNull Population<T> population, @NotNull Path directory, @Nullable GeneCodec<T> geneCodec) throws IOException {
+		if (population == null || directory == null)
+			throw new NullPointerException();
+		
+		this.population = population;
+		this.directory = directory;
+		this.geneCodec = geneCodec;
+		setGenerationInterval(100);
+		setRetention(3);
+		
+		Files.createDirectories(directory);
+		// The temporary files are left by the writes interrupted by a crash
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "checkpoint-*" + EXTENSION + TEMPORARY_EXTENSION)) {
+			for (Path file : files)
+				Files.deleteIfExists(file);
+		}
+		
+		this.writer = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "darwin-checkpoint");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		this.lastGeneration = population.getGeneration();
+		this.lastTime = System.nanoTime();
+		population.addGenerationListener(this);
+	}
+	public CheckpointManager(@NotNull Population<T> population, @NotNull Path directory) throws IOException {
+		this(population, directory, null);
+	}
+	
+	/* CHECKPOINT MANAGER METHODS */
+	
+	/**
+	 * Start a checkpoint of the population now. It must be called from the thread calling {@link Population#evolve()},
+	 * between two generations.
+	 * @return False if the checkpoint has been skipped, because the previous one is still being written.
+	 */
+	public synchronized boolean checkpoint() {
+		if (pending != null && !pending.isDone()) {
+			skipped++;
+			return false;
+		}
+		
+		byte[] generator = saveGenerator(population.getRandom());
+		
+		ArrayList<Individual<T>> snapshot = new ArrayList<>(population.getIndividuals().size());
+		for (Individual<T> individual : population) {
+			Individual<T> copy = individual.copy();
+			copy.setId(individual.getId());
+			snapshot.add(copy);
+		}
+		
+		PopulationCodec.Header header = PopulationCodec.Header.of(population, snapshot).withAttachment(generator);
+		
+		lastGeneration = population.getGeneration();
+		lastTime = System.nanoTime();
+		pending = writer.submit(() -> write(header, snapshot));
+		return true;
+	}
+	
+	private void write(@NotNull PopulationCodec.Header header, @NotNull List<Individual<T>> snapshot) {
+		Path target = directory.resolve(fileName(header.getGeneration()));
+		Path temporary = directory.resolve(target.getFileName() + TEMPORARY_EXTENSION);
+		
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			     PopulationCodec.Writer<T> writer = new PopulationCodec.Writer<>(channel, header, geneCodec)) {
+				for (Individual<T> individual : snapshot)
+					writer.write(individual);
+				
+				writer.finish();
+				channel.force(true);
+			}
+			
+			Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			latest = target;
+			written++;
+			
+			List<Path> checkpoints = list(directory);
+			for (int i = 0; i < checkpoints.size() - getRetention(); i++)
+				Files.deleteIfExists(checkpoints.get(i));
+		} catch (IOException | RuntimeException ex) {
+			lastFailure = ex;
+			try {
+				Files.deleteIfExists(temporary);
+			} catch (IOException ignored) { }
+		}
+	}
+	
+	/**
+	 * Wait for the checkpoint being written, if any.
+	 */
+	public void await() throws InterruptedException {
+		Future<?> pending;
+		synchronized (this) {
+			pending = this.pending;
+		}
+		
+		if (pending == null)
+			return;
+		
+		try {
+			pending.get();
+		} catch (ExecutionException ex) {
+			// The failures are caught by the task itself
+			throw new IllegalStateException(ex.getCause());
+		}
+	}
+	
+	/**
+	 * @return The checkpoints of the directory, from the oldest to the latest.
+	 */
+	@NotNull
+	public static List<Path> list(@NotNull Path directory) throws IOException {
+		ArrayList<Path> checkpoints = new ArrayList<>();
+		if (!Files.isDirectory(directory))
+			return checkpoints;
+		
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "checkpoint-*" + EXTENSION)) {
+			for (Path file : files)
+				if (FILE_NAME.matcher(file.getFileName().toString()).matches())
+					checkpoints.add(file);
+		}
+		
+		checkpoints.sort(Comparator.comparingLong(CheckpointManager::generationOf));
+		return checkpoints;
+	}
+	
+	/**
+	 * Read the latest checkpoint of the directory, and restore the generator of the population as it was when the
+	 * checkpoint was taken. If the latest checkpoint cannot be read, the previous ones are tried.
+	 * @param mutationAction The mutation action of the population (it is not stored in the checkpoints).
+	 * @param geneCodec The codec given to the manager which wrote the checkpoints.
+	 * @return The population of the checkpoint, or null if the directory does not contain any checkpoint.
+	 * @throws IOException If none of the checkpoints can be read.
+	 */
+	@Nullable
+	public static <T> Population<T> resume(@NotNull Path directory, @NotNull Mutable<T> mutationAction, @Nullable GeneCodec<T> geneCodec) throws IOException {
+		List<Path> checkpoints = list(directory);
+		IOException failure = null;
+		
+		for (int i = checkpoints.size() - 1; i >= 0; i--) {
+			try (FileChannel channel = FileChannel.open(checkpoints.get(i), StandardOpenOption.READ);
+			     PopulationCodec.Reader<T> reader = new PopulationCodec.Reader<>(channel, geneCodec)) {
+				byte[] generator = reader.getHeader().getAttachment();
+				Population<T> population = PopulationCodec.read(reader, mutationAction);
+				
+				population.setRandom(restoreGenerator(generator));
+				return population;
+			} catch (IOException ex) {
+				if (failure == null)
+					failure = ex;
+				else
+					failure.addSuppressed(ex);
+			}
+		}
+		
+		if (failure != null)
+			throw failure;
+		
+		return null;
+	}
+	@Nullable
+	public static <T> Population<T> resume(@NotNull Path directory, @NotNull Mutable<T> mutationAction) throws IOException {
+		return resume(directory, mutationAction, null);
+	}
+	
+	@NotNull
+	private static String fileName(long generation) {
+		// The generation is padded, so that the files are listed in order
+		return String.format("checkpoint-%019d%s", generation, EXTENSION);
+	}
+	
+	private static long generationOf(@NotNull Path checkpoint) {
+		Matcher matcher = FILE_NAME.matcher(checkpoint.getFileName().toString());
+		return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1L;
+	}
+	
+	/**
+	 * Save the state of a generator without drawing from it.
+	 * @return The kind of the generator, then its state.
+	 */
+	@NotNull
+	private static byte[] saveGenerator(@NotNull Random random) {
+		if (random instanceof SplitMixRandom) {
+			long[] state = ((SplitMixRandom) random).getState();
+			return ByteBuffer.allocate(17).order(ByteOrder.LITTLE_ENDIAN).put(SPLIT_MIX_GENERATOR).putLong(state[0]).putLong(state[1]).array();
+		}
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(SERIALIZED_GENERATOR);
+		try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+			stream.writeObject(random);
+		} catch (IOException ex) {
+			// A subclass of Random with fields that cannot be serialized: the population is resumed with a new generator
+			return new byte[] { UNKNOWN_GENERATOR };
+		}
+		
+		return bytes.toByteArray();
+	}
+	
+	@NotNull
+	private static Random restoreGenerator(@NotNull byte[] attachment) throws IOException {
+		if (attachment.length == 0)
+			throw new IOException("The file is not a checkpoint: it does not contain the state of the random generator.");
+		
+		if (attachment[0] == SPLIT_MIX_GENERATOR && attachment.length == 17) {
+			ByteBuffer state = ByteBuffer.wrap(attachment, 1, 16).order(ByteOrder.LITTLE_ENDIAN);
+			SplitMixRandom generator = new SplitMixRandom();
+			generator.setState(new long[] { state.getLong(), state.getLong() });
+			return generator;
+		}
+		else if (attachment[0] == SERIALIZED_GENERATOR) {
+			try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(attachment, 1, attachment.length - 1))) {
+				return (Random) stream.readObject();
+			} catch (ClassNotFoundException | ClassCastException ex) {
+				throw new IOException("The random generator of the checkpoint cannot be read.", ex);
+			}
+		}
+		else if (attachment[0] == UNKNOWN_GENERATOR && attachment.length == 1)
+			return new SplitMixRandom();
+		
+		throw new IOException("The file is not a checkpoint: it does not contain the state of the random generator.");
+	}
+	
+	/* GENERATION LISTENER */
+	
+	@Override
+	public void onGeneration(@NotNull GenerationStatistics statistics) {
+		boolean due = generationInterval > 0 && statistics.getGeneration() - lastGeneration >= generationInterval;
+		due |= timeInterval > 0 && System.nanoTime() - lastTime >= timeInterval;
+		
+		if (due)
+			checkpoint();
+	}
+	
+	@Override
+	public boolean isMeasured() {
+		return false;
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	@NotNull
+	public Population<T> getPopulation() {
+		return population;
+	}
+	
+	@NotNull
+	public Path getDirectory() {
+		return directory;
+	}
+	
+	public long getGenerationInterval() {
+		return generationInterval;
+	}
+	
+	/**
+	 * @param generationInterval The number of generations between two checkpoints, 0 to disable.
+	 */
+	public void setGenerationInterval(long generationInterval) {
+		if (generationInterval < 0)
+			throw new IllegalArgumentException("The interval must be positive.");
+		
+		this.generationInterval = generationInterval;
+	}
+	
+	public long getTimeInterval(@NotNull TimeUnit unit) {
+		return unit.convert(timeInterval, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * @param timeInterval The time between two checkpoints, 0 to disable. The time is only checked at the end of the
+	 *                     generations.
+	 */
+	public void setTimeInterval(long timeInterval, @NotNull TimeUnit unit) {
+		if (timeInterval < 0)
+			throw new IllegalArgumentException("The interval must be positive.");
+		
+		this.timeInterval = unit.toNanos(timeInterval);
+	}
+	
+	public int getRetention() {
+		return retention;
+	}
+	
+	/**
+	 * @param retention The number of checkpoints kept in the directory, at least 1. The older ones are deleted.
+	 */
+	public void setRetention(int retention) {
+		if (retention < 1)
+			throw new IllegalArgumentException("At least one checkpoint must be kept.");
+		
+		this.retention = retention;
+	}
+	
+	/**
+	 * @return The number of checkpoints written.
+	 */
+	public long getWritten() {
+		return written;
+	}
+	
+	/**
+	 * @return The number of checkpoints skipped because the previous one was still being written.
+	 */
+	public long getSkipped() {
+		return skipped;
+	}
+	
+	/**
+	 * @return The last checkpoint written, or null.
+	 */
+	@Nullable
+	public Path getLatest() {
+		return latest;
+	}
+	
+	/**
+	 * @return The exception of the last checkpoint which could not be written, or null.
+	 */
+	@Nullable
+	public Exception getLastFailure() {
+		return lastFailure;
+	}
+	
+	/* OVERRIDES */
+	
+	/**
+	 * Remove the manager from the listeners of the population, and wait for the checkpoint being written.
+	 */
+	@Override
+	public void close() {
+		population.removeGenerationListener(this);
+		writer.shutdown();
+		
+		try {
+			writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return "CheckpointManager{" +
+				"directory=\"" + directory + '\"' +
+				", generationInterval=\"" + generationInterval + '\"' +
+				", timeInterval=\"" + timeInterval + '\"' +
+				", retention=\"" + retention + '\"' +
+				", written=\"" + written + '\"' +
+				", skipped=\"" + skipped + '\"' +
+				'}';
+	}
+}
@@ -0,0 +1,17 @@
+package fr.berger.darwin.remixed.listeners;
+
+import fr.berger.darwin.remixed.GenerationStatistics;
+
+public interface GenerationListener {
+
+	void onGeneration(GenerationStatistics statistics);
+	
+	/**
+	 * @return True if the listener reads the measures of the generations. If none of the listeners of a population does,
+	 * the clock is never read and the diversity is not measured: the statistics only contain the generation, the size
+	 * and the counts of evaluations, crossovers and mutations.
+	 */
+	default boolean isMeasured() {
+		return true;
+	}
+}
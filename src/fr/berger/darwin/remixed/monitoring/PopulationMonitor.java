@@ -0,0 +1,217 @@
+package fr.berger.darwin.remixed.monitoring;
+
+import fr.berger.darwin.remixed.GenerationStatistics;
+import fr.berger.darwin.remixed.Population;
+import fr.berger.darwin.remixed.listeners.GenerationListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Keep the statistics of the last generation of a {@link Population}, and expose them as a JMX MBean (see
+ * {@link #register(String)}). The population notifies the monitor from the thread calling
+ * {@link Population#evolve()}, and the attributes can be read from any thread.
+ */
+public class PopulationMonitor implements GenerationListener, PopulationMonitorMBean {
+	
+	private static final double NANOS_PER_MILLISECOND = 1_000_000.0;
+	
+	@NotNull
+	private volatile GenerationStatistics last;
+	
+	private volatile long totalFitnessEvaluations;
+	private volatile long totalTime;
+	
+	@Nullable
+	private ObjectName objectName;
+	
+	public PopulationMonitor() {
+		reset();
+	}
+	
+	/**
+	 * Create a monitor and add it to the listeners of the population.
+	 */
+	public PopulationMonitor(@NotNull Population<?> population) {
+		this();
+		population.addGenerationListener(this);
+	}
+	
+	/* POPULATION MONITOR METHODS */
+	
+	/**
+	 * Register the monitor in the platform MBean server, as {@code fr.berger.darwin:type=Population,name=<name>}.
+	 * @param name The name of the population.
+	 * @return The name of the MBean.
+	 * @throws JMException If the name is invalid or already registered.
+	 */
+	@NotNull
+	public synchronized ObjectName register(@NotNull String name) throws JMException {
+		if (objectName != null)
+			throw new IllegalStateException("The monitor is already registered as " + objectName + ".");
+		
+		ObjectName objectName = new ObjectName("fr.berger.darwin:type=Population,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		this.objectName = objectName;
+		
+		return objectName;
+	}
+	
+	/**
+	 * Remove the monitor from the platform MBean server, if it has been registered.
+	 */
+	public synchronized void unregister() throws JMException {
+		if (objectName == null)
+			return;
+		
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		if (server.isRegistered(objectName))
+			server.unregisterMBean(objectName);
+		objectName = null;
+	}
+	
+	/**
+	 * @return The statistics of the last generation.
+	 */
+	@NotNull
+	public GenerationStatistics getLastStatistics() {
+		return last;
+	}
+	
+	@Nullable
+	public synchronized ObjectName getObjectName() {
+		return objectName;
+	}
+	
+	/* GENERATION LISTENER */
+	
+	@Override
+	public void onGeneration(GenerationStatistics statistics) {
+		if (statistics == null)
+			throw new NullPointerException();
+		
+		// Only the thread evolving the population writes the totals
+		totalFitnessEvaluations += statistics.getFitnessEvaluations();
+		totalTime += statistics.getTotalTime();
+		last = statistics;
+	}
+	
+	/* MBEAN */
+	
+	@Override
+	public long getGeneration() {
+		return last.getGeneration();
+	}
+	
+	@Override
+	public int getSize() {
+		return last.getSize();
+	}
+	
+	@Override
+	public double getBestFitness() {
+		return last.getBestFitness();
+	}
+	
+	@Override
+	public double getMeanFitness() {
+		return last.getMeanFitness();
+	}
+	
+	@Override
+	public double getWorstFitness() {
+		return last.getWorstFitness();
+	}
+	
+	@Override
+	public double getFitnessStandardDeviation() {
+		return last.getFitnessStandardDeviation();
+	}
+	
+	@Override
+	public double getDiversity() {
+		return last.getDiversity();
+	}
+	
+	@Override
+	public double getEvaluationTime() {
+		return last.getEvaluationTime() / NANOS_PER_MILLISECOND;
+	}
+	
+	@Override
+	public double getSortTime() {
+		return last.getSortTime() / NANOS_PER_MILLISECOND;
+	}
+	
+	@Override
+	public double getSelectionTime() {
+		return last.getSelectionTime() / NANOS_PER_MILLISECOND;
+	}
+	
+	@Override
+	public double getCrossoverTime() {
+		return last.getCrossoverTime() / NANOS_PER_MILLISECOND;
+	}
+	
+	@Override
+	public double getMutationTime() {
+		return last.getMutationTime() / NANOS_PER_MILLISECOND;
+	}
+	
+	@Override
+	public double getReplacementTime() {
+		return last.getReplacementTime() / NANOS_PER_MILLISECOND;
+	}
+	
+	@Override
+	public double getGenerationTime() {
+		return last.getTotalTime() / NANOS_PER_MILLISECOND;
+	}
+	
+	@Override
+	public int getFitnessEvaluations() {
+		return last.getFitnessEvaluations();
+	}
+	
+	@Override
+	public int getCrossovers() {
+		return last.getCrossovers();
+	}
+	
+	@Override
+	public int getMutations() {
+		return last.getMutations();
+	}
+	
+	@Override
+	public long getTotalFitnessEvaluations() {
+		return totalFitnessEvaluations;
+	}
+	
+	@Override
+	public double getTotalTime() {
+		return totalTime / NANOS_PER_MILLISECOND;
+	}
+	
+	@Override
+	public void reset() {
+		last = GenerationStatistics.empty();
+		totalFitnessEvaluations = 0L;
+		totalTime = 0L;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public String toString() {
+		return "PopulationMonitor{" +
+				"last=\"" + last + '\"' +
+				", totalFitnessEvaluations=\"" + totalFitnessEvaluations + '\"' +
+				", totalTime=\"" + totalTime + '\"' +
+				'}';
+	}
+}
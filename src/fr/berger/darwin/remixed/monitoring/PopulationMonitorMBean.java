@@ -0,0 +1,51 @@
+package fr.berger.darwin.remixed.monitoring;
+
+/**
+ * Attributes of a {@link PopulationMonitor} exposed through JMX. The values are those of the last generation, except
+ * the totals. The times are in milliseconds.
+ */
+public interface PopulationMonitorMBean {
+	
+	long getGeneration();
+	
+	int getSize();
+	
+	double getBestFitness();
+	
+	double getMeanFitness();
+	
+	double getWorstFitness();
+	
+	double getFitnessStandardDeviation();
+	
+	double getDiversity();
+	
+	double getEvaluationTime();
+	
+	double getSortTime();
+	
+	double getSelectionTime();
+	
+	double getCrossoverTime();
+	
+	double getMutationTime();
+	
+	double getReplacementTime();
+	
+	double getGenerationTime();
+	
+	int getFitnessEvaluations();
+	
+	int getCrossovers();
+	
+	int getMutations();
+	
+	long getTotalFitnessEvaluations();
+	
+	double getTotalTime();
+	
+	/**
+	 * Forget the totals.
+	 */
+	void reset();
+}
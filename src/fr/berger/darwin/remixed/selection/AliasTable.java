@@ -0,0 +1,84 @@
+package fr.berger.darwin.remixed.selection;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Table to draw indices according to a discrete distribution in constant time (Vose's alias method). It is built in
+ * linear time, and its arrays are reused when it is rebuilt for a distribution of the same size.
+ */
+class AliasTable {
+	
+	@NotNull
+	private double[] probabilities = new double[0];
+	@NotNull
+	private int[] aliases = new int[0];
+	@NotNull
+	private int[] small = new int[0];
+	@NotNull
+	private int[] large = new int[0];
+	
+	private int size;
+	
+	/**
+	 * Build the table.
+	 * @param weights The weight of each index. They must be positive, and are not required to sum to 1. If they are
+	 *                all zero, the distribution is uniform.
+	 * @param size The number of weights to use.
+	 */
+	void build(@NotNull double[] weights, int size) {
+		if (size <= 0)
+			throw new IllegalArgumentException("Cannot build an alias table from an empty distribution.");
+		
+		if (probabilities.length < size) {
+			probabilities = new double[size];
+			aliases = new int[size];
+			small = new int[size];
+			large = new int[size];
+		}
+		
+		this.size = size;
+		
+		double total = 0.0;
+		for (int i = 0; i < size; i++)
+			total += weights[i];
+		
+		int numberOfSmall = 0;
+		int numberOfLarge = 0;
+		for (int i = 0; i < size; i++) {
+			// Scale the probabilities so their mean is 1
+			probabilities[i] = total > 0.0 ? weights[i] * size / total : 1.0;
+			aliases[i] = i;
+			
+			if (probabilities[i] < 1.0)
+				small[numberOfSmall++] = i;
+			else
+				large[numberOfLarge++] = i;
+		}
+		
+		while (numberOfSmall > 0 && numberOfLarge > 0) {
+			int less = small[--numberOfSmall];
+			int more = large[--numberOfLarge];
+			
+			aliases[less] = more;
+			probabilities[more] = (probabilities[more] + probabilities[less]) - 1.0;
+			
+			if (probabilities[more] < 1.0)
+				small[numberOfSmall++] = more;
+			else
+				large[numberOfLarge++] = more;
+		}
+		
+		// What remains is only due to rounding errors
+		while (numberOfLarge > 0)
+			probabilities[large[--numberOfLarge]] = 1.0;
+		while (numberOfSmall > 0)
+			probabilities[small[--numberOfSmall]] = 1.0;
+	}
+	
+	int draw(@NotNull Random random) {
+		int column = random.nextInt(size);
+		return random.nextDouble() < probabilities[column] ? column : aliases[column];
+	}
+}
@@ -0,0 +1,134 @@
+package fr.berger.darwin.remixed.selection;
+
+import fr.berger.darwin.remixed.Individual;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Linear rank selection: the probability for an individual to be selected only depends on its rank. With a selection
+ * pressure {@code s} in {@code [1, 2]}, the fittest individual is {@code s} times more likely to be selected than the
+ * average, and the least fit {@code 2 - s} times. Individuals sharing the same fitness get the mean of the ranks they
+ * span, so ties do not change the total weight of the others.
+ * <p>
+ * The buffers are kept between two calls to avoid allocations: an instance must not be shared between threads.
+ */
+public class RankSelection<T> implements SelectionStrategy<T>, Serializable {
+	
+	private double selectionPressure;
+	
+	@NotNull
+	private transient double[] sortedFitnesses;
+	@NotNull
+	private transient double[] weights;
+	@NotNull
+	private transient AliasTable table;
+	
+	public RankSelection(double selectionPressure) {
+		setSelectionPressure(selectionPressure);
+		this.sortedFitnesses = new double[0];
+		this.weights = new double[0];
+		this.table = new AliasTable();
+	}
+	public RankSelection() {
+		this(1.5);
+	}
+	
+	/* SELECTION METHOD */
+	
+	@SuppressWarnings("ConstantConditions")
+	@Override
+	public void select(@NotNull List<Individual<T>> individuals, @NotNull int[] selection, @NotNull Random random) {
+		if (individuals == null || selection == null || random == null)
+			throw new NullPointerException();
+		
+		int n = individuals.size();
+		if (n == 0)
+			throw new IllegalArgumentException("Cannot select among an empty list of individuals.");
+		
+		if (sortedFitnesses == null || sortedFitnesses.length < n) {
+			sortedFitnesses = new double[n];
+			weights = new double[n];
+		}
+		
+		for (int i = 0; i < n; i++)
+			sortedFitnesses[i] = individuals.get(i).getFitness();
+		Arrays.sort(sortedFitnesses, 0, n);
+		
+		double s = getSelectionPressure();
+		for (int i = 0; i < n; i++) {
+			// Rank of the individual, from 0 (least fit) to n - 1 (fittest): the ties span [lower, upper)
+			double fitness = individuals.get(i).getFitness();
+			int lower = bound(sortedFitnesses, n, fitness, false);
+			int upper = bound(sortedFitnesses, n, fitness, true);
+			double rank = (lower + upper - 1) / 2.0;
+			weights[i] = n > 1 ? (2.0 - s) + 2.0 * rank * (s - 1.0) / (n - 1) : 1.0;
+		}
+		
+		if (table == null)
+			table = new AliasTable();
+		table.build(weights, n);
+		
+		for (int i = 0; i < selection.length; i++)
+			selection[i] = table.draw(random);
+	}
+	
+	/**
+	 * @return The index of the first element not less than {@code value} (lower bound), or greater than {@code value}
+	 * (upper bound), in the first {@code length} elements of {@code sorted}.
+	 */
+	private static int bound(@NotNull double[] sorted, int length, double value, boolean upper) {
+		int low = 0;
+		int high = length;
+		
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int comparison = Double.compare(sorted[middle], value);
+			if (comparison < 0 || (upper && comparison == 0))
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		
+		return low;
+	}
+	
+	/* GETTER & SETTER */
+	
+	public double getSelectionPressure() {
+		return selectionPressure;
+	}
+	
+	public void setSelectionPressure(double selectionPressure) {
+		if (selectionPressure < 1.0 || selectionPressure > 2.0)
+			throw new IllegalArgumentException("The selection pressure must be between 1 and 2.");
+		
+		this.selectionPressure = selectionPressure;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof RankSelection)) return false;
+		RankSelection<?> that = (RankSelection<?>) o;
+		return Double.compare(that.getSelectionPressure(), getSelectionPressure()) == 0;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(getSelectionPressure());
+	}
+	
+	@Override
+	public String toString() {
+		return "RankSelection{" +
+				"selectionPressure=" + selectionPressure +
+				'}';
+	}
+}
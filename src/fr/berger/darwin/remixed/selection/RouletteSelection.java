@@ -0,0 +1,80 @@
+package fr.berger.darwin.remixed.selection;
+
+import fr.berger.darwin.remixed.Individual;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fitness-proportionate (roulette wheel) selection. The fitness values are shifted so the least fit individual has a
+ * weight of zero, which allows negative fitness values. The draws use an alias table, built once per call: each
+ * draw costs O(1).
+ * <p>
+ * The table is kept between two calls to avoid allocations: an instance must not be shared between threads.
+ */
+public class RouletteSelection<T> implements SelectionStrategy<T>, Serializable {
+	
+	@NotNull
+	private transient double[] weights;
+	@NotNull
+	private transient AliasTable table;
+	
+	public RouletteSelection() {
+		this.weights = new double[0];
+		this.table = new AliasTable();
+	}
+	
+	/* SELECTION METHOD */
+	
+	@SuppressWarnings("ConstantConditions")
+	@Override
+	public void select(@NotNull List<Individual<T>> individuals, @NotNull int[] selection, @NotNull Random random) {
+		if (individuals == null || selection == null || random == null)
+			throw new NullPointerException();
+		
+		int n = individuals.size();
+		if (n == 0)
+			throw new IllegalArgumentException("Cannot select among an empty list of individuals.");
+		
+		AliasTable aliasTable = getTable();
+		aliasTable.build(Weights.shiftedFitnesses(individuals, getWeights(n)), n);
+		
+		for (int i = 0; i < selection.length; i++)
+			selection[i] = aliasTable.draw(random);
+	}
+	
+	@NotNull
+	private double[] getWeights(int size) {
+		if (weights == null || weights.length < size)
+			weights = new double[size];
+		
+		return weights;
+	}
+	
+	@NotNull
+	private AliasTable getTable() {
+		if (table == null)
+			table = new AliasTable();
+		
+		return table;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		return this == o || o instanceof RouletteSelection;
+	}
+	
+	@Override
+	public int hashCode() {
+		return RouletteSelection.class.hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return "RouletteSelection{}";
+	}
+}
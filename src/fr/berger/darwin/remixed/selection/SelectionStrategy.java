@@ -0,0 +1,23 @@
+package fr.berger.darwin.remixed.selection;
+
+import fr.berger.darwin.remixed.Individual;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Strategy choosing the parents of the next generation. All the parents of a generation are chosen in one call.
+ * @param <T> The type of the genes.
+ */
+public interface SelectionStrategy<T> {
+	
+	/**
+	 * Select individuals among the given ones. The same individual can be selected several times.
+	 * @param individuals The candidates. Their fitness must be up to date, the greater the better.
+	 * @param selection The array to fill with the indices (in {@code individuals}) of the selected individuals. Its
+	 *                  length is the number of individuals to select.
+	 * @param random The random generator to draw from.
+	 */
+	void select(@NotNull List<Individual<T>> individuals, @NotNull int[] selection, @NotNull Random random);
+}
@@ -0,0 +1,90 @@
+package fr.berger.darwin.remixed.selection;
+
+import fr.berger.darwin.remixed.Individual;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Stochastic universal sampling: fitness-proportionate selection using evenly spaced pointers on the wheel, with a
+ * single random draw for the whole batch. The number of copies of each individual is as close as possible to its
+ * expected value. The fitness values are shifted as in {@link RouletteSelection}, and the selection is shuffled so
+ * consecutive parents are not correlated.
+ * <p>
+ * The buffer is kept between two calls to avoid allocations: an instance must not be shared between threads.
+ */
+public class StochasticUniversalSampling<T> implements SelectionStrategy<T>, Serializable {
+	
+	@NotNull
+	private transient double[] weights;
+	
+	public StochasticUniversalSampling() {
+		this.weights = new double[0];
+	}
+	
+	/* SELECTION METHOD */
+	
+	@SuppressWarnings("ConstantConditions")
+	@Override
+	public void select(@NotNull List<Individual<T>> individuals, @NotNull int[] selection, @NotNull Random random) {
+		if (individuals == null || selection == null || random == null)
+			throw new NullPointerException();
+		
+		int n = individuals.size();
+		if (n == 0)
+			throw new IllegalArgumentException("Cannot select among an empty list of individuals.");
+		
+		if (selection.length == 0)
+			return;
+		
+		if (weights == null || weights.length < n)
+			weights = new double[n];
+		
+		Weights.shiftedFitnesses(individuals, weights);
+		
+		double total = 0.0;
+		for (int i = 0; i < n; i++)
+			total += weights[i];
+		
+		// If all the individuals are as fit, they all have the same chance
+		if (total <= 0.0) {
+			for (int i = 0; i < n; i++)
+				weights[i] = 1.0;
+			total = n;
+		}
+		
+		double distance = total / selection.length;
+		double pointer = random.nextDouble() * distance;
+		double cumulative = weights[0];
+		int current = 0;
+		
+		for (int i = 0; i < selection.length; i++) {
+			while (cumulative <= pointer && current < n - 1)
+				cumulative += weights[++current];
+			
+			selection[i] = current;
+			pointer += distance;
+		}
+		
+		Weights.shuffle(selection, selection.length, random);
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		return this == o || o instanceof StochasticUniversalSampling;
+	}
+	
+	@Override
+	public int hashCode() {
+		return StochasticUniversalSampling.class.hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return "StochasticUniversalSampling{}";
+	}
+}
@@ -0,0 +1,89 @@
+package fr.berger.darwin.remixed.selection;
+
+import fr.berger.darwin.remixed.Individual;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Tournament selection: each selected individual is the fittest of {@code size} individuals drawn at random.
+ */
+public class TournamentSelection<T> implements SelectionStrategy<T>, Serializable {
+	
+	private int size;
+	
+	public TournamentSelection(int size) {
+		setSize(size);
+	}
+	public TournamentSelection() {
+		this(4);
+	}
+	
+	/* SELECTION METHOD */
+	
+	@SuppressWarnings("ConstantConditions")
+	@Override
+	public void select(@NotNull List<Individual<T>> individuals, @NotNull int[] selection, @NotNull Random random) {
+		if (individuals == null || selection == null || random == null)
+			throw new NullPointerException();
+		
+		int n = individuals.size();
+		if (n == 0)
+			throw new IllegalArgumentException("Cannot select among an empty list of individuals.");
+		
+		for (int i = 0; i < selection.length; i++) {
+			int winner = random.nextInt(n);
+			double winnerFitness = individuals.get(winner).getFitness();
+			
+			for (int j = 1; j < size; j++) {
+				int challenger = random.nextInt(n);
+				double challengerFitness = individuals.get(challenger).getFitness();
+				
+				if (challengerFitness > winnerFitness) {
+					winner = challenger;
+					winnerFitness = challengerFitness;
+				}
+			}
+			
+			selection[i] = winner;
+		}
+	}
+	
+	/* GETTER & SETTER */
+	
+	public int getSize() {
+		return size;
+	}
+	
+	public void setSize(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("The size of the tournament must be greater than 0.");
+		
+		this.size = size;
+	}
+	
+	/* OVERRIDES */
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof TournamentSelection)) return false;
+		TournamentSelection<?> that = (TournamentSelection<?>) o;
+		return getSize() == that.getSize();
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(getSize());
+	}
+	
+	@Override
+	public String toString() {
+		return "TournamentSelection{" +
+				"size=" + size +
+				'}';
+	}
+}
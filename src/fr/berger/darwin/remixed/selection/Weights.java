@@ -0,0 +1,43 @@
+package fr.berger.darwin.remixed.selection;
+
+import fr.berger.darwin.remixed.Individual;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Random;
+
+class Weights {
+	
+	/**
+	 * Fill {@code weights} with the fitness of the individuals, minus the smallest fitness.
+	 * @return {@code weights}
+	 */
+	@NotNull
+	static <T> double[] shiftedFitnesses(@NotNull List<Individual<T>> individuals, @NotNull double[] weights) {
+		int n = individuals.size();
+		double min = Double.POSITIVE_INFINITY;
+		
+		for (int i = 0; i < n; i++) {
+			weights[i] = individuals.get(i).getFitness();
+			if (weights[i] < min)
+				min = weights[i];
+		}
+		
+		for (int i = 0; i < n; i++)
+			weights[i] -= min;
+		
+		return weights;
+	}
+	
+	/**
+	 * Shuffle the first {@code length} elements of the array (Fisher-Yates).
+	 */
+	static void shuffle(@NotNull int[] array, int length, @NotNull Random random) {
+		for (int i = length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = array[i];
+			array[i] = array[j];
+			array[j] = tmp;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package fr.berger.darwin.remixed.termination;
+
+import fr.berger.darwin.remixed.GenerationStatistics;
+import fr.berger.darwin.remixed.RunStatistics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Condition stopping a run of a {@link fr.berger.darwin.remixed.Population} (see
+ * {@link fr.berger.darwin.remixed.Population#run(TerminationCondition)}). It is checked before each generation, so it
+ * must be cheap: the statistics it is given are maintained incrementally.
+ * <p>
+ * The conditions are combined with {@link #or(TerminationCondition)} and {@link #and(TerminationCondition)}. They must
+ * not keep any state: a condition can be used by several runs.
+ */
+@FunctionalInterface
+public interface TerminationCondition {
+
+	/**
+	 * @param statistics The statistics of the run, up to the last generation.
+	 * @return True if the run must stop.
+	 */
+	boolean isMet(@NotNull RunStatistics statistics);
+	
+	/**
+	 * @return True if the condition reads the {@link GenerationStatistics} of the last generation (see
+	 * {@link RunStatistics#getLastGeneration()}). They are not measured otherwise, as measuring the diversity of the
+	 * population costs a hash of each genome.
+	 */
+	default boolean isMeasured() {
+		return false;
+	}
+	
+	/* COMPOSITION */
+	
+	@NotNull
+	default TerminationCondition or(@NotNull TerminationCondition other) {
+		if (other == null)
+			throw new NullPointerException();
+		
+		TerminationCondition self = this;
+		return new TerminationCondition() {
+			@Override
+			public boolean isMet(@NotNull RunStatistics statistics) {
+				return self.isMet(statistics) || other.isMet(statistics);
+			}
+			
+			@Override
+			public boolean isMeasured() {
+				return self.isMeasured() || other.isMeasured();
+			}
+		};
+	}
+	
+	@NotNull
+	default TerminationCondition and(@NotNull TerminationCondition other) {
+		if (other == null)
+			throw new NullPointerException();
+		
+		TerminationCondition self = this;
+		return new TerminationCondition() {
+			@Override
+			public boolean isMet(@NotNull RunStatistics statistics) {
+				return self.isMet(statistics) && other.isMet(statistics);
+			}
+			
+			@Override
+			public boolean isMeasured() {
+				return self.isMeasured() || other.isMeasured();
+			}
+		};
+	}
+	
+	/* CONDITIONS */
+	
+	/**
+	 * @return A condition met once a fitness greater than or equal to {@code fitness} has been reached.
+	 */
+	@NotNull
+	static TerminationCondition targetFitness(double fitness) {
+		return statistics -> statistics.getBestFitness() >= fitness;
+	}
+	
+	/**
+	 * @return A condition met once the best fitness has not been improved during {@code generations} generations.
+	 */
+	@NotNull
+	static TerminationCondition stagnation(long generations) {
+		if (generations < 1)
+			throw new IllegalArgumentException("The number of generations must be greater than 0.");
+		
+		return statistics -> statistics.getStagnation() >= generations;
+	}
+	
+	/**
+	 * @return A condition met after {@code generations} generations.
+	 */
+	@NotNull
+	static TerminationCondition maxGenerations(long generations) {
+		return statistics -> statistics.getGenerations() >= generations;
+	}
+	
+	/**
+	 * @return A condition met once the run has lasted {@code duration}. The generation running when it expires is
+	 * finished first.
+	 */
+	@NotNull
+	static TerminationCondition wallClock(long duration, @NotNull TimeUnit unit) {
+		long nanoseconds = unit.toNanos(duration);
+		return statistics -> statistics.getElapsedTime() >= nanoseconds;
+	}
+	
+	/**
+	 * @return A condition met once {@code evaluations} fitness evaluations have been done. The budget is checked between
+	 * the generations: the last generation can exceed it.
+	 */
+	@NotNull
+	static TerminationCondition evaluationBudget(long evaluations) {
+		return statistics -> statistics.getEvaluations() >= evaluations;
+	}
+	
+	/**
+	 * @return A condition met once the diversity of the population (see {@link GenerationStatistics#getDiversity()})
+	 * has fallen below {@code minDiversity}.
+	 */
+	@NotNull
+	static TerminationCondition diversityCollapse(double minDiversity) {
+		return new TerminationCondition() {
+			@Override
+			public boolean isMet(@NotNull RunStatistics statistics) {
+				GenerationStatistics lastGeneration = statistics.getLastGeneration();
+				return lastGeneration != null && lastGeneration.getDiversity() < minDiversity;
+			}
+			
+			@Override
+			public boolean isMeasured() {
+				return true;
+			}
+		};
+	}
+}
@@ -0,0 +1,172 @@
+package fr.berger.darwin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered reader of the primitive values written by a {@link BinaryOutput}.
+ */
+public class BinaryInput implements Closeable {
+	
+	@NotNull
+	private final ReadableByteChannel channel;
+	
+	@NotNull
+	private final ByteBuffer buffer;
+	
+	@SuppressWarnings("ConstantConditions")
+	public BinaryInput(@NotNull ReadableByteChannel channel, int bufferSize) {
+		if (channel == null)
+			throw new NullPointerException();
+		
+		if (bufferSize < 8)
+			throw new IllegalArgumentException("The buffer must hold at least 8 bytes.");
+		
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+		this.buffer.limit(0);
+	}
+	public BinaryInput(@NotNull ReadableByteChannel channel) {
+		this(channel, BinaryOutput.DEFAULT_BUFFER_SIZE);
+	}
+	
+	/* BINARY INPUT METHODS */
+	
+	public byte getByte() throws IOException {
+		require(1);
+		return buffer.get();
+	}
+	
+	public boolean getBoolean() throws IOException {
+		return getByte() != 0;
+	}
+	
+	public short getShort() throws IOException {
+		require(2);
+		return buffer.getShort();
+	}
+	
+	public int getInt() throws IOException {
+		require(4);
+		return buffer.getInt();
+	}
+	
+	public long getLong() throws IOException {
+		require(8);
+		return buffer.getLong();
+	}
+	
+	public float getFloat() throws IOException {
+		require(4);
+		return buffer.getFloat();
+	}
+	
+	public double getDouble() throws IOException {
+		require(8);
+		return buffer.getDouble();
+	}
+	
+	public void getDoubles(@NotNull double[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			require(8);
+			int count = Math.min(buffer.remaining() / 8, length);
+			buffer.asDoubleBuffer().get(values, offset, count);
+			buffer.position(buffer.position() + count * 8);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	public void getInts(@NotNull int[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			require(4);
+			int count = Math.min(buffer.remaining() / 4, length);
+			buffer.asIntBuffer().get(values, offset, count);
+			buffer.position(buffer.position() + count * 4);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	public void getLongs(@NotNull long[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			require(8);
+			int count = Math.min(buffer.remaining() / 8, length);
+			buffer.asLongBuffer().get(values, offset, count);
+			buffer.position(buffer.position() + count * 8);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	public void getBytes(@NotNull byte[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			require(1);
+			int count = Math.min(buffer.remaining(), length);
+			buffer.get(values, offset, count);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	/**
+	 * Read a string written by {@link BinaryOutput#putString(String)}.
+	 */
+	@NotNull
+	public String getString() throws IOException {
+		int length = getInt();
+		if (length < 0)
+			throw new IOException("Invalid string length: " + length);
+		
+		byte[] bytes = new byte[length];
+		getBytes(bytes, 0, length);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * @return True if there is at least one byte left to read.
+	 */
+	public boolean hasRemaining() throws IOException {
+		if (buffer.hasRemaining())
+			return true;
+		
+		buffer.clear();
+		int read;
+		do {
+			read = channel.read(buffer);
+		} while (read == 0);
+		buffer.flip();
+		
+		return read > 0;
+	}
+	
+	/**
+	 * Make sure at least {@code bytes} bytes are available in the buffer.
+	 * @throws EOFException If the channel ends before.
+	 */
+	private void require(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes)
+			return;
+		
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) < 0) {
+				buffer.flip();
+				throw new EOFException("Unexpected end of the data (" + bytes + " bytes needed, " + buffer.remaining() + " available).");
+			}
+		}
+		buffer.flip();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,167 @@
+package fr.berger.darwin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered writer of primitive values to a channel. The values are written in little-endian order. The arrays are
+ * copied to the buffer in bulk, a chunk at a time, so an array larger than the buffer can be written.
+ */
+public class BinaryOutput implements Closeable {
+	
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	
+	@NotNull
+	private final WritableByteChannel channel;
+	
+	@NotNull
+	private final ByteBuffer buffer;
+	
+	/**
+	 * Number of bytes already written to the channel.
+	 */
+	private long written;
+	
+	@SuppressWarnings("ConstantConditions")
+	public BinaryOutput(@NotNull WritableByteChannel channel, int bufferSize) {
+		if (channel == null)
+			throw new NullPointerException();
+		
+		if (bufferSize < 8)
+			throw new IllegalArgumentException("The buffer must hold at least 8 bytes.");
+		
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+	}
+	public BinaryOutput(@NotNull WritableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/* BINARY OUTPUT METHODS */
+	
+	public void putByte(byte value) throws IOException {
+		ensure(1);
+		buffer.put(value);
+	}
+	
+	public void putBoolean(boolean value) throws IOException {
+		putByte(value ? (byte) 1 : (byte) 0);
+	}
+	
+	public void putShort(short value) throws IOException {
+		ensure(2);
+		buffer.putShort(value);
+	}
+	
+	public void putInt(int value) throws IOException {
+		ensure(4);
+		buffer.putInt(value);
+	}
+	
+	public void putLong(long value) throws IOException {
+		ensure(8);
+		buffer.putLong(value);
+	}
+	
+	public void putFloat(float value) throws IOException {
+		ensure(4);
+		buffer.putFloat(value);
+	}
+	
+	public void putDouble(double value) throws IOException {
+		ensure(8);
+		buffer.putDouble(value);
+	}
+	
+	public void putDoubles(@NotNull double[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			ensure(8);
+			int count = Math.min(buffer.remaining() / 8, length);
+			buffer.asDoubleBuffer().put(values, offset, count);
+			buffer.position(buffer.position() + count * 8);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	public void putInts(@NotNull int[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			ensure(4);
+			int count = Math.min(buffer.remaining() / 4, length);
+			buffer.asIntBuffer().put(values, offset, count);
+			buffer.position(buffer.position() + count * 4);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	public void putLongs(@NotNull long[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			ensure(8);
+			int count = Math.min(buffer.remaining() / 8, length);
+			buffer.asLongBuffer().put(values, offset, count);
+			buffer.position(buffer.position() + count * 8);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	public void putBytes(@NotNull byte[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			ensure(1);
+			int count = Math.min(buffer.remaining(), length);
+			buffer.put(values, offset, count);
+			offset += count;
+			length -= count;
+		}
+	}
+	
+	/**
+	 * Write a string in UTF-8, preceded by its length in bytes.
+	 */
+	public void putString(@NotNull String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		putInt(bytes.length);
+		putBytes(bytes, 0, bytes.length);
+	}
+	
+	/**
+	 * Write the content of the buffer to the channel.
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			written += channel.write(buffer);
+		buffer.clear();
+	}
+	
+	private void ensure(int bytes) throws IOException {
+		if (buffer.remaining() < bytes)
+			flush();
+	}
+	
+	/**
+	 * @return The number of bytes written so far, including those still in the buffer.
+	 */
+	public long getPosition() {
+		return written + buffer.position();
+	}
+	
+	/**
+	 * Flush the buffer and close the channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package fr.berger.darwin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap generator of unique ids, replacing {@link UUID#randomUUID()} which draws 16 bytes from a
+ * {@link SecureRandom} for each id.
+ * <p>
+ * The most significant bits of the ids are drawn once per JVM, the least significant bits are a counter. Each thread
+ * reserves a block of counter values at a time, so the threads do not contend on the counter. The ids have the
+ * version and the variant of the random UUIDs, but they are predictable: they must not be used as secrets.
+ */
+public final class Identifiers {
+
+	/**
+	 * Number of counter values reserved by a thread at once.
+	 */
+	private static final int BLOCK_SIZE = 1024;
+	
+	/**
+	 * Most significant bits of all the ids generated by this JVM, with the version 4.
+	 */
+	private static final long PREFIX = (new SecureRandom().nextLong() & ~0xF000L) | 0x4000L;
+	
+	/**
+	 * Variant bits (IETF) of the least significant bits.
+	 */
+	private static final long VARIANT = 0x8000000000000000L;
+	
+	private static final AtomicLong BLOCKS = new AtomicLong();
+	
+	/**
+	 * Next counter value and end of the block of each thread.
+	 */
+	private static final ThreadLocal<long[]> RANGES = ThreadLocal.withInitial(() -> new long[2]);
+	
+	private Identifiers() { }
+	
+	/* IDENTIFIERS METHODS */
+	
+	/**
+	 * @return A new id, different from all the ids generated by this JVM.
+	 */
+	@NotNull
+	public static UUID next() {
+		long[] range = RANGES.get();
+		if (range[0] == range[1]) {
+			range[0] = BLOCKS.getAndAdd(BLOCK_SIZE);
+			range[1] = range[0] + BLOCK_SIZE;
+		}
+		
+		return new UUID(PREFIX, VARIANT | range[0]++);
+	}
+}
@@ -0,0 +1,149 @@
+package fr.berger.darwin.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * Quiet mode of the {@link QuietObservable}: while a scope opened by {@link #quiet()} is active on a thread, the
+ * objects changed by this thread do not notify their observers. Each object records its last change instead, and
+ * notifies its observers once when the outermost scope is closed (or when {@link #flush()} is called). The observers
+ * thus receive a single event per object, with the last argument, instead of one event per change.
+ * <p>
+ * Only the notifications of the {@link java.util.Observable} mechanism are deferred: the listeners of the objects
+ * (data, genes, chromosomes, fitness listeners...) are still called immediately.
+ */
+public final class Notifications {
+	
+	/**
+	 * Argument recorded for {@link QuietObservable#snap()}, which notifies the observers without argument.
+	 */
+	/* package */ static final Object NO_ARGUMENT = new Object();
+	
+	private static final ThreadLocal<Batch> BATCHES = ThreadLocal.withInitial(Batch::new);
+	
+	/**
+	 * Number of scopes open on all the threads: as long as it is 0, {@link #isQuiet()} does not read the thread local.
+	 */
+	private static volatile int openScopes;
+	
+	private Notifications() { }
+	
+	/* NOTIFICATIONS METHODS */
+	
+	/**
+	 * Enter the quiet mode on the current thread. The scopes can be nested: the notifications are sent when the
+	 * outermost one is closed.
+	 * @return The scope, to close on the same thread (with a try-with-resources).
+	 */
+	@NotNull
+	public static Scope quiet() {
+		Batch batch = BATCHES.get();
+		if (batch.depth++ == 0)
+			changeOpenScopes(1);
+		
+		return new Scope(batch);
+	}
+	
+	/**
+	 * @return True if the current thread is in quiet mode.
+	 */
+	public static boolean isQuiet() {
+		return openScopes > 0 && BATCHES.get().depth > 0;
+	}
+	
+	/**
+	 * Send now the notifications deferred on the current thread, without leaving the quiet mode. The observers are
+	 * notified outside of the quiet mode, so the notifications they cause are sent immediately.
+	 */
+	public static void flush() {
+		BATCHES.get().flush();
+	}
+	
+	/* package */ static void defer(@NotNull QuietObservable observable, @Nullable Object argument) {
+		BATCHES.get().defer(observable, argument);
+	}
+	
+	private static synchronized void changeOpenScopes(int delta) {
+		openScopes += delta;
+	}
+	
+	/* SCOPE */
+	
+	/**
+	 * Quiet mode opened by {@link #quiet()}. Closing it more than once has no effect.
+	 */
+	public static final class Scope implements AutoCloseable {
+		
+		@NotNull
+		private final Batch batch;
+		private boolean closed;
+		
+		private Scope(@NotNull Batch batch) {
+			this.batch = batch;
+		}
+		
+		@Override
+		public void close() {
+			if (closed)
+				return;
+			
+			if (batch != BATCHES.get())
+				throw new IllegalStateException("A quiet scope must be closed by the thread that opened it.");
+			
+			closed = true;
+			if (--batch.depth == 0) {
+				changeOpenScopes(-1);
+				batch.flush();
+			}
+		}
+	}
+	
+	/* BATCH */
+	
+	/**
+	 * Deferred notifications of a thread, in the order of the first change of each object.
+	 */
+	private static final class Batch {
+		
+		private int depth;
+		
+		@NotNull
+		private final ArrayList<QuietObservable> changed = new ArrayList<>();
+		
+		/**
+		 * Last argument of each changed object. The objects are compared by identity, as their {@code equals()} depend
+		 * on their content.
+		 */
+		@NotNull
+		private final IdentityHashMap<QuietObservable, Object> arguments = new IdentityHashMap<>();
+		
+		private void defer(@NotNull QuietObservable observable, @Nullable Object argument) {
+			if (!arguments.containsKey(observable))
+				changed.add(observable);
+			
+			arguments.put(observable, argument);
+		}
+		
+		private void flush() {
+			if (changed.isEmpty())
+				return;
+			
+			int depth = this.depth;
+			this.depth = 0;
+			try {
+				// The observers can change other objects: they are notified immediately, as the thread is not quiet
+				for (int i = 0; i < changed.size(); i++) {
+					QuietObservable observable = changed.get(i);
+					observable.emit(arguments.get(observable));
+				}
+			} finally {
+				changed.clear();
+				arguments.clear();
+				this.depth = depth;
+			}
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package fr.berger.darwin.util;
+
+import fr.berger.beyondcode.util.EnhancedObservable;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link EnhancedObservable} whose notifications can be deferred and coalesced with {@link Notifications#quiet()}.
+ * <p>
+ * An object without observer does not notify anything, quiet or not: {@link java.util.Observable} would lock it and
+ * copy its empty list of observers at each change.
+ */
+public abstract class QuietObservable extends EnhancedObservable {
+	
+	public QuietObservable() {
+		super();
+	}
+	
+	/* QUIET OBSERVABLE METHODS */
+	
+	@Override
+	protected void snap(@Nullable Object... objects) {
+		if (countObservers() == 0)
+			return;
+		
+		if (Notifications.isQuiet())
+			Notifications.defer(this, objects);
+		else
+			super.snap(objects);
+	}
+	
+	@Override
+	protected void snap(@Nullable Object object) {
+		if (countObservers() == 0)
+			return;
+		
+		if (Notifications.isQuiet())
+			Notifications.defer(this, object);
+		else
+			super.snap(object);
+	}
+	
+	@Override
+	protected void snap() {
+		if (countObservers() == 0)
+			return;
+		
+		if (Notifications.isQuiet())
+			Notifications.defer(this, Notifications.NO_ARGUMENT);
+		else
+			super.snap();
+	}
+	
+	/**
+	 * Notify the observers of a change deferred by {@link Notifications}.
+	 */
+	/* package */ void emit(@Nullable Object argument) {
+		if (argument == Notifications.NO_ARGUMENT)
+			super.snap();
+		else
+			super.snap(argument);
+	}
+}
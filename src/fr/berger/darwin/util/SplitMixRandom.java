@@ -0,0 +1,160 @@
+package fr.berger.darwin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seedable and splittable random generator, with the SplitMix64 algorithm of {@link java.util.SplittableRandom}. It
+ * extends {@link Random}, so it can be given to all the methods taking a {@link Random}, but it is not thread-safe:
+ * each thread must draw from its own generator, obtained with {@link #split()}.
+ * <p>
+ * The state of the generator is two {@code long} (see {@link #getState()}), so it can be saved and restored exactly.
+ * Unlike {@link Random#nextGaussian()}, {@link #nextGaussian()} does not keep a value for the next call.
+ */
+public class SplitMixRandom extends Random {
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+	
+	/**
+	 * Seeds of the generators created without seed.
+	 */
+	private static final AtomicLong defaultSeeds = new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+	
+	private long seed;
+	private long gamma;
+	
+	/**
+	 * Create a generator. Two generators created with the same seed draw the same numbers.
+	 */
+	public SplitMixRandom(long seed) {
+		// Random calls setSeed(long) before the fields of this class are initialized: they must not have initializers
+		super(seed);
+		setSeed(seed);
+	}
+	public SplitMixRandom() {
+		this(defaultSeeds.getAndAdd(2 * GOLDEN_GAMMA));
+	}
+	private SplitMixRandom(long seed, long gamma) {
+		this(0L);
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+	
+	/* SPLITTABLE GENERATOR METHODS */
+	
+	/**
+	 * @return A new generator, whose numbers are independent of the numbers of this one. Splitting advances this
+	 * generator, so the generators split from the same seed are always the same.
+	 */
+	@NotNull
+	public SplitMixRandom split() {
+		return new SplitMixRandom(nextLong(), mixGamma(nextSeed()));
+	}
+	
+	/**
+	 * @return A generator independent of {@code random}: a split of it if it is a {@link SplitMixRandom}, or else
+	 * a generator seeded by it.
+	 */
+	@NotNull
+	public static SplitMixRandom split(@NotNull Random random) {
+		if (random instanceof SplitMixRandom)
+			return ((SplitMixRandom) random).split();
+		
+		return new SplitMixRandom(random.nextLong());
+	}
+	
+	private long nextSeed() {
+		return seed += gamma;
+	}
+	
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		// The gammas with too few bit transitions give poor sequences
+		int transitions = Long.bitCount(z ^ (z >>> 1));
+		return transitions < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+	
+	/* GETTERS & SETTERS */
+	
+	/**
+	 * @return The state of the generator: its seed and its gamma.
+	 */
+	@NotNull
+	public long[] getState() {
+		return new long[] { seed, gamma };
+	}
+	
+	/**
+	 * @param state A state returned by {@link #getState()}.
+	 */
+	@SuppressWarnings("ConstantConditions")
+	public void setState(@NotNull long[] state) {
+		if (state == null)
+			throw new NullPointerException();
+		
+		if (state.length != 2 || (state[1] & 1L) == 0)
+			throw new IllegalArgumentException("Invalid state.");
+		
+		this.seed = state[0];
+		this.gamma = state[1];
+	}
+	
+	/* OVERRIDES */
+	
+	/**
+	 * Reset the generator: it draws the same numbers as a new generator created with the same seed.
+	 */
+	@Override
+	public void setSeed(long seed) {
+		// The seed is mixed, so that close seeds give unrelated sequences
+		this.seed = mix64(seed);
+		this.gamma = GOLDEN_GAMMA;
+	}
+	
+	@Override
+	protected int next(int bits) {
+		return (int) (mix64(nextSeed()) >>> (64 - bits));
+	}
+	
+	@Override
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+	
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+	
+	@Override
+	public double nextGaussian() {
+		// Polar method, the second value is dropped so the state stays two longs
+		double v1, v2, s;
+		do {
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1 || s == 0);
+		
+		return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+	}
+	
+	@Override
+	public String toString() {
+		return "SplitMixRandom{" +
+				"seed=\"" + seed + '\"' +
+				", gamma=\"" + gamma + '\"' +
+				'}';
+	}
+}
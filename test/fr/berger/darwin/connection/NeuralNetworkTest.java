@@ -0,0 +1,97 @@
+package fr.berger.darwin.connection;
+
+import fr.berger.arrow.Ref;
+import fr.berger.darwin.connection.handlers.HyperbolicTangent;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import fr.berger.darwin.connection.neurallayers.HiddenLayer;
+import fr.berger.darwin.connection.neurallayers.InputLayer;
+import fr.berger.darwin.connection.neurallayers.InputLayerBuilder;
+import fr.berger.darwin.connection.neurallayers.OutputLayer;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+class NeuralNetworkTest {
+
+	@Test
+	void serialization() throws IOException, ClassNotFoundException {
+		NeuralNetwork network = createNetwork();
+		Lexicon<Double> expected = network.activate();
+		
+		// The output neurons have no synapse: their empty lists must be read back too
+		NeuralNetwork copy = roundTrip(network);
+		Lexicon<Double> actual = copy.activate();
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+			Assertions.assertEquals(expected.get(i), actual.get(i));
+		
+		// The copy can be activated again, on other inputs
+		double[][] inputs = { { 1.0, 1.0, 1.0 }, { -1.0, 0.5, 0.0 } };
+		Assertions.assertArrayEquals(network.activate(inputs), copy.activate(inputs));
+		Assertions.assertArrayEquals(network.compile().activate(), copy.compile().activate());
+	}
+	
+	/**
+	 * 3 inputs, 2 hidden neurons, 2 outputs, with two kinds of activation handlers.
+	 */
+	@NotNull
+	private static NeuralNetwork createNetwork() {
+		Neuron h1 = new NeuronBuilder()
+				.setWeights(0.8, 0.2, -0.5, 0)
+				.setBias(1)
+				.setActivationHandler(new Sigmoid(1))
+				.createNeuron();
+		
+		Neuron h2 = new NeuronBuilder()
+				.setWeights(0.4, -0.9, 0.1, 0)
+				.setBias(0.5)
+				.setActivationHandler(new HyperbolicTangent())
+				.createNeuron();
+		
+		Neuron o1 = new NeuronBuilder()
+				.setWeights(0.3, 0.5, 0)
+				.setActivationHandler(new Sigmoid(1))
+				.createNeuron();
+		
+		Neuron o2 = new NeuronBuilder()
+				.setWeights(-0.7, 0.2, 0)
+				.setBias(0.25)
+				.setActivationHandler(new Sigmoid(2))
+				.createNeuron();
+		
+		for (Neuron hidden : new Neuron[] { h1, h2 }) {
+			hidden.getSynapses().add(new Ref<>(o1));
+			hidden.getSynapses().add(new Ref<>(o2));
+		}
+		
+		InputLayerBuilder builder = new InputLayerBuilder();
+		double[] inputs = { 0.5, -0.25, 1.0 };
+		for (double input : inputs) {
+			builder.addDendrite(input, new Ref<>(h1));
+			builder.addDendrite(input, new Ref<>(h2));
+		}
+		InputLayer inputLayer = builder.createInputLayer();
+		
+		return new NeuralNetwork(inputLayer, new OutputLayer(o1, o2), new HiddenLayer(h1, h2));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@NotNull
+	private static <O> O roundTrip(@NotNull O object) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(object);
+		}
+		
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (O) input.readObject();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package fr.berger.darwin.connection.dense;
+
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import fr.berger.darwin.connection.handlers.GaussianCurve;
+import fr.berger.darwin.connection.handlers.HardLimitingThreshold;
+import fr.berger.darwin.connection.handlers.HyperbolicTangent;
+import fr.berger.darwin.connection.handlers.Linear;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+class DenseNetworkCodecTest {
+
+	@Test
+	void writeRead() throws IOException {
+		DenseNetwork network = createNetwork();
+		Path path = Files.createTempFile("darwin", ".model");
+		try {
+			DenseNetworkCodec.write(network, path);
+			
+			// The parameters are aligned at the end of the file
+			long parametersLength = (long) network.getParameterCount() * Double.BYTES;
+			Assertions.assertEquals(0, (Files.size(path) - parametersLength) % DenseNetworkCodec.ALIGNMENT);
+			
+			DenseNetwork read = DenseNetworkCodec.read(path);
+			Assertions.assertEquals(network, read);
+			Assertions.assertArrayEquals(network.activate(), read.activate());
+			
+			MappedDenseNetwork mapped = DenseNetworkCodec.map(path);
+			Assertions.assertEquals(network, mapped.toDenseNetwork());
+			Assertions.assertArrayEquals(network.activate(new double[] { -1.0, 2.0, 0.5, 3.0 }), mapped.activate(new double[] { -1.0, 2.0, 0.5, 3.0 }));
+		} finally {
+			Files.delete(path);
+		}
+	}
+	
+	@Test
+	void invalidFiles() throws IOException {
+		Path path = Files.createTempFile("darwin", ".model");
+		try {
+			Files.write(path, new byte[] { 'N', 'O', 'P', 'E', 1, 0, 0, 0 });
+			Assertions.assertThrows(IOException.class, () -> DenseNetworkCodec.read(path));
+			
+			// Truncated parameters
+			DenseNetworkCodec.write(createNetwork(), path);
+			byte[] bytes = Files.readAllBytes(path);
+			Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+			Assertions.assertThrows(IOException.class, () -> DenseNetworkCodec.read(path));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> DenseNetworkCodec.map(path));
+			
+			// A lambda has no descriptor
+			ActivationHandler[][] handlers = { { x -> x } };
+			DenseNetwork network = new DenseNetwork(new int[] { 1, 1 }, new double[2], handlers, new double[1]);
+			Assertions.assertThrows(IllegalArgumentException.class, () -> DenseNetworkCodec.write(network, path));
+		} finally {
+			Files.delete(path);
+		}
+	}
+	
+	/**
+	 * A network using every kind of activation handler, with a layer sharing its handler.
+	 */
+	@NotNull
+	private static DenseNetwork createNetwork() {
+		int[] sizes = { 4, 5, 3, 2 };
+		Random random = new Random(42L);
+		double[] parameters = new double[DenseNetwork.countParameters(sizes)];
+		for (int i = 0; i < parameters.length; i++)
+			parameters[i] = random.nextGaussian();
+		
+		ActivationHandler[][] handlers = {
+				{ new Sigmoid(1), new Sigmoid(1), new Sigmoid(1), new Sigmoid(1), new Sigmoid(1) },
+				{ new HyperbolicTangent(0.5), new GaussianCurve(0.0, 2.0), new HardLimitingThreshold(0.1) },
+				{ new Linear(2.0), new Sigmoid(1) }
+		};
+		
+		return new DenseNetwork(sizes, parameters, handlers, new double[] { 0.1, 0.2, 0.3, 0.4 });
+	}
+}
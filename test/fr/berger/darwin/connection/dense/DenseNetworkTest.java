@@ -0,0 +1,216 @@
+package fr.berger.darwin.connection.dense;
+
+import fr.berger.arrow.Ref;
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.connection.NeuralNetwork;
+import fr.berger.darwin.connection.Neuron;
+import fr.berger.darwin.connection.NeuronBuilder;
+import fr.berger.darwin.connection.handlers.HyperbolicTangent;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import fr.berger.darwin.connection.neurallayers.HiddenLayer;
+import fr.berger.darwin.connection.neurallayers.InputLayer;
+import fr.berger.darwin.connection.neurallayers.InputLayerBuilder;
+import fr.berger.darwin.connection.neurallayers.OutputLayer;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class DenseNetworkTest {
+	
+	/**
+	 * Same network as NeuralNetConsoleTest
+	 */
+	@Test
+	void compileConsoleNetwork() {
+		Sigmoid sig = new Sigmoid(1);
+		
+		Neuron nh1 = new NeuronBuilder().setWeights(0.8, 0.2, 0).setBias(1).setActivationHandler(sig).createNeuron();
+		Neuron nh2 = new NeuronBuilder().setWeights(0.4, 0.9, 0).setActivationHandler(sig).createNeuron();
+		Neuron nh3 = new NeuronBuilder().setWeights(0.3, 0.5, 0).setActivationHandler(sig).createNeuron();
+		Neuron no1 = new NeuronBuilder().setWeights(0.3, 0.5, 0.9, 0).setActivationHandler(sig).createNeuron();
+		
+		Ref<Neuron> refNo1 = new Ref<>(no1);
+		nh1.getSynapses().add(refNo1);
+		nh2.getSynapses().add(refNo1);
+		nh3.getSynapses().add(refNo1);
+		
+		InputLayer inputLayer = new InputLayerBuilder()
+				.addDendrite(1, new Ref<>(nh1))
+				.addDendrite(1, new Ref<>(nh1))
+				.addDendrite(1, new Ref<>(nh2))
+				.addDendrite(1, new Ref<>(nh2))
+				.addDendrite(1, new Ref<>(nh3))
+				.addDendrite(1, new Ref<>(nh3))
+				.createInputLayer();
+		
+		NeuralNetwork net = new NeuralNetwork(inputLayer, new OutputLayer(no1), new HiddenLayer(nh1, nh2, nh3));
+		DenseNetwork dense = net.compile();
+		
+		Assertions.assertEquals(2, dense.getInputSize());
+		Assertions.assertEquals(1, dense.getOutputSize());
+		Assertions.assertEquals(DenseNetwork.countParameters(new int[] { 2, 3, 1 }), dense.getParameters().length);
+		
+		double expected = net.activate().get(0);
+		Assertions.assertEquals(expected, dense.activate()[0]);
+		
+		// The compiled network can be activated again, with other inputs
+		Assertions.assertEquals(expected, dense.activate()[0]);
+		Assertions.assertNotEquals(expected, dense.activate(new double[] { 0.0, 1.0 })[0]);
+	}
+	
+	@Test
+	void compileFullyConnectedNetwork() {
+		Irregular.getGenerator().setSeed(42L);
+		int[] sizes = { 5, 8, 6, 3 };
+		double[] inputs = new double[sizes[0]];
+		NeuralNetwork net = createNetwork(sizes, inputs);
+		DenseNetwork dense = net.compile();
+		
+		Lexicon<Double> expected = net.activate();
+		double[] actual = new double[dense.getOutputSize()];
+		dense.activate(inputs, actual);
+		
+		Assertions.assertEquals(expected.size(), actual.length);
+		for (int i = 0; i < actual.length; i++)
+			Assertions.assertEquals((double) expected.get(i), actual[i]);
+	}
+	
+	@Test
+	void activateBatch() {
+		Irregular.getGenerator().setSeed(42L);
+		DenseNetwork dense = createNetwork(new int[] { 4, 16, 2 }, new double[4]).compile();
+		
+		int rows = 1000;
+		double[][] inputs = new double[rows][4];
+		double[] flatInputs = new double[rows * 4];
+		for (int r = 0; r < rows; r++)
+			for (int i = 0; i < 4; i++)
+				inputs[r][i] = flatInputs[r * 4 + i] = Irregular.rangeDouble(-1.0, true, 1.0, true);
+		
+		double[][] sequential = dense.activate(inputs);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			double[][] concurrent = dense.activate(inputs, executor);
+			double[] flatOutputs = new double[rows * 2];
+			dense.activate(flatInputs, flatOutputs, rows, executor);
+			
+			for (int r = 0; r < rows; r++) {
+				double[] expected = dense.activate(inputs[r]);
+				Assertions.assertArrayEquals(expected, sequential[r]);
+				Assertions.assertArrayEquals(expected, concurrent[r]);
+				Assertions.assertEquals(expected[0], flatOutputs[r * 2]);
+				Assertions.assertEquals(expected[1], flatOutputs[r * 2 + 1]);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	void countParameters() {
+		Assertions.assertEquals(4 * 17 + 2 * 5, DenseNetwork.countParameters(new int[] { 16, 4, 2 }));
+		
+		// 100 000 * 100 001 parameters do not fit in an int
+		int[] sizes = new int[] { 100000, 100000, 1 };
+		Assertions.assertEquals(100000L * 100001L + 100001L, DenseNetwork.countParametersExact(sizes));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> DenseNetwork.countParameters(sizes));
+	}
+	
+	@Test
+	void activateReentrant() throws Exception {
+		Irregular.getGenerator().setSeed(42L);
+		double[] defaultInputs = new double[3];
+		NeuralNetwork net = createNetwork(new int[] { 3, 7, 2 }, defaultInputs);
+		
+		// The graph can be activated several times with the same result
+		Lexicon<Double> first = net.activate();
+		Lexicon<Double> second = net.activate();
+		Assertions.assertEquals(first.size(), second.size());
+		for (int i = 0; i < first.size(); i++)
+			Assertions.assertEquals(first.get(i), second.get(i));
+		
+		// A single network shared by several threads, each with its own context
+		DenseNetwork dense = net.compile();
+		int rows = 200;
+		double[][] inputs = new double[rows][3];
+		for (int r = 0; r < rows; r++)
+			for (int i = 0; i < 3; i++)
+				inputs[r][i] = Irregular.rangeDouble(-1.0, true, 1.0, true);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ArrayList<Future<double[][]>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++)
+				futures.add(executor.submit(() -> {
+					ActivationContext context = dense.newContext();
+					double[][] outputs = new double[rows][dense.getOutputSize()];
+					for (int r = 0; r < rows; r++)
+						dense.activate(context, inputs[r], outputs[r]);
+					return outputs;
+				}));
+			
+			for (Future<double[][]> future : futures) {
+				double[][] outputs = future.get();
+				for (int r = 0; r < rows; r++)
+					Assertions.assertArrayEquals(dense.activate(inputs[r]), outputs[r]);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		// The network does not depend on the arrays it has been built with
+		double[] parameters = dense.getParameters();
+		double[] expected = dense.activate();
+		parameters[0] += 1.0;
+		Assertions.assertArrayEquals(expected, dense.activate());
+		
+		Assertions.assertThrows(IllegalArgumentException.class, () -> dense.activate(new ActivationContext(new int[] { 3, 8, 2 }), inputs[0], new double[2]));
+	}
+	
+	/**
+	 * Create a fully connected network with random weights.
+	 * @param inputs The array where the random inputs of the network are written.
+	 */
+	private static NeuralNetwork createNetwork(int[] sizes, double[] inputs) {
+		ArrayList<Lexicon<Neuron>> layers = new ArrayList<>();
+		for (int l = 1; l < sizes.length; l++) {
+			Lexicon<Neuron> neurons = new Lexicon<>(Neuron.class);
+			for (int n = 0; n < sizes[l]; n++) {
+				double[] weights = new double[sizes[l - 1] + 1];
+				for (int i = 0; i < weights.length; i++)
+					weights[i] = Irregular.rangeDouble(-1.0, true, 1.0, true);
+				
+				neurons.add(new NeuronBuilder()
+						.setWeights(weights)
+						.setBias(Irregular.rangeDouble(0.0, true, 2.0, true))
+						.setActivationHandler(l % 2 == 0 ? new Sigmoid(1) : new HyperbolicTangent())
+						.createNeuron());
+			}
+			layers.add(neurons);
+		}
+		
+		for (int l = 0; l < layers.size() - 1; l++)
+			for (Neuron neuron : layers.get(l))
+				for (Neuron next : layers.get(l + 1))
+					neuron.getSynapses().add(new Ref<>(next));
+		
+		InputLayerBuilder builder = new InputLayerBuilder();
+		for (int i = 0; i < sizes[0]; i++) {
+			inputs[i] = Irregular.rangeDouble(-1.0, true, 1.0, true);
+			for (Neuron neuron : layers.get(0))
+				builder.addDendrite(inputs[i], new Ref<>(neuron));
+		}
+		
+		ArrayList<HiddenLayer> hiddenLayers = new ArrayList<>();
+		for (int l = 0; l < layers.size() - 1; l++)
+			hiddenLayers.add(new HiddenLayer(layers.get(l)));
+		
+		return new NeuralNetwork(builder.createInputLayer(), new OutputLayer(layers.get(layers.size() - 1)), hiddenLayers);
+	}
+}
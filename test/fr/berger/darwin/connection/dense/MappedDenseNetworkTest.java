@@ -0,0 +1,99 @@
+package fr.berger.darwin.connection.dense;
+
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import fr.berger.darwin.connection.handlers.HyperbolicTangent;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import fr.berger.darwin.util.BinaryOutput;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+class MappedDenseNetworkTest {
+
+	@Test
+	void map() throws IOException {
+		DenseNetwork dense = createNetwork(new int[] { 5, 8, 6, 3 }, new Random(42L));
+		Path file = Files.createTempFile("darwin", ".weights");
+		try {
+			MappedDenseNetwork.write(dense, file);
+			Assertions.assertEquals(dense.getParameterCount() * Double.BYTES, Files.size(file));
+			
+			MappedDenseNetwork mapped = MappedDenseNetwork.map(file, dense);
+			assertSameOutputs(dense, mapped, new Random(7L));
+			Assertions.assertEquals(dense, mapped.toDenseNetwork());
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	void mapAtPosition() throws IOException {
+		Sigmoid sig = new Sigmoid(1);
+		int[] sizes = { 3, 4, 2 };
+		double[] parameters = new double[DenseNetwork.countParameters(sizes)];
+		for (int i = 0; i < parameters.length; i++)
+			parameters[i] = i / 10.0 - 1.0;
+		
+		// One handler per neuron, so the layers are not activated in bulk
+		ActivationHandler[][] handlers = {
+				{ sig, new HyperbolicTangent(), sig, sig },
+				{ sig, sig }
+		};
+		DenseNetwork dense = new DenseNetwork(sizes, parameters, handlers, new double[] { 0.5, 0.25, 1.0 });
+		
+		Path file = Files.createTempFile("darwin", ".weights");
+		try {
+			try (BinaryOutput output = new BinaryOutput(FileChannel.open(file, StandardOpenOption.WRITE))) {
+				output.putBytes(new byte[] { 1, 2, 3 }, 0, 3);
+				output.putDoubles(parameters, 0, parameters.length);
+			}
+			
+			MappedDenseNetwork mapped = MappedDenseNetwork.map(file, 3, sizes, handlers, dense.getDefaultInputs());
+			Assertions.assertArrayEquals(dense.activate(), mapped.activate());
+			assertSameOutputs(dense, mapped, new Random(11L));
+			Assertions.assertEquals(parameters[parameters.length - 1], mapped.getLayerParameters(1).get(DenseNetwork.countParameters(sizes) - 4 * 4 - 1));
+			
+			// The file is too short
+			Assertions.assertThrows(IllegalArgumentException.class, () -> MappedDenseNetwork.map(file, 4, sizes, handlers, dense.getDefaultInputs()));
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	private static void assertSameOutputs(@NotNull DenseNetwork dense, @NotNull MappedDenseNetwork mapped, @NotNull Random random) {
+		int rows = 16;
+		double[] inputs = new double[rows * dense.getInputSize()];
+		for (int i = 0; i < inputs.length; i++)
+			inputs[i] = random.nextDouble() * 2.0 - 1.0;
+		
+		double[] expected = new double[rows * dense.getOutputSize()];
+		double[] actual = new double[rows * mapped.getOutputSize()];
+		dense.activate(inputs, expected, rows);
+		mapped.activate(mapped.newContext(), inputs, actual, rows);
+		
+		Assertions.assertArrayEquals(expected, actual);
+	}
+	
+	@NotNull
+	private static DenseNetwork createNetwork(@NotNull int[] sizes, @NotNull Random random) {
+		double[] parameters = new double[DenseNetwork.countParameters(sizes)];
+		for (int i = 0; i < parameters.length; i++)
+			parameters[i] = random.nextGaussian();
+		
+		ActivationHandler[][] handlers = new ActivationHandler[sizes.length - 1][];
+		for (int l = 0; l < handlers.length; l++) {
+			handlers[l] = new ActivationHandler[sizes[l + 1]];
+			for (int j = 0; j < handlers[l].length; j++)
+				handlers[l][j] = new Sigmoid(1);
+		}
+		
+		return new DenseNetwork(sizes, parameters, handlers, new double[sizes[0]]);
+	}
+}
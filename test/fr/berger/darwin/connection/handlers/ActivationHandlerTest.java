@@ -0,0 +1,60 @@
+package fr.berger.darwin.connection.handlers;
+
+import fr.berger.beyondcode.util.Irregular;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ActivationHandlerTest {
+	
+	@Test
+	void activateArrays() {
+		Irregular.getGenerator().setSeed(42L);
+		double[] in = new double[100];
+		for (int i = 0; i < in.length; i++)
+			in[i] = Irregular.rangeDouble(-5.0, true, 5.0, true);
+		
+		ActivationHandler[] handlers = {
+				new Sigmoid(0.7),
+				new HyperbolicTangent(1.3),
+				new Linear(-2.0),
+				new HardLimitingThreshold(0.5),
+				new GaussianCurve(0.5, 2.0),
+				x -> x * x
+		};
+		
+		for (ActivationHandler handler : handlers) {
+			// The bulk activation gives exactly the same values as the activation of each value
+			double[] out = new double[in.length + 3];
+			handler.activate(in, 10, out, 3, in.length - 10);
+			for (int i = 0; i < in.length - 10; i++)
+				Assertions.assertEquals(handler.activate(in[10 + i]), out[3 + i], handler.toString());
+			
+			// In place
+			double[] values = in.clone();
+			handler.activate(values, values, values.length);
+			for (int i = 0; i < in.length; i++)
+				Assertions.assertEquals(handler.activate(in[i]), values[i], handler.toString());
+		}
+	}
+	
+	@Test
+	void derivative() {
+		ActivationHandler[] handlers = {
+				new Sigmoid(0.7),
+				new HyperbolicTangent(1.3),
+				new Linear(-2.0),
+				new GaussianCurve(0.5, 2.0),
+				x -> x * x
+		};
+		
+		for (ActivationHandler handler : handlers) {
+			for (double x = -4.0; x <= 4.0; x += 0.37) {
+				double h = 1e-5;
+				double expected = (handler.activate(x + h) - handler.activate(x - h)) / (2.0 * h);
+				Assertions.assertEquals(expected, handler.derivative(x), 1e-6, handler.toString() + " at " + x);
+			}
+		}
+		
+		Assertions.assertEquals(0.0, new HardLimitingThreshold(0.5).derivative(0.2));
+	}
+}
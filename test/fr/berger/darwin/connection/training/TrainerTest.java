@@ -0,0 +1,113 @@
+package fr.berger.darwin.connection.training;
+
+import fr.berger.darwin.connection.dense.DenseNetwork;
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import fr.berger.darwin.connection.handlers.GaussianCurve;
+import fr.berger.darwin.connection.handlers.HyperbolicTangent;
+import fr.berger.darwin.connection.handlers.Linear;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class TrainerTest {
+	
+	@Test
+	void gradient() {
+		Random random = new Random(42L);
+		int[] sizes = { 3, 5, 4, 2 };
+		DenseNetwork network = createNetwork(sizes, new ActivationHandler[] { new HyperbolicTangent(1.5), new GaussianCurve(0.0, 2.0), new Sigmoid() }, random);
+		double[][] inputs = randomRows(16, sizes[0], random);
+		double[][] targets = randomRows(16, sizes[3], random);
+		
+		double[] gradient = new Trainer(network).computeGradient(inputs, targets);
+		
+		// Central finite differences of the mean loss
+		double[] parameters = network.getParameters();
+		double h = 1e-6;
+		for (int p = 0; p < parameters.length; p++) {
+			double[] plus = parameters.clone();
+			double[] minus = parameters.clone();
+			plus[p] += h;
+			minus[p] -= h;
+			double expected = (new Trainer(network.withParameters(plus)).evaluate(inputs, targets) - new Trainer(network.withParameters(minus)).evaluate(inputs, targets)) / (2.0 * h);
+			Assertions.assertEquals(expected, gradient[p], 1e-7, "parameter " + p);
+		}
+		
+		// The gradient does not depend on the split of the batch
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Trainer trainer = new Trainer(network);
+			trainer.setExecutor(executor);
+			Assertions.assertArrayEquals(gradient, trainer.computeGradient(inputs, targets), 1e-12);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	void xor() {
+		Random random = new Random(7L);
+		DenseNetwork network = createNetwork(new int[] { 2, 4, 1 }, new ActivationHandler[] { new HyperbolicTangent(2.0), new Sigmoid() }, random);
+		double[][] inputs = { { 0, 0 }, { 0, 1 }, { 1, 0 }, { 1, 1 } };
+		double[][] targets = { { 0 }, { 1 }, { 1 }, { 0 } };
+		
+		Trainer trainer = new Trainer(network, new Adam(0.05), 4);
+		double initialLoss = trainer.evaluate(inputs, targets);
+		double loss = trainer.train(inputs, targets, 2000, random);
+		
+		Assertions.assertEquals(2000, trainer.getSteps());
+		Assertions.assertTrue(loss < initialLoss);
+		Assertions.assertTrue(trainer.evaluate(inputs, targets) < 0.01);
+		
+		DenseNetwork trained = trainer.getNetwork();
+		for (int r = 0; r < inputs.length; r++)
+			Assertions.assertEquals(targets[r][0], Math.round(trained.activate(inputs[r])[0]));
+	}
+	
+	@Test
+	void stochasticGradientDescent() {
+		Random random = new Random(3L);
+		// Linear regression: y = 2 * x0 - x1 + 0.5
+		DenseNetwork network = createNetwork(new int[] { 2, 1 }, new ActivationHandler[] { new Linear() }, random);
+		double[][] inputs = randomRows(64, 2, random);
+		double[][] targets = new double[inputs.length][1];
+		for (int r = 0; r < inputs.length; r++)
+			targets[r][0] = 2.0 * inputs[r][0] - inputs[r][1] + 0.5;
+		
+		Trainer trainer = new Trainer(network, new StochasticGradientDescent(0.1, 0.9), 8);
+		trainer.train(inputs, targets, 200, random);
+		
+		Assertions.assertArrayEquals(new double[] { 2.0, -1.0, 0.5 }, trainer.getParameters(), 1e-6);
+	}
+	
+	@NotNull
+	private static DenseNetwork createNetwork(@NotNull int[] sizes, @NotNull ActivationHandler[] layerHandlers, @NotNull Random random) {
+		double[] parameters = new double[DenseNetwork.countParameters(sizes)];
+		for (int p = 0; p < parameters.length; p++)
+			parameters[p] = random.nextGaussian() * 0.5;
+		
+		ActivationHandler[][] handlers = new ActivationHandler[sizes.length - 1][];
+		for (int l = 0; l < handlers.length; l++) {
+			handlers[l] = new ActivationHandler[sizes[l + 1]];
+			for (int j = 0; j < handlers[l].length; j++)
+				handlers[l][j] = layerHandlers[l];
+		}
+		
+		return new DenseNetwork(sizes, parameters, handlers, new double[sizes[0]]);
+	}
+	
+	@NotNull
+	private static double[][] randomRows(int rows, int columns, @NotNull Random random) {
+		double[][] values = new double[rows][columns];
+		for (int r = 0; r < rows; r++)
+			for (int c = 0; c < columns; c++)
+				values[r][c] = random.nextDouble() * 2.0 - 1.0;
+		
+		return values;
+	}
+}
@@ -0,0 +1,53 @@
+package fr.berger.darwin.neuroevolution;
+
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.connection.dense.DenseNetwork;
+import fr.berger.darwin.connection.handlers.ActivationHandler;
+import fr.berger.darwin.connection.handlers.Sigmoid;
+import fr.berger.darwin.remixed.Individual;
+import fr.berger.darwin.remixed.Population;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+class NeuroevolutionMutableTest {
+	
+	private static final double[][] XOR_INPUTS = { { 0, 0 }, { 0, 1 }, { 1, 0 }, { 1, 1 } };
+	private static final double[] XOR_OUTPUTS = { 0, 1, 1, 0 };
+	
+	@Test
+	void evolveXor() {
+		Irregular.getGenerator().setSeed(42L);
+		
+		int[] sizes = { 2, 4, 1 };
+		Sigmoid sigmoid = new Sigmoid(1);
+		ActivationHandler[][] handlers = { { sigmoid, sigmoid, sigmoid, sigmoid }, { sigmoid } };
+		DenseNetwork template = new DenseNetwork(sizes, new double[DenseNetwork.countParameters(sizes)], handlers, new double[2]);
+		
+		// The fitness is the opposite of the squared error on the truth table of XOR
+		NeuroevolutionMutable mutable = new NeuroevolutionMutable(template, network -> {
+			double[][] outputs = network.activate(XOR_INPUTS);
+			double error = 0.0;
+			for (int r = 0; r < XOR_OUTPUTS.length; r++)
+				error += (outputs[r][0] - XOR_OUTPUTS[r]) * (outputs[r][0] - XOR_OUTPUTS[r]);
+			return -error;
+		}, 0.2, 0.5, 2.0);
+		
+		Population<Double> population = new Population<>(new ArrayList<>(), 128, 0.1f, 0.3f, 0.8f, mutable);
+		population.evaluate();
+		double initial = population.getIndividuals().get(population.getIndividuals().size() - 1).getFitness();
+		
+		for (int generation = 0; generation < 200; generation++)
+			population.evolve();
+		
+		Individual<Double> best = population.getIndividuals().get(population.getIndividuals().size() - 1);
+		Assertions.assertTrue(best.getFitness() > initial);
+		
+		// The genome maps to the parameters of the network, with the layout of the compiled network
+		DenseNetwork network = mutable.toNetwork(best);
+		Assertions.assertArrayEquals(NeuroevolutionMutable.getGenome(best).getValues(), network.getParameters());
+		Assertions.assertEquals(best.getFitness(), mutable.calculateFitness(best));
+		System.out.println("Best XOR network (fitness " + best.getFitness() + "): " + network);
+	}
+}
@@ -0,0 +1,298 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class ArchipelagoTest {
+
+	private static final int ISLANDS = 4;
+	private static final int RESIDENTS = 5;
+	
+	/**
+	 * The fitness of an individual is its value: the elitism rate is 1, so the islands only change by migration.
+	 */
+	private static final Mutable<Double> IDENTITY = new Mutable<Double>() {
+		
+		@Override
+		public double calculateFitness(@NotNull Individual<Double> individual) {
+			return valueOf(individual);
+		}
+		
+		@Override
+		public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public Individual<Double> generateRandom() {
+			throw new UnsupportedOperationException();
+		}
+	};
+	
+	@Test
+	void ring() {
+		for (ExecutorService executor : executors()) {
+			try {
+				Archipelago<Double> archipelago = createArchipelago(Archipelago.Topology.RING, executor);
+				
+				// The migrants of the first epoch are only received during the second one
+				archipelago.evolve();
+				for (int island = 0; island < ISLANDS; island++)
+					Assertions.assertArrayEquals(residents(island, 0), values(archipelago, island));
+				
+				archipelago.evolve();
+				// Every island receives the fittest individual of the previous island, the first one included
+				for (int island = 0; island < ISLANDS; island++) {
+					int sender = (island + ISLANDS - 1) % ISLANDS;
+					Assertions.assertArrayEquals(merge(residents(island, 1), 100.0 * sender + RESIDENTS - 1), values(archipelago, island));
+				}
+			} finally {
+				shutdown(executor);
+			}
+		}
+	}
+	
+	@Test
+	void fullyConnected() {
+		for (ExecutorService executor : executors()) {
+			try {
+				Archipelago<Double> archipelago = createArchipelago(Archipelago.Topology.FULLY_CONNECTED, executor);
+				archipelago.evolve(2);
+				
+				// Every island receives the fittest individual of each other island, in place of its least fit ones
+				for (int island = 0; island < ISLANDS; island++) {
+					double[] migrants = new double[ISLANDS - 1];
+					for (int sender = 0, k = 0; sender < ISLANDS; sender++)
+						if (sender != island)
+							migrants[k++] = 100.0 * sender + RESIDENTS - 1;
+					
+					Assertions.assertArrayEquals(merge(residents(island, ISLANDS - 1), migrants), values(archipelago, island));
+				}
+			} finally {
+				shutdown(executor);
+			}
+		}
+	}
+	
+	@Test
+	void random() {
+		List<double[][]> results = new ArrayList<>();
+		
+		for (ExecutorService executor : executors()) {
+			try {
+				Archipelago<Double> archipelago = createArchipelago(Archipelago.Topology.RANDOM, executor);
+				archipelago.evolve(2);
+				
+				// Each island sent its fittest individual to another island
+				int received = 0;
+				double[][] islands = new double[ISLANDS][];
+				for (int island = 0; island < ISLANDS; island++) {
+					islands[island] = values(archipelago, island);
+					Assertions.assertEquals(RESIDENTS, islands[island].length);
+					
+					for (double value : islands[island]) {
+						int origin = (int) (value / 100.0);
+						if (origin != island) {
+							Assertions.assertEquals(100.0 * origin + RESIDENTS - 1, value);
+							received++;
+						}
+					}
+				}
+				Assertions.assertEquals(ISLANDS, received);
+				results.add(islands);
+			} finally {
+				shutdown(executor);
+			}
+		}
+		
+		// The destinations only depend on the generator of the archipelago
+		Assertions.assertArrayEquals(results.get(0), results.get(1));
+	}
+	
+	@Test
+	void releaseReplacedResidents() {
+		Archipelago<Double> archipelago = createArchipelago(Archipelago.Topology.RING, null);
+		for (Population<Double> island : archipelago.getIslands())
+			island.setFitnessCache(new FitnessCache<>(64));
+		ArrayList<Individual<Double>> residents = new ArrayList<>(archipelago.getIslands().get(0).getIndividuals());
+		
+		archipelago.evolve(2);
+		
+		// The least fit resident is replaced by a migrant: the cache of the island stops listening to it
+		for (Individual<Double> resident : residents) {
+			if (valueOf(resident) == 0.0)
+				Assertions.assertNull(resident.getFitnessTracker());
+			else
+				Assertions.assertNotNull(resident.getFitnessTracker());
+		}
+	}
+	
+	@Test
+	void seed() {
+		// Draws only from the generators given by the islands
+		Mutable<Double> sphere = new Mutable<Double>() {
+			
+			@Override
+			public double calculateFitness(@NotNull Individual<Double> individual) {
+				double fitness = 0.0;
+				for (double value : ((DoubleChromosome) individual.getChromosomes().get(0)).peekValues())
+					fitness -= value * value;
+				
+				return fitness;
+			}
+			
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual, @NotNull Random random) {
+				((DoubleChromosome) individual.getChromosomes().get(0)).mutate(random, 0.2, 0.5);
+				return individual;
+			}
+			
+			@Override
+			public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2, @NotNull Random random) {
+				Individual<Double> child1 = parent1.copy();
+				Individual<Double> child2 = parent2.copy();
+				((DoubleChromosome) child1.getChromosomes().get(0)).swapTail((DoubleChromosome) child2.getChromosomes().get(0), random.nextInt(8 + 1));
+				
+				ArrayList<Individual<Double>> children = new ArrayList<>(2);
+				children.add(child1);
+				children.add(child2);
+				return children;
+			}
+			
+			@Override
+			public Individual<Double> generateRandom() {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public Individual<Double> generateRandom(@NotNull Random random) {
+				double[] values = new double[8];
+				for (int i = 0; i < values.length; i++)
+					values[i] = random.nextGaussian() * 4.0;
+				
+				return new Individual<>(new DoubleChromosome(values));
+			}
+		};
+		
+		List<List<double[]>> genomes = new ArrayList<>();
+		for (ExecutorService executor : executors()) {
+			try {
+				ArrayList<Population<Double>> islands = new ArrayList<>(ISLANDS);
+				for (int island = 0; island < ISLANDS; island++)
+					islands.add(new Population<>(new ArrayList<>(), 32, 0.2f, 0.3f, 0.7f, sphere, new SplitMixRandom(island)));
+				
+				Archipelago<Double> archipelago = new Archipelago<>(islands, Archipelago.Topology.RANDOM, 3, 2, executor);
+				archipelago.setRandom(new SplitMixRandom(42L));
+				archipelago.evolve(5);
+				
+				List<double[]> run = new ArrayList<>();
+				for (Population<Double> island : archipelago)
+					for (Individual<Double> individual : island)
+						run.add(((DoubleChromosome) individual.getChromosomes().get(0)).peekValues());
+				genomes.add(run);
+			} finally {
+				shutdown(executor);
+			}
+		}
+		
+		// The same seed gives the same genomes, concurrently or not
+		Assertions.assertEquals(genomes.get(0).size(), genomes.get(1).size());
+		for (int i = 0; i < genomes.get(0).size(); i++)
+			Assertions.assertArrayEquals(genomes.get(0).get(i), genomes.get(1).get(i));
+	}
+	
+	@NotNull
+	private static Archipelago<Double> createArchipelago(@NotNull Archipelago.Topology topology, @Nullable ExecutorService executor) {
+		ArrayList<Population<Double>> islands = new ArrayList<>(ISLANDS);
+		for (int island = 0; island < ISLANDS; island++) {
+			ArrayList<Individual<Double>> individuals = new ArrayList<>(RESIDENTS);
+			for (double value : residents(island, 0))
+				individuals.add(new Individual<>(new DoubleChromosome(value)));
+			
+			islands.add(new Population<>(individuals, RESIDENTS, 1f, 0f, 0f, IDENTITY, new SplitMixRandom(island)));
+		}
+		
+		Archipelago<Double> archipelago = new Archipelago<>(islands, topology, 1, 1, executor);
+		archipelago.setRandom(new SplitMixRandom(42L));
+		return archipelago;
+	}
+	
+	/**
+	 * @return The values of the residents of the island, without the {@code replaced} least fit ones.
+	 */
+	@NotNull
+	private static double[] residents(int island, int replaced) {
+		double[] values = new double[RESIDENTS - replaced];
+		for (int i = 0; i < values.length; i++)
+			values[i] = 100.0 * island + replaced + i;
+		
+		return values;
+	}
+	
+	@NotNull
+	private static double[] merge(@NotNull double[] residents, @NotNull double... migrants) {
+		double[] values = Arrays.copyOf(residents, residents.length + migrants.length);
+		System.arraycopy(migrants, 0, values, residents.length, migrants.length);
+		Arrays.sort(values);
+		return values;
+	}
+	
+	/**
+	 * @return The sorted values of the individuals of the island.
+	 */
+	@NotNull
+	private static double[] values(@NotNull Archipelago<Double> archipelago, int island) {
+		Population<Double> population = archipelago.getIslands().get(island);
+		double[] values = new double[population.getIndividuals().size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = valueOf(population.getIndividuals().get(i));
+		
+		Arrays.sort(values);
+		return values;
+	}
+	
+	private static double valueOf(@NotNull Individual<Double> individual) {
+		return ((DoubleChromosome) individual.getChromosomes().get(0)).get(0);
+	}
+	
+	/**
+	 * @return No executor (the islands are evolved one after another), then a thread pool.
+	 */
+	@NotNull
+	private static List<ExecutorService> executors() {
+		return Arrays.asList(null, Executors.newFixedThreadPool(ISLANDS));
+	}
+	
+	private static void shutdown(@Nullable ExecutorService executor) {
+		if (executor != null)
+			executor.shutdown();
+	}
+}
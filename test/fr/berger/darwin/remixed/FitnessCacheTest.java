@@ -0,0 +1,202 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.remixed.listeners.DataListener;
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+
+class FitnessCacheTest {
+
+	@Test
+	void hitsAndMisses() {
+		FitnessCache<Integer> cache = new FitnessCache<>(4);
+		Individual<Integer> individual = createIndividual(1, 2, 3);
+		
+		Assertions.assertNull(cache.get(individual));
+		Assertions.assertEquals(1L, cache.getMisses());
+		
+		cache.put(individual, 6.0);
+		Assertions.assertEquals(Double.valueOf(6.0), cache.get(individual));
+		Assertions.assertEquals(1L, cache.getHits());
+		
+		// The genome is the key, not the individual
+		Assertions.assertEquals(Double.valueOf(6.0), cache.get(createIndividual(1, 2, 3)));
+		Assertions.assertNull(cache.get(createIndividual(3, 2, 1)));
+		Assertions.assertEquals(2L, cache.getHits());
+		Assertions.assertEquals(2L, cache.getMisses());
+		Assertions.assertEquals(1, cache.size());
+	}
+	
+	@Test
+	void eviction() {
+		FitnessCache<Integer> cache = new FitnessCache<>(2);
+		cache.put(createIndividual(1), 1.0);
+		cache.put(createIndividual(2), 2.0);
+		
+		// The first genome becomes the most recently used, so the second one is evicted
+		Assertions.assertEquals(Double.valueOf(1.0), cache.get(createIndividual(1)));
+		cache.put(createIndividual(3), 3.0);
+		
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertEquals(Double.valueOf(1.0), cache.get(createIndividual(1)));
+		Assertions.assertEquals(Double.valueOf(3.0), cache.get(createIndividual(3)));
+		Assertions.assertNull(cache.get(createIndividual(2)));
+	}
+	
+	@Test
+	void invalidation() {
+		FitnessCache<Integer> cache = new FitnessCache<>(16);
+		Individual<Integer> individual = createIndividual(1, 2, 3);
+		cache.get(individual);
+		cache.put(individual, 6.0);
+		
+		// Gene
+		Gene<Integer> gene = individual.getChromosomes().get(0).getGenes().get(1);
+		gene.setData(5);
+		Assertions.assertNull(cache.get(individual));
+		gene.setData(2);
+		Assertions.assertEquals(Double.valueOf(6.0), cache.get(individual));
+		
+		// Genes of a chromosome
+		individual.getChromosomes().get(0).getGenes().add(new Gene<>(4));
+		Assertions.assertNull(cache.get(individual));
+		cache.put(individual, 10.0);
+		
+		// Chromosomes of the individual
+		individual.getChromosomes().add(new Chromosome<>(new Gene<>(0)));
+		Assertions.assertNull(cache.get(individual));
+		
+		// Mutation of a primitive chromosome, which is not notified
+		FitnessCache<Double> doubles = new FitnessCache<>(16);
+		Individual<Double> mutated = new Individual<>(new DoubleChromosome(1.0, 2.0, 3.0));
+		doubles.get(mutated);
+		doubles.put(mutated, 1.0);
+		Assertions.assertEquals(Double.valueOf(1.0), doubles.get(mutated));
+		
+		((DoubleChromosome) mutated.getChromosomes().get(0)).mutate(new SplitMixRandom(1L), 1.0, 1.0);
+		Assertions.assertNull(doubles.get(mutated));
+	}
+	
+	@Test
+	void release() {
+		FitnessCache<Integer> first = new FitnessCache<>(16);
+		Individual<Integer> individual = createIndividual(1, 2, 3);
+		first.put(individual, 6.0);
+		// One tracker per gene
+		Assertions.assertEquals(3, countTrackers(individual));
+		
+		// Another cache replaces the tracker of the first one
+		FitnessCache<Integer> second = new FitnessCache<>(16);
+		Assertions.assertNull(second.get(individual));
+		Assertions.assertEquals(3, countTrackers(individual));
+		
+		second.release(individual);
+		Assertions.assertNull(individual.getFitnessTracker());
+		Assertions.assertEquals(0, countTrackers(individual));
+		Assertions.assertTrue(individual.getChromosomesListeners().isEmpty());
+		
+		// The fitness stays in the cache
+		Assertions.assertEquals(Double.valueOf(6.0), first.get(individual));
+	}
+	
+	@Test
+	void populationReleasesDroppedIndividuals() {
+		Mutable<Double> sphere = new Mutable<Double>() {
+			
+			@Override
+			public double calculateFitness(@NotNull Individual<Double> individual) {
+				double fitness = 0.0;
+				for (double value : ((DoubleChromosome) individual.getChromosomes().get(0)).peekValues())
+					fitness -= value * value;
+				
+				return fitness;
+			}
+			
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual, @NotNull Random random) {
+				Individual<Double> mutant = individual.copy();
+				((DoubleChromosome) mutant.getChromosomes().get(0)).mutate(random, 0.5, 0.5);
+				return mutant;
+			}
+			
+			@Override
+			public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+				ArrayList<Individual<Double>> children = new ArrayList<>(2);
+				children.add(parent1.copy());
+				children.add(parent2.copy());
+				return children;
+			}
+			
+			@Override
+			public Individual<Double> generateRandom() {
+				throw new UnsupportedOperationException();
+			}
+		};
+		
+		Random random = new SplitMixRandom(42L);
+		ArrayList<Individual<Double>> individuals = new ArrayList<>();
+		for (int i = 0; i < 20; i++)
+			individuals.add(new Individual<>(new DoubleChromosome(random.nextGaussian(), random.nextGaussian())));
+		
+		Population<Double> population = new Population<>(new ArrayList<>(individuals), 20, 0.2f, 0.5f, 0.5f, sphere, new SplitMixRandom(1L));
+		population.setFitnessCache(new FitnessCache<>(1024));
+		for (int generation = 0; generation < 10; generation++)
+			population.evolve();
+		
+		Set<Individual<Double>> survivors = Collections.newSetFromMap(new IdentityHashMap<>());
+		survivors.addAll(population.getIndividuals());
+		
+		int dropped = 0;
+		for (Individual<Double> individual : individuals) {
+			if (!survivors.contains(individual)) {
+				Assertions.assertNull(individual.getFitnessTracker());
+				dropped++;
+			}
+		}
+		Assertions.assertTrue(dropped > 0);
+		
+		for (Individual<Double> survivor : survivors)
+			Assertions.assertNotNull(survivor.getFitnessTracker());
+		
+		// The previous cache releases the population when it is replaced
+		population.setFitnessCache(null);
+		for (Individual<Double> survivor : survivors)
+			Assertions.assertNull(survivor.getFitnessTracker());
+	}
+	
+	@NotNull
+	private static Individual<Integer> createIndividual(@NotNull int... values) {
+		Chromosome<Integer> chromosome = new Chromosome<>();
+		for (int value : values)
+			chromosome.getGenes().add(new Gene<>(value));
+		
+		return new Individual<>(chromosome);
+	}
+	
+	/**
+	 * @return The number of fitness trackers listening to the genes of the individual.
+	 */
+	private static int countTrackers(@NotNull Individual<Integer> individual) {
+		int count = 0;
+		for (Chromosome<Integer> chromosome : individual.getChromosomes())
+			for (Gene<Integer> gene : chromosome.getGenes())
+				for (DataListener<Integer> listener : gene.getDataListeners())
+					if (listener instanceof FitnessCache.Tracker)
+						count++;
+		
+		return count;
+	}
+}
@@ -0,0 +1,144 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+class FitnessSelectionTest {
+
+	private final Random random = new SplitMixRandom(42L);
+	
+	@Test
+	void select() {
+		for (int n : new int[] { 1, 2, 3, 10, 257 }) {
+			for (int run = 0; run < 20; run++) {
+				double[] fitnesses = new double[n];
+				for (int i = 0; i < n; i++)
+					fitnesses[i] = random.nextGaussian();
+				
+				for (int k : new int[] { 0, n / 2, n - 1 })
+					assertSelected(fitnesses, k);
+			}
+		}
+	}
+	
+	@Test
+	void selectAllEqual() {
+		double[] fitnesses = new double[100];
+		Arrays.fill(fitnesses, 3.0);
+		
+		for (int k : new int[] { 0, 50, 99 })
+			assertSelected(fitnesses, k);
+	}
+	
+	@Test
+	void selectDuplicates() {
+		double[] fitnesses = new double[1000];
+		for (int i = 0; i < fitnesses.length; i++)
+			fitnesses[i] = random.nextInt(3);
+		
+		for (int k = 0; k < fitnesses.length; k += 37)
+			assertSelected(fitnesses, k);
+		assertSelected(fitnesses, fitnesses.length - 1);
+	}
+	
+	@Test
+	void selectNaN() {
+		// NaN is ordered as Double.compare does: after every other value, including the positive infinity
+		double[] fitnesses = { 1.0, Double.NaN, -2.0, Double.POSITIVE_INFINITY, Double.NaN, 0.5, Double.NEGATIVE_INFINITY, -0.0, 0.0 };
+		
+		for (int k = 0; k < fitnesses.length; k++)
+			assertSelected(fitnesses, k);
+	}
+	
+	@Test
+	void selectOutOfBounds() {
+		List<Individual<Double>> individuals = createIndividuals(1.0, 2.0);
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> FitnessSelection.select(individuals, -1));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> FitnessSelection.select(individuals, 2));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> FitnessSelection.select(new ArrayList<Individual<Double>>(), 0));
+	}
+	
+	@Test
+	void moveFittestToEnd() {
+		double[][] cases = {
+				{ },
+				{ 1.0 },
+				{ 3.0, 1.0, 2.0 },
+				{ 2.0, 2.0, 2.0 },
+				{ 1.0, 3.0, 3.0, 0.0 },
+				{ Double.NaN, 1.0, Double.POSITIVE_INFINITY },
+		};
+		
+		for (double[] fitnesses : cases) {
+			List<Individual<Double>> individuals = createIndividuals(fitnesses);
+			List<Individual<Double>> original = new ArrayList<>(individuals);
+			FitnessSelection.moveFittestToEnd(individuals);
+			
+			assertPermutation(original, individuals);
+			if (!individuals.isEmpty())
+				Assertions.assertEquals(sorted(fitnesses)[fitnesses.length - 1], individuals.get(individuals.size() - 1).getFitness());
+		}
+	}
+	
+	/**
+	 * Check {@link FitnessSelection#select(List, int)} against a full sort.
+	 */
+	private static void assertSelected(@NotNull double[] fitnesses, int k) {
+		List<Individual<Double>> individuals = createIndividuals(fitnesses);
+		List<Individual<Double>> original = new ArrayList<>(individuals);
+		FitnessSelection.select(individuals, k);
+		
+		assertPermutation(original, individuals);
+		
+		double[] sorted = sorted(fitnesses);
+		double selected = individuals.get(k).getFitness();
+		Assertions.assertEquals(0, Double.compare(sorted[k], selected), "k = " + k);
+		
+		for (int i = 0; i < k; i++)
+			Assertions.assertTrue(Double.compare(individuals.get(i).getFitness(), selected) <= 0);
+		for (int i = k + 1; i < individuals.size(); i++)
+			Assertions.assertTrue(Double.compare(individuals.get(i).getFitness(), selected) >= 0);
+	}
+	
+	/**
+	 * Check that the selection only moved the individuals.
+	 */
+	private static void assertPermutation(@NotNull List<Individual<Double>> expected, @NotNull List<Individual<Double>> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		
+		Set<Individual<Double>> individuals = Collections.newSetFromMap(new IdentityHashMap<>());
+		individuals.addAll(expected);
+		for (Individual<Double> individual : actual)
+			Assertions.assertTrue(individuals.remove(individual));
+	}
+	
+	@NotNull
+	private static double[] sorted(@NotNull double[] fitnesses) {
+		// Arrays.sort orders the values as Double.compare
+		double[] sorted = fitnesses.clone();
+		Arrays.sort(sorted);
+		return sorted;
+	}
+	
+	@NotNull
+	private static List<Individual<Double>> createIndividuals(@NotNull double... fitnesses) {
+		List<Individual<Double>> individuals = new ArrayList<>(fitnesses.length);
+		for (double fitness : fitnesses) {
+			Individual<Double> individual = new Individual<>(new DoubleChromosome(fitness));
+			individual.setFitness(fitness);
+			individuals.add(individual);
+		}
+		
+		return individuals;
+	}
+}
@@ -0,0 +1,56 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class IndividualTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void copyOnWrite() {
+		DoubleChromosome doubles = new DoubleChromosome(1.0, 2.0, 3.0);
+		IntChromosome ints = new IntChromosome(1, 2, 3);
+		BitChromosome bits = new BitChromosome(true, false, true);
+		// The class is given, so that chromosomes of different classes can be mixed
+		Lexicon<Chromosome<Object>> chromosomes = new Lexicon<>((Class<Chromosome<Object>>) (Class<?>) Chromosome.class, 3);
+		chromosomes.add((Chromosome<Object>) (Chromosome<?>) doubles);
+		chromosomes.add((Chromosome<Object>) (Chromosome<?>) ints);
+		chromosomes.add((Chromosome<Object>) (Chromosome<?>) bits);
+		Individual<Object> original = new Individual<>(chromosomes);
+		
+		Individual<Object> copy = original.copy();
+		DoubleChromosome copiedDoubles = (DoubleChromosome) (Chromosome<?>) copy.getChromosomes().get(0);
+		IntChromosome copiedInts = (IntChromosome) (Chromosome<?>) copy.getChromosomes().get(1);
+		BitChromosome copiedBits = (BitChromosome) (Chromosome<?>) copy.getChromosomes().get(2);
+		
+		// The storage is shared until a chromosome is written
+		Assertions.assertSame(doubles.peekValues(), copiedDoubles.peekValues());
+		Assertions.assertSame(ints.peekValues(), copiedInts.peekValues());
+		Assertions.assertSame(bits.peekWords(), copiedBits.peekWords());
+		
+		copiedDoubles.set(0, -1.0);
+		copiedInts.mutate(new Random(1L), 1.0, 10, 20);
+		bits.flip(1);
+		
+		Assertions.assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, doubles.peekValues());
+		Assertions.assertArrayEquals(new double[] { -1.0, 2.0, 3.0 }, copiedDoubles.peekValues());
+		Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, ints.peekValues());
+		for (int value : copiedInts.peekValues())
+			Assertions.assertTrue(10 <= value && value < 20);
+		Assertions.assertTrue(bits.get(1));
+		Assertions.assertFalse(copiedBits.get(1));
+		
+		// A mutation that changes nothing does not copy the storage
+		DoubleChromosome unchanged = doubles.copy();
+		unchanged.mutate(new Random(1L), 0.0, 1.0);
+		Assertions.assertSame(doubles.peekValues(), unchanged.peekValues());
+		
+		// The copy constructor copies the genome too
+		Individual<Object> constructed = new Individual<>(original);
+		((DoubleChromosome) (Chromosome<?>) constructed.getChromosomes().get(0)).set(2, 0.0);
+		Assertions.assertEquals(3.0, doubles.get(2));
+	}
+}
@@ -0,0 +1,144 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+class PopulationCodecTest {
+
+	@Test
+	void writeRead() throws IOException {
+		Random random = new Random(42);
+		Mutable<Object> mutable = new Mutable<Object>() {
+			@Override
+			public double calculateFitness(@NotNull Individual<Object> individual) {
+				return ((DoubleChromosome) (Chromosome<?>) individual.getChromosomes().get(0)).get(0);
+			}
+			
+			@Override
+			public Individual<Object> mutate(@NotNull Individual<Object> individual) {
+				return individual;
+			}
+			
+			@Override
+			public ArrayList<Individual<Object>> mate(@NotNull Individual<Object> parent1, @NotNull Individual<Object> parent2) {
+				return new ArrayList<>();
+			}
+			
+			@SuppressWarnings("unchecked")
+			@Override
+			public Individual<Object> generateRandom() {
+				double[] values = new double[8];
+				for (int i = 0; i < values.length; i++)
+					values[i] = random.nextGaussian();
+				
+				boolean[] bits = new boolean[1 + random.nextInt(130)];
+				for (int i = 0; i < bits.length; i++)
+					bits[i] = random.nextBoolean();
+				
+				Lexicon<Chromosome<Object>> chromosomes = new Lexicon<>((Class<Chromosome<Object>>) (Class<?>) Chromosome.class, 3);
+				chromosomes.add((Chromosome<Object>) (Chromosome<?>) new DoubleChromosome(values));
+				chromosomes.add((Chromosome<Object>) (Chromosome<?>) new IntChromosome(random.nextInt(), random.nextInt()));
+				chromosomes.add((Chromosome<Object>) (Chromosome<?>) new BitChromosome(bits));
+				return new Individual<>(chromosomes);
+			}
+		};
+		
+		Population<Object> population = new Population<>(new ArrayList<>(), 500, 0.25f, 0.05f, 0.75f, mutable);
+		population.evaluate();
+		population.setGeneration(17);
+		
+		Path path = Files.createTempFile("population", ".bin");
+		try {
+			PopulationCodec.write(population, path);
+			Population<Object> read = PopulationCodec.read(path, mutable);
+			
+			Assertions.assertEquals(500, read.getSize());
+			Assertions.assertEquals(0.25f, read.getElitismRate());
+			Assertions.assertEquals(0.05f, read.getMutationRate());
+			Assertions.assertEquals(0.75f, read.getCrossoverRate());
+			Assertions.assertEquals(17, read.getGeneration());
+			Assertions.assertEquals(population.getIndividuals().size(), read.getIndividuals().size());
+			
+			for (int i = 0; i < population.getIndividuals().size(); i++) {
+				Individual<Object> expected = population.getIndividuals().get(i);
+				Individual<Object> actual = read.getIndividuals().get(i);
+				
+				Assertions.assertEquals(expected.getId(), actual.getId());
+				Assertions.assertEquals(expected.getFitness(), actual.getFitness());
+				Assertions.assertEquals(expected.getChromosomes().size(), actual.getChromosomes().size());
+				for (int j = 0; j < expected.getChromosomes().size(); j++)
+					Assertions.assertEquals(expected.getChromosomes().get(j), actual.getChromosomes().get(j));
+			}
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	void streamGenes() throws IOException {
+		Mutable<String> mutable = new Mutable<String>() {
+			@Override
+			public double calculateFitness(@NotNull Individual<String> individual) {
+				return individual.getChromosomes().get(0).getGenes().size();
+			}
+			
+			@Override
+			public Individual<String> mutate(@NotNull Individual<String> individual) {
+				return individual;
+			}
+			
+			@Override
+			public ArrayList<Individual<String>> mate(@NotNull Individual<String> parent1, @NotNull Individual<String> parent2) {
+				return new ArrayList<>();
+			}
+			
+			@Override
+			public Individual<String> generateRandom() {
+				return new Individual<>(new Chromosome<>(new Gene<>("darwin", String.class)));
+			}
+		};
+		
+		ArrayList<Individual<String>> individuals = new ArrayList<>();
+		individuals.add(new Individual<>(new Chromosome<>(new Gene<>("a", String.class), new Gene<>("béta", String.class))));
+		individuals.add(new Individual<>(new Chromosome<>(new Gene<>(String.class))));
+		Population<String> population = new Population<>(individuals, 2, mutable);
+		
+		// A stream cannot be rewound: the number of individuals is not written
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (PopulationCodec.Writer<String> writer = new PopulationCodec.Writer<>(Channels.newChannel(bytes), PopulationCodec.Header.of(population, population), GeneCodec.STRING)) {
+			for (Individual<String> individual : population)
+				writer.write(individual);
+		}
+		
+		try (PopulationCodec.Reader<String> reader = new PopulationCodec.Reader<>(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), GeneCodec.STRING)) {
+			Assertions.assertEquals(PopulationCodec.UNKNOWN_COUNT, reader.getHeader().getCount());
+			Assertions.assertEquals(PopulationCodec.VARIABLE_LENGTH, reader.getHeader().getChromosomeLength(0));
+			
+			for (Individual<String> expected : population) {
+				Assertions.assertTrue(reader.hasNext());
+				Individual<String> actual = reader.next();
+				
+				Assertions.assertEquals(expected.getId(), actual.getId());
+				Assertions.assertEquals(expected.getChromosomes().get(0).getGenes().size(), actual.getChromosomes().get(0).getGenes().size());
+				for (int i = 0; i < expected.getChromosomes().get(0).getGenes().size(); i++)
+					Assertions.assertEquals(expected.getChromosomes().get(0).getGenes().get(i).getData(), actual.getChromosomes().get(0).getGenes().get(i).getData());
+			}
+			Assertions.assertFalse(reader.hasNext());
+		}
+		
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new PopulationCodec.Reader<>(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), GeneCodec.INTEGER));
+		Assertions.assertThrows(IOException.class, () -> new PopulationCodec.Reader<String>(Channels.newChannel(new ByteArrayInputStream(new byte[0])), null));
+	}
+}
@@ -1,6 +1,10 @@
 package fr.berger.darwin.remixed;
 
 import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.remixed.listeners.GenerationListener;
+import fr.berger.darwin.remixed.monitoring.PopulationMonitor;
+import fr.berger.darwin.remixed.termination.TerminationCondition;
+import fr.berger.darwin.util.SplitMixRandom;
 import fr.berger.enhancedlist.lexicon.Lexicon;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
@@ -8,9 +12,24 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class PopulationTest {
 	
@@ -135,4 +154,447 @@ class PopulationTest {
 		
 		Assertions.assertTrue(i == maxGeneration || Objects.equals(best.getChromosomes().get(0).getGenes().get(0).getData(), TARGET));
 	}
-}
\ No newline at end of file
+	
+	@Test
+	void test_run() {
+		RunStatistics statistics = population.run(TerminationCondition.evaluationBudget(10000));
+		Assertions.assertTrue(statistics.getEvaluations() >= 10000);
+		Assertions.assertEquals(statistics.getEvaluations(), population.getEvaluations());
+		Assertions.assertEquals(statistics.getGenerations(), population.getGeneration());
+		Assertions.assertNull(statistics.getLastGeneration());
+		
+		// Nothing is done if the condition is already met
+		Assertions.assertEquals(0, population.run(TerminationCondition.maxGenerations(0)).getGenerations());
+		
+		// The diversity is at most 1: the condition is met after the first generation, which is measured
+		statistics = population.run(TerminationCondition.diversityCollapse(1.01).or(TerminationCondition.maxGenerations(5)));
+		Assertions.assertEquals(1, statistics.getGenerations());
+		Assertions.assertNotNull(statistics.getLastGeneration());
+		Assertions.assertTrue(population.getGenerationListeners().isEmpty());
+		
+		statistics = population.run(TerminationCondition.stagnation(3).and(TerminationCondition.maxGenerations(2)));
+		Assertions.assertTrue(statistics.getStagnation() >= 3);
+		Assertions.assertTrue(statistics.getBestFitness() <= 0.0);
+		
+		// The fitness of the target sentence is 0: the run stops on it, or after the maximum number of generations
+		statistics = population.run(TerminationCondition.targetFitness(0.0).or(TerminationCondition.maxGenerations(20)));
+		Individual<String> best = population.getIndividuals().get(population.getIndividuals().size() - 1);
+		Assertions.assertEquals(best.getFitness(), statistics.getBestFitness());
+		Assertions.assertTrue(statistics.getElapsedTime(TimeUnit.NANOSECONDS) > 0L);
+		Assertions.assertTrue(statistics.getGenerations() == 20 || Objects.equals(best.getChromosomes().get(0).getGenes().get(0).getData(), TARGET));
+	}
+	
+	@Test
+	void test_generationListener() throws Exception {
+		ArrayList<GenerationStatistics> generations = new ArrayList<>();
+		population.addGenerationListener(generations::add);
+		PopulationMonitor monitor = new PopulationMonitor(population);
+		ObjectName name = monitor.register("PopulationTest");
+		
+		try {
+			for (int i = 0; i < 3; i++)
+				population.evolve();
+			
+			Assertions.assertEquals(3, generations.size());
+			Assertions.assertEquals(3L, population.getGeneration());
+			
+			GenerationStatistics last = generations.get(2);
+			Assertions.assertEquals(3L, last.getGeneration());
+			Assertions.assertEquals(population.getIndividuals().size(), last.getSize());
+			Assertions.assertTrue(last.getWorstFitness() <= last.getMeanFitness() && last.getMeanFitness() <= last.getBestFitness());
+			Assertions.assertEquals(population.getIndividuals().get(population.getIndividuals().size() - 1).getFitness(), last.getBestFitness());
+			Assertions.assertTrue(last.getDiversity() > 0.0 && last.getDiversity() <= 1.0);
+			Assertions.assertTrue(last.getFitnessEvaluations() > 0);
+			Assertions.assertTrue(last.getCrossovers() > 0);
+			Assertions.assertTrue(last.getEvaluationTime() > 0L);
+			
+			// The same values are exposed through JMX
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			Assertions.assertEquals(3L, server.getAttribute(name, "Generation"));
+			Assertions.assertEquals(last.getBestFitness(), server.getAttribute(name, "BestFitness"));
+		} finally {
+			monitor.unregister();
+		}
+	}
+	
+	@Test
+	void test_unmeasuredGenerationListener() {
+		ArrayList<GenerationStatistics> generations = new ArrayList<>();
+		population.addGenerationListener(new GenerationListener() {
+			@Override
+			public void onGeneration(GenerationStatistics statistics) {
+				generations.add(statistics);
+			}
+			
+			@Override
+			public boolean isMeasured() {
+				return false;
+			}
+		});
+		
+		population.evolve();
+		population.evolve();
+		
+		// Only the counters are given: the clock is not read and the diversity is not measured
+		GenerationStatistics last = generations.get(1);
+		Assertions.assertEquals(2L, last.getGeneration());
+		Assertions.assertEquals(population.getIndividuals().size(), last.getSize());
+		Assertions.assertTrue(last.getCrossovers() > 0);
+		Assertions.assertEquals(0L, last.getEvaluationTime());
+		Assertions.assertEquals(0.0, last.getDiversity());
+	}
+	
+	@Test
+	void test_seed() {
+		// The non-random variants must not be called: the population gives its generators
+		Mutable<Double> noisy = new Mutable<Double>() {
+			
+			@Override
+			public double calculateFitness(@NotNull Individual<Double> individual) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@Override
+			public double calculateFitness(@NotNull Individual<Double> individual, @NotNull Random random) {
+				double fitness = random.nextGaussian() * 0.01;
+				for (double value : ((DoubleChromosome) individual.getChromosomes().get(0)).getValues())
+					fitness -= value * value;
+				
+				return fitness;
+			}
+			
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual, @NotNull Random random) {
+				((DoubleChromosome) individual.getChromosomes().get(0)).mutate(random, 0.2, 0.5);
+				return individual;
+			}
+			
+			@Override
+			public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2, @NotNull Random random) {
+				DoubleChromosome genome1 = ((DoubleChromosome) parent1.getChromosomes().get(0)).copy();
+				DoubleChromosome genome2 = ((DoubleChromosome) parent2.getChromosomes().get(0)).copy();
+				genome1.swapTail(genome2, random.nextInt(genome1.length() + 1));
+				
+				ArrayList<Individual<Double>> children = new ArrayList<>(2);
+				children.add(new Individual<>(genome1));
+				children.add(new Individual<>(genome2));
+				return children;
+			}
+			
+			@Override
+			public Individual<Double> generateRandom() {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public Individual<Double> generateRandom(@NotNull Random random) {
+				double[] values = new double[8];
+				for (int i = 0; i < values.length; i++)
+					values[i] = random.nextGaussian() * 4.0;
+				
+				return new Individual<>(new DoubleChromosome(values));
+			}
+		};
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Population<Double> sequential = new Population<>(new ArrayList<>(), 128, 0.2f, 0.3f, 0.7f, noisy, new SplitMixRandom(42L));
+			Population<Double> concurrent = new Population<>(new ArrayList<>(), 128, 0.2f, 0.3f, 0.7f, noisy, new SplitMixRandom(42L));
+			concurrent.setEvaluationExecutor(executor);
+			Population<Double> other = new Population<>(new ArrayList<>(), 128, 0.2f, 0.3f, 0.7f, noisy, new SplitMixRandom(43L));
+			
+			for (int i = 0; i < 20; i++) {
+				sequential.evolve();
+				concurrent.evolve();
+				other.evolve();
+			}
+			
+			boolean different = false;
+			for (int i = 0; i < sequential.getIndividuals().size(); i++) {
+				double[] expected = ((DoubleChromosome) sequential.getIndividuals().get(i).getChromosomes().get(0)).getValues();
+				Assertions.assertArrayEquals(expected, ((DoubleChromosome) concurrent.getIndividuals().get(i).getChromosomes().get(0)).getValues());
+				Assertions.assertEquals(sequential.getIndividuals().get(i).getFitness(), concurrent.getIndividuals().get(i).getFitness());
+				different |= !Arrays.equals(expected, ((DoubleChromosome) other.getIndividuals().get(i).getChromosomes().get(0)).getValues());
+			}
+			Assertions.assertTrue(different);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	void test_recycling() {
+		// Identity of the individuals written by the crossovers
+		Set<Individual<Double>> children = Collections.newSetFromMap(new IdentityHashMap<>());
+		AtomicInteger crossovers = new AtomicInteger();
+		
+		RecyclingMutable<Double> sphere = new RecyclingMutable<Double>() {
+			
+			@Override
+			public double calculateFitness(@NotNull Individual<Double> individual) {
+				double fitness = 0.0;
+				for (double value : ((DoubleChromosome) individual.getChromosomes().get(0)).peekValues())
+					fitness -= value * value;
+				
+				return fitness;
+			}
+			
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual, @NotNull Random random) {
+				((DoubleChromosome) individual.getChromosomes().get(0)).mutate(random, 0.2, 0.5);
+				return individual;
+			}
+			
+			@Override
+			public void mateInto(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2, @NotNull Individual<Double> child1, @NotNull Individual<Double> child2, @NotNull Random random) {
+				DoubleChromosome genome1 = (DoubleChromosome) child1.getChromosomes().get(0);
+				DoubleChromosome genome2 = (DoubleChromosome) child2.getChromosomes().get(0);
+				genome1.copyFrom((DoubleChromosome) parent1.getChromosomes().get(0));
+				genome2.copyFrom((DoubleChromosome) parent2.getChromosomes().get(0));
+				genome1.swapTail(genome2, random.nextInt(genome1.length() + 1));
+				
+				children.add(child1);
+				children.add(child2);
+				crossovers.incrementAndGet();
+			}
+			
+			@Override
+			public Individual<Double> generateRandom() {
+				throw new UnsupportedOperationException();
+			}
+			
+			@NotNull
+			@Override
+			public Individual<Double> generateRandom(@NotNull Random random) {
+				double[] values = new double[8];
+				for (int i = 0; i < values.length; i++)
+					values[i] = random.nextGaussian() * 4.0;
+				
+				return new Individual<>(new DoubleChromosome(values));
+			}
+		};
+		
+		Population<Double> allocating = new Population<>(new ArrayList<>(), 128, 0.2f, 0.3f, 0.7f, sphere, new SplitMixRandom(42L));
+		allocating.setFitnessCache(new FitnessCache<>(1024));
+		Population<Double> recycling = new Population<>(new ArrayList<>(), 128, 0.2f, 0.3f, 0.7f, sphere, new SplitMixRandom(42L));
+		recycling.setFitnessCache(new FitnessCache<>(1024));
+		recycling.setRecycling(true);
+		
+		Lexicon<Individual<Double>> initial = recycling.getIndividuals();
+		for (int i = 0; i < 30; i++) {
+			allocating.evolve();
+			recycling.evolve();
+		}
+		
+		// The recycled individuals evolve exactly as the new ones
+		Assertions.assertEquals(allocating.getIndividuals().size(), recycling.getIndividuals().size());
+		for (int i = 0; i < allocating.getIndividuals().size(); i++) {
+			Individual<Double> expected = allocating.getIndividuals().get(i);
+			Individual<Double> actual = recycling.getIndividuals().get(i);
+			Assertions.assertArrayEquals(((DoubleChromosome) expected.getChromosomes().get(0)).peekValues(), ((DoubleChromosome) actual.getChromosomes().get(0)).peekValues());
+			Assertions.assertEquals(expected.getFitness(), actual.getFitness());
+		}
+		
+		// Both populations made the same crossovers: the allocating one wrote two new individuals for each of them, the
+		// recycling one mostly reused the discarded individuals
+		int recycledChildren = children.size() - crossovers.get();
+		Assertions.assertTrue(recycledChildren < crossovers.get() / 2);
+		
+		// The recycling population swaps between its two lists
+		Assertions.assertNotSame(initial, recycling.getIndividuals());
+		Lexicon<Individual<Double>> front = recycling.getIndividuals();
+		recycling.evolve();
+		Lexicon<Individual<Double>> back = recycling.getIndividuals();
+		recycling.evolve();
+		Assertions.assertNotSame(front, back);
+		Assertions.assertSame(front, recycling.getIndividuals());
+		
+		// The ids of the recycled individuals are renewed
+		Set<UUID> ids = new HashSet<>();
+		for (Individual<Double> individual : recycling)
+			Assertions.assertTrue(ids.add(individual.getId()));
+	}
+	
+	@Test
+	void test_asyncFitness() {
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		AtomicBoolean fail = new AtomicBoolean();
+		
+		AsyncMutable<Double> slow = new AsyncMutable<Double>() {
+			
+			@NotNull
+			@Override
+			public CompletableFuture<Double> calculateFitnessAsync(@NotNull Individual<Double> individual, @NotNull Random random) {
+				maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+				return CompletableFuture.supplyAsync(() -> {
+					try {
+						Thread.sleep(1);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					
+					inFlight.decrementAndGet();
+					if (fail.get())
+						throw new IllegalArgumentException("simulator crashed");
+					
+					return sumOfSquares(individual);
+				}, executor);
+			}
+			
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+				((DoubleChromosome) individual.getChromosomes().get(0)).mutate(new Random(), 0.2, 0.5);
+				return individual;
+			}
+			
+			@Override
+			public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+				ArrayList<Individual<Double>> children = new ArrayList<>(2);
+				children.add(parent1.copy());
+				children.add(parent2.copy());
+				return children;
+			}
+			
+			@Override
+			public Individual<Double> generateRandom(@NotNull Random random) {
+				double[] values = new double[4];
+				for (int i = 0; i < values.length; i++)
+					values[i] = random.nextGaussian();
+				
+				return new Individual<>(new DoubleChromosome(values));
+			}
+			
+			@Override
+			public Individual<Double> generateRandom() {
+				throw new UnsupportedOperationException();
+			}
+		};
+		
+		try {
+			Population<Double> population = new Population<>(new ArrayList<>(), 200, 0.2f, 0.3f, 0.7f, slow, new SplitMixRandom(42L));
+			population.setMaxPendingEvaluations(8);
+			population.evaluate();
+			population.evolve();
+			
+			// The evaluations are concurrent, but never more than the maximum
+			Assertions.assertTrue(maxInFlight.get() > 1);
+			Assertions.assertTrue(maxInFlight.get() <= 8);
+			for (Individual<Double> individual : population)
+				Assertions.assertEquals(sumOfSquares(individual), individual.getFitness());
+			
+			fail.set(true);
+			IllegalStateException ex = Assertions.assertThrows(IllegalStateException.class, population::evaluate);
+			Assertions.assertTrue(ex.getCause() instanceof IllegalArgumentException);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	void test_concurrentEvaluation() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		AtomicInteger calculated = new AtomicInteger();
+		AtomicBoolean fail = new AtomicBoolean();
+		
+		Mutable<Double> squares = new Mutable<Double>() {
+			
+			@Override
+			public double calculateFitness(@NotNull Individual<Double> individual) {
+				if (fail.get())
+					throw new IllegalArgumentException("simulator crashed");
+				
+				double fitness = sumOfSquares(individual);
+				calculated.incrementAndGet();
+				return fitness;
+			}
+			
+			@Override
+			public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@Override
+			public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@Override
+			public Individual<Double> generateRandom(@NotNull Random random) {
+				double[] values = new double[4];
+				for (int i = 0; i < values.length; i++)
+					values[i] = random.nextGaussian();
+				
+				return new Individual<>(new DoubleChromosome(values));
+			}
+			
+			@Override
+			public Individual<Double> generateRandom() {
+				throw new UnsupportedOperationException();
+			}
+		};
+		
+		try {
+			Population<Double> sequential = new Population<>(new ArrayList<>(), 500, 0.2f, 0.3f, 0.7f, squares, new SplitMixRandom(42L));
+			sequential.evaluate();
+			
+			Population<Double> concurrent = new Population<>(new ArrayList<>(), 500, 0.2f, 0.3f, 0.7f, squares, new SplitMixRandom(42L));
+			concurrent.setEvaluationExecutor(executor);
+			
+			// The listeners are only called once all the fitness values have been calculated, on the calling thread
+			Thread caller = Thread.currentThread();
+			AtomicBoolean early = new AtomicBoolean();
+			AtomicInteger notified = new AtomicInteger();
+			for (Individual<Double> individual : concurrent)
+				individual.addFitnessListener(fitness -> {
+					notified.incrementAndGet();
+					if (calculated.get() != 2 * concurrent.getIndividuals().size() || Thread.currentThread() != caller)
+						early.set(true);
+				});
+			
+			concurrent.evaluate();
+			Assertions.assertEquals(concurrent.getIndividuals().size(), notified.get());
+			Assertions.assertFalse(early.get());
+			
+			// The same fitness values as a sequential evaluation
+			Assertions.assertEquals(sequential.getIndividuals().size(), concurrent.getIndividuals().size());
+			for (int i = 0; i < sequential.getIndividuals().size(); i++)
+				Assertions.assertEquals(sequential.getIndividuals().get(i).getFitness(), concurrent.getIndividuals().get(i).getFitness());
+			
+			fail.set(true);
+			IllegalStateException ex = Assertions.assertThrows(IllegalStateException.class, concurrent::evaluate);
+			Assertions.assertTrue(ex.getCause() instanceof IllegalArgumentException);
+			Assertions.assertEquals("simulator crashed", ex.getCause().getMessage());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	private static double sumOfSquares(@NotNull Individual<Double> individual) {
+		double fitness = 0.0;
+		for (double value : ((DoubleChromosome) individual.getChromosomes().get(0)).getValues())
+			fitness -= value * value;
+		
+		return fitness;
+	}
+}
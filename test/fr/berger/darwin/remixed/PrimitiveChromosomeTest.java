@@ -0,0 +1,216 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.remixed.listeners.GenesListener;
+import fr.berger.darwin.util.SplitMixRandom;
+import fr.berger.enhancedlist.lexicon.Lexicon;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+class PrimitiveChromosomeTest {
+
+	@Test
+	void mutateBounds() {
+		Random random = new SplitMixRandom(42L);
+		IntChromosome ints = new IntChromosome(1000);
+		
+		ints.mutate(random, 1.0, -3, 4);
+		boolean[] drawn = new boolean[7];
+		for (int value : ints.peekValues()) {
+			Assertions.assertTrue(-3 <= value && value < 4);
+			drawn[value + 3] = true;
+		}
+		for (boolean value : drawn)
+			Assertions.assertTrue(value);
+		
+		// The range of the whole int type does not overflow
+		ints.mutate(random, 1.0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		int negatives = 0;
+		for (int value : ints.peekValues()) {
+			Assertions.assertTrue(value < Integer.MAX_VALUE);
+			if (value < 0)
+				negatives++;
+		}
+		Assertions.assertTrue(negatives > 400 && negatives < 600);
+		
+		ints.mutate(random, 1.0, Integer.MAX_VALUE - 1, Integer.MAX_VALUE);
+		for (int value : ints.peekValues())
+			Assertions.assertEquals(Integer.MAX_VALUE - 1, value);
+		
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ints.mutate(random, 1.0, 5, 5));
+		
+		// A rate of 0 changes nothing
+		DoubleChromosome doubles = new DoubleChromosome(1.0, 2.0, 3.0);
+		doubles.mutate(random, 0.0, 1.0);
+		Assertions.assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, doubles.peekValues());
+		BitChromosome bits = new BitChromosome(true, false, true);
+		bits.mutate(random, 1.0);
+		Assertions.assertEquals(new BitChromosome(false, true, false), bits);
+	}
+	
+	@Test
+	void swapTail() {
+		DoubleChromosome doubles = new DoubleChromosome(1.0, 2.0, 3.0, 4.0);
+		DoubleChromosome otherDoubles = new DoubleChromosome(5.0, 6.0, 7.0, 8.0);
+		doubles.swapTail(otherDoubles, 1);
+		Assertions.assertArrayEquals(new double[] { 1.0, 6.0, 7.0, 8.0 }, doubles.peekValues());
+		Assertions.assertArrayEquals(new double[] { 5.0, 2.0, 3.0, 4.0 }, otherDoubles.peekValues());
+		
+		IntChromosome ints = new IntChromosome(1, 2, 3);
+		IntChromosome otherInts = new IntChromosome(4, 5, 6);
+		ints.swapTail(otherInts, 3);
+		Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, ints.peekValues());
+		ints.swapTail(otherInts, 0);
+		Assertions.assertArrayEquals(new int[] { 4, 5, 6 }, ints.peekValues());
+		Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, otherInts.peekValues());
+		
+		// The tail spans several words
+		boolean[] values = new boolean[130];
+		boolean[] otherValues = new boolean[130];
+		for (int i = 0; i < values.length; i++)
+			otherValues[i] = true;
+		BitChromosome bits = new BitChromosome(values);
+		BitChromosome otherBits = new BitChromosome(otherValues);
+		bits.swapTail(otherBits, 60);
+		for (int i = 0; i < values.length; i++) {
+			Assertions.assertEquals(i >= 60, bits.get(i));
+			Assertions.assertEquals(i < 60, otherBits.get(i));
+		}
+		
+		// A copy sharing its array is not changed by the crossover of the original
+		IntChromosome copy = ints.copy();
+		ints.swapTail(otherInts, 1);
+		Assertions.assertArrayEquals(new int[] { 4, 5, 6 }, copy.peekValues());
+		
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ints.swapTail(new IntChromosome(1, 2), 0));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> ints.swapTail(otherInts, 4));
+	}
+	
+	@Test
+	void getValues() {
+		DoubleChromosome doubles = new DoubleChromosome(1.0, 2.0, 3.0);
+		DoubleChromosome copy = doubles.copy();
+		FitnessCache<Double> cache = new FitnessCache<>(16);
+		Individual<Double> individual = new Individual<>(doubles);
+		cache.put(individual, 1.0);
+		
+		// The arrays handed out are copies: writing them changes neither the chromosome, nor its copies, nor the cache
+		doubles.getValues()[0] = 5.0;
+		new IntChromosome(1, 2).getValues()[0] = 5;
+		BitChromosome bits = new BitChromosome(true, false);
+		bits.getWords()[0] = 0L;
+		Assertions.assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, doubles.peekValues());
+		Assertions.assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, copy.peekValues());
+		Assertions.assertTrue(bits.get(0));
+		Assertions.assertEquals(Double.valueOf(1.0), cache.get(individual));
+		
+		doubles.set(0, 5.0);
+		Assertions.assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, copy.peekValues());
+		Assertions.assertNull(cache.get(individual));
+		Assertions.assertEquals(Double.valueOf(1.0), cache.get(new Individual<>(copy)));
+	}
+	
+	@Test
+	void equalsAndHashCode() {
+		assertEqual(new DoubleChromosome(1.0, 2.0), new DoubleChromosome(1.0, 2.0));
+		assertEqual(new IntChromosome(1, 2), new IntChromosome(1, 2));
+		assertEqual(new BitChromosome(true, false), new BitChromosome(true, false));
+		
+		DoubleChromosome doubles = new DoubleChromosome(1.0, 2.0);
+		assertEqual(doubles, doubles.copy());
+		assertEqual(doubles, new DoubleChromosome(doubles));
+		
+		Assertions.assertNotEquals(new DoubleChromosome(1.0, 2.0), new DoubleChromosome(2.0, 1.0));
+		Assertions.assertNotEquals(new IntChromosome(1, 2), new IntChromosome(1, 2, 0));
+		Assertions.assertNotEquals(new BitChromosome(true, false), new BitChromosome(true, false, false));
+	}
+	
+	@Test
+	void copyListeners() {
+		int[] notifications = new int[1];
+		GenesListener<Integer> listener = genes -> notifications[0]++;
+		IntChromosome original = new IntChromosome(1, 2, 3);
+		original.addGenesListener(listener);
+		
+		// The copy starts with the listeners of the original, in its own list
+		IntChromosome copy = new IntChromosome(original);
+		Assertions.assertNotSame(original.getGenesListeners(), copy.getGenesListeners());
+		Assertions.assertEquals(original.getGenesListeners(), copy.getGenesListeners());
+		
+		copy.addGenesListener(genes -> { });
+		Assertions.assertEquals(1, original.getGenesListeners().size());
+		
+		DoubleChromosome doubles = new DoubleChromosome(1.0);
+		Assertions.assertNotSame(doubles.getGenesListeners(), new DoubleChromosome(doubles).getGenesListeners());
+		BitChromosome bits = new BitChromosome(true);
+		Assertions.assertNotSame(bits.getGenesListeners(), new BitChromosome(bits).getGenesListeners());
+	}
+	
+	@Test
+	void serialization() throws IOException, ClassNotFoundException {
+		Random random = new SplitMixRandom(42L);
+		double[] doubleValues = new double[100];
+		int[] intValues = new int[100];
+		boolean[] bitValues = new boolean[100];
+		for (int i = 0; i < 100; i++) {
+			doubleValues[i] = random.nextGaussian();
+			intValues[i] = random.nextInt();
+			bitValues[i] = random.nextBoolean();
+		}
+		
+		DoubleChromosome doubles = new DoubleChromosome(doubleValues);
+		IntChromosome ints = new IntChromosome(intValues);
+		BitChromosome bits = new BitChromosome(bitValues);
+		Assertions.assertEquals(doubles, roundTrip(doubles));
+		Assertions.assertEquals(ints, roundTrip(ints));
+		Assertions.assertEquals(bits, roundTrip(bits));
+		Assertions.assertEquals(new IntChromosome(), roundTrip(new IntChromosome()));
+		
+		// A deserialized chromosome owns its values
+		IntChromosome copy = roundTrip(ints.copy());
+		copy.set(0, intValues[0] + 1);
+		Assertions.assertEquals(intValues[0], ints.get(0));
+		
+		// The genome of an individual too
+		@SuppressWarnings("unchecked")
+		Lexicon<Chromosome<Object>> chromosomes = new Lexicon<>((Class<Chromosome<Object>>) (Class<?>) Chromosome.class, 3);
+		chromosomes.add(uncheckedCast(doubles));
+		chromosomes.add(uncheckedCast(ints));
+		chromosomes.add(uncheckedCast(bits));
+		Individual<Object> individual = roundTrip(new Individual<>(chromosomes));
+		Assertions.assertEquals(doubles, individual.getChromosomes().get(0));
+		Assertions.assertEquals(ints, individual.getChromosomes().get(1));
+		Assertions.assertEquals(bits, individual.getChromosomes().get(2));
+	}
+	
+	private static void assertEqual(@NotNull Object expected, @NotNull Object actual) {
+		Assertions.assertEquals(expected, actual);
+		Assertions.assertEquals(expected.hashCode(), actual.hashCode());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@NotNull
+	private static Chromosome<Object> uncheckedCast(@NotNull Chromosome<?> chromosome) {
+		return (Chromosome<Object>) chromosome;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@NotNull
+	private static <O> O roundTrip(@NotNull O object) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(object);
+		}
+		
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (O) input.readObject();
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package fr.berger.darwin.remixed;
+
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class SteadyStateEvolutionTest {
+
+	/**
+	 * Minimize the sum of the squares of 8 values.
+	 */
+	@NotNull
+	private final Mutable<Double> mutable = new Mutable<Double>() {
+		@Override
+		public double calculateFitness(@NotNull Individual<Double> individual) {
+			double fitness = 0.0;
+			for (double value : genome(individual).getValues())
+				fitness -= value * value;
+			
+			return fitness;
+		}
+		
+		@Override
+		public Individual<Double> mutate(@NotNull Individual<Double> individual, @NotNull Random random) {
+			genome(individual).mutate(random, 0.3, 0.5);
+			return individual;
+		}
+		
+		@Override
+		public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2, @NotNull Random random) {
+			DoubleChromosome genome1 = genome(parent1).copy();
+			DoubleChromosome genome2 = genome(parent2).copy();
+			genome1.swapTail(genome2, random.nextInt(genome1.length() + 1));
+			
+			ArrayList<Individual<Double>> children = new ArrayList<>(2);
+			children.add(new Individual<>(genome1));
+			children.add(new Individual<>(genome2));
+			return children;
+		}
+		
+		@Override
+		public Individual<Double> generateRandom(@NotNull Random random) {
+			double[] values = new double[8];
+			for (int i = 0; i < values.length; i++)
+				values[i] = random.nextGaussian() * 4.0;
+			
+			return new Individual<>(new DoubleChromosome(values));
+		}
+		
+		@Override
+		public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public Individual<Double> generateRandom() {
+			throw new UnsupportedOperationException();
+		}
+	};
+	
+	@Test
+	void step() {
+		SteadyStateEvolution<Double> first = evolve(new SplitMixRandom(3L));
+		SteadyStateEvolution<Double> second = evolve(new SplitMixRandom(3L));
+		
+		Assertions.assertEquals(100, first.getPopulation().getIndividuals().size());
+		Assertions.assertTrue(first.getEvaluations() >= 6000);
+		Assertions.assertTrue(first.getReplacements() > 0);
+		Assertions.assertTrue(best(first.getPopulation()) > -1.0);
+		assertLeastFit(first);
+		
+		// Without executor, the evolution only depends on the seed of the population
+		for (int i = 0; i < first.getPopulation().getIndividuals().size(); i++)
+			Assertions.assertArrayEquals(genome(first.getPopulation().getIndividuals().get(i)).getValues(), genome(second.getPopulation().getIndividuals().get(i)).getValues());
+	}
+	
+	@Test
+	void asynchronous() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Population<Double> population = new Population<>(new ArrayList<>(), 100, 0.2f, 0.3f, 0.7f, mutable, new SplitMixRandom(5L));
+			population.evaluate();
+			population.setEvaluationExecutor(executor);
+			
+			SteadyStateEvolution<Double> evolution = new SteadyStateEvolution<>(population, 2, 8);
+			double initial = best(population);
+			// The steps do not wait for the evaluations: most of them only insert the children that are ready
+			while (evolution.getEvaluations() < 3000) {
+				evolution.step();
+				Assertions.assertTrue(evolution.getPendingEvaluations() <= 9);
+			}
+			evolution.await();
+			
+			Assertions.assertEquals(0, evolution.getPendingEvaluations());
+			Assertions.assertEquals(100, population.getIndividuals().size());
+			Assertions.assertTrue(best(population) > initial);
+			assertLeastFit(evolution);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@NotNull
+	private SteadyStateEvolution<Double> evolve(@NotNull Random random) {
+		// The population starts half full: the first children are added instead of replacing the least fit individuals
+		Population<Double> population = new Population<>(new ArrayList<>(), 50, 0.2f, 0.3f, 0.7f, mutable, random);
+		population.evaluate();
+		population.setSize(100);
+		
+		SteadyStateEvolution<Double> evolution = new SteadyStateEvolution<>(population, 2, 1);
+		evolution.step(3000);
+		return evolution;
+	}
+	
+	private static void assertLeastFit(@NotNull SteadyStateEvolution<Double> evolution) {
+		Individual<Double> leastFit = evolution.getLeastFit();
+		Assertions.assertNotNull(leastFit);
+		for (Individual<Double> individual : evolution.getPopulation())
+			Assertions.assertTrue(leastFit.getFitness() <= individual.getFitness());
+	}
+	
+	private static double best(@NotNull Population<Double> population) {
+		double best = Double.NEGATIVE_INFINITY;
+		for (Individual<Double> individual : population)
+			best = Math.max(best, individual.getFitness());
+		
+		return best;
+	}
+	
+	@NotNull
+	private static DoubleChromosome genome(@NotNull Individual<Double> individual) {
+		Chromosome<Double> chromosome = individual.getChromosomes().get(0);
+		return (DoubleChromosome) chromosome;
+	}
+}
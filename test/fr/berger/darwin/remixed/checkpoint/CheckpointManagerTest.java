@@ -0,0 +1,173 @@
+package fr.berger.darwin.remixed.checkpoint;
+
+import fr.berger.beyondcode.util.Irregular;
+import fr.berger.darwin.remixed.Chromosome;
+import fr.berger.darwin.remixed.DoubleChromosome;
+import fr.berger.darwin.remixed.Individual;
+import fr.berger.darwin.remixed.Mutable;
+import fr.berger.darwin.remixed.Population;
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class CheckpointManagerTest {
+
+	/**
+	 * Only draws from the generators given by the population, so that it can be resumed exactly.
+	 */
+	@NotNull
+	private final Mutable<Double> mutable = new Mutable<Double>() {
+		@Override
+		public double calculateFitness(@NotNull Individual<Double> individual) {
+			double fitness = 0.0;
+			for (double value : genome(individual).peekValues())
+				fitness -= value * value;
+			
+			return fitness;
+		}
+		
+		@Override
+		public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public Individual<Double> mutate(@NotNull Individual<Double> individual, @NotNull Random random) {
+			genome(individual).mutate(random, 0.2, 0.5);
+			return individual;
+		}
+		
+		@Override
+		public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2, @NotNull Random random) {
+			DoubleChromosome genome1 = genome(parent1).copy();
+			DoubleChromosome genome2 = genome(parent2).copy();
+			genome1.swapTail(genome2, random.nextInt(genome1.length() + 1));
+			
+			ArrayList<Individual<Double>> children = new ArrayList<>(2);
+			children.add(new Individual<>(genome1));
+			children.add(new Individual<>(genome2));
+			return children;
+		}
+		
+		@Override
+		public Individual<Double> generateRandom() {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public Individual<Double> generateRandom(@NotNull Random random) {
+			double[] values = new double[6];
+			for (int i = 0; i < values.length; i++)
+				values[i] = random.nextGaussian() * 4.0;
+			
+			return new Individual<>(new DoubleChromosome(values));
+		}
+	};
+	
+	@Test
+	void resume() throws IOException, InterruptedException {
+		assertResumed(new SplitMixRandom(7L));
+		// A generator whose state is not known is serialized
+		assertResumed(new Random(7L));
+	}
+	
+	@Test
+	void sharedGenerator() throws IOException, InterruptedException {
+		Path directory = Files.createTempDirectory("checkpoints");
+		Population<Double> population = new Population<>(new ArrayList<>(), 16, 0.2f, 0.3f, 0.7f, mutable, new Random(7L));
+		Random expected = new Random(7L);
+		for (int i = 0; i < 16 * 6; i++)
+			expected.nextGaussian();
+		
+		try (CheckpointManager<Double> manager = new CheckpointManager<>(population, directory)) {
+			// A checkpoint neither draws from nor reseeds the generators
+			Irregular.getGenerator().setSeed(3L);
+			Assertions.assertTrue(manager.checkpoint());
+			manager.await();
+			
+			Assertions.assertNull(manager.getLastFailure());
+			Assertions.assertEquals(new Random(3L).nextLong(), Irregular.getGenerator().nextLong());
+			Assertions.assertEquals(expected.nextLong(), population.getRandom().nextLong());
+		} finally {
+			for (Path file : CheckpointManager.list(directory))
+				Files.delete(file);
+			Files.delete(directory);
+		}
+	}
+	
+	@Test
+	void resumeEmpty() throws IOException {
+		Path directory = Files.createTempDirectory("checkpoints");
+		try {
+			Assertions.assertNull(CheckpointManager.resume(directory, mutable));
+		} finally {
+			Files.delete(directory);
+		}
+	}
+	
+	private void assertResumed(@NotNull Random random) throws IOException, InterruptedException {
+		Path directory = Files.createTempDirectory("checkpoints");
+		try {
+			Population<Double> population = new Population<>(new ArrayList<>(), 64, 0.2f, 0.3f, 0.7f, mutable, random);
+			
+			CheckpointManager<Double> manager = new CheckpointManager<>(population, directory);
+			manager.setGenerationInterval(5);
+			manager.setRetention(2);
+			
+			for (int i = 0; i < 20; i++) {
+				population.evolve();
+				// The writes are awaited, so that no checkpoint is skipped
+				manager.await();
+			}
+			manager.close();
+			
+			Assertions.assertNull(manager.getLastFailure());
+			Assertions.assertEquals(4, manager.getWritten());
+			
+			List<Path> checkpoints = CheckpointManager.list(directory);
+			Assertions.assertEquals(2, checkpoints.size());
+			Assertions.assertEquals(checkpoints.get(1), manager.getLatest());
+			
+			// The original population goes on, then the checkpoint is resumed and does the same generations
+			for (int i = 0; i < 10; i++)
+				population.evolve();
+			
+			Population<Double> resumed = CheckpointManager.resume(directory, mutable);
+			Assertions.assertNotNull(resumed);
+			Assertions.assertEquals(20, resumed.getGeneration());
+			
+			for (int i = 0; i < 10; i++)
+				resumed.evolve();
+			
+			Assertions.assertEquals(population.getGeneration(), resumed.getGeneration());
+			Assertions.assertEquals(population.getIndividuals().size(), resumed.getIndividuals().size());
+			for (int i = 0; i < population.getIndividuals().size(); i++) {
+				Assertions.assertArrayEquals(genome(population.getIndividuals().get(i)).peekValues(), genome(resumed.getIndividuals().get(i)).peekValues());
+				Assertions.assertEquals(population.getIndividuals().get(i).getFitness(), resumed.getIndividuals().get(i).getFitness());
+			}
+		} finally {
+			for (Path file : CheckpointManager.list(directory))
+				Files.delete(file);
+			Files.delete(directory);
+		}
+	}
+	
+	@NotNull
+	private static DoubleChromosome genome(@NotNull Individual<Double> individual) {
+		Chromosome<Double> chromosome = individual.getChromosomes().get(0);
+		return (DoubleChromosome) chromosome;
+	}
+}
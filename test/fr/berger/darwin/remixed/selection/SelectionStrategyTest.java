@@ -0,0 +1,171 @@
+package fr.berger.darwin.remixed.selection;
+
+import fr.berger.darwin.remixed.DoubleChromosome;
+import fr.berger.darwin.remixed.Individual;
+import fr.berger.darwin.remixed.Mutable;
+import fr.berger.darwin.remixed.Population;
+import fr.berger.darwin.util.SplitMixRandom;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class SelectionStrategyTest {
+
+	private static final int DRAWS = 200000;
+	private static final double TOLERANCE = 0.01;
+	
+	/**
+	 * The fitness of an individual is the value of its chromosome.
+	 */
+	private static final Mutable<Double> VALUE = new Mutable<Double>() {
+		
+		@Override
+		public double calculateFitness(@NotNull Individual<Double> individual) {
+			return ((DoubleChromosome) individual.getChromosomes().get(0)).get(0);
+		}
+		
+		@Override
+		public Individual<Double> mutate(@NotNull Individual<Double> individual) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public ArrayList<Individual<Double>> mate(@NotNull Individual<Double> parent1, @NotNull Individual<Double> parent2) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public Individual<Double> generateRandom() {
+			throw new UnsupportedOperationException();
+		}
+	};
+	
+	@Test
+	void aliasTable() {
+		AliasTable table = new AliasTable();
+		SplitMixRandom random = new SplitMixRandom(42L);
+		
+		table.build(new double[] { 1.0, 2.0, 0.0, 3.0, 4.0 }, 5);
+		double[] frequencies = new double[5];
+		for (int i = 0; i < DRAWS; i++)
+			frequencies[table.draw(random)] += 1.0 / DRAWS;
+		assertFrequencies(new double[] { 0.1, 0.2, 0.0, 0.3, 0.4 }, frequencies);
+		
+		// Only the first weights are used, and null weights give a uniform distribution
+		table.build(new double[] { 0.0, 0.0, 5.0 }, 2);
+		frequencies = new double[3];
+		for (int i = 0; i < DRAWS; i++)
+			frequencies[table.draw(random)] += 1.0 / DRAWS;
+		assertFrequencies(new double[] { 0.5, 0.5, 0.0 }, frequencies);
+		
+		table.build(new double[] { 7.0 }, 1);
+		for (int i = 0; i < 100; i++)
+			Assertions.assertEquals(0, table.draw(random));
+	}
+	
+	@Test
+	void roulette() {
+		RouletteSelection<Double> roulette = new RouletteSelection<>();
+		
+		// Negative fitness values are shifted: the weights are 0, 2, 4 and 6
+		assertFrequencies(new double[] { 0.0, 2.0 / 12.0, 4.0 / 12.0, 6.0 / 12.0 }, frequencies(roulette, -3.0, -1.0, 1.0, 3.0));
+		assertFrequencies(new double[] { 0.25, 0.25, 0.25, 0.25 }, frequencies(roulette, -2.0, -2.0, -2.0, -2.0));
+		assertFrequencies(new double[] { 1.0 }, frequencies(roulette, -5.0));
+	}
+	
+	@Test
+	void rank() {
+		RankSelection<Double> rank = new RankSelection<>(1.5);
+		
+		// The weights are 0.5 + rank / 3, the fitness values only give the order
+		assertFrequencies(new double[] { 0.5 / 4.0, 1.5 / 4.0, (0.5 + 1.0 / 3.0) / 4.0, (0.5 + 2.0 / 3.0) / 4.0 }, frequencies(rank, -10.0, 1000.0, 0.0, 1.0));
+		
+		// The ties get the mean of their ranks: 0.5 and 2.5
+		assertFrequencies(new double[] { 1.0 / 6.0, 1.0 / 3.0, 1.0 / 6.0, 1.0 / 3.0 }, frequencies(rank, 1.0, 2.0, 1.0, 2.0));
+		assertFrequencies(new double[] { 0.25, 0.25, 0.25, 0.25 }, frequencies(rank, 3.0, 3.0, 3.0, 3.0));
+		assertFrequencies(new double[] { 1.0 }, frequencies(rank, 3.0));
+	}
+	
+	@Test
+	void stochasticUniversalSampling() {
+		StochasticUniversalSampling<Double> sampling = new StochasticUniversalSampling<>();
+		SplitMixRandom random = new SplitMixRandom(42L);
+		
+		// Each individual is selected its expected number of times, to one copy
+		for (int run = 0; run < 100; run++) {
+			assertCounts(new double[] { 0.0, 10.0, 20.0, 30.0 }, counts(sampling, 60, random, -1.0, 0.0, 1.0, 2.0));
+			assertCounts(new double[] { 15.0, 15.0, 15.0, 15.0 }, counts(sampling, 60, random, 4.0, 4.0, 4.0, 4.0));
+			assertCounts(new double[] { 60.0 }, counts(sampling, 60, random, 4.0));
+		}
+		
+		// The pointers are shuffled, but the selection is still proportionate
+		assertFrequencies(new double[] { 0.0, 1.0 / 6.0, 2.0 / 6.0, 3.0 / 6.0 }, frequencies(sampling, -1.0, 0.0, 1.0, 2.0));
+	}
+	
+	@Test
+	void tournament() {
+		// The winner of a tournament of 2 among 4 ranks r is drawn with a probability of (2r + 1) / 16
+		assertFrequencies(new double[] { 1.0 / 16.0, 5.0 / 16.0, 3.0 / 16.0, 7.0 / 16.0 }, frequencies(new TournamentSelection<>(2), 0.0, 2.0, 1.0, 3.0));
+		assertFrequencies(new double[] { 0.25, 0.25, 0.25, 0.25 }, frequencies(new TournamentSelection<>(2), 1.0, 1.0, 1.0, 1.0));
+		assertFrequencies(new double[] { 1.0 }, frequencies(new TournamentSelection<>(5), 1.0));
+		
+		// A tournament of 1 is a uniform draw
+		assertFrequencies(new double[] { 0.25, 0.25, 0.25, 0.25 }, frequencies(new TournamentSelection<>(1), 0.0, 2.0, 1.0, 3.0));
+	}
+	
+	/**
+	 * @return Individuals whose fitness are the given values.
+	 */
+	@NotNull
+	private static List<Individual<Double>> individuals(@NotNull double... fitnesses) {
+		ArrayList<Individual<Double>> individuals = new ArrayList<>(fitnesses.length);
+		for (double fitness : fitnesses)
+			individuals.add(new Individual<>(new DoubleChromosome(fitness)));
+		
+		new Population<>(new ArrayList<>(individuals), individuals.size(), 0f, 0f, 0f, VALUE, new SplitMixRandom(0L)).evaluate();
+		return individuals;
+	}
+	
+	@NotNull
+	private static double[] frequencies(@NotNull SelectionStrategy<Double> strategy, @NotNull double... fitnesses) {
+		int[] selection = new int[1000];
+		double[] frequencies = new double[fitnesses.length];
+		List<Individual<Double>> individuals = individuals(fitnesses);
+		SplitMixRandom random = new SplitMixRandom(42L);
+		
+		for (int run = 0; run < DRAWS / selection.length; run++) {
+			strategy.select(individuals, selection, random);
+			for (int index : selection)
+				frequencies[index] += 1.0 / DRAWS;
+		}
+		
+		return frequencies;
+	}
+	
+	@NotNull
+	private static double[] counts(@NotNull SelectionStrategy<Double> strategy, int length, @NotNull SplitMixRandom random, @NotNull double... fitnesses) {
+		int[] selection = new int[length];
+		double[] counts = new double[fitnesses.length];
+		strategy.select(individuals(fitnesses), selection, random);
+		
+		for (int index : selection)
+			counts[index]++;
+		
+		return counts;
+	}
+	
+	private static void assertFrequencies(@NotNull double[] expected, @NotNull double[] actual) {
+		Assertions.assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++)
+			Assertions.assertEquals(expected[i], actual[i], TOLERANCE, "index " + i);
+	}
+	
+	private static void assertCounts(@NotNull double[] expected, @NotNull double[] actual) {
+		Assertions.assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++)
+			Assertions.assertEquals(expected[i], actual[i], 1.0, "index " + i);
+	}
+}
@@ -0,0 +1,46 @@
+package fr.berger.darwin.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class IdentifiersTest {
+	
+	@Test
+	void unique() throws InterruptedException, ExecutionException {
+		UUID id = Identifiers.next();
+		Assertions.assertEquals(4, id.version());
+		Assertions.assertEquals(2, id.variant());
+		
+		// Each thread draws from its own blocks
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<UUID>>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					List<UUID> ids = new ArrayList<>();
+					for (int i = 0; i < 5000; i++)
+						ids.add(Identifiers.next());
+					return ids;
+				}));
+			}
+			
+			Set<UUID> ids = new HashSet<>();
+			ids.add(id);
+			for (Future<List<UUID>> future : futures)
+				for (UUID other : future.get())
+					Assertions.assertTrue(ids.add(other));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package fr.berger.darwin.util;
+
+import fr.berger.darwin.remixed.Gene;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+class NotificationsTest {
+	
+	@Test
+	@SuppressWarnings("try")
+	void quiet() {
+		Gene<Integer> first = new Gene<>(0);
+		Gene<Integer> second = new Gene<>(0);
+		ArrayList<Object> events = new ArrayList<>();
+		first.addObserver((observable, argument) -> events.add(argument));
+		second.addObserver((observable, argument) -> events.add(argument));
+		
+		first.setData(1);
+		Assertions.assertEquals(1, events.size());
+		events.clear();
+		
+		try (Notifications.Scope outer = Notifications.quiet()) {
+			try (Notifications.Scope inner = Notifications.quiet()) {
+				first.setData(2);
+				second.setData(3);
+				first.setData(4);
+			}
+			
+			// The inner scope does not send anything
+			Assertions.assertTrue(Notifications.isQuiet());
+			Assertions.assertTrue(events.isEmpty());
+		}
+		
+		// One event per object, with its last value, in the order of the first change
+		Assertions.assertFalse(Notifications.isQuiet());
+		Assertions.assertEquals(2, events.size());
+		Assertions.assertEquals(4, events.get(0));
+		Assertions.assertEquals(3, events.get(1));
+		
+		// The other threads are not quiet
+		events.clear();
+		try (Notifications.Scope scope = Notifications.quiet()) {
+			Thread thread = new Thread(() -> first.setData(5));
+			thread.start();
+			thread.join();
+			Assertions.assertEquals(1, events.size());
+		} catch (InterruptedException ex) {
+			Assertions.fail(ex);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package fr.berger.darwin.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SplitMixRandomTest {
+	
+	@Test
+	void reproducible() {
+		SplitMixRandom random1 = new SplitMixRandom(42L);
+		SplitMixRandom random2 = new SplitMixRandom(42L);
+		
+		for (int i = 0; i < 1000; i++) {
+			Assertions.assertEquals(random1.nextLong(), random2.nextLong());
+			Assertions.assertEquals(random1.nextGaussian(), random2.nextGaussian());
+			
+			double value = random1.nextDouble();
+			Assertions.assertTrue(value >= 0.0 && value < 1.0);
+			Assertions.assertEquals(value, random2.nextDouble());
+			
+			int bounded = random1.nextInt(7);
+			Assertions.assertTrue(bounded >= 0 && bounded < 7);
+			Assertions.assertEquals(bounded, random2.nextInt(7));
+		}
+		
+		random1.setSeed(42L);
+		Assertions.assertEquals(new SplitMixRandom(42L).nextLong(), random1.nextLong());
+		Assertions.assertNotEquals(new SplitMixRandom(43L).nextLong(), new SplitMixRandom(42L).nextLong());
+	}
+	
+	@Test
+	void split() {
+		SplitMixRandom parent = new SplitMixRandom(42L);
+		SplitMixRandom child1 = parent.split();
+		SplitMixRandom child2 = parent.split();
+		
+		// The splits of the same seed are the same, the splits of a generator are independent
+		SplitMixRandom sameParent = new SplitMixRandom(42L);
+		Assertions.assertEquals(sameParent.split().nextLong(), child1.nextLong());
+		Assertions.assertNotEquals(child1.nextLong(), child2.nextLong());
+	}
+	
+	@Test
+	void state() {
+		SplitMixRandom random = new SplitMixRandom(42L);
+		random.split();
+		random.nextGaussian();
+		
+		long[] state = random.getState();
+		long expected = random.nextLong();
+		
+		SplitMixRandom restored = new SplitMixRandom();
+		restored.setState(state);
+		Assertions.assertEquals(expected, restored.nextLong());
+	}
+}